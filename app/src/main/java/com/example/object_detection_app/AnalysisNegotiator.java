@@ -0,0 +1,157 @@
+package com.example.object_detection_app;
+
+import android.graphics.Rect;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+
+import com.example.object_detection_app.core.FramePreprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Picks the ImageAnalysis stream for the active model instead of a fixed
+// target size: the smallest camera resolution whose visible (viewport-cropped)
+// region still covers the model input, so no frame is bigger than the model
+// can use, and RGBA_8888 output where the pipeline can take it, so the
+// per-pixel YUV->RGB math leaves the Java preprocessor. Rotation is NOT done
+// by CameraX (that would be another full-frame pass); the rotation hint goes
+// into the preprocessor's lookup tables like before. The crop hint
+// (ImageProxy.getCropRect) is passed on as the pipeline's source crop.
+// The negotiated path is logged once, on the first frame.
+public class AnalysisNegotiator {
+    private static final String TAG = "AnalysisNegotiator";
+
+    public enum Path { RGBA, YUV }
+
+    // Upright visible region must reach this many pixels on the side(s) the
+    // scale mode samples; the model input size, or more for tiled mode
+    private final int requiredSide;
+    private final FramePreprocessor.ScaleMode scaleMode;
+    // Width / height of the visible region when upright, 0 = whole frame
+    private final float viewAspect;
+    private final Path path;
+
+    // What the camera actually delivers, filled on the first frame
+    private volatile String negotiated;
+
+    public AnalysisNegotiator(int requiredSide, FramePreprocessor.ScaleMode scaleMode,
+                              float viewAspect, boolean preferRgba) {
+        this.requiredSide = requiredSide;
+        this.scaleMode = scaleMode;
+        this.viewAspect = viewAspect;
+        this.path = preferRgba ? Path.RGBA : Path.YUV;
+    }
+
+    // Same resolution choice on the other output path (bind fallback)
+    public AnalysisNegotiator withPath(Path path) {
+        return new AnalysisNegotiator(requiredSide, scaleMode, viewAspect, path == Path.RGBA);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getRequiredSide() {
+        return requiredSide;
+    }
+
+    public ImageAnalysis.Builder newAnalysisBuilder() {
+        ImageAnalysis.Builder builder = new ImageAnalysis.Builder()
+                .setResolutionSelector(newResolutionSelector())
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .setOutputImageRotationEnabled(false);
+        builder.setOutputImageFormat(path == Path.RGBA
+                ? ImageAnalysis.OUTPUT_IMAGE_FORMAT_RGBA_8888
+                : ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888);
+        return builder;
+    }
+
+    private ResolutionSelector newResolutionSelector() {
+        return new ResolutionSelector.Builder()
+                // Native sensor aspect: full field of view, the viewport crops the rest
+                .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+                .setResolutionStrategy(ResolutionStrategy.HIGHEST_AVAILABLE_STRATEGY)
+                .setResolutionFilter(this::rank)
+                .build();
+    }
+
+    // CameraX takes the first size that works: covering sizes smallest first
+    // (4:3 first on ties), then the rest largest first as the closest miss
+    List<Size> rank(List<Size> supported, int rotationDegrees) {
+        List<Size> covering = new ArrayList<>();
+        List<Size> tooSmall = new ArrayList<>();
+        for (Size size : supported) {
+            if (covers(size, rotationDegrees)) {
+                covering.add(size);
+            } else {
+                tooSmall.add(size);
+            }
+        }
+        Collections.sort(covering, (a, b) -> {
+            long diff = area(a) - area(b);
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Boolean.compare(!isFourThree(a), !isFourThree(b));
+        });
+        Collections.sort(tooSmall, (a, b) -> Long.compare(area(b), area(a)));
+
+        List<Size> ranked = new ArrayList<>(covering);
+        ranked.addAll(tooSmall);
+        return ranked;
+    }
+
+    boolean covers(Size size, int rotationDegrees) {
+        boolean swapped = rotationDegrees % 180 != 0;
+        float width = swapped ? size.getHeight() : size.getWidth();
+        float height = swapped ? size.getWidth() : size.getHeight();
+        if (viewAspect > 0f) {
+            // Largest region of the view's aspect ratio, centered
+            if (width / height > viewAspect) {
+                width = height * viewAspect;
+            } else {
+                height = width / viewAspect;
+            }
+        }
+        // Letterbox fits the long side into the input, the others fill both sides
+        float side = scaleMode == FramePreprocessor.ScaleMode.LETTERBOX
+                ? Math.max(width, height) : Math.min(width, height);
+        return side >= requiredSide;
+    }
+
+    private static long area(Size size) {
+        return (long) size.getWidth() * size.getHeight();
+    }
+
+    private static boolean isFourThree(Size size) {
+        return size.getWidth() * 3 == size.getHeight() * 4
+                || size.getHeight() * 3 == size.getWidth() * 4;
+    }
+
+    // Camera executor thread
+    public void onFrame(ImageProxy imageProxy) {
+        if (negotiated != null) {
+            return;
+        }
+        Rect crop = imageProxy.getCropRect();
+        Path actual = ImageUtils.isRgba(imageProxy) ? Path.RGBA : Path.YUV;
+        negotiated = actual + (actual != path ? " (asked " + path + ")" : "")
+                + " " + imageProxy.getWidth() + "x" + imageProxy.getHeight()
+                + ", crop " + crop.width() + "x" + crop.height()
+                + ", rotation " + imageProxy.getImageInfo().getRotationDegrees();
+        Log.d(TAG, "📐 Analysis " + negotiated + ", needs " + requiredSide + "px " + scaleMode);
+    }
+
+    @Override
+    public String toString() {
+        String seen = negotiated;
+        return seen != null ? seen : path + " (no frame yet)";
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.object_detection_app;
+
+import android.content.ClipData;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.object_detection_app.core.DetectionCache;
+import com.google.android.material.button.MaterialButton;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Batch mode: pick some images or a whole folder and run detection over all
+// of them. Results stream to <external files>/batch/detections-<time>.jsonl,
+// one JSON object per image.
+public class BatchDetectionActivity extends AppCompatActivity {
+    private static final String TAG = "BatchDetectionActivity";
+
+    private static final int REQUEST_IMAGES = 1;
+    private static final int REQUEST_FOLDER = 2;
+
+    private static final String CACHE_FILE = "detections.cache";
+    private static final long CACHE_MEMORY_BYTES = 2L << 20;
+    private static final long CACHE_DISK_BYTES = 16L << 20;
+
+    private MaterialButton btnPickImages;
+    private MaterialButton btnPickFolder;
+    private MaterialButton btnCancel;
+    private ProgressBar progressBar;
+    private TextView tvStatus;
+
+    private DetectorPool detectorPool;
+    private DetectionCache resultCache;
+    private BatchDetector batchDetector;
+    private Writer batchOutput;
+    private File outputFile;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_batch);
+
+        btnPickImages = findViewById(R.id.btnPickImages);
+        btnPickFolder = findViewById(R.id.btnPickFolder);
+        btnCancel = findViewById(R.id.btnCancelBatch);
+        progressBar = findViewById(R.id.batchProgress);
+        tvStatus = findViewById(R.id.tvBatchStatus);
+
+        btnPickImages.setOnClickListener(v -> {
+            Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
+            intent.setType("image/*");
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
+            startActivityForResult(intent, REQUEST_IMAGES);
+        });
+
+        btnPickFolder.setOnClickListener(v ->
+                startActivityForResult(new Intent(Intent.ACTION_OPEN_DOCUMENT_TREE), REQUEST_FOLDER));
+
+        btnCancel.setOnClickListener(v -> {
+            if (batchDetector != null) {
+                batchDetector.cancel();
+                tvStatus.setText("Cancelling…");
+            }
+        });
+
+        setRunning(false);
+        btnPickImages.setEnabled(false);
+        btnPickFolder.setEnabled(false);
+        tvStatus.setText("Loading detectors…");
+
+        // One detector per worker pair, sized to the core count
+        new Thread(() -> {
+            try {
+                DetectorPool pool = DetectorPool.forAvailableCores(this);
+                DetectionCache cache = openResultCache(pool);
+                pool.setResultCache(cache);
+                runOnUiThread(() -> {
+                    if (isDestroyed()) {
+                        pool.close();
+                        if (cache != null) {
+                            cache.close();
+                        }
+                        return;
+                    }
+                    detectorPool = pool;
+                    resultCache = cache;
+                    setRunning(false);
+                    tvStatus.setText("Pick images or a folder to start");
+                });
+            } catch (IOException e) {
+                Log.e(TAG, "❌ Failed to create detector pool", e);
+                runOnUiThread(() -> tvStatus.setText("Failed to load model: " + e.getMessage()));
+            }
+        }, "batch-init").start();
+    }
+
+    // Re-scans of the same photos hit this instead of the model. A broken
+    // cache file only costs speed, so failures fall back to no cache.
+    private DetectionCache openResultCache(DetectorPool pool) {
+        try {
+            return new DetectionCache(pool.getCacheNamespace(), CACHE_MEMORY_BYTES,
+                    new File(getCacheDir(), CACHE_FILE), CACHE_DISK_BYTES);
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Result cache unavailable", e);
+            return null;
+        }
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode != RESULT_OK || data == null || detectorPool == null) {
+            return;
+        }
+
+        if (requestCode == REQUEST_IMAGES) {
+            List<Uri> images = new ArrayList<>();
+            ClipData clip = data.getClipData();
+            if (clip != null) {
+                for (int i = 0; i < clip.getItemCount(); i++) {
+                    images.add(clip.getItemAt(i).getUri());
+                }
+            } else if (data.getData() != null) {
+                images.add(data.getData());
+            }
+            startBatch(images);
+        } else if (requestCode == REQUEST_FOLDER && data.getData() != null) {
+            Uri tree = data.getData();
+            tvStatus.setText("Listing folder…");
+            // Listing a large folder through the provider can take a while
+            new Thread(() -> {
+                List<Uri> images = BatchDetector.listImages(getContentResolver(), tree);
+                runOnUiThread(() -> {
+                    if (!isDestroyed()) {
+                        startBatch(images);
+                    }
+                });
+            }, "batch-list").start();
+        }
+    }
+
+    private void startBatch(List<Uri> images) {
+        if (images.isEmpty()) {
+            tvStatus.setText("No images found");
+            return;
+        }
+
+        File dir = getExternalFilesDir("batch");
+        if (dir == null) {
+            Toast.makeText(this, "Storage not available", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        dir.mkdirs();
+        outputFile = new File(dir, "detections-" + System.currentTimeMillis() + ".jsonl");
+
+        try {
+            batchOutput = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(outputFile), Charset.forName("UTF-8")));
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Cannot create " + outputFile, e);
+            Toast.makeText(this, "Cannot create output file", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        progressBar.setMax(images.size());
+        progressBar.setProgress(0);
+        setRunning(true);
+        tvStatus.setText("Processing " + images.size() + " images…");
+
+        batchDetector = new BatchDetector(getContentResolver(), detectorPool, batchOutput,
+                new BatchDetector.Listener() {
+                    @Override
+                    public void onProgress(int done, int failed, int total) {
+                        runOnUiThread(() -> {
+                            progressBar.setProgress(done + failed);
+                            tvStatus.setText((done + failed) + " / " + total +
+                                    (failed > 0 ? " (" + failed + " failed)" : ""));
+                        });
+                    }
+
+                    @Override
+                    public void onFinished(int done, int failed, boolean cancelled) {
+                        closeOutput();
+                        if (resultCache != null) {
+                            Log.d(TAG, "📊 Cache " + resultCache.getStats());
+                        }
+                        runOnUiThread(() -> {
+                            if (isDestroyed()) {
+                                return;
+                            }
+                            setRunning(false);
+                            tvStatus.setText((cancelled ? "🛑 Cancelled after " : "✅ Finished ") +
+                                    done + " images" + (failed > 0 ? ", " + failed + " failed" : "") +
+                                    "\n" + outputFile.getAbsolutePath());
+                        });
+                    }
+                });
+        batchDetector.start(images);
+    }
+
+    private void setRunning(boolean running) {
+        btnPickImages.setEnabled(!running);
+        btnPickFolder.setEnabled(!running);
+        btnCancel.setEnabled(running);
+    }
+
+    private synchronized void closeOutput() {
+        if (batchOutput != null) {
+            try {
+                batchOutput.close();
+            } catch (IOException e) {
+                Log.w(TAG, "⚠️ Failed to close batch output", e);
+            }
+            batchOutput = null;
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        BatchDetector batch = batchDetector;
+        DetectorPool pool = detectorPool;
+        DetectionCache cache = resultCache;
+        if (batch != null && batch.isRunning()) {
+            batch.cancel();
+        }
+        if (pool != null) {
+            // Let in-flight images finish before their detectors are closed
+            new Thread(() -> {
+                while (batch != null && batch.isRunning()) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                pool.close();
+                if (cache != null) {
+                    cache.close();
+                }
+            }, "batch-close").start();
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.object_detection_app;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the detector over a set of still images instead of the camera.
+// Images are decoded with inSampleSize so the bitmap is only a little larger
+// than the model input, then handed to a worker that checks a
+// detector out of the DetectorPool. Each result is written as one JSON line
+// as soon as it is ready, so memory use does not grow with the set size.
+// In-flight work is bounded by a semaphore: the feeder blocks once every
+// worker is busy and a short queue is full.
+public class BatchDetector {
+    private static final String TAG = "BatchDetector";
+
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".webp", ".bmp", ".heic"};
+
+    public interface Listener {
+        // Called from worker threads; post to the UI thread yourself
+        void onProgress(int done, int failed, int total);
+
+        void onFinished(int done, int failed, boolean cancelled);
+    }
+
+    private final ContentResolver resolver;
+    private final DetectorPool pool;
+    private final Writer output;
+    private final Listener listener;
+
+    // Model input side, from the pool's model
+    private final int inputSize;
+    private final int workerCount;
+    private final Semaphore inFlight;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private volatile Thread feeder;
+    private volatile ExecutorService workers;
+    private volatile int total;
+
+    // True only while the feeder is blocked waiting for an in-flight slot,
+    // the one place cancel() may interrupt it. Guarded by feederLock.
+    private final Object feederLock = new Object();
+    private boolean waitingForSlot;
+
+    public BatchDetector(ContentResolver resolver, DetectorPool pool, Writer output, Listener listener) {
+        this.resolver = resolver;
+        this.pool = pool;
+        this.output = output;
+        this.listener = listener;
+        inputSize = pool.getModelSpec().getInputSize();
+
+        // Two workers per detector: one decodes the next image while the
+        // other holds the detector, so the interpreters never sit idle on I/O
+        workerCount = pool.size() * 2;
+        inFlight = new Semaphore(workerCount * 2);
+    }
+
+    // Starts processing on a background feeder thread and returns immediately
+    public synchronized void start(List<Uri> images) {
+        if (feeder != null) {
+            throw new IllegalStateException("Batch already started");
+        }
+        total = images.size();
+        workers = Executors.newFixedThreadPool(workerCount);
+        feeder = new Thread(() -> run(images), "batch-feeder");
+        feeder.start();
+    }
+
+    // Stops feeding new images; images already being processed still finish
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            synchronized (feederLock) {
+                if (waitingForSlot) {
+                    feeder.interrupt();
+                }
+            }
+            Log.d(TAG, "🛑 Batch cancelled");
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    // Running until every worker has finished, so the pool's detectors and
+    // the output stay in use until then even after cancel()
+    public boolean isRunning() {
+        ExecutorService running = workers;
+        return running != null && !running.isTerminated();
+    }
+
+    public int getDone() {
+        return done.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    private void run(List<Uri> images) {
+        ExecutorService workers = this.workers;
+        long start = System.nanoTime();
+        Log.d(TAG, "🚀 Batch of " + images.size() + " images on " + workerCount + " workers, "
+                + pool.size() + " detectors");
+
+        try {
+            for (int i = 0; i < images.size() && !cancelled.get(); i++) {
+                acquireSlot();
+                if (cancelled.get()) {
+                    inFlight.release();
+                    break;
+                }
+                final int index = i;
+                final Uri uri = images.get(i);
+                workers.execute(() -> {
+                    try {
+                        processOne(index, uri);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            // cancel() interrupts the feeder while it waits for a free slot
+        } finally {
+            workers.shutdown();
+            // Workers may still be writing results: the output is only flushed
+            // and the listener told once all of them are done
+            boolean interrupted = false;
+            while (!workers.isTerminated()) {
+                try {
+                    if (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                        Log.d(TAG, "⏳ Waiting for " + (done.get() + failed.get()) + "/" + total);
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
+
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Log.d(TAG, "✅ Batch finished in " + ms + " ms: " + done.get() + " done, "
+                + failed.get() + " failed" + (cancelled.get() ? " (cancelled)" : ""));
+        Log.d(TAG, "📊 " + pool.getStats());
+        listener.onFinished(done.get(), failed.get(), cancelled.get());
+    }
+
+    private void acquireSlot() throws InterruptedException {
+        synchronized (feederLock) {
+            if (cancelled.get()) {
+                throw new InterruptedException("Batch cancelled");
+            }
+            waitingForSlot = true;
+        }
+        try {
+            inFlight.acquire();
+        } finally {
+            synchronized (feederLock) {
+                waitingForSlot = false;
+                // A cancel() racing the wake-up may have interrupted us after
+                // acquire() returned; cancelled is checked next, so drop it
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void processOne(int index, Uri uri) {
+        if (cancelled.get()) {
+            return;
+        }
+
+        Bitmap bitmap = null;
+        ObjectDetector detector = null;
+        try {
+            long decodeStart = System.nanoTime();
+            BitmapFactory.Options bounds = readBounds(uri);
+            bitmap = decodeSampled(uri, bounds);
+            if (bitmap == null) {
+                throw new IOException("Not a decodable image");
+            }
+            long decodeNanos = System.nanoTime() - decodeStart;
+
+            detector = pool.acquire(30, TimeUnit.SECONDS);
+            if (detector == null) {
+                throw new IOException("No detector became free");
+            }
+            long inferStart = System.nanoTime();
+            List<ObjectDetector.Recognition> results = detector.recognizeImage(bitmap);
+            long inferNanos = System.nanoTime() - inferStart;
+
+            // Format while we still own the detector; its results may be reused
+            String line = toJsonLine(index, uri, bounds.outWidth, bounds.outHeight,
+                    decodeNanos, inferNanos, inputSize, results);
+            pool.release(detector);
+            detector = null;
+
+            writeLine(line);
+            done.incrementAndGet();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Log.w(TAG, "⚠️ " + uri + " failed: " + e.getMessage());
+            writeLine(errorLine(index, uri, e));
+            failed.incrementAndGet();
+        } finally {
+            if (detector != null) {
+                pool.release(detector);
+            }
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+        }
+        listener.onProgress(done.get(), failed.get(), total);
+    }
+
+    private BitmapFactory.Options readBounds(Uri uri) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = open(uri)) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unreadable image header");
+        }
+        return options;
+    }
+
+    private Bitmap decodeSampled(Uri uri, BitmapFactory.Options bounds) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(bounds.outWidth, bounds.outHeight, inputSize);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        try (InputStream in = open(uri)) {
+            return BitmapFactory.decodeStream(in, null, options);
+        }
+    }
+
+    private InputStream open(Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Cannot open " + uri);
+        }
+        return in;
+    }
+
+    // Largest power of two that keeps both sides at or above the target, so
+    // the final scale to the model input is always a downscale
+    static int sampleSizeFor(int width, int height, int target) {
+        int sample = 1;
+        while (width / (sample * 2) >= target && height / (sample * 2) >= target) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private void writeLine(String line) {
+        synchronized (output) {
+            try {
+                output.write(line);
+                output.write('\n');
+                // Flush per line so a crash or cancel leaves a readable prefix
+                output.flush();
+            } catch (IOException e) {
+                Log.e(TAG, "❌ Failed to write result, cancelling", e);
+                cancel();
+            }
+        }
+    }
+
+    private void flush() {
+        synchronized (output) {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                Log.w(TAG, "⚠️ Flush failed", e);
+            }
+        }
+    }
+
+    // Boxes come back in model input pixels; they are written normalized to
+    // 0..1 so they apply to the original image at any resolution
+    private static String toJsonLine(int index, Uri uri, int width, int height,
+                                     long decodeNanos, long inferNanos, int inputSize,
+                                     List<ObjectDetector.Recognition> results) {
+        StringBuilder sb = new StringBuilder(128 + results.size() * 96);
+        sb.append("{\"index\":").append(index)
+                .append(",\"uri\":\"").append(escape(String.valueOf(uri))).append('"')
+                .append(",\"width\":").append(width)
+                .append(",\"height\":").append(height)
+                .append(",\"decodeMs\":").append(format(decodeNanos / 1e6f))
+                .append(",\"inferMs\":").append(format(inferNanos / 1e6f))
+                .append(",\"detections\":[");
+
+        RectF box = new RectF();
+        for (int i = 0; i < results.size(); i++) {
+            ObjectDetector.Recognition recognition = results.get(i);
+            recognition.getLocation(box);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"label\":\"").append(escape(recognition.getTitle())).append('"')
+                    .append(",\"classId\":").append(recognition.getClassId())
+                    .append(",\"confidence\":").append(format(recognition.getConfidence()))
+                    .append(",\"box\":[")
+                    .append(format(clamp(box.left / inputSize))).append(',')
+                    .append(format(clamp(box.top / inputSize))).append(',')
+                    .append(format(clamp(box.right / inputSize))).append(',')
+                    .append(format(clamp(box.bottom / inputSize))).append("]}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String errorLine(int index, Uri uri, Exception e) {
+        return "{\"index\":" + index +
+                ",\"uri\":\"" + escape(String.valueOf(uri)) + "\"" +
+                ",\"error\":\"" + escape(String.valueOf(e.getMessage())) + "\"}";
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+
+    private static String format(float value) {
+        return String.format(Locale.US, "%.4f", value);
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Image files directly inside a directory, sorted by name
+    public static List<Uri> listImages(File directory) {
+        List<Uri> images = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return images;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isFile() && isImageName(file.getName())) {
+                images.add(Uri.fromFile(file));
+            }
+        }
+        return images;
+    }
+
+    // Image documents directly inside a folder picked with ACTION_OPEN_DOCUMENT_TREE
+    public static List<Uri> listImages(ContentResolver resolver, Uri treeUri) {
+        List<Uri> images = new ArrayList<>();
+        Uri children = DocumentsContract.buildChildDocumentsUriUsingTree(treeUri,
+                DocumentsContract.getTreeDocumentId(treeUri));
+        String[] projection = {
+                DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+                DocumentsContract.Document.COLUMN_MIME_TYPE,
+                DocumentsContract.Document.COLUMN_DISPLAY_NAME
+        };
+
+        try (Cursor cursor = resolver.query(children, projection, null, null, null)) {
+            if (cursor == null) {
+                return images;
+            }
+            while (cursor.moveToNext()) {
+                String mimeType = cursor.getString(1);
+                String name = cursor.getString(2);
+                if ((mimeType != null && mimeType.startsWith("image/"))
+                        || (name != null && isImageName(name))) {
+                    images.add(DocumentsContract.buildDocumentUriUsingTree(treeUri, cursor.getString(0)));
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "❌ Failed to list " + treeUri, e);
+        }
+        return images;
+    }
+
+    private static boolean isImageName(String name) {
+        String lower = name.toLowerCase(Locale.US);
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,48 +1,64 @@
 package com.example.object_detection_app;
 
 import android.Manifest;
+import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.ImageFormat;
-import android.graphics.Matrix;
-import android.graphics.Rect;
-import android.graphics.YuvImage;
-import android.media.Image;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
 import android.util.Log;
 import android.util.Size;
+import android.view.MotionEvent;
+import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.OptIn;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ExperimentalGetImage;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.UseCaseGroup;
+import androidx.camera.core.ViewPort;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
+import com.example.object_detection_app.core.BoundedRing;
+import com.example.object_detection_app.core.DetectionBatch;
+import com.example.object_detection_app.core.DetectionPipeline;
+import com.example.object_detection_app.core.DetectionRefiner;
+import com.example.object_detection_app.core.FrameAnalyzer;
+import com.example.object_detection_app.core.FrameRecordWriter;
+import com.example.object_detection_app.core.LabelMap;
+import com.example.object_detection_app.core.PerfStats;
+import com.example.object_detection_app.core.RegionOfInterest;
+import com.example.object_detection_app.core.TiledDetector;
+import com.example.object_detection_app.core.TraceBuffer;
+import com.example.object_detection_app.core.Tracer;
 import com.google.common.util.concurrent.ListenableFuture;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.util.Collections;
-import java.util.HashSet;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @OptIn(markerClass = ExperimentalGetImage.class)
 public class CameraActivity extends AppCompatActivity {
@@ -51,32 +67,103 @@ public class CameraActivity extends AppCompatActivity {
 
     // UI Components
     private PreviewView previewView;
+    private ProcessCameraProvider cameraProvider;
+    // Analysis resolution and format for the bound camera (see bindCamera)
+    private AnalysisNegotiator analysisNegotiator;
     private TextView resultTextView;
     private TextView statusTextView;
     private TextView historyTextView;
     private Button toggleButton;
     private Button backButton;
     private Button debugButton;
+    private Button modelButton;
+    private TextView perfOverlay;
 
     // Camera & Detection
     private ExecutorService cameraExecutor;
-    private ObjectDetector objectDetector;
+    // Read by the pipeline's dispatch thread; replaced on a model switch
+    private volatile ObjectDetector objectDetector;
+    private DetectionPipeline detectionPipeline;
+    private static final int PIPELINE_DEPTH = 1;
+
+    // Model hot-swap: how long in-flight frames get to finish on the old model
+    private static final long MODEL_SWAP_TIMEOUT_MS = 2000;
+    private boolean switchingModel = false;
+
+    // Tiled high-resolution mode (Settings): overlapping windows of a larger
+    // analysis frame, each on its own interpreter, plus a global pass
+    private static final String PREFS_NAME = "ObjectDetectionPrefs";
+    private static final String KEY_TILED = "tiled_detection";
+    // Tiles need a larger analysis frame than a single model input
+    private static final int TILED_MIN_SIDE = 720;
+    private static final int TILE_SIZE = 480;
+    private static final float TILE_OVERLAP = 0.15f;
+    private static final int TILE_WORKERS = 3;
+    private boolean tiledMode = false;
+
+    // Region of interest (Settings): only a window of the frame goes to the
+    // model, centered or moved by tapping the preview
+    private static final String KEY_ROI = "roi_detection";
+    private static final String KEY_ROI_X = "roi_center_x";
+    private static final String KEY_ROI_Y = "roi_center_y";
+    private static final float ROI_FRACTION = 0.6f;
+    private boolean roiMode = false;
+
+    // Zoom-in confirmation of uncertain detections (Settings), within a
+    // per-frame inference budget
+    private static final String KEY_REFINE = "refine_detection";
+    private static final long REFINE_BUDGET_MS = 120;
+    private static final int REFINE_MAX_PASSES = 2;
+    private static final float REFINE_ZOOM = 2f;
+    private boolean refineMode = false;
+    private DetectionRefiner detectionRefiner;
+    private DetectorPool tilePool;
+    private TiledDetector tiledDetector;
 
     // TTS
     private TextToSpeech textToSpeech;
     private boolean isVoiceEnabled = true;
     private boolean isTTSReady = false;
+    private static final float SPEECH_RATE = 1.0f;
+    // Pre-synthesized announcements, live TTS covers what is not cached yet
+    private UtteranceCache utteranceCache;
 
     // State
     private boolean isDetecting = false;
-    private Set<String> detectedObjects = new HashSet<>();
-    private int detectionCount = 0;
-    private long lastDetectionTime = 0;
-    private static final long DETECTION_COOLDOWN = 1500; // 1.5 seconds
     private float confidenceThreshold = 0.50f;
 
+    // Rate control, scene-change gate and tracking (shared with the replay harness)
+    private FrameAnalyzer frameAnalyzer;
+
+    // Detections handed to the UI thread, coalesced to one per display frame
+    private ResultPresenter resultPresenter;
+
+    // Debug: raw camera frames for off-device replay (long-press Debug)
+    private volatile FrameRecordWriter frameRecorder;
+
+    // Stage latency histograms, shown live in the debug overlay
+    private final PerfStats perfStats = new PerfStats();
+    private final Handler overlayHandler = new Handler(Looper.getMainLooper());
+    private static final long OVERLAY_REFRESH_MS = 500;
+    private final Runnable overlayUpdater = new Runnable() {
+        @Override
+        public void run() {
+            perfOverlay.setText(buildDebugText());
+            overlayHandler.postDelayed(this, OVERLAY_REFRESH_MS);
+        }
+    };
+    private static final TraceBuffer TRACE = Tracer.get();
+    private static final int TRACE_SPEAK = TRACE.register("tts.speak");
+    private static final int TRACE_SPEECH_START = TRACE.register("tts.start");
+
+    // Speech latency: speak() call -> audio start
+    private volatile String pendingUtteranceId;
+    private volatile long pendingUtteranceNanos;
+    private int utteranceCounter = 0;
+
     // Voice control
     private String lastSpokenObject = "";
+    private int lastSpokenTrackId = -1;
     private long lastSpeechTime = 0;
     private static final long SPEECH_COOLDOWN = 3000; // 3 seconds between same object announcement
 
@@ -91,6 +178,10 @@ public class CameraActivity extends AppCompatActivity {
         checkPermissions();
 
         cameraExecutor = Executors.newSingleThreadExecutor();
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        tiledMode = prefs.getBoolean(KEY_TILED, false);
+        roiMode = prefs.getBoolean(KEY_ROI, false);
+        refineMode = prefs.getBoolean(KEY_REFINE, false);
     }
 
     private void initializeViews() {
@@ -101,12 +192,53 @@ public class CameraActivity extends AppCompatActivity {
         toggleButton = findViewById(R.id.toggle_button);
         backButton = findViewById(R.id.back_button);
         debugButton = findViewById(R.id.debug_button);
+        modelButton = findViewById(R.id.model_button);
+        perfOverlay = findViewById(R.id.perf_overlay);
+        resultPresenter = new ResultPresenter(resultTextView, historyTextView, perfStats,
+                this::onResultsPresented)
+                .setConfidenceThreshold(confidenceThreshold);
     }
 
     private void setupButtons() {
         backButton.setOnClickListener(v -> finish());
         debugButton.setOnClickListener(v -> showDebugInfo());
+        debugButton.setOnLongClickListener(v -> {
+            toggleRecording();
+            return true;
+        });
         toggleButton.setOnClickListener(v -> toggleDetection());
+        modelButton.setOnClickListener(v -> showModelPicker());
+        perfOverlay.setOnClickListener(v -> exportPerfStats());
+        previewView.setOnTouchListener((v, event) -> {
+            if (!roiMode) {
+                return false;
+            }
+            if (event.getAction() == MotionEvent.ACTION_UP) {
+                moveRegionOfInterest(event.getX() / v.getWidth(), event.getY() / v.getHeight());
+                v.performClick();
+            }
+            return true;
+        });
+    }
+
+    // x, y: fractions of the preview, which shows the viewport-cropped frame
+    private void moveRegionOfInterest(float x, float y) {
+        getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit()
+                .putFloat(KEY_ROI_X, x)
+                .putFloat(KEY_ROI_Y, y)
+                .apply();
+        if (detectionPipeline != null) {
+            RegionOfInterest roi = RegionOfInterest.around(x, y, ROI_FRACTION);
+            detectionPipeline.setRegionOfInterest(roi);
+            Log.d(TAG, "🎯 Region of interest " + roi);
+        }
+        Toast.makeText(this, "Focus region moved", Toast.LENGTH_SHORT).show();
+    }
+
+    private RegionOfInterest savedRegionOfInterest() {
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        return RegionOfInterest.around(prefs.getFloat(KEY_ROI_X, 0.5f),
+                prefs.getFloat(KEY_ROI_Y, 0.5f), ROI_FRACTION);
     }
 
     private void initializeTTS() {
@@ -121,7 +253,13 @@ public class CameraActivity extends AppCompatActivity {
                 } else {
                     isTTSReady = true;
                     // Set speech rate slightly faster for better experience
-                    textToSpeech.setSpeechRate(1.0f);
+                    textToSpeech.setSpeechRate(SPEECH_RATE);
+                    textToSpeech.setOnUtteranceProgressListener(speechTimer);
+                    if (!isDestroyed()) {
+                        utteranceCache = new UtteranceCache(this, Locale.US,
+                                textToSpeech.getVoice(), SPEECH_RATE);
+                        prepareUtterances();
+                    }
                     Log.d(TAG, "✅ TTS initialized successfully");
                 }
             } else {
@@ -132,6 +270,33 @@ public class CameraActivity extends AppCompatActivity {
         });
     }
 
+    // Needs both the TTS voice and the model's labels, whichever comes last
+    private void prepareUtterances() {
+        ObjectDetector detector = objectDetector;
+        if (utteranceCache != null && detector != null) {
+            utteranceCache.prepare(detector.getLabelMap());
+        }
+    }
+
+    private final UtteranceProgressListener speechTimer = new UtteranceProgressListener() {
+        @Override
+        public void onStart(String utteranceId) {
+            TRACE.instant(TRACE_SPEECH_START);
+            if (utteranceId.equals(pendingUtteranceId)) {
+                perfStats.record(PerfStats.Stage.TTS, System.nanoTime() - pendingUtteranceNanos);
+                pendingUtteranceId = null;
+            }
+        }
+
+        @Override
+        public void onDone(String utteranceId) {
+        }
+
+        @Override
+        public void onError(String utteranceId) {
+        }
+    };
+
     private void checkPermissions() {
         if (allPermissionsGranted()) {
             initializeDetector();
@@ -166,16 +331,213 @@ public class CameraActivity extends AppCompatActivity {
     }
 
     private void initializeDetector() {
-        try {
+        DetectorHolder holder = DetectorHolder.get(this);
+        if (!holder.isReady()) {
             statusTextView.setText("Loading model...");
-            objectDetector = new ObjectDetector(this);
-            statusTextView.setText("Model loaded • Ready to detect");
-            startCamera();
-        } catch (IOException e) {
-            statusTextView.setText("Model load failed");
-            Log.e(TAG, "Model load failed", e);
-            Toast.makeText(this, "Failed to load detection model", Toast.LENGTH_LONG).show();
         }
+
+        // Shared, already warmed-up detector (normally preloaded during the splash)
+        holder.whenReady(new DetectorHolder.Callback() {
+            @Override
+            public void onReady(ObjectDetector detector) {
+                if (isDestroyed()) {
+                    return;
+                }
+                objectDetector = detector;
+                detectionPipeline = new DetectionPipeline(objectDetector,
+                        objectDetector.getDecoder(), PIPELINE_DEPTH,
+                        BoundedRing.DropPolicy.DROP_OLDEST,
+                        (batch, timestampNanos, latencyNanos) -> {
+                            // The batch is recycled after this call: track it in
+                            // place, the presenter copies out what the UI needs
+                            int topTrackId = frameAnalyzer.onResults(batch, latencyNanos,
+                                    System.currentTimeMillis());
+                            resultPresenter.submit(batch, objectDetector.getLabelMap(), topTrackId);
+                        });
+                detectionPipeline.setTimingListener(perfStats.asTimingListener());
+                if (roiMode) {
+                    detectionPipeline.setRegionOfInterest(savedRegionOfInterest());
+                }
+                if (refineMode) {
+                    // Candidates the decoder kept but the UI would not show
+                    detectionRefiner = new DetectionRefiner()
+                            .setScoreRange(objectDetector.getDecoder().getMinConfidence(),
+                                    confidenceThreshold)
+                            .setZoom(REFINE_ZOOM)
+                            .setMaxPasses(REFINE_MAX_PASSES)
+                            .setBudget(TimeUnit.MILLISECONDS.toNanos(REFINE_BUDGET_MS));
+                    detectionPipeline.setRefiner(detectionRefiner);
+                }
+                frameAnalyzer = FrameAnalyzer.withDefaults(detectionPipeline, confidenceThreshold);
+                detectionPipeline.start();
+                prepareUtterances();
+                statusTextView.setText("Model " + detector.getModelSpec().getName()
+                        + " loaded • Ready to detect");
+                if (tiledMode) {
+                    startTiledMode();
+                }
+                startCamera();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                if (isDestroyed()) {
+                    return;
+                }
+                statusTextView.setText("Model load failed");
+                Log.e(TAG, "Model load failed", error);
+                Toast.makeText(CameraActivity.this, "Failed to load detection model",
+                        Toast.LENGTH_LONG).show();
+                // Allow a retry next time the screen opens
+                holder.preload();
+            }
+        });
+    }
+
+    // Builds the tile interpreters off the main thread; until they are ready
+    // the pipeline keeps running single-pass on the shared detector
+    private void startTiledMode() {
+        ObjectDetector owner = objectDetector;
+        new Thread(() -> {
+            try {
+                DetectorPool pool = new DetectorPool(this, TILE_WORKERS,
+                        Math.max(1, Runtime.getRuntime().availableProcessors() / TILE_WORKERS));
+                List<ObjectDetector> backends = new ArrayList<>();
+                for (int i = 0; i < pool.size(); i++) {
+                    backends.add(pool.acquire(0, TimeUnit.MILLISECONDS));
+                }
+                TiledDetector tiled = new TiledDetector(backends, owner.getDecoder())
+                        .setTileSize(TILE_SIZE)
+                        .setOverlap(TILE_OVERLAP)
+                        .setGlobalPass(true);
+                runOnUiThread(() -> {
+                    // A model switch while building makes these tiles stale
+                    if (isDestroyed() || detectionPipeline == null || owner != objectDetector) {
+                        tiled.close();
+                        pool.close();
+                        return;
+                    }
+                    tilePool = pool;
+                    tiledDetector = tiled;
+                    detectionPipeline.setTiledDetector(tiled);
+                    Log.d(TAG, "🧩 Tiled mode: " + TILE_WORKERS + " interpreters, " + TILE_SIZE + "px tiles");
+                });
+            } catch (IOException | InterruptedException e) {
+                Log.e(TAG, "Tiled mode unavailable, staying single-pass", e);
+            }
+        }, "tiled-init").start();
+    }
+
+    private void showModelPicker() {
+        if (detectionPipeline == null || switchingModel) {
+            Toast.makeText(this, "Model not ready yet", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        List<ModelRegistry.Entry> models = ModelRegistry.get(this).getEntries();
+        String current = objectDetector.getModelSpec().getName();
+        CharSequence[] names = new CharSequence[models.size()];
+        int checked = -1;
+        for (int i = 0; i < models.size(); i++) {
+            names[i] = models.get(i).getName();
+            if (names[i].equals(current)) {
+                checked = i;
+            }
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Detection Model")
+                .setSingleChoiceItems(names, checked, (dialog, which) -> {
+                    dialog.dismiss();
+                    if (!models.get(which).getName().equals(current)) {
+                        switchModel(models.get(which));
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // Hot-swaps the model under the running camera: the new detector is built
+    // and warmed up off the main thread while the old one keeps detecting,
+    // then the pipeline drains its in-flight frames, switches and resumes.
+    // The camera stays bound; frames arriving during the drain are skipped.
+    private void switchModel(ModelRegistry.Entry model) {
+        switchingModel = true;
+        statusTextView.setText("Loading " + model.getName() + "...");
+        DetectorHolder.get(this).loadModel(model, new DetectorHolder.Callback() {
+            @Override
+            public void onReady(ObjectDetector detector) {
+                if (isDestroyed() || detectionPipeline == null) {
+                    detector.close();
+                    return;
+                }
+                swapDetector(detector);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                switchingModel = false;
+                if (isDestroyed()) {
+                    return;
+                }
+                statusTextView.setText("Model switch failed");
+                Toast.makeText(CameraActivity.this, "Could not load " + model.getName(),
+                        Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void swapDetector(ObjectDetector detector) {
+        DetectionPipeline pipeline = detectionPipeline;
+        // Draining blocks until the current inference finishes: not on the UI thread
+        new Thread(() -> {
+            boolean swapped;
+            try {
+                swapped = pipeline.swapBackend(detector, detector.getDecoder(),
+                        MODEL_SWAP_TIMEOUT_MS, TimeUnit.MILLISECONDS, () -> {
+                            // Nothing in flight: tiles belong to the old model,
+                            // and tracks and labels restart with the new one
+                            pipeline.setTiledDetector(null);
+                            objectDetector = detector;
+                            frameAnalyzer.reset();
+                        });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                swapped = false;
+            }
+
+            boolean done = swapped;
+            runOnUiThread(() -> {
+                switchingModel = false;
+                if (!done) {
+                    detector.close();
+                    statusTextView.setText("Model switch timed out");
+                    return;
+                }
+                ObjectDetector previous = DetectorHolder.get(this).replace(detector);
+                if (previous != null && previous != detector) {
+                    previous.close();
+                }
+                Log.d(TAG, "🔄 Switched to " + detector.getModelSpec());
+                if (isDestroyed()) {
+                    return;
+                }
+                statusTextView.setText("Model: " + detector.getModelSpec().getName());
+                prepareUtterances();
+                if (tiledDetector != null) {
+                    // Rebuild the tile interpreters on the new model
+                    tiledDetector.close();
+                    tilePool.close();
+                    tiledDetector = null;
+                    tilePool = null;
+                    startTiledMode();
+                }
+                if (analysisNegotiator != null && analysisNegotiator.getRequiredSide()
+                        != newAnalysisNegotiator(true).getRequiredSide()) {
+                    // Different input size: renegotiate the analysis resolution
+                    rebindCamera();
+                }
+            });
+        }, "model-swap").start();
     }
 
     private void startCamera() {
@@ -199,69 +561,94 @@ public class CameraActivity extends AppCompatActivity {
         }, ContextCompat.getMainExecutor(this));
     }
 
+    // The analysis stream is negotiated from the active model: smallest
+    // resolution covering its input, RGBA output unless recording (the
+    // recorder stores YUV planes). Devices that refuse RGBA get YUV.
     private void bindCamera(ProcessCameraProvider cameraProvider) {
+        this.cameraProvider = cameraProvider;
         Preview preview = new Preview.Builder()
                 .setTargetResolution(new Size(640, 480))
                 .build();
         preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
+        AnalysisNegotiator negotiator = newAnalysisNegotiator(frameRecorder == null);
+        if (!tryBind(cameraProvider, preview, negotiator)) {
+            if (negotiator.getPath() != AnalysisNegotiator.Path.RGBA) {
+                statusTextView.setText("Camera binding failed");
+                return;
+            }
+            Log.w(TAG, "⚠️ RGBA analysis refused, falling back to YUV");
+            negotiator = negotiator.withPath(AnalysisNegotiator.Path.YUV);
+            if (!tryBind(cameraProvider, preview, negotiator)) {
+                statusTextView.setText("Camera binding failed");
+                return;
+            }
+        }
+        analysisNegotiator = negotiator;
+        statusTextView.setText("Camera ready • Press Start Detection");
+    }
+
+    private boolean tryBind(ProcessCameraProvider cameraProvider, Preview preview,
+                            AnalysisNegotiator negotiator) {
         CameraSelector cameraSelector = new CameraSelector.Builder()
                 .requireLensFacing(CameraSelector.LENS_FACING_BACK)
                 .build();
 
-        ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
-                .setTargetResolution(new Size(640, 480))
-                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
-                .build();
-
-        imageAnalysis.setAnalyzer(cameraExecutor, this::analyzeImage);
+        ImageAnalysis imageAnalysis = negotiator.newAnalysisBuilder().build();
+        imageAnalysis.setAnalyzer(cameraExecutor, imageProxy -> analyzeImage(imageProxy, negotiator));
 
         try {
             cameraProvider.unbindAll();
-            cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageAnalysis);
-            statusTextView.setText("Camera ready • Press Start Detection");
+            // With the view's viewport, each frame's crop rect is what is on screen
+            ViewPort viewPort = previewView.getViewPort();
+            if (viewPort != null) {
+                cameraProvider.bindToLifecycle(this, cameraSelector, new UseCaseGroup.Builder()
+                        .addUseCase(preview)
+                        .addUseCase(imageAnalysis)
+                        .setViewPort(viewPort)
+                        .build());
+            } else {
+                cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageAnalysis);
+            }
+            return true;
         } catch (Exception e) {
             Log.e(TAG, "Camera binding failed", e);
-            statusTextView.setText("Camera binding failed");
+            return false;
         }
     }
 
-    private void analyzeImage(@NonNull ImageProxy imageProxy) {
+    private AnalysisNegotiator newAnalysisNegotiator(boolean preferRgba) {
+        int requiredSide = objectDetector.getModelSpec().getInputSize();
+        if (tiledMode) {
+            requiredSide = Math.max(requiredSide, TILED_MIN_SIDE);
+        }
+        float viewAspect = previewView.getWidth() > 0 && previewView.getHeight() > 0
+                ? (float) previewView.getWidth() / previewView.getHeight() : 0f;
+        return new AnalysisNegotiator(requiredSide,
+                detectionPipeline.getPreprocessor().getScaleMode(), viewAspect, preferRgba);
+    }
+
+    private void rebindCamera() {
+        if (cameraProvider != null && !isDestroyed()) {
+            bindCamera(cameraProvider);
+        }
+    }
+
+    private void analyzeImage(@NonNull ImageProxy imageProxy, AnalysisNegotiator negotiator) {
         try {
-            if (!isDetecting || objectDetector == null) {
-                imageProxy.close();
-                return;
-            }
+            negotiator.onFrame(imageProxy);
+            recordFrame(imageProxy);
 
-            long now = System.currentTimeMillis();
-            if (now - lastDetectionTime < DETECTION_COOLDOWN) {
+            if (!isDetecting || frameAnalyzer == null) {
                 imageProxy.close();
                 return;
             }
+            perfStats.onFrameSeen();
 
-            Image image = imageProxy.getImage();
-            if (image != null) {
-                Bitmap bitmap = imageToBitmap(image);
-                if (bitmap != null) {
-                    // Resize bitmap to match model input size (300x300)
-                    Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, 300, 300, true);
-
-                    try {
-                        List<ObjectDetector.Recognition> recognitions =
-                                objectDetector.recognizeImage(resizedBitmap);
-                        lastDetectionTime = now;
-                        runOnUiThread(() -> handleDetectionResults(recognitions));
-                    } catch (Exception e) {
-                        Log.e(TAG, "Detection failed", e);
-                        runOnUiThread(() -> statusTextView.setText("Detection error"));
-                    } finally {
-                        if (resizedBitmap != bitmap) {
-                            resizedBitmap.recycle();
-                        }
-                        bitmap.recycle();
-                    }
-                }
-            }
+            // Rate limit and static-scene check, then copy the planes into the
+            // pipeline and close the frame; preprocess, inference and dispatch
+            // continue on the pipeline's own stage threads
+            ImageUtils.analyze(frameAnalyzer, imageProxy, System.currentTimeMillis());
         } catch (Exception e) {
             Log.e(TAG, "Image analysis error", e);
         } finally {
@@ -269,34 +656,58 @@ public class CameraActivity extends AppCompatActivity {
         }
     }
 
-    private Bitmap imageToBitmap(Image image) {
+    // Camera executor thread
+    private void recordFrame(ImageProxy imageProxy) {
+        FrameRecordWriter recorder = frameRecorder;
+        if (recorder == null) {
+            return;
+        }
+        try {
+            ImageUtils.record(recorder, imageProxy);
+        } catch (IOException e) {
+            Log.e(TAG, "Recording failed", e);
+            frameRecorder = null;
+        }
+    }
+
+    private void toggleRecording() {
+        FrameRecordWriter recorder = frameRecorder;
+        if (recorder != null) {
+            frameRecorder = null;
+            // Close on the camera thread so it never races a write
+            cameraExecutor.execute(() -> closeRecorder(recorder));
+            Toast.makeText(this, "Recording stopped", Toast.LENGTH_SHORT).show();
+            if (analysisNegotiator != null
+                    && analysisNegotiator.getPath() == AnalysisNegotiator.Path.YUV) {
+                // Back to RGBA analysis
+                rebindCamera();
+            }
+            return;
+        }
+
+        File dir = getExternalFilesDir("recordings");
+        File file = new File(dir, "session-" + System.currentTimeMillis() + ".odfr");
         try {
-            if (image.getFormat() == ImageFormat.YUV_420_888) {
-                ByteBuffer yBuffer = image.getPlanes()[0].getBuffer();
-                ByteBuffer uBuffer = image.getPlanes()[1].getBuffer();
-                ByteBuffer vBuffer = image.getPlanes()[2].getBuffer();
-
-                int ySize = yBuffer.remaining();
-                int uSize = uBuffer.remaining();
-                int vSize = vBuffer.remaining();
-
-                byte[] nv21 = new byte[ySize + uSize + vSize];
-                yBuffer.get(nv21, 0, ySize);
-                vBuffer.get(nv21, ySize, vSize);
-                uBuffer.get(nv21, ySize + vSize, uSize);
-
-                YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21,
-                        image.getWidth(), image.getHeight(), null);
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-                yuvImage.compressToJpeg(new Rect(0, 0, image.getWidth(),
-                        image.getHeight()), 90, out);
-                byte[] bytes = out.toByteArray();
-                return BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+            frameRecorder = new FrameRecordWriter(new FileOutputStream(file), true);
+            Toast.makeText(this, "Recording to " + file.getName(), Toast.LENGTH_SHORT).show();
+            Log.d(TAG, "⏺️ Recording frames to " + file.getAbsolutePath());
+            if (analysisNegotiator != null
+                    && analysisNegotiator.getPath() == AnalysisNegotiator.Path.RGBA) {
+                // Recordings hold YUV planes
+                rebindCamera();
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Image conversion error", e);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not start recording", e);
+        }
+    }
+
+    private void closeRecorder(FrameRecordWriter recorder) {
+        try {
+            recorder.close();
+            Log.d(TAG, "⏹️ Recorded " + recorder.getFramesWritten() + " frames");
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to close recording", e);
         }
-        return null;
     }
 
     private void toggleDetection() {
@@ -311,11 +722,13 @@ public class CameraActivity extends AppCompatActivity {
             toggleButton.setBackgroundTintList(
                     getResources().getColorStateList(android.R.color.holo_red_dark));
             statusTextView.setText("🔴 Detecting...");
-            detectedObjects.clear();
-            detectionCount = 0;
+            if (frameAnalyzer != null) {
+                frameAnalyzer.reset();
+            }
+            perfStats.reset();
             lastSpokenObject = "";
-            resultTextView.setText("Scanning for objects...");
-            historyTextView.setText("");
+            lastSpokenTrackId = -1;
+            resultPresenter.showMessage("Scanning for objects...");
         } else {
             toggleButton.setText("Start Detection");
             toggleButton.setBackgroundTintList(
@@ -324,67 +737,16 @@ public class CameraActivity extends AppCompatActivity {
         }
     }
 
-    private void handleDetectionResults(List<ObjectDetector.Recognition> recognitions) {
-        if (objectDetector == null) {
-            return;
-        }
-
-        if (recognitions == null || recognitions.isEmpty()) {
-            resultTextView.setText("No objects detected\n\nPoint camera at common objects like:\n• Person\n• Chair, Table\n• Laptop, Phone\n• Cup, Bottle");
-            return;
-        }
-
-        // Sort by confidence (highest first)
-        Collections.sort(recognitions, (r1, r2) ->
-                Float.compare(r2.getConfidence(), r1.getConfidence()));
-
-        // Get the MOST CONFIDENT object only
-        ObjectDetector.Recognition topRecognition = recognitions.get(0);
-
-        if (topRecognition.getConfidence() < confidenceThreshold) {
-            resultTextView.setText("No confident detections\n\nMove closer or improve lighting");
+    // Text is already drawn by the presenter; only the voice is left
+    private void onResultsPresented(DetectionBatch batch, LabelMap labels, int topTrackId) {
+        if (batch.size() == 0 || batch.getScore(0) < confidenceThreshold) {
             return;
         }
-
-        // Build display text with TOP object highlighted
-        StringBuilder displayText = new StringBuilder();
-        displayText.append("🎯 PRIMARY DETECTION:\n\n");
-
-        String topObjectName = topRecognition.getTitle().replace("_", " ");
-        displayText.append(String.format("📍 %s\n   Confidence: %.1f%%\n\n",
-                topObjectName.toUpperCase(),
-                topRecognition.getConfidence() * 100));
-
-        // Add other detections
-        if (recognitions.size() > 1) {
-            displayText.append("Other objects:\n");
-            for (int i = 1; i < Math.min(recognitions.size(), 4); i++) {
-                ObjectDetector.Recognition rec = recognitions.get(i);
-                if (rec.getConfidence() >= confidenceThreshold) {
-                    String name = rec.getTitle().replace("_", " ");
-                    displayText.append(String.format("  • %s (%.1f%%)\n",
-                            name, rec.getConfidence() * 100));
-                }
-            }
-        }
-
-        resultTextView.setText(displayText.toString());
-
-        // Update statistics
-        for (ObjectDetector.Recognition rec : recognitions) {
-            if (rec.getConfidence() >= confidenceThreshold) {
-                detectedObjects.add(rec.getTitle());
-                detectionCount++;
-            }
-        }
-        historyTextView.setText("Total: " + detectedObjects.size() + " unique | " +
-                detectionCount + " detections");
-
         // VOICE ANNOUNCEMENT - Only speak the TOP object
-        speakTopObject(topObjectName, topRecognition.getConfidence());
+        speakTopObject(labels.getDisplayName(batch.getClassId(0)), batch.getScore(0), topTrackId);
     }
 
-    private void speakTopObject(String objectName, float confidence) {
+    private void speakTopObject(String objectName, float confidence, int trackId) {
         if (!isVoiceEnabled || !isTTSReady || textToSpeech == null) {
             return;
         }
@@ -394,52 +756,137 @@ public class CameraActivity extends AppCompatActivity {
         // Only speak if:
         // 1. Different object than last time OR
         // 2. Same object but enough time has passed (to avoid spam)
-        if (!objectName.equals(lastSpokenObject) ||
-                (now - lastSpeechTime) > SPEECH_COOLDOWN) {
+        boolean shouldSpeak = !objectName.equals(lastSpokenObject) ||
+                (now - lastSpeechTime) > SPEECH_COOLDOWN;
+
+        // A tracked object is announced once while it stays in view
+        if (trackId > 0 && trackId == lastSpokenTrackId) {
+            shouldSpeak = false;
+        }
 
-            // Create natural speech
-            String speech = objectName;
+        if (shouldSpeak) {
 
             // Add confidence level for very high confidence
-            if (confidence >= 0.80f) {
-                speech = objectName + " detected";
-            } else if (confidence >= 0.60f) {
-                speech = "I see " + objectName;
+            UtteranceCache.Phrase phrase = UtteranceCache.Phrase.forConfidence(confidence);
+
+            long start = System.nanoTime();
+            if (utteranceCache != null && utteranceCache.play(objectName, phrase)) {
+                // Cached clip: cut off any live speech still running. SoundPool
+                // has no start callback, play() returning is the closest mark.
+                textToSpeech.stop();
+                perfStats.record(PerfStats.Stage.TTS, System.nanoTime() - start);
+            } else {
+                // Not cached yet: speak it
+                if (utteranceCache != null) {
+                    utteranceCache.stop();
+                }
+                String utteranceId = "detection-" + (++utteranceCounter);
+                pendingUtteranceNanos = start;
+                pendingUtteranceId = utteranceId;
+                textToSpeech.speak(phrase.text(objectName), TextToSpeech.QUEUE_FLUSH, null,
+                        utteranceId);
             }
 
-            // Speak it
-            textToSpeech.speak(speech, TextToSpeech.QUEUE_FLUSH, null, null);
-
             lastSpokenObject = objectName;
+            lastSpokenTrackId = trackId;
             lastSpeechTime = now;
 
-            Log.d(TAG, "🔊 Speaking: " + speech);
+            TRACE.instant(TRACE_SPEAK);
+            if (Tracer.VERBOSE_LOGS) {
+                Log.d(TAG, "🔊 Speaking: " + phrase.text(objectName));
+            }
         }
     }
 
+    // Toggles the live overlay; tapping the overlay exports the stats
     private void showDebugInfo() {
-        String modelStatus = (objectDetector != null) ? "Loaded" : "Not Loaded";
+        if (perfOverlay.getVisibility() == View.VISIBLE) {
+            overlayHandler.removeCallbacks(overlayUpdater);
+            perfOverlay.setVisibility(View.GONE);
+        } else {
+            perfOverlay.setVisibility(View.VISIBLE);
+            overlayUpdater.run();
+        }
+    }
+
+    private String buildDebugText() {
+        ObjectDetector detector = objectDetector;
+        String modelStatus = (detector != null) ? detector.getModelSpec().toString() : "Not Loaded";
         String ttsStatus = isTTSReady ? "Ready" : "Not Ready";
-        String debug = "Model: " + modelStatus + "\n" +
-                "TTS: " + ttsStatus + "\n" +
-                "Detection: " + (isDetecting ? "Active" : "Inactive") + "\n" +
-                "Unique Objects: " + detectedObjects.size() + "\n" +
-                "Total Detections: " + detectionCount + "\n" +
-                "Confidence: " + (confidenceThreshold * 100) + "%" + "\n" +
-                "Last Spoken: " + (lastSpokenObject.isEmpty() ? "None" : lastSpokenObject);
-        Toast.makeText(this, debug, Toast.LENGTH_LONG).show();
+        return "Model: " + modelStatus + " | TTS: " + ttsStatus +
+                (utteranceCache != null ? " (" + utteranceCache + ")" : "") + "\n" +
+                "Detection: " + (isDetecting ? "Active" : "Inactive") +
+                " | Recording: " + (frameRecorder != null ? "On" : "Off") + "\n" +
+                "Analysis: " + (analysisNegotiator != null ? analysisNegotiator : "Not bound") + "\n" +
+                "Region: " + (detectionPipeline != null && detectionPipeline.getRegionOfInterest() != null
+                        ? detectionPipeline.getRegionOfInterest() : "Full frame") +
+                (detectionRefiner != null ? " | " + detectionRefiner.getStats() : "") + "\n" +
+                "Unique Objects: " + resultPresenter.getUniqueObjects() +
+                " | Total Detections: " + resultPresenter.getDetectionCount() + "\n" +
+                "Confidence: " + (confidenceThreshold * 100) + "%" +
+                " | Last Spoken: " + (lastSpokenObject.isEmpty() ? "None" : lastSpokenObject) +
+                (frameAnalyzer != null ? "\n" +
+                        "Rate: " + frameAnalyzer.getRateController().getDebugInfo() + "\n" +
+                        String.format(Locale.US, "Scene gate: %.0f%% skipped (%d/%d)",
+                                frameAnalyzer.getSceneGate().getSkipRatio() * 100,
+                                frameAnalyzer.getSceneGate().getSkippedFrames(),
+                                frameAnalyzer.getSceneGate().getCheckedFrames()) : "") +
+                "\n\n" + perfStats.report(frameAnalyzer) +
+                (detectionPipeline != null ? "\n\n" + detectionPipeline.getStats() : "") +
+                "\n" + resultPresenter.getStats() +
+                (tiledDetector != null ? "\n\n" + tiledDetector.getTileReport() : "");
+    }
+
+    private void exportPerfStats() {
+        File file = new File(getExternalFilesDir("perf"),
+                "perf-" + System.currentTimeMillis() + ".txt");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write(buildDebugText());
+            out.write("\n\n");
+            perfStats.export(out, frameAnalyzer);
+        } catch (IOException e) {
+            Log.e(TAG, "Performance export failed", e);
+            Toast.makeText(this, "Export failed", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // Matching trace for chrome://tracing or ui.perfetto.dev
+        File traceFile = new File(file.getParentFile(),
+                file.getName().replace("perf-", "trace-").replace(".txt", ".json"));
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(traceFile), StandardCharsets.UTF_8)) {
+            Tracer.get().writeChromeJson(out);
+        } catch (IOException e) {
+            Log.e(TAG, "Trace export failed", e);
+        }
+        Toast.makeText(this, "Saved " + file.getName() + " + trace", Toast.LENGTH_SHORT).show();
+        Log.d(TAG, "📊 Performance stats exported to " + file.getParent());
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        overlayHandler.removeCallbacks(overlayUpdater);
+        resultPresenter.stop();
         if (textToSpeech != null) {
             textToSpeech.stop();
             textToSpeech.shutdown();
         }
-        if (objectDetector != null) {
-            objectDetector.close();
+        if (utteranceCache != null) {
+            utteranceCache.close();
         }
+        if (detectionPipeline != null) {
+            detectionPipeline.stop();
+        }
+        if (tiledDetector != null) {
+            tiledDetector.close();
+            tilePool.close();
+        }
+        FrameRecordWriter recorder = frameRecorder;
+        if (recorder != null) {
+            frameRecorder = null;
+            closeRecorder(recorder);
+        }
+        // The detector is application-scoped (DetectorHolder) and reused next time
         if (cameraExecutor != null) {
             cameraExecutor.shutdown();
         }
@@ -455,5 +902,8 @@ public class CameraActivity extends AppCompatActivity {
         if (textToSpeech != null && isTTSReady) {
             textToSpeech.stop();
         }
+        if (utteranceCache != null) {
+            utteranceCache.stop();
+        }
     }
 }
\ No newline at end of file
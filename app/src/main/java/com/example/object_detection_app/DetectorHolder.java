@@ -0,0 +1,174 @@
+package com.example.object_detection_app;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Process-wide owner of the ObjectDetector. Loading (model mapping, interpreter
+// tuning, labels) and a warm-up inference start on a background thread as soon
+// as the process starts, and the same instance is reused by every
+// CameraActivity instead of being rebuilt on each visit. Switching models
+// loads the new detector beside the current one (loadModel), and the caller
+// commits it with replace() once the old one is drained.
+public class DetectorHolder {
+    private static final String TAG = "DetectorHolder";
+
+    public interface Callback {
+        void onReady(ObjectDetector detector);
+
+        void onError(Exception error);
+    }
+
+    private static DetectorHolder instance;
+
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService loader = Executors.newSingleThreadExecutor();
+    private final List<Callback> pending = new ArrayList<>();
+
+    private Future<?> loadTask;
+    private ObjectDetector detector;
+    private Exception error;
+    private long loadMillis;
+
+    public static synchronized DetectorHolder get(Context context) {
+        if (instance == null) {
+            instance = new DetectorHolder(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private DetectorHolder(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    // Starts loading if it has not started yet (or retries after a failure)
+    public synchronized void preload() {
+        if (loadTask != null && (detector != null || !loadTask.isDone())) {
+            return;
+        }
+        error = null;
+        loadTask = loader.submit(this::load);
+    }
+
+    private void load() {
+        long start = SystemClock.elapsedRealtime();
+        ObjectDetector loaded = null;
+        Exception failure = null;
+        try {
+            loaded = ObjectDetector.create(appContext);
+            loaded.warmUp();
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Detector preload failed", e);
+            failure = e;
+            // Built but failed to warm up: release its interpreter and delegate
+            if (loaded != null) {
+                loaded.close();
+                loaded = null;
+            }
+        }
+
+        List<Callback> callbacks;
+        synchronized (this) {
+            detector = loaded;
+            error = failure;
+            loadMillis = SystemClock.elapsedRealtime() - start;
+            callbacks = new ArrayList<>(pending);
+            pending.clear();
+        }
+        Log.d(TAG, "⚡ Detector ready in " + loadMillis + " ms"
+                + (loaded != null ? " (" + loaded.getModelSpec().getName() + ")" : ""));
+
+        for (Callback callback : callbacks) {
+            deliver(callback);
+        }
+    }
+
+    // Callback always runs on the main thread; immediately (posted) if already loaded
+    public void whenReady(Callback callback) {
+        synchronized (this) {
+            if (detector == null && error == null) {
+                pending.add(callback);
+                preload();
+                return;
+            }
+        }
+        deliver(callback);
+    }
+
+    public synchronized void removeCallback(Callback callback) {
+        pending.remove(callback);
+    }
+
+    private void deliver(Callback callback) {
+        mainHandler.post(() -> {
+            ObjectDetector ready;
+            Exception failure;
+            synchronized (DetectorHolder.this) {
+                ready = detector;
+                failure = error;
+            }
+            if (ready != null) {
+                callback.onReady(ready);
+            } else {
+                callback.onError(failure);
+            }
+        });
+    }
+
+    // Builds and warms up a detector for another model on the loader thread,
+    // leaving the current one in service. The callback (main thread) gets the
+    // new detector, which is not current yet: pass it to replace() when the
+    // switch is done, or close it to abandon the switch.
+    public void loadModel(ModelRegistry.Entry model, Callback callback) {
+        loader.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            ObjectDetector loaded = null;
+            try {
+                loaded = ObjectDetector.create(appContext, model);
+                loaded.warmUp();
+                Log.d(TAG, "⚡ " + model.getName() + " ready in "
+                        + (SystemClock.elapsedRealtime() - start) + " ms");
+                ObjectDetector ready = loaded;
+                mainHandler.post(() -> callback.onReady(ready));
+            } catch (Exception e) {
+                Log.e(TAG, "❌ Loading " + model.getName() + " failed", e);
+                if (loaded != null) {
+                    loaded.close();
+                }
+                mainHandler.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    // Makes the detector the shared instance and its model the active one for
+    // later launches. Returns the previous detector (may be null); the caller
+    // closes it once nothing runs on it any more.
+    public synchronized ObjectDetector replace(ObjectDetector replacement) {
+        ObjectDetector previous = detector;
+        detector = replacement;
+        error = null;
+        ModelRegistry.get(appContext).setActive(replacement.getModelSpec().getName());
+        return previous;
+    }
+
+    public synchronized boolean isReady() {
+        return detector != null;
+    }
+
+    public synchronized ObjectDetector getDetector() {
+        return detector;
+    }
+
+    public synchronized long getLoadMillis() {
+        return loadMillis;
+    }
+}
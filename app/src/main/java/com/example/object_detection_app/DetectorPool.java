@@ -0,0 +1,157 @@
+package com.example.object_detection_app;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.object_detection_app.core.DetectionCache;
+import com.example.object_detection_app.core.LabelMap;
+import com.example.object_detection_app.core.ModelSpec;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pool of independent ObjectDetector instances for concurrent inference.
+// ObjectDetector is not thread-safe (one interpreter, shared buffers), so each
+// worker checks an instance out, uses it exclusively and returns it. All
+// instances share a single memory-mapped model and label list from the
+// ModelRegistry.
+public class DetectorPool {
+    private static final String TAG = "DetectorPool";
+
+    private final MappedByteBuffer model;
+    private final ModelSpec spec;
+    private final List<ObjectDetector> detectors = new ArrayList<>();
+    private final ArrayBlockingQueue<ObjectDetector> idle;
+
+    // Contention metrics
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong contendedCheckouts = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    // Pool of the registry's active model
+    public DetectorPool(Context context, int size, int threadsPerInstance) throws IOException {
+        this(context, ModelRegistry.get(context).getActive(), size, threadsPerInstance);
+    }
+
+    public DetectorPool(Context context, ModelRegistry.Entry entry, int size,
+                        int threadsPerInstance) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+
+        ModelRegistry.get(context).load(entry);
+        model = entry.getModelBuffer();
+        spec = entry.getSpec();
+        LabelMap labels = entry.getLabelMap();
+
+        idle = new ArrayBlockingQueue<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                ObjectDetector detector = new ObjectDetector(model, labels, spec, threadsPerInstance);
+                detectors.add(detector);
+                idle.add(detector);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+
+        Log.d(TAG, "✅ Pool ready: " + size + " detectors x " + threadsPerInstance + " threads, "
+                + spec.getName());
+    }
+
+    // Sizes the pool so instances x threads roughly matches the core count
+    public static DetectorPool forAvailableCores(Context context) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int size = Math.max(1, Math.min(4, cores / 2));
+        return new DetectorPool(context, size, Math.max(1, cores / size));
+    }
+
+    // Returns null if no detector became free within the timeout
+    public ObjectDetector acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        checkouts.incrementAndGet();
+
+        ObjectDetector detector = idle.poll();
+        if (detector != null) {
+            return detector;
+        }
+
+        contendedCheckouts.incrementAndGet();
+        long start = System.nanoTime();
+        detector = idle.poll(timeout, unit);
+        totalWaitNanos.addAndGet(System.nanoTime() - start);
+
+        if (detector == null) {
+            timeouts.incrementAndGet();
+        }
+        return detector;
+    }
+
+    public void release(ObjectDetector detector) {
+        if (detector == null || !detectors.contains(detector)) {
+            throw new IllegalArgumentException("Detector does not belong to this pool");
+        }
+        if (!idle.offer(detector)) {
+            Log.w(TAG, "⚠️ Detector released twice");
+        }
+    }
+
+    // Key scope for a DetectionCache shared by this pool (hashes the model once per call)
+    public long getCacheNamespace() {
+        return ObjectDetector.cacheNamespace(model, spec);
+    }
+
+    public ModelSpec getModelSpec() {
+        return spec;
+    }
+
+    public void setResultCache(DetectionCache cache) {
+        for (ObjectDetector detector : detectors) {
+            detector.setResultCache(cache);
+        }
+    }
+
+    public int size() {
+        return detectors.size();
+    }
+
+    public int available() {
+        return idle.size();
+    }
+
+    // Fraction of checkouts that had to wait for a free detector
+    public float getContentionRatio() {
+        long total = checkouts.get();
+        return total == 0 ? 0f : (float) contendedCheckouts.get() / total;
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    public String getStats() {
+        return "detectors: " + available() + "/" + size() + " idle" +
+                " | checkouts: " + checkouts.get() +
+                " | contended: " + contendedCheckouts.get() +
+                " | timeouts: " + timeouts.get() +
+                " | waited: " + getTotalWaitMillis() + " ms";
+    }
+
+    public void close() {
+        for (ObjectDetector detector : detectors) {
+            detector.close();
+        }
+        idle.clear();
+        Log.d(TAG, "🔒 Pool closed");
+    }
+}
@@ -1,45 +1,106 @@
 package com.example.object_detection_app;
 
-import android.graphics.Bitmap;
 import android.graphics.ImageFormat;
-import android.graphics.Matrix;
+import android.graphics.PixelFormat;
 import android.graphics.Rect;
-import android.graphics.YuvImage;
 import android.media.Image;
 
-import java.io.ByteArrayOutputStream;
+import androidx.annotation.OptIn;
+import androidx.camera.core.ExperimentalGetImage;
+import androidx.camera.core.ImageProxy;
+
+import com.example.object_detection_app.core.DetectionPipeline;
+import com.example.object_detection_app.core.FrameAnalyzer;
+import com.example.object_detection_app.core.FramePreprocessor;
+import com.example.object_detection_app.core.FrameRecordWriter;
+import com.example.object_detection_app.core.FrameTransform;
+
+import java.io.IOException;
 import java.nio.ByteBuffer;
 
+// Adapters from Android camera images to the plane-based :detector-core APIs
 public class ImageUtils {
-    public static Bitmap imageToBitmap(Image image) {
-        if (image == null) return null;
+
+    public static boolean isYuv(Image image) {
+        return image != null && image.getFormat() == ImageFormat.YUV_420_888;
+    }
+
+    public static boolean isRgba(ImageProxy imageProxy) {
+        return imageProxy.getFormat() == PixelFormat.RGBA_8888;
+    }
+
+    // Returns null if the image is not YUV_420_888
+    public static FrameTransform preprocess(FramePreprocessor preprocessor, Image image,
+                                            int rotationDegrees, ByteBuffer out) {
+        if (!isYuv(image)) {
+            return null;
+        }
 
         Image.Plane[] planes = image.getPlanes();
-        ByteBuffer yBuffer = planes[0].getBuffer();
-        ByteBuffer uBuffer = planes[1].getBuffer();
-        ByteBuffer vBuffer = planes[2].getBuffer();
+        return preprocessor.process(planes[0].getBuffer(), planes[1].getBuffer(),
+                planes[2].getBuffer(), planes[0].getRowStride(), planes[1].getRowStride(),
+                planes[1].getPixelStride(), image.getWidth(), image.getHeight(),
+                rotationDegrees, out);
+    }
 
-        int ySize = yBuffer.remaining();
-        int uSize = uBuffer.remaining();
-        int vSize = vBuffer.remaining();
+    // Runs the frame through the analyzer (gates, then pipeline) and always
+    // closes the proxy. Takes YUV_420_888 and RGBA_8888 frames; others count
+    // as rejected. The proxy's crop rect (viewport) becomes the source crop.
+    @OptIn(markerClass = ExperimentalGetImage.class)
+    public static FrameAnalyzer.Outcome analyze(FrameAnalyzer analyzer, ImageProxy imageProxy,
+                                                long nowMs) {
+        try {
+            applyCropRect(analyzer.getPipeline(), imageProxy);
+            int rotation = imageProxy.getImageInfo().getRotationDegrees();
+            long timestamp = imageProxy.getImageInfo().getTimestamp();
 
-        byte[] nv21 = new byte[ySize + uSize + vSize];
+            if (isRgba(imageProxy)) {
+                ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+                return analyzer.analyzeRgba(plane.getBuffer(), plane.getRowStride(),
+                        imageProxy.getWidth(), imageProxy.getHeight(), rotation, timestamp, nowMs);
+            }
 
-        yBuffer.get(nv21, 0, ySize);
-        vBuffer.get(nv21, ySize, vSize);
-        uBuffer.get(nv21, ySize + vSize, uSize);
+            Image image = imageProxy.getImage();
+            if (!isYuv(image)) {
+                return FrameAnalyzer.Outcome.REJECTED;
+            }
 
-        YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, image.getWidth(), image.getHeight(), null);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        yuvImage.compressToJpeg(new Rect(0, 0, yuvImage.getWidth(), yuvImage.getHeight()), 100, out);
-        byte[] imageBytes = out.toByteArray();
+            Image.Plane[] planes = image.getPlanes();
+            return analyzer.analyze(planes[0].getBuffer(), planes[1].getBuffer(),
+                    planes[2].getBuffer(), planes[0].getRowStride(), planes[1].getRowStride(),
+                    planes[1].getPixelStride(), image.getWidth(), image.getHeight(),
+                    rotation, timestamp, nowMs);
+        } finally {
+            // Planes have been copied (or skipped): release the camera buffer now
+            imageProxy.close();
+        }
+    }
 
-        Bitmap bitmap = android.graphics.BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);
+    private static void applyCropRect(DetectionPipeline pipeline, ImageProxy imageProxy) {
+        Rect crop = imageProxy.getCropRect();
+        if (crop.left > 0 || crop.top > 0
+                || crop.right < imageProxy.getWidth() || crop.bottom < imageProxy.getHeight()) {
+            pipeline.setSourceCrop(crop.left, crop.top, crop.right, crop.bottom);
+        } else {
+            pipeline.clearSourceCrop();
+        }
+    }
 
-        // Rotate if needed
-        Matrix matrix = new Matrix();
-        matrix.postRotate(90); // Camera is in landscape
+    // Appends the frame to a recording; does not close the proxy
+    @OptIn(markerClass = ExperimentalGetImage.class)
+    public static boolean record(FrameRecordWriter writer, ImageProxy imageProxy)
+            throws IOException {
+        Image image = imageProxy.getImage();
+        if (!isYuv(image)) {
+            return false;
+        }
 
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        Image.Plane[] planes = image.getPlanes();
+        writer.write(planes[0].getBuffer(), planes[1].getBuffer(), planes[2].getBuffer(),
+                planes[0].getRowStride(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                image.getWidth(), image.getHeight(),
+                imageProxy.getImageInfo().getRotationDegrees(),
+                imageProxy.getImageInfo().getTimestamp());
+        return true;
     }
-}
\ No newline at end of file
+}
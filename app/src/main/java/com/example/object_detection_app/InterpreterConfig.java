@@ -0,0 +1,35 @@
+package com.example.object_detection_app;
+
+import com.example.object_detection_app.core.BackendConfig;
+
+import org.tensorflow.lite.Delegate;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.nnapi.NnApiDelegate;
+
+// TFLite side of a core BackendConfig: the delegate and interpreter options
+// it stands for.
+public final class InterpreterConfig {
+
+    private InterpreterConfig() {
+    }
+
+    // Throws if the delegate is missing on this device; the caller falls back
+    public static Delegate createDelegate(BackendConfig config) {
+        switch (config.backend) {
+            case NNAPI:
+                return new NnApiDelegate();
+            default:
+                return null;
+        }
+    }
+
+    public static Interpreter.Options toOptions(BackendConfig config, Delegate delegate) {
+        Interpreter.Options options = new Interpreter.Options();
+        options.setNumThreads(config.numThreads);
+        options.setUseXNNPACK(config.useXnnpack);
+        if (delegate != null) {
+            options.addDelegate(delegate);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.object_detection_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import com.example.object_detection_app.core.BackendConfig;
+import com.example.object_detection_app.core.BackendTuner;
+import com.example.object_detection_app.core.InferenceBackend;
+import com.example.object_detection_app.core.ModelSpec;
+import com.example.object_detection_app.core.RawDetections;
+
+import org.tensorflow.lite.Delegate;
+import org.tensorflow.lite.Interpreter;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// Android side of BackendTuner: candidates for this device, a bare TFLite
+// interpreter per candidate to time, and the pick stored in SharedPreferences
+// keyed by device model and model hash, so later launches skip straight to it.
+public class InterpreterTuner {
+    private static final String TAG = "InterpreterTuner";
+
+    private static final String PREFS_NAME = "InterpreterTuning";
+
+    public static BackendConfig resolve(Context context, ByteBuffer model, ModelSpec spec) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String key = BackendTuner.key(Build.MODEL, BackendTuner.modelHash(model));
+        List<BackendConfig> candidates = candidates();
+
+        BackendConfig saved = BackendConfig.decode(prefs.getString(key, null));
+        if (BackendTuner.isReusable(saved, candidates)) {
+            Log.d(TAG, "✅ Using saved interpreter config: " + saved);
+            return saved;
+        }
+
+        BackendConfig best = new BackendTuner(config -> new TimedInterpreter(model, spec, config))
+                .tune(candidates);
+        Log.d(TAG, "✅ Fastest config: " + best);
+        prefs.edit().putString(key, best.encode()).apply();
+        return best;
+    }
+
+    public static void clearSaved(Context context) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+    }
+
+    // NNAPI is only worth trying on Android 8.1+
+    static List<BackendConfig> candidates() {
+        return BackendTuner.candidates(Runtime.getRuntime().availableProcessors(),
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1);
+    }
+
+    static void closeDelegate(Delegate delegate) {
+        if (delegate instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) delegate).close();
+            } catch (Exception e) {
+                Log.w(TAG, "⚠️ Failed to close delegate", e);
+            }
+        }
+    }
+
+    // Exactly the candidate's setup, no CPU fallback, so a failing delegate
+    // is skipped instead of timed as plain CPU
+    private static class TimedInterpreter implements InferenceBackend, AutoCloseable {
+        private final ModelSpec spec;
+        private final Delegate delegate;
+        private final Interpreter interpreter;
+        private final Object[] inputs = new Object[1];
+
+        TimedInterpreter(ByteBuffer model, ModelSpec spec, BackendConfig config) {
+            this.spec = spec;
+            Delegate created = InterpreterConfig.createDelegate(config);
+            try {
+                interpreter = new Interpreter(model, InterpreterConfig.toOptions(config, created));
+            } catch (RuntimeException e) {
+                closeDelegate(created);
+                throw e;
+            }
+            delegate = created;
+        }
+
+        @Override
+        public int getInputSize() {
+            return spec.getInputSize();
+        }
+
+        @Override
+        public ModelSpec getModelSpec() {
+            return spec;
+        }
+
+        @Override
+        public ByteBuffer newInputBuffer() {
+            return spec.newInputBuffer();
+        }
+
+        @Override
+        public RawDetections newOutputBuffer() {
+            return spec.newOutputBuffer();
+        }
+
+        @Override
+        public void runInference(ByteBuffer input, RawDetections output) {
+            inputs[0] = input;
+            interpreter.runForMultipleInputsOutputs(inputs, output.getOutputMap());
+        }
+
+        @Override
+        public void close() {
+            interpreter.close();
+            closeDelegate(delegate);
+        }
+    }
+}
@@ -22,6 +22,7 @@ public class MainMenuActivity extends AppCompatActivity {
         MaterialCardView cardStart = findViewById(R.id.cardStart);
         MaterialCardView cardHow = findViewById(R.id.cardHow);
         MaterialCardView cardSettings = findViewById(R.id.cardSettings);
+        MaterialCardView cardBatch = findViewById(R.id.cardBatch);
 
         // Add fade-in animation to header
         Animation fadeIn = new AlphaAnimation(0.0f, 1.0f);
@@ -32,6 +33,7 @@ public class MainMenuActivity extends AppCompatActivity {
         animateCardWithDelay(cardStart, 0);
         animateCardWithDelay(cardHow, 200);
         animateCardWithDelay(cardSettings, 400);
+        animateCardWithDelay(cardBatch, 600);
 
         // Click listeners with animations
         cardStart.setOnClickListener(v -> {
@@ -45,6 +47,10 @@ public class MainMenuActivity extends AppCompatActivity {
         cardSettings.setOnClickListener(v -> {
             animateCardClick(v, SettingsActivity.class);
         });
+
+        cardBatch.setOnClickListener(v -> {
+            animateCardClick(v, BatchDetectionActivity.class);
+        });
     }
 
     private void animateCardWithDelay(View card, int delay) {
@@ -0,0 +1,283 @@
+package com.example.object_detection_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import com.example.object_detection_app.core.BackendConfig;
+import com.example.object_detection_app.core.LabelMap;
+import com.example.object_detection_app.core.ModelSpec;
+
+import org.tensorflow.lite.DataType;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Every detection model bundled in assets, side by side. Models are found by
+// name (detect.tflite at the root, anything else under models/) and loaded
+// lazily: the file is mapped once, its labels read once and its tensors
+// inspected once, so input size, uint8/float input and output layout come
+// from the model itself. The active model is remembered across launches.
+// Labels: <name>.txt next to the model if present, else labelmap.txt.
+public class ModelRegistry {
+    private static final String TAG = "ModelRegistry";
+
+    static final String DEFAULT_MODEL = "detect";
+    private static final String DEFAULT_LABELS = "labelmap.txt";
+    private static final String MODELS_DIR = "models";
+    private static final String MODEL_SUFFIX = ".tflite";
+
+    private static final String PREFS_NAME = "ObjectDetectionPrefs";
+    private static final String KEY_ACTIVE_MODEL = "active_model";
+
+    // Float models without metadata are assumed to want [-1, 1] input
+    private static final float FLOAT_MEAN = 127.5f;
+    private static final float FLOAT_STD = 127.5f;
+
+    public static class Entry {
+        private final String name;
+        private final String modelAsset;
+        private final String labelAsset;
+
+        // Loaded on first use, then shared by every detector of this model
+        private MappedByteBuffer buffer;
+        private LabelMap labels;
+        private ModelSpec spec;
+
+        Entry(String name, String modelAsset, String labelAsset) {
+            this.name = name;
+            this.modelAsset = modelAsset;
+            this.labelAsset = labelAsset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getModelAsset() {
+            return modelAsset;
+        }
+
+        // The getters below return null until load() has run for this entry
+        public synchronized MappedByteBuffer getModelBuffer() {
+            return buffer;
+        }
+
+        public synchronized List<String> getLabels() {
+            return labels != null ? labels.getLabels() : null;
+        }
+
+        // Labels with their display names, computed once here for every detector
+        public synchronized LabelMap getLabelMap() {
+            return labels;
+        }
+
+        public synchronized ModelSpec getSpec() {
+            return spec;
+        }
+
+        @Override
+        public String toString() {
+            return spec != null ? spec.toString() : name;
+        }
+    }
+
+    private static ModelRegistry instance;
+
+    private final Context appContext;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public static synchronized ModelRegistry get(Context context) {
+        if (instance == null) {
+            instance = new ModelRegistry(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ModelRegistry(Context appContext) {
+        this.appContext = appContext;
+        entries.put(DEFAULT_MODEL, new Entry(DEFAULT_MODEL, DEFAULT_MODEL + MODEL_SUFFIX,
+                DEFAULT_LABELS));
+        scan();
+    }
+
+    private void scan() {
+        try {
+            String[] files = appContext.getAssets().list(MODELS_DIR);
+            if (files == null) {
+                return;
+            }
+            List<String> names = new ArrayList<>();
+            for (String file : files) {
+                names.add(file);
+            }
+            for (String file : files) {
+                if (!file.endsWith(MODEL_SUFFIX)) {
+                    continue;
+                }
+                String name = file.substring(0, file.length() - MODEL_SUFFIX.length());
+                String labels = names.contains(name + ".txt")
+                        ? MODELS_DIR + "/" + name + ".txt" : DEFAULT_LABELS;
+                entries.put(name, new Entry(name, MODELS_DIR + "/" + file, labels));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Could not list " + MODELS_DIR, e);
+        }
+        Log.d(TAG, "📦 Models: " + entries.keySet());
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+
+    public synchronized Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    // Falls back to the bundled model if the saved one is gone
+    public synchronized Entry getActive() {
+        String name = prefs().getString(KEY_ACTIVE_MODEL, DEFAULT_MODEL);
+        Entry entry = entries.get(name);
+        return entry != null ? entry : entries.get(DEFAULT_MODEL);
+    }
+
+    public synchronized void setActive(String name) {
+        if (!entries.containsKey(name)) {
+            throw new IllegalArgumentException("Unknown model: " + name);
+        }
+        prefs().edit().putString(KEY_ACTIVE_MODEL, name).apply();
+    }
+
+    private SharedPreferences prefs() {
+        return appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    // Maps the model, reads its labels and tensors; no-op once loaded
+    public Entry load(Entry entry) throws IOException {
+        synchronized (entry) {
+            if (entry.spec != null) {
+                return entry;
+            }
+            MappedByteBuffer buffer = mapAsset(entry.modelAsset);
+            LabelMap labels = new LabelMap(readLabels(entry.labelAsset));
+            ModelSpec spec;
+            Interpreter probe = new Interpreter(buffer,
+                    InterpreterConfig.toOptions(BackendConfig.cpu(1, false), null));
+            try {
+                spec = inspect(entry.name, probe);
+            } finally {
+                probe.close();
+            }
+            entry.buffer = buffer;
+            entry.labels = labels;
+            entry.spec = spec;
+            Log.d(TAG, "✅ " + spec);
+            return entry;
+        }
+    }
+
+    // Reads input size, input type and quantization, and where each of the
+    // four SSD outputs sits. Only square RGB inputs and post-processed SSD
+    // outputs are supported; anything else is rejected here rather than
+    // failing on the first frame.
+    static ModelSpec inspect(String name, Interpreter interpreter) throws IOException {
+        Tensor input = interpreter.getInputTensor(0);
+        int[] shape = input.shape();
+        if (shape.length != 4 || shape[1] != shape[2] || shape[3] != 3) {
+            throw new IOException(name + ": expected a square RGB input, got "
+                    + shapeString(shape));
+        }
+
+        int locations = -1, count = -1;
+        List<Integer> perDetection = new ArrayList<>();
+        int maxDetections = 0;
+        for (int i = 0; i < interpreter.getOutputTensorCount(); i++) {
+            int[] out = interpreter.getOutputTensor(i).shape();
+            if (out.length == 3 && out[2] == 4) {
+                locations = i;
+                maxDetections = out[1];
+            } else if (out.length == 2) {
+                perDetection.add(i);
+            } else if (out.length == 1) {
+                count = i;
+            }
+        }
+        if (locations < 0 || count < 0 || perDetection.size() != 2) {
+            throw new IOException(name + ": not a post-processed SSD model ("
+                    + interpreter.getOutputTensorCount() + " outputs)");
+        }
+
+        // Classes and scores have the same shape. Prefer tensor names; without
+        // them use the exporter layouts: TF1 (boxes, classes, scores, count)
+        // and TF2 (scores, boxes, count, classes)
+        int first = perDetection.get(0);
+        int second = perDetection.get(1);
+        int classes = locations == 0 ? first : second;
+        int scores = locations == 0 ? second : first;
+        String firstName = String.valueOf(interpreter.getOutputTensor(first).name()).toLowerCase();
+        String secondName = String.valueOf(interpreter.getOutputTensor(second).name()).toLowerCase();
+        if (firstName.contains("class") || secondName.contains("score")) {
+            classes = first;
+            scores = second;
+        } else if (firstName.contains("score") || secondName.contains("class")) {
+            classes = second;
+            scores = first;
+        }
+
+        ModelSpec spec = new ModelSpec(name, shape[1], maxDetections)
+                .setOutputOrder(locations, classes, scores, count);
+        DataType type = input.dataType();
+        if (type == DataType.FLOAT32) {
+            spec.setFloatInput(FLOAT_MEAN, FLOAT_STD);
+        } else if (type == DataType.UINT8) {
+            Tensor.QuantizationParams quantization = input.quantizationParams();
+            spec.setUint8Input(quantization.getScale(), quantization.getZeroPoint());
+        } else {
+            throw new IOException(name + ": unsupported input type " + type);
+        }
+        return spec;
+    }
+
+    private static String shapeString(int[] shape) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < shape.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(shape[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    private MappedByteBuffer mapAsset(String asset) throws IOException {
+        AssetFileDescriptor fileDescriptor = appContext.getAssets().openFd(asset);
+        try (FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor())) {
+            FileChannel fileChannel = inputStream.getChannel();
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY,
+                    fileDescriptor.getStartOffset(), fileDescriptor.getDeclaredLength());
+        }
+    }
+
+    private List<String> readLabels(String asset) throws IOException {
+        List<String> labelList = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(appContext.getAssets().open(asset)))) {
+            String line;
+            // Read ALL lines including "???" at index 0
+            while ((line = reader.readLine()) != null) {
+                labelList.add(line.trim());
+            }
+        }
+        Log.d(TAG, "📋 Loaded " + labelList.size() + " labels from " + asset);
+        return labelList;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.object_detection_app;
+
+import android.app.Application;
+
+public class ObjectDetectionApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Start loading the model while the splash screen is showing
+        DetectorHolder.get(this).preload();
+    }
+}
@@ -1,94 +1,164 @@
 package com.example.object_detection_app;
 
 import android.content.Context;
-import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
-import android.os.SystemClock;
+import android.media.Image;
 import android.util.Log;
 
+import com.example.object_detection_app.core.BackendConfig;
+import com.example.object_detection_app.core.BackendTuner;
+import com.example.object_detection_app.core.DetectionBatch;
+import com.example.object_detection_app.core.DetectionCache;
+import com.example.object_detection_app.core.DetectionDecoder;
+import com.example.object_detection_app.core.DetectionPostProcessor;
+import com.example.object_detection_app.core.FramePreprocessor;
+import com.example.object_detection_app.core.FrameTransform;
+import com.example.object_detection_app.core.InferenceBackend;
+import com.example.object_detection_app.core.LabelMap;
+import com.example.object_detection_app.core.ModelSpec;
+import com.example.object_detection_app.core.RawDetections;
+import com.example.object_detection_app.core.TensorPacker;
+import com.example.object_detection_app.core.TraceBuffer;
+import com.example.object_detection_app.core.Tracer;
+
+import org.tensorflow.lite.Delegate;
 import org.tensorflow.lite.Interpreter;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-public class ObjectDetector {
+// TFLite implementation of the core InferenceBackend. Results come as a
+// DetectionBatch (parallel primitive arrays, names via getLabelMap()); the
+// older List<Recognition> API is an adapter over it. Decoding and ranking are
+// delegated to :detector-core.
+// Input size, input type and detection count come from the model's ModelSpec
+// (see ModelRegistry), so any post-processed SSD model can be dropped in.
+public class ObjectDetector implements InferenceBackend {
     private static final String TAG = "ObjectDetector";
 
-    private static final String MODEL_FILE = "detect.tflite";
-    private static final String LABEL_FILE = "labelmap.txt";
-    private static final int INPUT_SIZE = 300;
-
-    // COCO SSD MobileNet has 90 classes + background (index 0 = "???")
-    private static final int NUM_DETECTIONS = 10;
-
     // Confidence threshold - Lower for better detection
     private static final float MIN_CONFIDENCE = 0.40f;
 
     private Interpreter tflite;
-    private List<String> labels = new ArrayList<>();
+    private Delegate delegate;
+    private final LabelMap labelMap;
+
+    private final ModelSpec spec;
+    private final int inputSize;
+    // Null for uint8 models
+    private final float[] floatTable;
 
     // Output buffers
-    private float[][][] outputLocations;
-    private float[][] outputClasses;
-    private float[][] outputScores;
-    private float[] numDetections;
+    private final RawDetections detectorOutput;
+    private final DetectionBatch decoded;
+    // Ranked and de-duplicated after decoding, so callers never re-sort
+    private final DetectionPostProcessor postProcessor = new DetectionPostProcessor();
+    private DetectionDecoder decoder;
 
     private ByteBuffer imgData;
+    private final int[] pixels;
+    // Bitmaps of another size are drawn scaled into this, created on first use
+    private Bitmap scaledBitmap;
+    private Canvas scaledCanvas;
+    private final Rect scaledRect;
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    // Inference input array, built once and reused every frame
+    private Object[] inputs;
+
+    private final String[] slotIds;
+
+    private final FramePreprocessor preprocessor;
+    private FrameTransform lastTransform;
     private boolean isReady = false;
 
-    public ObjectDetector(Context context) throws IOException {
-        try {
-            // Load model
-            MappedByteBuffer modelBuffer = loadModelFile(context);
+    // Per-frame data goes to the trace buffer; verbose logs are compiled out
+    private static final TraceBuffer TRACE = Tracer.get();
+    private static final int TRACE_INFERENCE = TRACE.register("detector.inference");
+    private static final int TRACE_RAW_DETECTIONS = TRACE.register("detector.raw_detections");
+    private static final int TRACE_VALID_DETECTIONS = TRACE.register("detector.valid_detections");
+
+    // Optional: skips the model for inputs it has already seen
+    private volatile DetectionCache resultCache;
+
+    // The active model from the registry
+    public static ObjectDetector create(Context context) throws IOException {
+        return create(context, ModelRegistry.get(context).getActive());
+    }
 
-            Interpreter.Options options = new Interpreter.Options();
-            options.setNumThreads(4);
+    // Interpreter setup comes from InterpreterTuner (benchmarked once per device
+    // and model)
+    public static ObjectDetector create(Context context, ModelRegistry.Entry model)
+            throws IOException {
+        ModelRegistry.get(context).load(model);
+        ByteBuffer modelBuffer = model.getModelBuffer();
+        ModelSpec spec = model.getSpec();
+        return new ObjectDetector(modelBuffer, model.getLabelMap(), spec,
+                InterpreterTuner.resolve(context, modelBuffer, spec));
+    }
 
-            // Enable NNAPI for better performance
+    public ObjectDetector(ByteBuffer modelBuffer, LabelMap labels, ModelSpec spec,
+                          int numThreads) throws IOException {
+        this(modelBuffer, labels, spec, BackendConfig.cpu(numThreads, true));
+    }
+
+    // Builds an interpreter over an already mapped model, so several detectors
+    // (see DetectorPool) can share one read-only model buffer and label map
+    public ObjectDetector(ByteBuffer modelBuffer, LabelMap labels, ModelSpec spec,
+                          BackendConfig config) throws IOException {
+        this.spec = spec;
+        this.labelMap = labels;
+        inputSize = spec.getInputSize();
+        floatTable = spec.newFloatTable();
+        int maxDetections = spec.getMaxDetections();
+        detectorOutput = spec.newOutputBuffer();
+        decoded = new DetectionBatch(maxDetections);
+        pixels = new int[inputSize * inputSize];
+        scaledRect = new Rect(0, 0, inputSize, inputSize);
+        slotIds = new String[maxDetections];
+        for (int i = 0; i < maxDetections; i++) {
+            slotIds[i] = String.valueOf(i);
+        }
+        preprocessor = spec.newPreprocessor();
+
+        try {
             try {
-                options.setUseNNAPI(true);
-                Log.d(TAG, "✅ NNAPI enabled");
-            } catch (Exception e) {
-                Log.w(TAG, "⚠️ NNAPI not available, using CPU");
+                delegate = InterpreterConfig.createDelegate(config);
+                tflite = new Interpreter(modelBuffer, InterpreterConfig.toOptions(config, delegate));
+                Log.d(TAG, "✅ Interpreter: " + config);
+            } catch (Throwable t) {
+                // Delegate missing or rejected the model, use plain CPU instead
+                InterpreterTuner.closeDelegate(delegate);
+                delegate = null;
+                BackendConfig fallback = BackendConfig.cpu(Math.max(1, config.numThreads), true);
+                Log.w(TAG, "⚠️ " + config + " unavailable, using " + fallback);
+                tflite = new Interpreter(modelBuffer, InterpreterConfig.toOptions(fallback, null));
             }
 
-            tflite = new Interpreter(modelBuffer, options);
-
-            // Load labels (including "???" at index 0)
-            labels = loadLabelList(context);
+            // Labels include "???" at index 0
+            decoder = DetectionDecoder.forLabels(inputSize, MIN_CONFIDENCE, labels.getLabels());
 
-            // Initialize input buffer (quantized model: uint8)
-            imgData = ByteBuffer.allocateDirect(INPUT_SIZE * INPUT_SIZE * 3);
-            imgData.order(ByteOrder.nativeOrder());
+            // Input buffer in the model's own packing (uint8 or float)
+            imgData = spec.newInputBuffer();
 
-            // Initialize output arrays
-            outputLocations = new float[1][NUM_DETECTIONS][4];
-            outputClasses = new float[1][NUM_DETECTIONS];
-            outputScores = new float[1][NUM_DETECTIONS];
-            numDetections = new float[1];
+            inputs = new Object[]{imgData};
 
             isReady = true;
 
             Log.d(TAG, "✅ ObjectDetector initialized successfully");
+            Log.d(TAG, "🧠 Model: " + spec);
             Log.d(TAG, "📊 Total labels loaded: " + labels.size());
             Log.d(TAG, "🎯 Confidence threshold: " + (MIN_CONFIDENCE * 100) + "%");
 
             // Log first few labels for verification
             for (int i = 0; i < Math.min(5, labels.size()); i++) {
-                Log.d(TAG, "   Label[" + i + "]: " + labels.get(i));
+                Log.d(TAG, "   Label[" + i + "]: " + labels.getLabel(i));
             }
 
         } catch (Exception e) {
@@ -97,104 +167,147 @@ public class ObjectDetector {
         }
     }
 
-    private MappedByteBuffer loadModelFile(Context context) throws IOException {
-        AssetFileDescriptor fileDescriptor = context.getAssets().openFd(MODEL_FILE);
-        FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
-        FileChannel fileChannel = inputStream.getChannel();
-        long startOffset = fileDescriptor.getStartOffset();
-        long declaredLength = fileDescriptor.getDeclaredLength();
-        MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
-        inputStream.close();
-        return buffer;
-    }
+    // Detections for one bitmap in the detector-owned batch, ranked, boxes in
+    // input pixels. Valid until the next detect/recognizeImage call; empty on
+    // failure. Timestamp: System.nanoTime() at the call.
+    public DetectionBatch detect(Bitmap bitmap) {
+        long timestamp = System.nanoTime();
+        decoded.clear();
+        if (!isReady || tflite == null) {
+            Log.e(TAG, "❌ Detector not ready");
+            return decoded;
+        }
 
-    private List<String> loadLabelList(Context context) throws IOException {
-        List<String> labelList = new ArrayList<>();
-        BufferedReader reader = new BufferedReader(
-                new InputStreamReader(context.getAssets().open(LABEL_FILE)));
-        String line;
+        try {
+            // Resize to model input unless the caller already did
+            convertBitmapToByteBuffer(bitmap.getWidth() == inputSize
+                    && bitmap.getHeight() == inputSize ? bitmap : scaleToInput(bitmap));
 
-        // Read ALL lines including "???" at index 0
-        while ((line = reader.readLine()) != null) {
-            labelList.add(line.trim());
-        }
-        reader.close();
+            runAndDecode();
 
-        Log.d(TAG, "📋 Loaded " + labelList.size() + " labels from file");
-        return labelList;
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Recognition failed", e);
+            decoded.clear();
+        }
+        decoded.setTimestampNanos(timestamp);
+        return decoded;
     }
 
-    public List<Recognition> recognizeImage(Bitmap bitmap) {
+    // Camera path: crop, rotation, resize and YUV->RGB in one pass into imgData.
+    // Boxes are in input pixels; map them back with getLastTransform().
+    public DetectionBatch detect(Image image, int rotationDegrees) {
+        decoded.clear();
         if (!isReady || tflite == null) {
             Log.e(TAG, "❌ Detector not ready");
-            return new ArrayList<>();
+            return decoded;
         }
 
         try {
-            // Resize to model input (300x300)
-            Bitmap resizedBitmap = Bitmap.createScaledBitmap(
-                    bitmap, INPUT_SIZE, INPUT_SIZE, true);
-
-            // Convert to byte buffer
-            convertBitmapToByteBuffer(resizedBitmap);
-
-            // Clean up resized bitmap if different from original
-            if (resizedBitmap != bitmap) {
-                resizedBitmap.recycle();
+            FrameTransform transform = ImageUtils.preprocess(preprocessor, image,
+                    rotationDegrees, imgData);
+            if (transform == null) {
+                Log.w(TAG, "⚠️ Unsupported image format");
+                return decoded;
             }
+            lastTransform = transform;
 
-            // Run inference
-            long startTime = SystemClock.elapsedRealtime();
-            runInference();
-            long endTime = SystemClock.elapsedRealtime();
-            Log.d(TAG, "⚡ Inference time: " + (endTime - startTime) + " ms");
-
-            return getRecognitions();
+            runAndDecode();
 
         } catch (Exception e) {
             Log.e(TAG, "❌ Recognition failed", e);
-            return new ArrayList<>();
+            decoded.clear();
         }
+        decoded.setTimestampNanos(image.getTimestamp());
+        return decoded;
     }
 
-    private void convertBitmapToByteBuffer(Bitmap bitmap) {
-        imgData.rewind();
+    // Adapters over detect() that copy the results into new objects, for
+    // callers that keep them. Per-frame code should use detect() directly.
+    public List<Recognition> recognizeImage(Bitmap bitmap) {
+        return toRecognitions(detect(bitmap));
+    }
 
-        int[] pixels = new int[INPUT_SIZE * INPUT_SIZE];
-        bitmap.getPixels(pixels, 0, INPUT_SIZE, 0, 0, INPUT_SIZE, INPUT_SIZE);
+    public List<Recognition> recognizeImage(Image image, int rotationDegrees) {
+        return toRecognitions(detect(image, rotationDegrees));
+    }
+
+    // Inference on imgData, decoded and post-processed into `decoded`
+    private void runAndDecode() {
+        // Same input, same model, same threshold: reuse the earlier decoder
+        // output. Post-processing runs either way, so its settings apply.
+        DetectionCache cache = resultCache;
+        long cacheKey = 0;
+        boolean cached = false;
+        if (cache != null) {
+            cacheKey = cache.keyFor(imgData);
+            cached = cache.get(cacheKey, decoded);
+        }
 
-        // COCO SSD MobileNet quantized model expects RGB values 0-255
-        for (int i = 0; i < INPUT_SIZE * INPUT_SIZE; i++) {
-            final int val = pixels[i];
-            imgData.put((byte) ((val >> 16) & 0xFF)); // R
-            imgData.put((byte) ((val >> 8) & 0xFF));  // G
-            imgData.put((byte) (val & 0xFF));         // B
+        if (!cached) {
+            long start = Tracer.VERBOSE_LOGS ? System.nanoTime() : 0;
+            runInference(imgData, detectorOutput);
+            if (Tracer.VERBOSE_LOGS) {
+                Log.d(TAG, "⚡ Inference time: " + ((System.nanoTime() - start) / 1000) + " us");
+            }
+            decoder.decode(detectorOutput, decoded);
+            if (cache != null) {
+                cache.put(cacheKey, decoded);
+            }
         }
+        postProcess();
     }
 
-    private void runInference() {
-        Object[] inputs = {imgData};
-        Map<Integer, Object> outputs = new HashMap<>();
-        outputs.put(0, outputLocations);
-        outputs.put(1, outputClasses);
-        outputs.put(2, outputScores);
-        outputs.put(3, numDetections);
+    // Bilinear scale into the reused scratch bitmap, so repeated calls allocate nothing
+    private Bitmap scaleToInput(Bitmap bitmap) {
+        if (scaledBitmap == null) {
+            scaledBitmap = Bitmap.createBitmap(inputSize, inputSize, Bitmap.Config.ARGB_8888);
+            scaledCanvas = new Canvas(scaledBitmap);
+        }
+        // Cleared first so translucent pixels are not blended with the last image
+        scaledBitmap.eraseColor(0);
+        scaledCanvas.drawBitmap(bitmap, null, scaledRect, scalePaint);
+        return scaledBitmap;
+    }
 
-        tflite.runForMultipleInputsOutputs(inputs, outputs);
+    private void convertBitmapToByteBuffer(Bitmap bitmap) {
+        bitmap.getPixels(pixels, 0, inputSize, 0, 0, inputSize, inputSize);
 
-        // DEBUG: Log all detections for debugging
-        int detections = Math.min(NUM_DETECTIONS, (int) numDetections[0]);
-        Log.d(TAG, "🔍 Model returned " + detections + " raw detections");
+        // Quantized models take RGB values 0-255, float models normalized values
+        if (floatTable != null) {
+            TensorPacker.packArgbFloat(pixels, inputSize * inputSize, floatTable, imgData);
+        } else {
+            TensorPacker.packArgb(pixels, inputSize * inputSize, imgData);
+        }
+    }
 
+    // Runs the model on a prepared input buffer into the given output holder.
+    // Used directly by DetectionPipeline, which owns its own buffers per frame.
+    @Override
+    public void runInference(ByteBuffer input, RawDetections raw) {
+        inputs[0] = input;
+        TRACE.begin(TRACE_INFERENCE);
+        tflite.runForMultipleInputsOutputs(inputs, raw.getOutputMap());
+        TRACE.end(TRACE_INFERENCE);
+
+        int detections = Math.min(raw.getCapacity(), (int) raw.count[0]);
+        TRACE.counter(TRACE_RAW_DETECTIONS, detections);
+        if (Tracer.VERBOSE_LOGS) {
+            logRawDetections(raw, detections);
+        }
+    }
+
+    // Only compiled in with Tracer.VERBOSE_LOGS
+    private void logRawDetections(RawDetections raw, int detections) {
+        Log.d(TAG, "🔍 Model returned " + detections + " raw detections");
         for (int i = 0; i < detections; i++) {
-            float confidence = outputScores[0][i];
-            int classId = (int) outputClasses[0][i];
+            float confidence = raw.scores[0][i];
+            int classId = (int) raw.classes[0][i];
 
             // Log all detections above 10% for debugging
             if (confidence > 0.10f) {
                 String labelName = "invalid_index";
-                if (classId >= 0 && classId < labels.size()) {
-                    labelName = labels.get(classId);
+                if (classId >= 0 && classId < labelMap.size()) {
+                    labelName = labelMap.getLabel(classId);
                 }
 
                 Log.d(TAG, String.format("  [%d] ClassId=%d (%s) Conf=%.1f%%",
@@ -203,78 +316,98 @@ public class ObjectDetector {
         }
     }
 
-    private List<Recognition> getRecognitions() {
-        List<Recognition> recognitions = new ArrayList<>();
+    private void postProcess() {
+        postProcessor.process(decoded);
+        TRACE.counter(TRACE_VALID_DETECTIONS, decoded.size());
 
-        int numDetectionsValue = Math.min(NUM_DETECTIONS, (int) numDetections[0]);
+        if (Tracer.VERBOSE_LOGS) {
+            for (int i = 0; i < decoded.size(); i++) {
+                Log.d(TAG, String.format("✅ VALID: %s (%.1f%%) [ClassId=%d]",
+                        labelMap.getLabel(decoded.getClassId(i)), decoded.getScore(i) * 100,
+                        decoded.getClassId(i)));
+            }
+            Log.d(TAG, "📊 FINAL RESULT: " + decoded.size() + " valid detections");
+        }
+    }
 
-        for (int i = 0; i < numDetectionsValue; i++) {
-            float confidence = outputScores[0][i];
+    // Copies a decoded (already ranked) batch into new Recognition objects, in order
+    public List<Recognition> toRecognitions(DetectionBatch batch) {
+        List<Recognition> recognitions = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            int classId = batch.getClassId(i);
+            RectF location = new RectF(batch.getLeft(i), batch.getTop(i),
+                    batch.getRight(i), batch.getBottom(i));
+            recognitions.add(new Recognition(slotId(batch.getSlot(i)),
+                    labelMap.getLabel(classId), classId, batch.getScore(i), location));
+        }
+        return recognitions;
+    }
 
-            // Only process detections above threshold
-            if (confidence >= MIN_CONFIDENCE) {
-                int classId = (int) outputClasses[0][i];
+    // Tiled batches use slots beyond the raw output size
+    private String slotId(int slot) {
+        return slot < slotIds.length ? slotIds[slot] : String.valueOf(slot);
+    }
 
-                // Validate class ID
-                // Index 0 is "???" (background), so skip it
-                // Valid classes are 1-90
-                if (classId <= 0 || classId >= labels.size()) {
-                    Log.w(TAG, "⚠️ Invalid class ID: " + classId);
-                    continue;
-                }
+    // Shared by every detector in a pool; see cacheNamespace() for the key scope
+    public void setResultCache(DetectionCache cache) {
+        this.resultCache = cache;
+    }
 
-                String label = labels.get(classId);
+    public DetectionCache getResultCache() {
+        return resultCache;
+    }
 
-                // Skip background class
-                if (label.equals("???")) {
-                    continue;
-                }
+    // Cache namespace for this model file and the detector's input size and
+    // threshold. The cache holds decoder output, so post-processor settings
+    // are not part of it.
+    public static long cacheNamespace(ByteBuffer modelBuffer, ModelSpec spec) {
+        return DetectionCache.namespace(BackendTuner.modelHash(modelBuffer),
+                spec.getInputSize(), MIN_CONFIDENCE);
+    }
 
-                // Bounding box: [ymin, xmin, ymax, xmax]
-                float ymin = outputLocations[0][i][0];
-                float xmin = outputLocations[0][i][1];
-                float ymax = outputLocations[0][i][2];
-                float xmax = outputLocations[0][i][3];
-
-                // Clamp to [0,1]
-                xmin = Math.max(0, Math.min(1, xmin));
-                ymin = Math.max(0, Math.min(1, ymin));
-                xmax = Math.max(0, Math.min(1, xmax));
-                ymax = Math.max(0, Math.min(1, ymax));
-
-                // Validate bounding box
-                if (xmax <= xmin || ymax <= ymin) {
-                    Log.w(TAG, "⚠️ Invalid bounding box for " + label);
-                    continue;
-                }
+    public FramePreprocessor getPreprocessor() {
+        return preprocessor;
+    }
 
-                // Convert to pixels (for 300x300 input)
-                float left = xmin * INPUT_SIZE;
-                float top = ymin * INPUT_SIZE;
-                float right = xmax * INPUT_SIZE;
-                float bottom = ymax * INPUT_SIZE;
+    public FrameTransform getLastTransform() {
+        return lastTransform;
+    }
 
-                RectF location = new RectF(left, top, right, bottom);
-                Recognition recognition = new Recognition(
-                        String.valueOf(i), label, confidence, location);
+    // One dummy inference so the first real frame does not pay for lazy init
+    public void warmUp() {
+        if (!isReady || tflite == null) {
+            return;
+        }
+        imgData.rewind();
+        runInference(imgData, detectorOutput);
+    }
 
-                recognitions.add(recognition);
+    public DetectionPostProcessor getPostProcessor() {
+        return postProcessor;
+    }
 
-                Log.d(TAG, String.format("✅ VALID: %s (%.1f%%) [ClassId=%d]",
-                        label, confidence * 100, classId));
-            }
-        }
+    public DetectionDecoder getDecoder() {
+        return decoder;
+    }
 
-        // Sort by confidence (highest first)
-        Collections.sort(recognitions, new Comparator<Recognition>() {
-            @Override
-            public int compare(Recognition r1, Recognition r2) {
-                return Float.compare(r2.getConfidence(), r1.getConfidence());
-            }
-        });
+    @Override
+    public ModelSpec getModelSpec() {
+        return spec;
+    }
 
-        Log.d(TAG, "📊 FINAL RESULT: " + recognitions.size() + " valid detections");
-        return recognitions;
+    @Override
+    public ByteBuffer newInputBuffer() {
+        return spec.newInputBuffer();
+    }
+
+    @Override
+    public RawDetections newOutputBuffer() {
+        return spec.newOutputBuffer();
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
     }
 
     public boolean isReady() {
@@ -286,23 +419,40 @@ public class ObjectDetector {
             tflite.close();
             tflite = null;
         }
+        InterpreterTuner.closeDelegate(delegate);
+        delegate = null;
+        if (scaledBitmap != null) {
+            scaledBitmap.recycle();
+            scaledBitmap = null;
+        }
         isReady = false;
         Log.d(TAG, "🔒 ObjectDetector closed");
     }
 
     public int getLabelsCount() {
-        return labels.size();
+        return labelMap.size();
+    }
+
+    // Display names precomputed per label, indexed by DetectionBatch class ids
+    public LabelMap getLabelMap() {
+        return labelMap;
     }
 
     public static class Recognition {
         private final String id;
         private final String title;
+        private final int classId;
         private final float confidence;
         private final RectF location;
 
         public Recognition(String id, String title, float confidence, RectF location) {
+            this(id, title, -1, confidence, location);
+        }
+
+        public Recognition(String id, String title, int classId, float confidence, RectF location) {
             this.id = id;
             this.title = title;
+            this.classId = classId;
             this.confidence = confidence;
             this.location = location;
         }
@@ -315,6 +465,11 @@ public class ObjectDetector {
             return title;
         }
 
+        // Index into the label map, -1 if unknown
+        public int getClassId() {
+            return classId;
+        }
+
         public float getConfidence() {
             return confidence;
         }
@@ -323,6 +478,11 @@ public class ObjectDetector {
             return new RectF(location);
         }
 
+        // Copy into a caller-owned rect, avoids the defensive copy above
+        public void getLocation(RectF out) {
+            out.set(location);
+        }
+
         @Override
         public String toString() {
             return String.format("%s (%.1f%%)", title, confidence * 100);
@@ -0,0 +1,271 @@
+package com.example.object_detection_app;
+
+import android.view.Choreographer;
+import android.widget.TextView;
+
+import com.example.object_detection_app.core.DetectionBatch;
+import com.example.object_detection_app.core.LabelMap;
+import com.example.object_detection_app.core.PerfStats;
+import com.example.object_detection_app.core.TraceBuffer;
+import com.example.object_detection_app.core.Tracer;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Detection results -> result and history text, at most once per display
+// frame. The pipeline thread copies each batch into a recycled buffer and
+// swaps it into a single pending slot; a result still waiting there is
+// superseded, so the main thread never holds more than one and only the
+// newest is drawn. The slot going from empty to full posts one Choreographer
+// callback. Text is built into reused StringBuilders and setText is skipped
+// when it equals what is already shown (TextView copies the text, so the
+// builders can be reused right away).
+// Detection counts are taken on submit, so coalesced results still count.
+public class ResultPresenter implements Choreographer.FrameCallback {
+
+    public interface Listener {
+        // UI thread, once per drawn result (text changed or not)
+        void onPresented(DetectionBatch batch, LabelMap labels, int topTrackId);
+    }
+
+    private static final TraceBuffer TRACE = Tracer.get();
+    private static final int TRACE_UI_RESULTS = TRACE.register("ui.results");
+
+    private static final String NO_OBJECTS = "No objects detected\n\nPoint camera at common objects like:\n• Person\n• Chair, Table\n• Laptop, Phone\n• Cup, Bottle";
+    private static final String NOT_CONFIDENT = "No confident detections\n\nMove closer or improve lighting";
+    private static final int MAX_LISTED = 4;
+
+    // One being drawn, one pending, one being filled
+    private static final int BUFFERS = 3;
+
+    private static final class Pending {
+        final DetectionBatch batch = new DetectionBatch(16);
+        // Labels of the model that produced the batch (models can be swapped)
+        LabelMap labels;
+        int topTrackId;
+        long postedNanos;
+    }
+
+    private final TextView resultView;
+    private final TextView historyView;
+    private final PerfStats perfStats;
+    private final Listener listener;
+    private final Choreographer choreographer;
+
+    private final ArrayBlockingQueue<Pending> free = new ArrayBlockingQueue<>(BUFFERS);
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+    private volatile float confidenceThreshold = 0.5f;
+    private volatile boolean stopped = false;
+
+    // History, counted on the pipeline thread
+    private final Set<String> seenLabels = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger detections = new AtomicInteger();
+
+    // What is on screen; UI thread only
+    private StringBuilder shownResult = new StringBuilder();
+    private StringBuilder nextResult = new StringBuilder();
+    private final StringBuilder historyText = new StringBuilder();
+    private int shownUnique = -1;
+    private int shownDetections = -1;
+
+    // Pipeline thread writes, overlay reads
+    private long submitted = 0;
+    private long coalesced = 0;
+    private long dropped = 0;
+    // UI thread
+    private long drawn = 0;
+    private long unchanged = 0;
+
+    // UI thread (uses its Choreographer)
+    public ResultPresenter(TextView resultView, TextView historyView, PerfStats perfStats,
+                           Listener listener) {
+        this.resultView = resultView;
+        this.historyView = historyView;
+        this.perfStats = perfStats;
+        this.listener = listener;
+        this.choreographer = Choreographer.getInstance();
+        for (int i = 0; i < BUFFERS; i++) {
+            free.add(new Pending());
+        }
+    }
+
+    public ResultPresenter setConfidenceThreshold(float confidenceThreshold) {
+        this.confidenceThreshold = confidenceThreshold;
+        return this;
+    }
+
+    // Pipeline thread; the batch may be recycled once this returns.
+    // False if no buffer was free and the result was dropped.
+    public boolean submit(DetectionBatch batch, LabelMap labels, int topTrackId) {
+        if (stopped) {
+            return false;
+        }
+        submitted++;
+        float threshold = confidenceThreshold;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.getScore(i) >= threshold) {
+                seenLabels.add(labels.getLabel(batch.getClassId(i)));
+                detections.incrementAndGet();
+            }
+        }
+
+        Pending next = free.poll();
+        if (next == null) {
+            dropped++;
+            return false;
+        }
+        next.batch.copyFrom(batch);
+        next.labels = labels;
+        next.topTrackId = topTrackId;
+        next.postedNanos = System.nanoTime();
+        Pending superseded = pending.getAndSet(next);
+        if (superseded != null) {
+            // Its frame callback is already posted and will draw this one
+            free.offer(superseded);
+            coalesced++;
+        } else {
+            choreographer.postFrameCallback(this);
+        }
+        return true;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        Pending current = pending.getAndSet(null);
+        if (current == null) {
+            // Taken by showMessage()
+            return;
+        }
+        try {
+            if (stopped) {
+                return;
+            }
+            drawn++;
+            TRACE.begin(TRACE_UI_RESULTS);
+            render(current.batch, current.labels);
+            TRACE.end(TRACE_UI_RESULTS);
+            perfStats.record(PerfStats.Stage.UI_DISPATCH, System.nanoTime() - current.postedNanos);
+            listener.onPresented(current.batch, current.labels, current.topTrackId);
+        } finally {
+            free.offer(current);
+        }
+    }
+
+    // Batch is ranked by the post-processor (highest first); names come
+    // precomputed from the label map
+    private void render(DetectionBatch batch, LabelMap labels) {
+        float threshold = confidenceThreshold;
+        StringBuilder text = nextResult;
+        text.setLength(0);
+        if (batch.size() == 0) {
+            text.append(NO_OBJECTS);
+        } else if (batch.getScore(0) < threshold) {
+            text.append(NOT_CONFIDENT);
+        } else {
+            // TOP object highlighted, then the others
+            text.append("🎯 PRIMARY DETECTION:\n\n📍 ")
+                    .append(labels.getHeadline(batch.getClassId(0)))
+                    .append("\n   Confidence: ");
+            appendPercent(text, batch.getScore(0));
+            text.append("\n\n");
+            if (batch.size() > 1) {
+                text.append("Other objects:\n");
+                for (int i = 1; i < Math.min(batch.size(), MAX_LISTED); i++) {
+                    if (batch.getScore(i) >= threshold) {
+                        text.append("  • ").append(labels.getDisplayName(batch.getClassId(i)))
+                                .append(" (");
+                        appendPercent(text, batch.getScore(i));
+                        text.append(")\n");
+                    }
+                }
+            }
+            updateHistory();
+        }
+        showResult(text);
+    }
+
+    private void showResult(StringBuilder text) {
+        if (contentEquals(text, shownResult)) {
+            unchanged++;
+            return;
+        }
+        resultView.setText(text);
+        nextResult = shownResult;
+        shownResult = text;
+    }
+
+    private void updateHistory() {
+        int unique = seenLabels.size();
+        int count = detections.get();
+        if (unique == shownUnique && count == shownDetections) {
+            return;
+        }
+        historyText.setLength(0);
+        historyText.append("Total: ").append(unique).append(" unique | ")
+                .append(count).append(" detections");
+        historyView.setText(historyText);
+        shownUnique = unique;
+        shownDetections = count;
+    }
+
+    // Same digits as %.1f%% without going through Formatter
+    private static void appendPercent(StringBuilder out, float fraction) {
+        int tenths = Math.round(fraction * 1000f);
+        out.append(tenths / 10).append('.').append(tenths % 10).append('%');
+    }
+
+    private static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = a.length() - 1; i >= 0; i--) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // UI thread: replaces the result text and clears the history, dropping
+    // a result still waiting for its frame
+    public void showMessage(String message) {
+        Pending waiting = pending.getAndSet(null);
+        if (waiting != null) {
+            free.offer(waiting);
+        }
+        seenLabels.clear();
+        detections.set(0);
+        shownUnique = -1;
+        shownDetections = -1;
+        historyView.setText("");
+        nextResult.setLength(0);
+        nextResult.append(message);
+        showResult(nextResult);
+    }
+
+    // Results submitted after this are ignored
+    public void stop() {
+        stopped = true;
+        Pending waiting = pending.getAndSet(null);
+        if (waiting != null) {
+            free.offer(waiting);
+        }
+    }
+
+    public int getUniqueObjects() {
+        return seenLabels.size();
+    }
+
+    public int getDetectionCount() {
+        return detections.get();
+    }
+
+    public String getStats() {
+        return String.format(Locale.US, "UI: %d submitted, %d drawn (%d unchanged), %d coalesced, %d dropped",
+                submitted, drawn, unchanged, coalesced, dropped);
+    }
+}
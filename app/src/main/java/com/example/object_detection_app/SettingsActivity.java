@@ -19,8 +19,16 @@ public class SettingsActivity extends AppCompatActivity {
     private static final String KEY_VOICE_FEEDBACK = "voice_feedback";
     private static final String KEY_SENSITIVITY = "sensitivity";
     private static final String KEY_VOLUME = "volume";
+    private static final String KEY_TILED = "tiled_detection";
+    private static final String KEY_ROI = "roi_detection";
+    private static final String KEY_ROI_X = "roi_center_x";
+    private static final String KEY_ROI_Y = "roi_center_y";
+    private static final String KEY_REFINE = "refine_detection";
 
     private SwitchCompat switchVoice;
+    private SwitchCompat switchTiled;
+    private SwitchCompat switchRoi;
+    private SwitchCompat switchRefine;
     private RadioGroup radioSensitivity;
     private SeekBar volumeSeekBar;
     private TextView tvVolumeValue;
@@ -39,6 +47,9 @@ public class SettingsActivity extends AppCompatActivity {
 
     private void initializeViews() {
         switchVoice = findViewById(R.id.switchVoice);
+        switchTiled = findViewById(R.id.switchTiled);
+        switchRoi = findViewById(R.id.switchRoi);
+        switchRefine = findViewById(R.id.switchRefine);
         radioSensitivity = findViewById(R.id.radioSensitivity);
         volumeSeekBar = findViewById(R.id.volumeSeekBar);
         tvVolumeValue = findViewById(R.id.tvVolumeValue);
@@ -65,6 +76,13 @@ public class SettingsActivity extends AppCompatActivity {
         boolean isVoiceEnabled = sharedPreferences.getBoolean(KEY_VOICE_FEEDBACK, true);
         switchVoice.setChecked(isVoiceEnabled);
 
+        // Load tiled detection setting
+        switchTiled.setChecked(sharedPreferences.getBoolean(KEY_TILED, false));
+
+        // Load focus region and confirmation settings
+        switchRoi.setChecked(sharedPreferences.getBoolean(KEY_ROI, false));
+        switchRefine.setChecked(sharedPreferences.getBoolean(KEY_REFINE, false));
+
         // Load sensitivity setting
         String sensitivity = sharedPreferences.getString(KEY_SENSITIVITY, "Low");
         switch (sensitivity) {
@@ -91,6 +109,24 @@ public class SettingsActivity extends AppCompatActivity {
             showToast(isChecked ? "Voice feedback enabled" : "Voice feedback disabled");
         });
 
+        // Tiled detection switch (read when the camera screen opens)
+        switchTiled.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            saveSetting(KEY_TILED, isChecked);
+            showToast(isChecked ? "High-resolution detection enabled" : "High-resolution detection disabled");
+        });
+
+        // Focus region switch; the region is moved by tapping the camera preview
+        switchRoi.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            saveSetting(KEY_ROI, isChecked);
+            showToast(isChecked ? "Focus region enabled, tap the preview to move it" : "Focus region disabled");
+        });
+
+        // Confirm uncertain objects with a zoomed-in second look
+        switchRefine.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            saveSetting(KEY_REFINE, isChecked);
+            showToast(isChecked ? "Double-check enabled" : "Double-check disabled");
+        });
+
         // Sensitivity radio group
         radioSensitivity.setOnCheckedChangeListener((group, checkedId) -> {
             String level = getSensitivityLevel(checkedId);
@@ -151,12 +187,19 @@ public class SettingsActivity extends AppCompatActivity {
     private void resetToDefault() {
         // Reset to default values
         switchVoice.setChecked(true);
+        switchTiled.setChecked(false);
+        switchRoi.setChecked(false);
+        switchRefine.setChecked(false);
         radioSensitivity.check(R.id.radioLow);
         volumeSeekBar.setProgress(70);
         updateVolumeText(70);
 
         // Save defaults
         saveSetting(KEY_VOICE_FEEDBACK, true);
+        saveSetting(KEY_TILED, false);
+        saveSetting(KEY_ROI, false);
+        saveSetting(KEY_REFINE, false);
+        sharedPreferences.edit().remove(KEY_ROI_X).remove(KEY_ROI_Y).apply();
         saveSetting(KEY_SENSITIVITY, "Low");
         saveSetting(KEY_VOLUME, 70);
 
@@ -181,6 +224,13 @@ public class SettingsActivity extends AppCompatActivity {
         // Save voice feedback
         saveSetting(KEY_VOICE_FEEDBACK, switchVoice.isChecked());
 
+        // Save tiled detection
+        saveSetting(KEY_TILED, switchTiled.isChecked());
+
+        // Save focus region and confirmation
+        saveSetting(KEY_ROI, switchRoi.isChecked());
+        saveSetting(KEY_REFINE, switchRefine.isChecked());
+
         // Save sensitivity
         String sensitivity = getSensitivityLevel(radioSensitivity.getCheckedRadioButtonId());
         saveSetting(KEY_SENSITIVITY, sensitivity);
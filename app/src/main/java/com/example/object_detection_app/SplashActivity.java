@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
 import android.widget.ImageView;
@@ -16,6 +17,25 @@ public class SplashActivity extends AppCompatActivity {
     private ImageView imgLogo;
     private TextView tvAppName, tvTagline, tvLoading;
     private Handler handler = new Handler(Looper.getMainLooper());
+    private boolean navigated = false;
+    private long shownAt;
+
+    // Keep the logo up long enough to be seen, but never wait forever on the model
+    private static final long MIN_SPLASH_MS = 800;
+    private static final long MAX_SPLASH_MS = 6000;
+
+    private final DetectorHolder.Callback detectorCallback = new DetectorHolder.Callback() {
+        @Override
+        public void onReady(ObjectDetector detector) {
+            navigateAfterMinimum();
+        }
+
+        @Override
+        public void onError(Exception error) {
+            // CameraActivity reports the failure; don't keep the user here
+            navigateAfterMinimum();
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,18 +72,33 @@ public class SplashActivity extends AppCompatActivity {
         tvLoading.startAnimation(blink);
     }
 
+    // Leave as soon as the detector is loaded and warmed up
     private void navigateNext() {
-        handler.postDelayed(() -> {
-            Intent intent = new Intent(SplashActivity.this, MainMenuActivity.class);
-            startActivity(intent);
-            overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
-            finish();
-        }, 2300);
+        shownAt = SystemClock.elapsedRealtime();
+        DetectorHolder.get(this).whenReady(detectorCallback);
+        handler.postDelayed(this::goToMenu, MAX_SPLASH_MS);
+    }
+
+    private void navigateAfterMinimum() {
+        long elapsed = SystemClock.elapsedRealtime() - shownAt;
+        handler.postDelayed(this::goToMenu, Math.max(0, MIN_SPLASH_MS - elapsed));
+    }
+
+    private void goToMenu() {
+        if (navigated || isFinishing()) {
+            return;
+        }
+        navigated = true;
+        Intent intent = new Intent(SplashActivity.this, MainMenuActivity.class);
+        startActivity(intent);
+        overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
+        finish();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         handler.removeCallbacksAndMessages(null);
+        DetectorHolder.get(this).removeCallback(detectorCallback);
     }
 }
@@ -0,0 +1,344 @@
+package com.example.object_detection_app;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.speech.tts.Voice;
+import android.util.Log;
+
+import com.example.object_detection_app.core.LabelMap;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Announcements as pre-recorded clips: every label x phrase is synthesized
+// once in the background (synthesizeToFile) into a cache directory keyed by
+// voice, locale and rate, and played back through a SoundPool, which starts
+// a loaded clip within a mixer period instead of paying the engine's
+// synthesis time on every announcement. Files survive restarts, so after the
+// first run preparing is just loading them. Anything not ready yet (or a
+// failed clip) returns false from play() and the caller speaks it live.
+// Synthesis uses its own engine instance: the live engine's QUEUE_FLUSH
+// would otherwise drop queued synthesis requests.
+// play()/stop() on the UI thread, prepare()/close() from anywhere.
+public class UtteranceCache {
+    private static final String TAG = "UtteranceCache";
+
+    // The announcement templates; the confidence picks one
+    public enum Phrase {
+        PLAIN, I_SEE, DETECTED;
+
+        public static Phrase forConfidence(float confidence) {
+            if (confidence >= 0.80f) {
+                return DETECTED;
+            } else if (confidence >= 0.60f) {
+                return I_SEE;
+            }
+            return PLAIN;
+        }
+
+        public String text(String name) {
+            switch (this) {
+                case DETECTED:
+                    return name + " detected";
+                case I_SEE:
+                    return "I see " + name;
+                default:
+                    return name;
+            }
+        }
+    }
+
+    private static final String CACHE_DIR = "utterances";
+    private static final long SYNTH_TIMEOUT_MS = 5000;
+    private static final long INIT_TIMEOUT_MS = 10000;
+
+    private final Context appContext;
+    private final Locale locale;
+    private final Voice voice;
+    private final float speechRate;
+    private final File dir;
+
+    private final ExecutorService synthesizer = Executors.newSingleThreadExecutor();
+    private final SoundPool soundPool;
+
+    // Display name -> SoundPool sample id per phrase, 0 until loaded
+    private final Map<String, AtomicIntegerArray> samples = new ConcurrentHashMap<>();
+    // Sample id -> where it goes once decoded; guarded by itself
+    private final Map<Integer, Runnable> loading = new HashMap<>();
+    private final AtomicInteger loaded = new AtomicInteger();
+    // Clips handed to the pool; written by the synthesizer thread only
+    private volatile int expected = 0;
+    // Bumped by prepare()/close(); a job for an older generation stops
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // Synthesizer thread only
+    private TextToSpeech engine;
+    private volatile CountDownLatch pendingSynthesis;
+    private volatile String pendingUtteranceId;
+    private volatile boolean synthesisFailed;
+
+    // UI thread
+    private int lastStreamId = 0;
+    private long played = 0;
+    private long missed = 0;
+
+    // The live engine's voice, or null for the engine default of the locale
+    public UtteranceCache(Context context, Locale locale, Voice voice, float speechRate) {
+        this.appContext = context.getApplicationContext();
+        this.locale = locale;
+        this.voice = voice;
+        this.speechRate = speechRate;
+        this.dir = new File(new File(appContext.getCacheDir(), CACHE_DIR), cacheKey());
+        this.soundPool = new SoundPool.Builder()
+                .setMaxStreams(1)
+                .setAudioAttributes(new AudioAttributes.Builder()
+                        .setUsage(AudioAttributes.USAGE_ASSISTANCE_ACCESSIBILITY)
+                        .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                        .build())
+                .build();
+        soundPool.setOnLoadCompleteListener((pool, sampleId, status) -> {
+            Runnable onLoaded;
+            synchronized (loading) {
+                onLoaded = loading.remove(sampleId);
+            }
+            if (onLoaded != null && status == 0) {
+                onLoaded.run();
+            }
+        });
+    }
+
+    // Same voice, locale and rate -> same directory, whatever the model
+    private String cacheKey() {
+        String name = voice != null ? voice.getName() : "default";
+        return slug(name + "_" + locale.toLanguageTag()
+                + String.format(Locale.US, "_%.2f", speechRate));
+    }
+
+    private static String slug(String text) {
+        return text.toLowerCase(Locale.US).replaceAll("[^a-z0-9.]+", "_");
+    }
+
+    // Synthesizes and loads every phrase of the labels (already cached clips
+    // are only loaded). Replaces a preparation still running.
+    public void prepare(LabelMap labels) {
+        int job = generation.incrementAndGet();
+        synthesizer.execute(() -> prepareAll(labels, job));
+    }
+
+    private void prepareAll(LabelMap labels, int job) {
+        long start = System.currentTimeMillis();
+        pruneOtherVoices();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "❌ Cannot create " + dir);
+            return;
+        }
+
+        int phrases = Phrase.values().length;
+        int count = 0;
+        int synthesized = 0;
+        for (int i = 0; i < labels.size(); i++) {
+            String name = labels.getDisplayName(i);
+            if (name.isEmpty() || name.equals("???") || samples.containsKey(name)) {
+                continue;
+            }
+            AtomicIntegerArray ids = new AtomicIntegerArray(phrases);
+            for (Phrase phrase : Phrase.values()) {
+                if (generation.get() != job) {
+                    return;
+                }
+                File clip = new File(dir, phrase.ordinal() + "_" + slug(name) + ".wav");
+                if (!clip.isFile() || clip.length() == 0) {
+                    if (!synthesize(phrase.text(name), clip)) {
+                        continue;
+                    }
+                    synthesized++;
+                }
+                if (load(clip, ids, phrase.ordinal())) {
+                    count++;
+                }
+            }
+            samples.put(name, ids);
+        }
+        Log.d(TAG, "🗣️ " + count + " clips ready to load (" + synthesized + " synthesized) in "
+                + (System.currentTimeMillis() - start) + " ms, " + dir.getName());
+    }
+
+    private boolean load(File clip, AtomicIntegerArray ids, int index) {
+        synchronized (loading) {
+            int sampleId = soundPool.load(clip.getAbsolutePath(), 1);
+            if (sampleId == 0) {
+                return false;
+            }
+            loading.put(sampleId, () -> {
+                ids.set(index, sampleId);
+                loaded.incrementAndGet();
+            });
+        }
+        expected++;
+        return true;
+    }
+
+    // Blocks until the clip is written; synthesizer thread
+    private boolean synthesize(String text, File clip) {
+        if (!ensureEngine()) {
+            return false;
+        }
+        // Written under a temporary name so a killed process leaves no half clip
+        File partial = new File(clip.getPath() + ".part");
+        String utteranceId = "cache-" + clip.getName();
+        CountDownLatch done = new CountDownLatch(1);
+        pendingSynthesis = done;
+        pendingUtteranceId = utteranceId;
+        synthesisFailed = false;
+        if (engine.synthesizeToFile(text, null, partial, utteranceId) != TextToSpeech.SUCCESS) {
+            Log.w(TAG, "⚠️ Synthesis rejected: " + text);
+            return false;
+        }
+        try {
+            if (!done.await(SYNTH_TIMEOUT_MS, TimeUnit.MILLISECONDS) || synthesisFailed) {
+                Log.w(TAG, "⚠️ Synthesis failed: " + text);
+                partial.delete();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            partial.delete();
+            return false;
+        }
+        return partial.renameTo(clip);
+    }
+
+    private boolean ensureEngine() {
+        if (engine != null) {
+            return true;
+        }
+        CountDownLatch ready = new CountDownLatch(1);
+        int[] initStatus = {TextToSpeech.ERROR};
+        TextToSpeech tts = new TextToSpeech(appContext, status -> {
+            initStatus[0] = status;
+            ready.countDown();
+        });
+        try {
+            if (!ready.await(INIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    || initStatus[0] != TextToSpeech.SUCCESS) {
+                Log.e(TAG, "❌ Synthesis engine did not start");
+                tts.shutdown();
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tts.shutdown();
+            return false;
+        }
+
+        tts.setLanguage(locale);
+        if (voice != null) {
+            tts.setVoice(voice);
+        }
+        tts.setSpeechRate(speechRate);
+        tts.setOnUtteranceProgressListener(new UtteranceProgressListener() {
+            @Override
+            public void onStart(String utteranceId) {
+            }
+
+            @Override
+            public void onDone(String utteranceId) {
+                finish(utteranceId, false);
+            }
+
+            @Override
+            public void onError(String utteranceId) {
+                finish(utteranceId, true);
+            }
+        });
+        engine = tts;
+        return true;
+    }
+
+    private void finish(String utteranceId, boolean failed) {
+        CountDownLatch done = pendingSynthesis;
+        if (done != null && utteranceId.equals(pendingUtteranceId)) {
+            synthesisFailed = failed;
+            done.countDown();
+        }
+    }
+
+    // Clips of other voices/rates are never played again
+    private void pruneOtherVoices() {
+        File[] voices = dir.getParentFile().listFiles();
+        if (voices == null) {
+            return;
+        }
+        for (File voice : voices) {
+            if (voice.equals(dir)) {
+                continue;
+            }
+            File[] clips = voice.listFiles();
+            if (clips != null) {
+                for (File clip : clips) {
+                    clip.delete();
+                }
+            }
+            voice.delete();
+        }
+    }
+
+    // Plays the cached clip, cutting off the previous one; false if it is
+    // not loaded (yet), in which case nothing was played
+    public boolean play(String displayName, Phrase phrase) {
+        AtomicIntegerArray ids = samples.get(displayName);
+        int sampleId = ids != null ? ids.get(phrase.ordinal()) : 0;
+        int streamId = sampleId != 0 ? soundPool.play(sampleId, 1f, 1f, 1, 0, 1f) : 0;
+        if (streamId == 0) {
+            missed++;
+            return false;
+        }
+        lastStreamId = streamId;
+        played++;
+        return true;
+    }
+
+    public void stop() {
+        if (lastStreamId != 0) {
+            soundPool.stop(lastStreamId);
+            lastStreamId = 0;
+        }
+    }
+
+    // A running preparation stops after its current clip; the engine and the
+    // pool are released on the synthesizer thread once it has
+    public void close() {
+        generation.incrementAndGet();
+        CountDownLatch done = pendingSynthesis;
+        if (done != null) {
+            synthesisFailed = true;
+            done.countDown();
+        }
+        synthesizer.execute(() -> {
+            if (engine != null) {
+                engine.shutdown();
+                engine = null;
+            }
+            soundPool.release();
+        });
+        synthesizer.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "cached %d/%d, %d played, %d live",
+                loaded.get(), expected, played, missed);
+    }
+}
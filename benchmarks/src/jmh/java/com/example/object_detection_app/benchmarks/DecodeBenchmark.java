@@ -0,0 +1,48 @@
+package com.example.object_detection_app.benchmarks;
+
+import com.example.object_detection_app.core.DetectionBatch;
+import com.example.object_detection_app.core.DetectionDecoder;
+import com.example.object_detection_app.core.RawDetections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Raw SSD tensors -> filtered, clamped, scaled and score-sorted batch.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DecodeBenchmark {
+
+    static final int NUM_CLASSES = 91;
+
+    @Param({"10", "25", "100"})
+    public int detections;
+
+    private DetectionDecoder decoder;
+    private RawDetections raw;
+    private DetectionBatch batch;
+
+    @Setup
+    public void setUp() {
+        boolean[] valid = new boolean[NUM_CLASSES];
+        Arrays.fill(valid, true);
+        valid[0] = false;
+        decoder = new DetectionDecoder(300, 0.5f, valid);
+        raw = SyntheticFrames.rawDetections(detections, NUM_CLASSES);
+        batch = new DetectionBatch(detections);
+    }
+
+    @Benchmark
+    public int decode() {
+        return decoder.decode(raw, batch);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.object_detection_app.benchmarks;
+
+import com.example.object_detection_app.core.TensorPacker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// ARGB int[] -> uint8 RGB tensor: the loop behind convertBitmapToByteBuffer.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PixelPackingBenchmark {
+
+    private static final int PIXELS = 300 * 300;
+
+    private int[] pixels;
+    private ByteBuffer out;
+
+    @Setup
+    public void setUp() {
+        pixels = SyntheticFrames.argbPixels(PIXELS);
+        out = SyntheticFrames.direct(PIXELS * 3);
+    }
+
+    @Benchmark
+    public ByteBuffer packArgb() {
+        TensorPacker.packArgb(pixels, PIXELS, out);
+        return out;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.object_detection_app.benchmarks;
+
+import com.example.object_detection_app.core.DetectionBatch;
+import com.example.object_detection_app.core.DetectionDecoder;
+import com.example.object_detection_app.core.DetectionPostProcessor;
+import com.example.object_detection_app.core.FakeInferenceBackend;
+import com.example.object_detection_app.core.ObjectTracker;
+import com.example.object_detection_app.core.RawDetections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Everything after the model on the camera path: decode, the detector's
+// DetectionPostProcessor (default settings, as ObjectDetector runs it) and the
+// tracker update. The fake backend produces fresh output each op (no
+// simulated latency) so the tracker sees changing boxes like in the app.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PostProcessingBenchmark {
+
+    @Param({"10", "25", "100"})
+    public int detections;
+
+    private FakeInferenceBackend backend;
+    private DetectionDecoder decoder;
+    private DetectionPostProcessor postProcessor;
+    private ObjectTracker tracker;
+    private ByteBuffer input;
+    private RawDetections raw;
+    private DetectionBatch batch;
+    private long frame;
+
+    @Setup
+    public void setUp() {
+        backend = new FakeInferenceBackend(300, detections, DecodeBenchmark.NUM_CLASSES,
+                SyntheticFrames.SEED, 0);
+        boolean[] valid = new boolean[DecodeBenchmark.NUM_CLASSES];
+        Arrays.fill(valid, true);
+        valid[0] = false;
+        decoder = new DetectionDecoder(300, 0.5f, valid);
+        postProcessor = new DetectionPostProcessor();
+        tracker = new ObjectTracker(16, 0.3f, 3);
+        input = backend.newInputBuffer();
+        raw = backend.newOutputBuffer();
+        batch = new DetectionBatch(detections);
+    }
+
+    @Benchmark
+    public int postProcess() {
+        // Vary one input byte so each op yields different detections
+        input.put(0, (byte) frame);
+        backend.runInference(input, raw);
+
+        decoder.decode(raw, batch);
+        postProcessor.process(batch);
+        tracker.update(batch.boxArray(), batch.classIdArray(), batch.scoreArray(),
+                batch.size(), frame * 200);
+        frame++;
+        return tracker.getTrackCount();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.object_detection_app.benchmarks;
+
+import com.example.object_detection_app.core.DetectionBatch;
+import com.example.object_detection_app.core.DetectionPostProcessor;
+import com.example.object_detection_app.core.DetectionRanker;
+import com.example.object_detection_app.core.RawDetections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Sorting and suppression on an unsorted batch. Each op starts by restoring
+// the unsorted input; reset() measures that copy alone so it can be
+// subtracted from the other results. The larger sizes stand in for models
+// that emit thousands of anchors, where top-K bounds the NMS cost.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RankingBenchmark {
+
+    @Param({"10", "25", "100", "1000", "5000"})
+    public int detections;
+
+    private DetectionBatch unsorted;
+    private DetectionBatch work;
+    private DetectionPostProcessor hardTopK;
+    private DetectionPostProcessor hardAgnosticTopK;
+    private DetectionPostProcessor softTopK;
+
+    @Setup
+    public void setUp() {
+        RawDetections raw = SyntheticFrames.rawDetections(detections, DecodeBenchmark.NUM_CLASSES);
+        unsorted = new DetectionBatch(detections);
+        for (int i = 0; i < detections; i++) {
+            float[] box = raw.locations[0][i];
+            unsorted.add((int) raw.classes[0][i], raw.scores[0][i],
+                    box[1] * 300, box[0] * 300, box[3] * 300, box[2] * 300, i);
+        }
+        work = new DetectionBatch(detections);
+        hardTopK = new DetectionPostProcessor().setTopK(100).setIouThreshold(0.5f);
+        hardAgnosticTopK = new DetectionPostProcessor().setTopK(100).setIouThreshold(0.5f)
+                .setClassAware(false);
+        softTopK = new DetectionPostProcessor().setTopK(100)
+                .setSuppression(DetectionPostProcessor.Suppression.SOFT_GAUSSIAN);
+    }
+
+    @Benchmark
+    public int reset() {
+        SyntheticFrames.copy(unsorted, work);
+        return work.size();
+    }
+
+    @Benchmark
+    public int sortByScore() {
+        SyntheticFrames.copy(unsorted, work);
+        DetectionRanker.sortByScore(work);
+        return work.size();
+    }
+
+    @Benchmark
+    public int selectTop100() {
+        SyntheticFrames.copy(unsorted, work);
+        return DetectionRanker.selectTopK(work, 100);
+    }
+
+    @Benchmark
+    public int topKAndHardNms() {
+        SyntheticFrames.copy(unsorted, work);
+        return hardTopK.process(work);
+    }
+
+    @Benchmark
+    public int topKAndHardNmsAgnostic() {
+        SyntheticFrames.copy(unsorted, work);
+        return hardAgnosticTopK.process(work);
+    }
+
+    @Benchmark
+    public int topKAndSoftNms() {
+        SyntheticFrames.copy(unsorted, work);
+        return softTopK.process(work);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.object_detection_app.benchmarks;
+
+import com.example.object_detection_app.core.FramePreprocessor;
+import com.example.object_detection_app.core.FrameTransform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// Full preprocessing step (rotate + scale + YUV->RGB) from a 640x480 NV21
+// frame into the 300x300 input, per scale mode and sensor rotation.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResizeBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    @Param({"STRETCH", "LETTERBOX", "CENTER_CROP"})
+    public FramePreprocessor.ScaleMode scaleMode;
+
+    @Param({"0", "90"})
+    public int rotation;
+
+    private FramePreprocessor preprocessor;
+    private ByteBuffer[] planes;
+    private ByteBuffer out;
+
+    @Setup
+    public void setUp() {
+        preprocessor = new FramePreprocessor(300, 300);
+        preprocessor.setScaleMode(scaleMode);
+        planes = SyntheticFrames.yuvPlanes(WIDTH, HEIGHT, 2);
+        out = SyntheticFrames.direct(300 * 300 * 3);
+    }
+
+    @Benchmark
+    public FrameTransform process() {
+        return preprocessor.process(planes[0], planes[1], planes[2],
+                SyntheticFrames.yRowStride(WIDTH), SyntheticFrames.uvRowStride(WIDTH, 2), 2,
+                WIDTH, HEIGHT, rotation, out);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.object_detection_app.benchmarks;
+
+import com.example.object_detection_app.core.DetectionBatch;
+import com.example.object_detection_app.core.RawDetections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+// Deterministic inputs shared by the benchmarks: camera-like YUV planes,
+// ARGB pixel arrays and SSD-style raw outputs. Fixed seeds keep runs comparable
+// against the stored baseline.
+final class SyntheticFrames {
+
+    static final long SEED = 42L;
+
+    private SyntheticFrames() {
+    }
+
+    // Y plane with row padding plus U/V planes laid out either planar
+    // (pixelStride 1, I420) or interleaved (pixelStride 2, NV21 as most
+    // camera HALs deliver it). Returns {y, u, v}; strides via the helpers below.
+    static ByteBuffer[] yuvPlanes(int width, int height, int uvPixelStride) {
+        Random random = new Random(SEED);
+        int yStride = yRowStride(width);
+        int uvStride = uvRowStride(width, uvPixelStride);
+
+        ByteBuffer y = direct(yStride * height);
+        for (int i = 0; i < y.capacity(); i++) {
+            y.put(i, (byte) random.nextInt(256));
+        }
+
+        int uvRows = height / 2;
+        if (uvPixelStride == 2) {
+            // One interleaved VU buffer; U is the same memory offset by one byte
+            ByteBuffer vu = direct(uvStride * uvRows);
+            for (int i = 0; i < vu.capacity(); i++) {
+                vu.put(i, (byte) random.nextInt(256));
+            }
+            ByteBuffer v = vu.duplicate();
+            vu.position(1);
+            ByteBuffer u = vu.slice();
+            return new ByteBuffer[]{y, u, v};
+        }
+
+        ByteBuffer u = direct(uvStride * uvRows);
+        ByteBuffer v = direct(uvStride * uvRows);
+        for (int i = 0; i < u.capacity(); i++) {
+            u.put(i, (byte) random.nextInt(256));
+            v.put(i, (byte) random.nextInt(256));
+        }
+        return new ByteBuffer[]{y, u, v};
+    }
+
+    // Rows padded to 64 bytes, as the hardware usually does
+    static int yRowStride(int width) {
+        return (width + 63) & ~63;
+    }
+
+    static int uvRowStride(int width, int uvPixelStride) {
+        return uvPixelStride == 2 ? yRowStride(width) : yRowStride(width / 2);
+    }
+
+    static int[] argbPixels(int count) {
+        Random random = new Random(SEED);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+
+    // SSD output with every score above threshold and random (overlapping)
+    // boxes, so decoding and suppression do their full amount of work
+    static RawDetections rawDetections(int count, int numClasses) {
+        Random random = new Random(SEED);
+        RawDetections raw = new RawDetections(count);
+        for (int i = 0; i < count; i++) {
+            float ymin = random.nextFloat() * 0.7f;
+            float xmin = random.nextFloat() * 0.7f;
+            raw.locations[0][i][0] = ymin;
+            raw.locations[0][i][1] = xmin;
+            raw.locations[0][i][2] = ymin + 0.05f + random.nextFloat() * 0.25f;
+            raw.locations[0][i][3] = xmin + 0.05f + random.nextFloat() * 0.25f;
+            // Few classes so class-aware suppression has overlaps to remove
+            raw.classes[0][i] = 1 + random.nextInt(Math.min(numClasses - 1, 5));
+            raw.scores[0][i] = 0.5f + random.nextFloat() * 0.5f;
+        }
+        raw.count[0] = count;
+        return raw;
+    }
+
+    // Copies a batch in its stored order; used to reset unsorted input
+    static void copy(DetectionBatch from, DetectionBatch to) {
+        to.clear();
+        for (int i = 0; i < from.size(); i++) {
+            to.add(from.getClassId(i), from.getScore(i),
+                    from.getLeft(i), from.getTop(i), from.getRight(i), from.getBottom(i),
+                    from.getSlot(i));
+        }
+    }
+
+    static ByteBuffer direct(int capacity) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+        buffer.order(ByteOrder.nativeOrder());
+        return buffer;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.object_detection_app.benchmarks;
+
+import com.example.object_detection_app.core.YuvToRgbConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// YUV_420_888 -> 300x300 RGB model input, for common camera resolutions and
+// both chroma layouts.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class YuvConversionBenchmark {
+
+    @Param({"640x480", "1280x720"})
+    public String resolution;
+
+    @Param({"1", "2"})
+    public int uvPixelStride;
+
+    private final YuvToRgbConverter converter = new YuvToRgbConverter();
+    private ByteBuffer[] planes;
+    private ByteBuffer out;
+    private int width;
+    private int height;
+
+    @Setup
+    public void setUp() {
+        String[] size = resolution.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+        planes = SyntheticFrames.yuvPlanes(width, height, uvPixelStride);
+        out = SyntheticFrames.direct(300 * 300 * 3);
+    }
+
+    @Benchmark
+    public ByteBuffer convert() {
+        converter.convert(planes[0], planes[1], planes[2],
+                SyntheticFrames.yRowStride(width),
+                SyntheticFrames.uvRowStride(width, uvPixelStride), uvPixelStride,
+                width, height, out, 300, 300);
+        return out;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.object_detection_app.core;
+
+// One interpreter setup the tuner can benchmark and persist: execution
+// backend, CPU thread count and whether XNNPACK is used. Turning it into
+// TFLite options is :app's job (InterpreterConfig).
+// No GPU: a GPU delegate must run on the thread that created it, and
+// interpreters are built on the loader thread but run on pipeline-infer.
+public class BackendConfig {
+
+    public enum Backend { CPU, NNAPI }
+
+    public final Backend backend;
+    public final int numThreads;
+    public final boolean useXnnpack;
+
+    public BackendConfig(Backend backend, int numThreads, boolean useXnnpack) {
+        this.backend = backend;
+        this.numThreads = numThreads;
+        this.useXnnpack = useXnnpack;
+    }
+
+    public static BackendConfig cpu(int numThreads, boolean useXnnpack) {
+        return new BackendConfig(Backend.CPU, numThreads, useXnnpack);
+    }
+
+    public static BackendConfig nnapi() {
+        return new BackendConfig(Backend.NNAPI, 1, false);
+    }
+
+    // Compact form for persisting, e.g. "CPU:4:1"
+    public String encode() {
+        return backend.name() + ":" + numThreads + ":" + (useXnnpack ? 1 : 0);
+    }
+
+    // Null for anything this build cannot run, including old "GPU" picks
+    public static BackendConfig decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            String[] parts = value.split(":");
+            return new BackendConfig(Backend.valueOf(parts[0]),
+                    Integer.parseInt(parts[1]), "1".equals(parts[2]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BackendConfig)) {
+            return false;
+        }
+        BackendConfig other = (BackendConfig) o;
+        return backend == other.backend && numThreads == other.numThreads
+                && useXnnpack == other.useXnnpack;
+    }
+
+    @Override
+    public int hashCode() {
+        return (backend.hashCode() * 31 + numThreads) * 2 + (useXnnpack ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return backend + " x" + numThreads + (useXnnpack ? " +XNNPACK" : "");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+// Picks the fastest BackendConfig for a device and model. Every candidate
+// (1..N threads with XNNPACK on/off, plus NNAPI where present) is opened
+// through the Factory, runs a few warm-up inferences and is timed; the lowest
+// median wins. Candidates that fail to open or run are skipped. Persisting
+// the pick is the caller's job, under key(device, modelHash(model)).
+// Timing runs on the calling thread; backends are closed afterwards if they
+// are AutoCloseable.
+public class BackendTuner {
+    private static final Logger LOG = Logger.getLogger("BackendTuner");
+
+    public interface Factory {
+        // Throws if the backend is missing on this device or rejects the model
+        InferenceBackend open(BackendConfig config) throws Exception;
+    }
+
+    private static final int WARMUP_RUNS = 2;
+    private static final int TIMED_RUNS = 5;
+
+    private final Factory factory;
+
+    public BackendTuner(Factory factory) {
+        this.factory = factory;
+    }
+
+    public static List<BackendConfig> candidates(int cores, boolean withNnapi) {
+        List<BackendConfig> candidates = new ArrayList<>();
+        for (int threads = 1; threads <= cores; threads++) {
+            candidates.add(BackendConfig.cpu(threads, true));
+            candidates.add(BackendConfig.cpu(threads, false));
+        }
+        if (withNnapi) {
+            candidates.add(BackendConfig.nnapi());
+        }
+        return candidates;
+    }
+
+    // A saved pick is reused only while it is still a candidate, so picks for
+    // more cores or a backend this build dropped get re-tuned
+    public static boolean isReusable(BackendConfig saved, List<BackendConfig> candidates) {
+        return saved != null && candidates.contains(saved);
+    }
+
+    // Runs every candidate and returns the one with the lowest median latency.
+    // Falls back to CPU with XNNPACK if nothing could be measured.
+    public BackendConfig tune(List<BackendConfig> candidates) {
+        BackendConfig best = null;
+        long bestNanos = Long.MAX_VALUE;
+
+        for (BackendConfig candidate : candidates) {
+            long nanos = measure(candidate);
+            LOG.fine(candidate + ": "
+                    + (nanos == Long.MAX_VALUE ? "unavailable" : (nanos / 1000) + " us"));
+            if (nanos < bestNanos) {
+                bestNanos = nanos;
+                best = candidate;
+            }
+        }
+
+        if (best == null) {
+            best = BackendConfig.cpu(Math.min(4, Runtime.getRuntime().availableProcessors()), true);
+            LOG.warning("Tuning failed, falling back to " + best);
+        } else {
+            LOG.fine("Fastest config: " + best + " (" + (bestNanos / 1000) + " us)");
+        }
+        return best;
+    }
+
+    // Median of the timed runs, or Long.MAX_VALUE if the candidate failed
+    public long measure(BackendConfig config) {
+        InferenceBackend backend = null;
+        try {
+            backend = factory.open(config);
+            ByteBuffer input = backend.newInputBuffer();
+            RawDetections output = backend.newOutputBuffer();
+
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                backend.runInference(input, output);
+            }
+
+            long[] times = new long[TIMED_RUNS];
+            for (int i = 0; i < TIMED_RUNS; i++) {
+                long start = System.nanoTime();
+                backend.runInference(input, output);
+                times[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            return times[TIMED_RUNS / 2];
+        } catch (Throwable t) {
+            // Delegate not present (missing class or native library) or rejected the model
+            LOG.warning(config + " failed: " + t);
+            return Long.MAX_VALUE;
+        } finally {
+            close(backend);
+        }
+    }
+
+    private static void close(InferenceBackend backend) {
+        if (backend instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) backend).close();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Failed to close backend", e);
+            }
+        }
+    }
+
+    // Where a pick is persisted: per device model and model file
+    public static String key(String device, long modelHash) {
+        return device + "_" + Long.toHexString(modelHash);
+    }
+
+    // CRC32 of the whole model; leaves the buffer's position alone
+    public static long modelHash(ByteBuffer model) {
+        ByteBuffer view = model.duplicate();
+        view.rewind();
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[64 * 1024];
+        while (view.hasRemaining()) {
+            int n = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.object_detection_app.core;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fixed-capacity FIFO ring between two pipeline stages. When full, the drop
+// policy decides whether the oldest queued item or the incoming one is
+// discarded, or whether the producer waits. Keeps depth/occupancy counters.
+public class BoundedRing<T> {
+
+    public enum DropPolicy {
+        DROP_OLDEST,  // newest frame always wins, lowest latency
+        DROP_NEWEST,  // keep what is queued, reject the incoming item
+        BLOCK         // back-pressure the producer
+    }
+
+    private final String name;
+    private final Object[] items;
+    private final DropPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private int head = 0;
+    private int size = 0;
+
+    // Counters
+    private long offered = 0;
+    private long dropped = 0;
+    private int maxOccupancy = 0;
+
+    public BoundedRing(String name, int capacity, DropPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.name = name;
+        this.items = new Object[capacity];
+        this.policy = policy;
+    }
+
+    // Returns the item that was dropped to make room (or the rejected item
+    // itself) so the caller can recycle it, or null if nothing was dropped.
+    public T offer(T item) throws InterruptedException {
+        lock.lock();
+        try {
+            offered++;
+            T droppedItem = null;
+
+            if (size == items.length) {
+                switch (policy) {
+                    case DROP_NEWEST:
+                        dropped++;
+                        return item;
+                    case BLOCK:
+                        while (size == items.length) {
+                            notFull.await();
+                        }
+                        break;
+                    default:
+                        droppedItem = removeFirst();
+                        dropped++;
+                }
+            }
+
+            items[(head + size) % items.length] = item;
+            size++;
+            if (size > maxOccupancy) {
+                maxOccupancy = size;
+            }
+            notEmpty.signal();
+            return droppedItem;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            T item = removeFirst();
+            notFull.signal();
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            T item = removeFirst();
+            notFull.signal();
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes everything still queued into the given sink, e.g. to recycle on shutdown
+    public int drainTo(Collection<? super T> sink) {
+        lock.lock();
+        try {
+            int n = size;
+            while (size > 0) {
+                sink.add(removeFirst());
+            }
+            notFull.signalAll();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T removeFirst() {
+        T item = (T) items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        size--;
+        return item;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return items.length;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxOccupancy() {
+        lock.lock();
+        try {
+            return maxOccupancy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getOffered() {
+        lock.lock();
+        try {
+            return offered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return name + ": " + size + "/" + items.length
+                    + " (max " + maxOccupancy + ", dropped " + dropped + "/" + offered + ")";
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.object_detection_app.core;
+
+// Box helpers over flat float arrays, 4 floats per box: left, top, right, bottom
+public final class BoxMath {
+
+    private BoxMath() {
+    }
+
+    public static float iou(float[] a, int ai, float[] b, int bi) {
+        float left = Math.max(a[ai], b[bi]);
+        float top = Math.max(a[ai + 1], b[bi + 1]);
+        float right = Math.min(a[ai + 2], b[bi + 2]);
+        float bottom = Math.min(a[ai + 3], b[bi + 3]);
+        float intersection = Math.max(0f, right - left) * Math.max(0f, bottom - top);
+        if (intersection <= 0f) {
+            return 0f;
+        }
+        float areaA = (a[ai + 2] - a[ai]) * (a[ai + 3] - a[ai + 1]);
+        float areaB = (b[bi + 2] - b[bi]) * (b[bi + 3] - b[bi + 1]);
+        return intersection / (areaA + areaB - intersection);
+    }
+
+    public static float clamp01(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+}
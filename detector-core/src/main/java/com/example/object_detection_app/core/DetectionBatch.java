@@ -0,0 +1,150 @@
+package com.example.object_detection_app.core;
+
+import java.util.Arrays;
+
+// One frame's decoded detections as parallel primitive arrays:
+// class index, score, box (left, top, right, bottom in input pixels) and the
+// raw output slot each came from, plus the frame's timestamp. Reused across
+// frames; never shrinks. Label text comes from a LabelMap by class index.
+public class DetectionBatch {
+    private int count = 0;
+    private long timestampNanos;
+    private int[] classIds;
+    private float[] scores;
+    private float[] boxes;
+    private int[] slots;
+
+    public DetectionBatch(int initialCapacity) {
+        classIds = new int[initialCapacity];
+        scores = new float[initialCapacity];
+        boxes = new float[initialCapacity * 4];
+        slots = new int[initialCapacity];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    // Capture time of the frame these detections came from
+    public void setTimestampNanos(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    // Makes this an exact copy of other (entries and timestamp); grows if needed
+    public void copyFrom(DetectionBatch other) {
+        ensureCapacity(other.count);
+        int n = other.count;
+        System.arraycopy(other.classIds, 0, classIds, 0, n);
+        System.arraycopy(other.scores, 0, scores, 0, n);
+        System.arraycopy(other.boxes, 0, boxes, 0, n * 4);
+        System.arraycopy(other.slots, 0, slots, 0, n);
+        count = n;
+        timestampNanos = other.timestampNanos;
+    }
+
+    public void add(int classId, float score, float left, float top, float right, float bottom,
+                    int slot) {
+        ensureCapacity(count + 1);
+        int i = count++;
+        classIds[i] = classId;
+        scores[i] = score;
+        boxes[i * 4] = left;
+        boxes[i * 4 + 1] = top;
+        boxes[i * 4 + 2] = right;
+        boxes[i * 4 + 3] = bottom;
+        slots[i] = slot;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= classIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, classIds.length * 2);
+        classIds = Arrays.copyOf(classIds, newCapacity);
+        scores = Arrays.copyOf(scores, newCapacity);
+        boxes = Arrays.copyOf(boxes, newCapacity * 4);
+        slots = Arrays.copyOf(slots, newCapacity);
+    }
+
+    // Swaps entries i and j in every column
+    void swap(int i, int j) {
+        int c = classIds[i];
+        classIds[i] = classIds[j];
+        classIds[j] = c;
+
+        float s = scores[i];
+        scores[i] = scores[j];
+        scores[j] = s;
+
+        int sl = slots[i];
+        slots[i] = slots[j];
+        slots[j] = sl;
+
+        for (int k = 0; k < 4; k++) {
+            float b = boxes[i * 4 + k];
+            boxes[i * 4 + k] = boxes[j * 4 + k];
+            boxes[j * 4 + k] = b;
+        }
+    }
+
+    // Copies entry from -> to (to < from), used when compacting
+    void move(int from, int to) {
+        classIds[to] = classIds[from];
+        scores[to] = scores[from];
+        slots[to] = slots[from];
+        System.arraycopy(boxes, from * 4, boxes, to * 4, 4);
+    }
+
+    void setCount(int count) {
+        this.count = count;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getClassId(int i) {
+        return classIds[i];
+    }
+
+    public float getScore(int i) {
+        return scores[i];
+    }
+
+    public int getSlot(int i) {
+        return slots[i];
+    }
+
+    public float getLeft(int i) {
+        return boxes[i * 4];
+    }
+
+    public float getTop(int i) {
+        return boxes[i * 4 + 1];
+    }
+
+    public float getRight(int i) {
+        return boxes[i * 4 + 2];
+    }
+
+    public float getBottom(int i) {
+        return boxes[i * 4 + 3];
+    }
+
+    // Direct views for hot consumers (tracker, NMS); valid for [0, size())
+    public int[] classIdArray() {
+        return classIds;
+    }
+
+    public float[] scoreArray() {
+        return scores;
+    }
+
+    public float[] boxArray() {
+        return boxes;
+    }
+}
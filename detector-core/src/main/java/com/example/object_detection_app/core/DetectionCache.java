@@ -0,0 +1,404 @@
+package com.example.object_detection_app.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Two-level cache of decoder output, keyed by a 64-bit hash of the
+// preprocessed model input. A cache is bound to one namespace (model hash,
+// input size, confidence threshold), so a new model or threshold can never
+// return stale results. Entries are stored before ranking, NMS and
+// refinement, which callers run on every hit, so changing those settings
+// needs no new namespace.
+//   level 1: LRU of compact encoded entries, bounded by memoryBudgetBytes
+//   level 2: optional append-only file, compacted to the most recently used
+//            entries once it grows past diskBudgetBytes
+// Disk layout, big-endian:
+//   header: "ODRC" magic, version, namespace
+//   entry:  key, count, then per detection classId (short), slot (byte),
+//           score, left, top, right, bottom (floats)
+// All methods are synchronized; one cache can be shared by a DetectorPool.
+public class DetectionCache implements Closeable {
+    private static final Logger LOG = Logger.getLogger("DetectionCache");
+
+    static final int MAGIC = 0x4F445243; // "ODRC"
+    // 2: entries are decoder output; version 1 held post-processed batches
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_HEADER_BYTES = 9;
+    private static final int DETECTION_BYTES = 23;
+    private static final int MAX_DETECTIONS = 255;
+
+    // Rough per-entry cost of the map node, boxed key and array header
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final long namespace;
+    private final long memoryBudgetBytes;
+    private final long diskBudgetBytes;
+
+    private final LinkedHashMap<Long, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes = 0;
+
+    // Disk level: key -> file offset of the entry, access-ordered for compaction
+    private final File diskFile;
+    private RandomAccessFile disk;
+    private final LinkedHashMap<Long, Long> diskIndex = new LinkedHashMap<>(64, 0.75f, true);
+    private final byte[] readBuffer = new byte[ENTRY_HEADER_BYTES];
+
+    private long memoryHits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long diskEvictions = 0;
+
+    // diskFile may be null for a memory-only cache
+    public DetectionCache(long namespace, long memoryBudgetBytes, File diskFile, long diskBudgetBytes)
+            throws IOException {
+        this.namespace = namespace;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.diskBudgetBytes = diskBudgetBytes;
+        this.diskFile = diskFile;
+        if (diskFile != null) {
+            openDisk();
+        }
+    }
+
+    // Everything that changes what the model returns for a given input
+    public static long namespace(long modelHash, int inputSize, float minConfidence) {
+        long h = mix(modelHash);
+        h = mix(h ^ inputSize);
+        return mix(h ^ Float.floatToIntBits(minConfidence));
+    }
+
+    // Hashes the buffer's remaining bytes without moving its position.
+    // Same structure as one lane of MurmurHash3 x64: 8 bytes per step.
+    public static long hashInput(ByteBuffer input) {
+        ByteBuffer view = input.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = view.position();
+        int length = view.remaining();
+        int end = start + (length & ~7);
+
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = start; i < end; i += 8) {
+            long k = view.getLong(i) * 0x87C37B91114253D5L;
+            k = Long.rotateLeft(k, 31) * 0x4CF5AD432745937FL;
+            h ^= k;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+        }
+        long tail = 0;
+        for (int i = start + length - 1; i >= end; i--) {
+            tail = (tail << 8) | (view.get(i) & 0xFF);
+        }
+        h ^= Long.rotateLeft(tail * 0x87C37B91114253D5L, 31) * 0x4CF5AD432745937FL;
+        return mix(h ^ length);
+    }
+
+    // Key for an input under this cache's namespace
+    public long keyFor(ByteBuffer input) {
+        return mix(hashInput(input) ^ namespace);
+    }
+
+    // murmur3 fmix64
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // Fills out and returns true on a hit; out is untouched on a miss
+    public synchronized boolean get(long key, DetectionBatch out) {
+        byte[] entry = memory.get(key);
+        if (entry != null) {
+            memoryHits++;
+            decode(entry, out);
+            return true;
+        }
+
+        entry = readFromDisk(key);
+        if (entry != null) {
+            diskHits++;
+            putInMemory(key, entry);
+            decode(entry, out);
+            return true;
+        }
+
+        misses++;
+        return false;
+    }
+
+    public synchronized void put(long key, DetectionBatch batch) {
+        if (memory.containsKey(key)) {
+            return;
+        }
+        byte[] entry = encode(key, batch);
+        putInMemory(key, entry);
+        if (disk != null && !diskIndex.containsKey(key)) {
+            appendToDisk(key, entry);
+        }
+    }
+
+    private void putInMemory(long key, byte[] entry) {
+        byte[] previous = memory.put(key, entry);
+        if (previous != null) {
+            memoryBytes -= previous.length + ENTRY_OVERHEAD_BYTES;
+        }
+        memoryBytes += entry.length + ENTRY_OVERHEAD_BYTES;
+
+        Iterator<Map.Entry<Long, byte[]>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > memoryBudgetBytes && eldest.hasNext()) {
+            Map.Entry<Long, byte[]> victim = eldest.next();
+            if (victim.getKey() == key) {
+                // Never evict the entry just added, even if it alone is over budget
+                break;
+            }
+            memoryBytes -= victim.getValue().length + ENTRY_OVERHEAD_BYTES;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // Entry bytes are the on-disk record, so disk writes need no re-encoding
+    private static byte[] encode(long key, DetectionBatch batch) {
+        int count = Math.min(MAX_DETECTIONS, batch.size());
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_HEADER_BYTES + count * DETECTION_BYTES);
+        buffer.putLong(key);
+        buffer.put((byte) count);
+        for (int i = 0; i < count; i++) {
+            buffer.putShort((short) batch.getClassId(i));
+            buffer.put((byte) batch.getSlot(i));
+            buffer.putFloat(batch.getScore(i));
+            buffer.putFloat(batch.getLeft(i));
+            buffer.putFloat(batch.getTop(i));
+            buffer.putFloat(batch.getRight(i));
+            buffer.putFloat(batch.getBottom(i));
+        }
+        return buffer.array();
+    }
+
+    private static void decode(byte[] entry, DetectionBatch out) {
+        ByteBuffer buffer = ByteBuffer.wrap(entry);
+        buffer.position(8);
+        int count = buffer.get() & 0xFF;
+        out.clear();
+        out.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            int classId = buffer.getShort();
+            int slot = buffer.get() & 0xFF;
+            float score = buffer.getFloat();
+            out.add(classId, score, buffer.getFloat(), buffer.getFloat(),
+                    buffer.getFloat(), buffer.getFloat(), slot);
+        }
+    }
+
+    private void openDisk() throws IOException {
+        disk = new RandomAccessFile(diskFile, "rw");
+        if (disk.length() < HEADER_BYTES || disk.readInt() != MAGIC
+                || disk.readInt() != VERSION || disk.readLong() != namespace) {
+            // New file, older format or a different model: start over
+            writeHeader(disk);
+            return;
+        }
+
+        // Rebuild the index; a torn last entry (crash mid-append) is cut off
+        long offset = HEADER_BYTES;
+        long length = disk.length();
+        while (offset + ENTRY_HEADER_BYTES <= length) {
+            disk.seek(offset);
+            long key = disk.readLong();
+            int count = disk.readUnsignedByte();
+            long size = ENTRY_HEADER_BYTES + (long) count * DETECTION_BYTES;
+            if (offset + size > length) {
+                break;
+            }
+            diskIndex.put(key, offset);
+            offset += size;
+        }
+        if (offset < length) {
+            LOG.warning("Truncating damaged cache tail at " + offset + " of " + length);
+            disk.setLength(offset);
+        }
+        LOG.fine("Loaded " + diskIndex.size() + " cached results from " + diskFile);
+    }
+
+    private void writeHeader(RandomAccessFile file) throws IOException {
+        file.setLength(0);
+        file.seek(0);
+        file.writeInt(MAGIC);
+        file.writeInt(VERSION);
+        file.writeLong(namespace);
+    }
+
+    private byte[] readFromDisk(long key) {
+        Long offset = disk == null ? null : diskIndex.get(key);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            disk.seek(offset);
+            disk.readFully(readBuffer, 0, ENTRY_HEADER_BYTES);
+            int count = readBuffer[8] & 0xFF;
+            int size = ENTRY_HEADER_BYTES + count * DETECTION_BYTES;
+            byte[] entry = new byte[size];
+            System.arraycopy(readBuffer, 0, entry, 0, ENTRY_HEADER_BYTES);
+            disk.readFully(entry, ENTRY_HEADER_BYTES, size - ENTRY_HEADER_BYTES);
+            return entry;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Cache read failed, dropping entry", e);
+            diskIndex.remove(key);
+            return null;
+        }
+    }
+
+    private void appendToDisk(long key, byte[] entry) {
+        try {
+            long offset = disk.length();
+            disk.seek(offset);
+            disk.write(entry);
+            diskIndex.put(key, offset);
+            if (disk.length() > diskBudgetBytes) {
+                compactDisk();
+            }
+        } catch (IOException e) {
+            // A broken disk level should not take detection down with it
+            LOG.log(Level.WARNING, "Cache write failed, disabling disk level", e);
+            closeDisk();
+        }
+    }
+
+    // Rewrites the file keeping the most recently used entries that fit in
+    // three quarters of the budget, so compaction does not run on every put
+    private void compactDisk() throws IOException {
+        List<Long> keys = new ArrayList<>(diskIndex.keySet());
+        long target = diskBudgetBytes * 3 / 4 - HEADER_BYTES;
+        List<byte[]> kept = new ArrayList<>();
+        long keptBytes = 0;
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            byte[] entry = readFromDisk(keys.get(i));
+            if (entry == null || keptBytes + entry.length > target) {
+                break;
+            }
+            kept.add(entry);
+            keptBytes += entry.length;
+        }
+
+        File temp = new File(diskFile.getPath() + ".tmp");
+        Map<Long, Long> newIndex = new LinkedHashMap<>();
+        try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+            writeHeader(out);
+            // Oldest first, so the access order survives the rewrite
+            for (int i = kept.size() - 1; i >= 0; i--) {
+                byte[] entry = kept.get(i);
+                newIndex.put(ByteBuffer.wrap(entry).getLong(0), out.getFilePointer());
+                out.write(entry);
+            }
+        }
+
+        disk.close();
+        disk = null;
+        if (!temp.renameTo(diskFile)) {
+            temp.delete();
+            throw new IOException("Could not replace " + diskFile);
+        }
+        disk = new RandomAccessFile(diskFile, "rw");
+        diskEvictions += keys.size() - kept.size();
+        diskIndex.clear();
+        diskIndex.putAll(newIndex);
+        LOG.fine("Compacted cache to " + kept.size() + " entries, " + (keptBytes / 1024) + " KB");
+    }
+
+    private void closeDisk() {
+        if (disk != null) {
+            try {
+                disk.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Cache close failed", e);
+            }
+            disk = null;
+        }
+        diskIndex.clear();
+    }
+
+    public synchronized void clear() throws IOException {
+        memory.clear();
+        memoryBytes = 0;
+        if (disk != null) {
+            writeHeader(disk);
+            diskIndex.clear();
+        }
+    }
+
+    public synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getDiskEvictions() {
+        return diskEvictions;
+    }
+
+    public synchronized float getHitRate() {
+        long lookups = memoryHits + diskHits + misses;
+        return lookups == 0 ? 0f : (float) (memoryHits + diskHits) / lookups;
+    }
+
+    public synchronized int getMemoryEntries() {
+        return memory.size();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized int getDiskEntries() {
+        return diskIndex.size();
+    }
+
+    public synchronized long getDiskBytes() {
+        try {
+            return disk == null ? 0 : disk.length();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public synchronized String getStats() {
+        return String.format(Locale.US,
+                "hits: %d mem + %d disk | misses: %d | hit rate: %.1f%% | " +
+                        "mem: %d entries, %d/%d KB, %d evicted | disk: %d entries, %d/%d KB, %d evicted",
+                memoryHits, diskHits, misses, getHitRate() * 100,
+                memory.size(), memoryBytes / 1024, memoryBudgetBytes / 1024, evictions,
+                diskIndex.size(), getDiskBytes() / 1024, diskBudgetBytes / 1024, diskEvictions);
+    }
+
+    @Override
+    public synchronized void close() {
+        closeDisk();
+        memory.clear();
+        memoryBytes = 0;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.object_detection_app.core;
+
+import java.util.List;
+
+// Turns raw SSD output into ranked detections: score threshold, class
+// validation (background / unknown ids), [0,1] clamping, degenerate-box
+// rejection and scaling to input pixels. Stateless after construction, so one
+// decoder can be shared by every thread.
+public class DetectionDecoder {
+
+    public static final String BACKGROUND_LABEL = "???";
+
+    private final int inputSize;
+    private final float minConfidence;
+    private final boolean[] validClasses;
+
+    public DetectionDecoder(int inputSize, float minConfidence, boolean[] validClasses) {
+        this.inputSize = inputSize;
+        this.minConfidence = minConfidence;
+        this.validClasses = validClasses.clone();
+    }
+
+    // Index 0 and any "???" entry in the label map are background
+    public static DetectionDecoder forLabels(int inputSize, float minConfidence, List<String> labels) {
+        boolean[] valid = new boolean[labels.size()];
+        for (int i = 1; i < valid.length; i++) {
+            valid[i] = !BACKGROUND_LABEL.equals(labels.get(i));
+        }
+        return new DetectionDecoder(inputSize, minConfidence, valid);
+    }
+
+    // Fills out (cleared first) ranked by score, highest first. Returns the count.
+    public int decode(RawDetections raw, DetectionBatch out) {
+        out.clear();
+        int n = Math.min(raw.getCapacity(), (int) raw.count[0]);
+        float[] scores = raw.scores[0];
+        float[] classes = raw.classes[0];
+        float[][] locations = raw.locations[0];
+
+        for (int i = 0; i < n; i++) {
+            float confidence = scores[i];
+            if (confidence < minConfidence) {
+                continue;
+            }
+
+            int classId = (int) classes[i];
+            if (!isValidClass(classId)) {
+                continue;
+            }
+
+            // Bounding box: [ymin, xmin, ymax, xmax], clamped to [0,1]
+            float ymin = BoxMath.clamp01(locations[i][0]);
+            float xmin = BoxMath.clamp01(locations[i][1]);
+            float ymax = BoxMath.clamp01(locations[i][2]);
+            float xmax = BoxMath.clamp01(locations[i][3]);
+            if (xmax <= xmin || ymax <= ymin) {
+                continue;
+            }
+
+            out.add(classId, confidence,
+                    xmin * inputSize, ymin * inputSize, xmax * inputSize, ymax * inputSize, i);
+        }
+
+        DetectionRanker.sortByScore(out);
+        return out.size();
+    }
+
+    public boolean isValidClass(int classId) {
+        return classId > 0 && classId < validClasses.length && validClasses[classId];
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public float getMinConfidence() {
+        return minConfidence;
+    }
+}
@@ -0,0 +1,511 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Staged detection pipeline:
+//   capture/convert (caller thread) -> preprocess -> infer -> postprocess/dispatch
+// Each stage runs on its own thread and stages are connected by bounded rings,
+// so converting frame N+1 overlaps inference of frame N. Frames travel in
+// preallocated slots that are recycled; submit() copies the planes, so the
+// caller can release its camera image as soon as it returns. The model can be
+// swapped while running (swapBackend) without restarting the caller.
+public class DetectionPipeline {
+    private static final Logger LOG = Logger.getLogger("DetectionPipeline");
+
+    private static final TraceBuffer TRACE = Tracer.get();
+    private static final int TRACE_SUBMIT = TRACE.register("pipeline.submit");
+    private static final int TRACE_PREPROCESS = TRACE.register("pipeline.preprocess");
+    private static final int TRACE_INFER = TRACE.register("pipeline.infer");
+    private static final int TRACE_DISPATCH = TRACE.register("pipeline.dispatch");
+    private static final int TRACE_DETECTIONS = TRACE.register("detections");
+    private static final int TRACE_FREE_SLOTS = TRACE.register("free_slots");
+
+    public interface ResultListener {
+        // Runs on the dispatch thread. The batch belongs to the pipeline and is
+        // only valid during the call; copy what you need to keep.
+        // latencyNanos: from submit() to dispatch
+        void onResults(DetectionBatch batch, long timestampNanos, long latencyNanos);
+    }
+
+    // Where a frame's time went, indexed by Stage.ordinal()
+    public enum Stage { COPY, QUEUE, PREPROCESS, INFERENCE, POSTPROCESS }
+
+    public interface TimingListener {
+        // Runs on the dispatch thread after the result listener returns.
+        // stageNanos is reused for the next frame. QUEUE is the total time the
+        // frame spent waiting in rings; POSTPROCESS includes the result listener.
+        void onFrameTimed(long[] stageNanos, long totalNanos);
+    }
+
+    // One frame in flight: copied planes, model input, raw and decoded output
+    private static class FrameSlot {
+        final YuvFrame frame = new YuvFrame();
+        final ByteBuffer input;
+        final RawDetections output;
+        final DetectionBatch detections;
+        long admittedNanos;
+        long copiedNanos;
+        long preprocessStartNanos;
+        long preprocessedNanos;
+        long inferStartNanos;
+        long inferredNanos;
+        // Detections already final (tiled), dispatch skips decoding and NMS
+        boolean detected;
+        // Decoded by the infer stage (cache hit, cache fill or refiner),
+        // dispatch only post-processes
+        boolean decoded;
+        // Geometry this frame was preprocessed with
+        final FrameTransform transform = new FrameTransform();
+        // Tiled mode for this frame, picked when the frame enters preprocessing
+        TiledDetector tiled;
+
+        FrameSlot(InferenceBackend backend) {
+            input = backend.newInputBuffer();
+            output = backend.newOutputBuffer();
+            detections = new DetectionBatch(output.getCapacity());
+        }
+    }
+
+    // Replaced only by swapBackend, while no frame is in flight
+    private volatile InferenceBackend backend;
+    private volatile DetectionDecoder decoder;
+    private volatile FramePreprocessor preprocessor;
+    private final Object swapLock = new Object();
+    private volatile boolean swapping = false;
+    private volatile long swaps = 0;
+    // Dispatch thread only
+    private final DetectionPostProcessor postProcessor = new DetectionPostProcessor();
+    private final ResultListener listener;
+
+    private final ArrayBlockingQueue<FrameSlot> freeSlots;
+    private final BoundedRing<FrameSlot> convertedRing;
+    private final BoundedRing<FrameSlot> preprocessedRing;
+    private final BoundedRing<FrameSlot> inferredRing;
+    private final List<Thread> workers = new ArrayList<>();
+    private final int slotCount;
+
+    private volatile TimingListener timingListener;
+    private volatile DetectionCache resultCache;
+    private volatile TiledDetector tiledDetector;
+    private volatile DetectionRefiner refiner;
+    private volatile RegionOfInterest regionOfInterest;
+    private final long[] stageNanos = new long[Stage.values().length];
+
+    // Crop hint for the next submitted frames; submitting thread only
+    private boolean hasSourceCrop = false;
+    private int cropLeft, cropTop, cropRight, cropBottom;
+    private final int[] roiRect = new int[4];
+
+    // Frames refused at the entrance because every slot was busy
+    private volatile long rejectedFrames = 0;
+    private volatile long completedFrames = 0;
+    private volatile boolean running = false;
+
+    public DetectionPipeline(InferenceBackend backend, DetectionDecoder decoder, int depth,
+                             BoundedRing.DropPolicy dropPolicy, ResultListener listener) {
+        this.backend = backend;
+        this.decoder = decoder;
+        this.listener = listener;
+        this.preprocessor = backend.getModelSpec().newPreprocessor();
+
+        convertedRing = new BoundedRing<>("convert", depth, dropPolicy);
+        preprocessedRing = new BoundedRing<>("preprocess", depth, dropPolicy);
+        inferredRing = new BoundedRing<>("infer", depth, dropPolicy);
+
+        // Enough slots to fill every ring plus one being worked on per stage
+        slotCount = depth * 3 + 4;
+        freeSlots = new ArrayBlockingQueue<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            freeSlots.add(new FrameSlot(backend));
+        }
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        workers.add(startWorker("pipeline-preprocess", this::preprocessOne));
+        workers.add(startWorker("pipeline-infer", this::inferOne));
+        workers.add(startWorker("pipeline-dispatch", this::dispatchOne));
+        LOG.fine("Pipeline started with " + freeSlots.size() + " frame slots");
+    }
+
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+
+        List<FrameSlot> leftovers = new ArrayList<>();
+        convertedRing.drainTo(leftovers);
+        preprocessedRing.drainTo(leftovers);
+        inferredRing.drainTo(leftovers);
+        freeSlots.addAll(leftovers);
+        LOG.fine("Pipeline stopped");
+    }
+
+    public void setTimingListener(TimingListener listener) {
+        this.timingListener = listener;
+    }
+
+    // Identical inputs (replays, a camera pointed at a still scene) skip the
+    // model and reuse the cached decoder output; refinement and NMS still run,
+    // so their settings never go stale. Pass null to detach.
+    public void setResultCache(DetectionCache cache) {
+        this.resultCache = cache;
+    }
+
+    // Tiled mode: the infer stage hands the whole copied frame to the tiled
+    // detector, which preprocesses, infers and merges its own windows; boxes
+    // are then in source pixels rather than input pixels, and tile
+    // preprocessing is timed as INFERENCE. Pass null to go back.
+    public void setTiledDetector(TiledDetector tiled) {
+        this.tiledDetector = tiled;
+    }
+
+    // Zoom-in second pass on low-confidence candidates, run by the infer
+    // stage right after the primary inference, within the refiner's frame
+    // budget; timed as INFERENCE. Not used in tiled mode. Pass null to detach.
+    public void setRefiner(DetectionRefiner refiner) {
+        this.refiner = refiner;
+    }
+
+    // Only this part of the (viewport-cropped) frame is fed to the model, so
+    // the input resolution goes where the user aims. Boxes stay in input
+    // pixels of that region. Ignored in tiled mode. Pass null for the whole frame.
+    public void setRegionOfInterest(RegionOfInterest roi) {
+        this.regionOfInterest = roi;
+    }
+
+    public RegionOfInterest getRegionOfInterest() {
+        return regionOfInterest;
+    }
+
+    // Hot-swaps the model without stopping the pipeline. New frames are turned
+    // away while every slot is collected back, so nothing is left in flight on
+    // the old backend; whileDrained (may be null) then runs, fresh slots are
+    // built for the new backend's shapes and admission resumes. Returns false
+    // and keeps the old backend if the in-flight frames do not finish within
+    // the timeout. The tiled detector is not switched: detach it first. After
+    // a true return the old backend is no longer referenced and can be closed.
+    public boolean swapBackend(InferenceBackend newBackend, DetectionDecoder newDecoder,
+                               long timeout, TimeUnit unit, Runnable whileDrained)
+            throws InterruptedException {
+        synchronized (swapLock) {
+            swapping = true;
+            List<FrameSlot> drained = new ArrayList<>(slotCount);
+            try {
+                long deadline = System.nanoTime() + unit.toNanos(timeout);
+                while (drained.size() < slotCount) {
+                    FrameSlot slot = freeSlots.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (slot == null) {
+                        LOG.warning("Model swap timed out with " + (slotCount - drained.size())
+                                + " frames in flight");
+                        return false;
+                    }
+                    drained.add(slot);
+                }
+
+                if (whileDrained != null) {
+                    whileDrained.run();
+                }
+                FramePreprocessor next = newBackend.getModelSpec().newPreprocessor();
+                next.setScaleMode(preprocessor.getScaleMode());
+                backend = newBackend;
+                decoder = newDecoder;
+                preprocessor = next;
+                drained.clear();
+                for (int i = 0; i < slotCount; i++) {
+                    drained.add(new FrameSlot(newBackend));
+                }
+                swaps++;
+                LOG.fine("Swapped model to " + newBackend.getModelSpec());
+                return true;
+            } finally {
+                freeSlots.addAll(drained);
+                swapping = false;
+            }
+        }
+    }
+
+    public InferenceBackend getBackend() {
+        return backend;
+    }
+
+    public long getSwapCount() {
+        return swaps;
+    }
+
+    // Ranking and NMS applied after decoding; configure before start()
+    public DetectionPostProcessor getPostProcessor() {
+        return postProcessor;
+    }
+
+    // Its crop follows each frame's crop hint (setSourceCrop), so set the
+    // hint rather than the preprocessor's crop
+    public FramePreprocessor getPreprocessor() {
+        return preprocessor;
+    }
+
+    // Source-pixel crop applied to frames submitted after this call, e.g. the
+    // camera's crop rect for the visible viewport. Submitting thread only.
+    public void setSourceCrop(int left, int top, int right, int bottom) {
+        hasSourceCrop = true;
+        cropLeft = left;
+        cropTop = top;
+        cropRight = right;
+        cropBottom = bottom;
+    }
+
+    public void clearSourceCrop() {
+        hasSourceCrop = false;
+    }
+
+    // Capture/convert stage, runs on the caller's (camera) thread.
+    // Copies the YUV_420_888 planes; returns false if the frame was not admitted.
+    public boolean submit(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                          int yRowStride, int uvRowStride, int uvPixelStride,
+                          int width, int height, int rotationDegrees, long timestampNanos) {
+        FrameSlot slot = admit();
+        if (slot == null) {
+            return false;
+        }
+        slot.frame.copyFrom(yPlane, uPlane, vPlane, yRowStride, uvRowStride, uvPixelStride,
+                width, height, rotationDegrees, timestampNanos);
+        return enqueue(slot);
+    }
+
+    // Same for an RGBA_8888 frame: one plane, 4 bytes per pixel, no color
+    // conversion needed later
+    public boolean submitRgba(ByteBuffer rgbaPlane, int rowStride, int width, int height,
+                              int rotationDegrees, long timestampNanos) {
+        FrameSlot slot = admit();
+        if (slot == null) {
+            return false;
+        }
+        slot.frame.copyFromRgba(rgbaPlane, rowStride, width, height, rotationDegrees,
+                timestampNanos);
+        return enqueue(slot);
+    }
+
+    private FrameSlot admit() {
+        // Leave the free slots to swapBackend's drain; not counted as rejects
+        if (!running || swapping) {
+            return null;
+        }
+        FrameSlot slot = freeSlots.poll();
+        if (slot == null) {
+            rejectedFrames++;
+            return null;
+        }
+        TRACE.begin(TRACE_SUBMIT);
+        slot.admittedNanos = System.nanoTime();
+        return slot;
+    }
+
+    private boolean enqueue(FrameSlot slot) {
+        RegionOfInterest roi = regionOfInterest;
+        if (roi != null) {
+            YuvFrame frame = slot.frame;
+            if (hasSourceCrop) {
+                roi.toSource(cropLeft, cropTop, cropRight, cropBottom,
+                        frame.getRotationDegrees(), roiRect);
+            } else {
+                roi.toSource(0, 0, frame.getWidth(), frame.getHeight(),
+                        frame.getRotationDegrees(), roiRect);
+            }
+            frame.setCrop(roiRect[0], roiRect[1], roiRect[2], roiRect[3]);
+        } else if (hasSourceCrop) {
+            slot.frame.setCrop(cropLeft, cropTop, cropRight, cropBottom);
+        }
+        slot.copiedNanos = System.nanoTime();
+
+        try {
+            recycle(convertedRing.offer(slot));
+            return true;
+        } catch (InterruptedException e) {
+            recycle(slot);
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            TRACE.end(TRACE_SUBMIT);
+            TRACE.counter(TRACE_FREE_SLOTS, freeSlots.size());
+        }
+    }
+
+    private void preprocessOne() throws InterruptedException {
+        FrameSlot slot = convertedRing.take();
+        TRACE.begin(TRACE_PREPROCESS);
+        try {
+            slot.preprocessStartNanos = System.nanoTime();
+            slot.tiled = tiledDetector;
+            if (slot.tiled == null) {
+                FramePreprocessor current = preprocessor;
+                slot.frame.applyCrop(current);
+                slot.transform.copyFrom(slot.frame.preprocess(current, slot.input));
+            }
+            slot.preprocessedNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            recycle(slot);
+            throw e;
+        } finally {
+            TRACE.end(TRACE_PREPROCESS);
+        }
+        recycle(preprocessedRing.offer(slot));
+    }
+
+    private void inferOne() throws InterruptedException {
+        FrameSlot slot = preprocessedRing.take();
+        TRACE.begin(TRACE_INFER);
+        try {
+            slot.inferStartNanos = System.nanoTime();
+            slot.detected = false;
+            slot.decoded = false;
+            if (slot.tiled != null) {
+                slot.tiled.detect(slot.frame, slot.detections);
+                slot.detected = true;
+            } else {
+                DetectionCache cache = resultCache;
+                DetectionRefiner refine = refiner;
+                long cacheKey = 0;
+                if (cache != null) {
+                    cacheKey = cache.keyFor(slot.input);
+                    slot.decoded = cache.get(cacheKey, slot.detections);
+                }
+                if (!slot.decoded) {
+                    backend.runInference(slot.input, slot.output);
+                    // Otherwise decoding is left to the dispatch stage
+                    if (cache != null || refine != null) {
+                        decoder.decode(slot.output, slot.detections);
+                        slot.decoded = true;
+                        if (cache != null) {
+                            cache.put(cacheKey, slot.detections);
+                        }
+                    }
+                }
+                if (refine != null) {
+                    // Needs the decoded boxes and this thread's backend
+                    refine.refine(slot.frame, slot.transform, slot.detections, backend, decoder,
+                            slot.inferStartNanos, slot.preprocessedNanos - slot.preprocessStartNanos);
+                }
+            }
+            slot.inferredNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            recycle(slot);
+            throw e;
+        } finally {
+            TRACE.end(TRACE_INFER);
+        }
+        recycle(inferredRing.offer(slot));
+    }
+
+    private void dispatchOne() throws InterruptedException {
+        FrameSlot slot = inferredRing.take();
+        TRACE.begin(TRACE_DISPATCH);
+        try {
+            long dispatchStart = System.nanoTime();
+            if (!slot.detected) {
+                if (!slot.decoded) {
+                    decoder.decode(slot.output, slot.detections);
+                }
+                postProcessor.process(slot.detections);
+            }
+            TRACE.counter(TRACE_DETECTIONS, slot.detections.size());
+            completedFrames++;
+            slot.detections.setTimestampNanos(slot.frame.getTimestampNanos());
+            listener.onResults(slot.detections, slot.frame.getTimestampNanos(),
+                    System.nanoTime() - slot.admittedNanos);
+
+            TimingListener timing = timingListener;
+            if (timing != null) {
+                long end = System.nanoTime();
+                stageNanos[Stage.COPY.ordinal()] = slot.copiedNanos - slot.admittedNanos;
+                stageNanos[Stage.QUEUE.ordinal()] = (slot.preprocessStartNanos - slot.copiedNanos)
+                        + (slot.inferStartNanos - slot.preprocessedNanos)
+                        + (dispatchStart - slot.inferredNanos);
+                stageNanos[Stage.PREPROCESS.ordinal()] = slot.preprocessedNanos - slot.preprocessStartNanos;
+                stageNanos[Stage.INFERENCE.ordinal()] = slot.inferredNanos - slot.inferStartNanos;
+                stageNanos[Stage.POSTPROCESS.ordinal()] = end - dispatchStart;
+                timing.onFrameTimed(stageNanos, end - slot.admittedNanos);
+            }
+        } finally {
+            TRACE.end(TRACE_DISPATCH);
+            recycle(slot);
+        }
+    }
+
+    private void recycle(FrameSlot slot) {
+        if (slot != null) {
+            freeSlots.offer(slot);
+        }
+    }
+
+    private Thread startWorker(String name, StageStep step) {
+        Thread thread = new Thread(() -> {
+            while (running) {
+                try {
+                    step.runOnce();
+                } catch (InterruptedException e) {
+                    // Normal shutdown
+                    return;
+                } catch (RuntimeException e) {
+                    // Drop this frame, keep the stage alive
+                    LOG.log(Level.WARNING, "Stage " + name + " failed", e);
+                }
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    private interface StageStep {
+        void runOnce() throws InterruptedException;
+    }
+
+    public long getRejectedFrames() {
+        return rejectedFrames;
+    }
+
+    public long getCompletedFrames() {
+        return completedFrames;
+    }
+
+    // Frames admitted but then pushed out of a full ring (DROP_OLDEST/NEWEST)
+    public long getDroppedFrames() {
+        return convertedRing.getDropped() + preprocessedRing.getDropped() + inferredRing.getDropped();
+    }
+
+    public int getFreeSlots() {
+        return freeSlots.size();
+    }
+
+    // True when no frame is queued or being worked on
+    public boolean isIdle() {
+        return freeSlots.size() == slotCount;
+    }
+
+    public String getStats() {
+        return convertedRing + "\n" +
+                preprocessedRing + "\n" +
+                inferredRing + "\n" +
+                "free slots: " + freeSlots.size() +
+                " | rejected: " + rejectedFrames +
+                " | dropped: " + getDroppedFrames() +
+                " | completed: " + completedFrames;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.object_detection_app.core;
+
+// Ranking and suppression for one consumer, in place on a DetectionBatch:
+//   1. top-K: keep the highest-scoring candidates (partial selection, sorted)
+//   2. NMS:   hard, soft-linear or soft-Gaussian, class-aware or agnostic
+//   3. cap:   at most maxDetections survive
+// The output is ranked, highest score first, so nothing downstream re-sorts.
+// Box areas are cached in a scratch array that only grows, so steady-state
+// calls allocate nothing. Not thread-safe: one instance per thread.
+public class DetectionPostProcessor {
+
+    public enum Suppression {
+        NONE,
+        HARD,           // drop anything overlapping a kept box by more than the IoU threshold
+        SOFT_LINEAR,    // score *= 1 - IoU for overlaps above the threshold
+        SOFT_GAUSSIAN   // score *= exp(-IoU^2 / sigma) for every overlap
+    }
+
+    private int topK = 100;
+    private int maxDetections = Integer.MAX_VALUE;
+    private Suppression suppression = Suppression.HARD;
+    private boolean classAware = true;
+    private float iouThreshold = 0.6f;
+    private float sigma = 0.5f;
+    private float minScore = 0.001f;
+
+    private float[] areas = new float[0];
+
+    // Candidates kept before NMS; bounds the quadratic part for large models
+    public DetectionPostProcessor setTopK(int topK) {
+        this.topK = Math.max(1, topK);
+        return this;
+    }
+
+    public DetectionPostProcessor setMaxDetections(int maxDetections) {
+        this.maxDetections = Math.max(1, maxDetections);
+        return this;
+    }
+
+    public DetectionPostProcessor setSuppression(Suppression suppression) {
+        this.suppression = suppression;
+        return this;
+    }
+
+    // Class-aware: only boxes of the same class suppress each other
+    public DetectionPostProcessor setClassAware(boolean classAware) {
+        this.classAware = classAware;
+        return this;
+    }
+
+    public DetectionPostProcessor setIouThreshold(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+        return this;
+    }
+
+    // Gaussian soft-NMS spread
+    public DetectionPostProcessor setSigma(float sigma) {
+        this.sigma = sigma;
+        return this;
+    }
+
+    // Soft-NMS drops boxes whose decayed score falls below this
+    public DetectionPostProcessor setMinScore(float minScore) {
+        this.minScore = minScore;
+        return this;
+    }
+
+    public Suppression getSuppression() {
+        return suppression;
+    }
+
+    // Returns the new size
+    public int process(DetectionBatch batch) {
+        DetectionRanker.selectTopK(batch, topK);
+
+        switch (suppression) {
+            case HARD:
+                hard(batch);
+                break;
+            case SOFT_LINEAR:
+            case SOFT_GAUSSIAN:
+                soft(batch);
+                break;
+            default:
+                break;
+        }
+
+        if (batch.size() > maxDetections) {
+            batch.setCount(maxDetections);
+        }
+        return batch.size();
+    }
+
+    private void computeAreas(DetectionBatch batch) {
+        int n = batch.size();
+        if (areas.length < n) {
+            areas = new float[Math.max(n, areas.length * 2)];
+        }
+        float[] boxes = batch.boxArray();
+        for (int i = 0; i < n; i++) {
+            int b = i * 4;
+            areas[i] = (boxes[b + 2] - boxes[b]) * (boxes[b + 3] - boxes[b + 1]);
+        }
+    }
+
+    private float iou(float[] boxes, int a, int b) {
+        int ai = a * 4;
+        int bi = b * 4;
+        float left = Math.max(boxes[ai], boxes[bi]);
+        float right = Math.min(boxes[ai + 2], boxes[bi + 2]);
+        if (right <= left) {
+            return 0f;
+        }
+        float top = Math.max(boxes[ai + 1], boxes[bi + 1]);
+        float bottom = Math.min(boxes[ai + 3], boxes[bi + 3]);
+        if (bottom <= top) {
+            return 0f;
+        }
+        float intersection = (right - left) * (bottom - top);
+        return intersection / (areas[a] + areas[b] - intersection);
+    }
+
+    // Greedy over the ranked batch; stops once maxDetections boxes are kept
+    private void hard(DetectionBatch batch) {
+        computeAreas(batch);
+        float[] boxes = batch.boxArray();
+        int[] classes = batch.classIdArray();
+        int n = batch.size();
+        int kept = 0;
+
+        for (int i = 0; i < n && kept < maxDetections; i++) {
+            boolean keep = true;
+            for (int k = 0; k < kept; k++) {
+                if (classAware && classes[k] != classes[i]) {
+                    continue;
+                }
+                if (iou(boxes, k, i) > iouThreshold) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                if (kept != i) {
+                    batch.move(i, kept);
+                    areas[kept] = areas[i];
+                }
+                kept++;
+            }
+        }
+        batch.setCount(kept);
+    }
+
+    // Soft-NMS (Bodla et al. 2017): instead of dropping overlaps, decay their
+    // scores, then pick the next best. Output order is the pick order.
+    private void soft(DetectionBatch batch) {
+        computeAreas(batch);
+        float[] boxes = batch.boxArray();
+        float[] scores = batch.scoreArray();
+        int[] classes = batch.classIdArray();
+        boolean gaussian = suppression == Suppression.SOFT_GAUSSIAN;
+        int n = batch.size();
+
+        for (int i = 0; i < n && i < maxDetections; i++) {
+            // Decay can reorder the tail, so find the current best
+            int best = i;
+            for (int j = i + 1; j < n; j++) {
+                if (scores[j] > scores[best]) {
+                    best = j;
+                }
+            }
+            if (best != i) {
+                swap(batch, best, i);
+            }
+
+            for (int j = i + 1; j < n; j++) {
+                if (classAware && classes[j] != classes[i]) {
+                    continue;
+                }
+                float overlap = iou(boxes, i, j);
+                if (gaussian) {
+                    scores[j] *= (float) Math.exp(-(overlap * overlap) / sigma);
+                } else if (overlap > iouThreshold) {
+                    scores[j] *= 1f - overlap;
+                }
+                if (scores[j] < minScore) {
+                    // Drop: pull the last entry into this slot and look at it again
+                    n--;
+                    if (j != n) {
+                        swap(batch, j, n);
+                    }
+                    j--;
+                }
+            }
+        }
+        batch.setCount(Math.min(n, maxDetections));
+    }
+
+    private void swap(DetectionBatch batch, int i, int j) {
+        batch.swap(i, j);
+        float area = areas[i];
+        areas[i] = areas[j];
+        areas[j] = area;
+    }
+}
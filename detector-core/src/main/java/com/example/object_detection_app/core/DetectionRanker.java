@@ -0,0 +1,130 @@
+package com.example.object_detection_app.core;
+
+// Ranking directly on a DetectionBatch, in place and without allocation.
+// Suppression lives in DetectionPostProcessor.
+public final class DetectionRanker {
+
+    private DetectionRanker() {
+    }
+
+    // Below this many entries a range is finished with insertion sort
+    private static final int INSERTION_THRESHOLD = 16;
+
+    // Highest score first. Quicksort with an insertion-sort finish, so small,
+    // nearly sorted batches stay cheap and thousands of candidates stay n log n.
+    public static void sortByScore(DetectionBatch batch) {
+        if (!isSorted(batch)) {
+            sortRange(batch, 0, batch.size());
+        }
+    }
+
+    // Decoder output is already ranked; checking is O(n) and keeps tie order
+    public static boolean isSorted(DetectionBatch batch) {
+        float[] scores = batch.scoreArray();
+        for (int i = 1; i < batch.size(); i++) {
+            if (scores[i - 1] < scores[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Keeps only the k highest-scoring entries, sorted, and returns the new
+    // size. Quickselect first, so only the kept entries are fully sorted.
+    public static int selectTopK(DetectionBatch batch, int k) {
+        int n = batch.size();
+        if (k <= 0) {
+            batch.setCount(0);
+            return 0;
+        }
+        if (isSorted(batch)) {
+            batch.setCount(Math.min(k, n));
+            return batch.size();
+        }
+        if (k >= n) {
+            sortRange(batch, 0, n);
+            return n;
+        }
+
+        float[] scores = batch.scoreArray();
+        int lo = 0;
+        int hi = n;
+        while (hi - lo > INSERTION_THRESHOLD) {
+            int p = partition(batch, scores, lo, hi);
+            if (p == k || p == k - 1) {
+                break;
+            } else if (p < k) {
+                lo = p + 1;
+            } else {
+                hi = p;
+            }
+        }
+        if (hi - lo <= INSERTION_THRESHOLD) {
+            insertionSort(batch, scores, lo, hi);
+        }
+        sortRange(batch, 0, k);
+        batch.setCount(k);
+        return k;
+    }
+
+    // Sorts [lo, hi) descending; recurses into the smaller side only
+    private static void sortRange(DetectionBatch batch, int lo, int hi) {
+        float[] scores = batch.scoreArray();
+        while (hi - lo > INSERTION_THRESHOLD) {
+            int p = partition(batch, scores, lo, hi);
+            if (p - lo < hi - p) {
+                sortRange(batch, lo, p);
+                lo = p + 1;
+            } else {
+                sortRange(batch, p + 1, hi);
+                hi = p;
+            }
+        }
+        insertionSort(batch, scores, lo, hi);
+    }
+
+    private static void insertionSort(DetectionBatch batch, float[] scores, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            for (int j = i; j > lo && scores[j - 1] < scores[j]; j--) {
+                batch.swap(j, j - 1);
+            }
+        }
+    }
+
+    // Median-of-three pivot, then a two-sided scan that stops on equal scores
+    // from both ends, so long runs of tied (quantized) scores still split
+    // evenly. Afterwards [lo, p) >= scores[p] >= (p, hi). Returns p.
+    private static int partition(DetectionBatch batch, float[] scores, int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        int last = hi - 1;
+        if (scores[mid] > scores[lo]) {
+            batch.swap(mid, lo);
+        }
+        if (scores[last] > scores[lo]) {
+            batch.swap(last, lo);
+        }
+        if (scores[last] > scores[mid]) {
+            batch.swap(last, mid);
+        }
+        // Median to lo as the pivot; the maximum moves to mid
+        batch.swap(mid, lo);
+        float pivot = scores[lo];
+
+        int i = lo;
+        int j = hi;
+        while (true) {
+            do {
+                i++;
+            } while (i < hi && scores[i] > pivot);
+            do {
+                j--;
+            } while (scores[j] < pivot);
+            if (i >= j) {
+                break;
+            }
+            batch.swap(i, j);
+        }
+        batch.swap(lo, j);
+        return j;
+    }
+}
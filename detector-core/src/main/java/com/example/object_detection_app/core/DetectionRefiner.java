@@ -0,0 +1,243 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+// Second look at uncertain detections: for the best candidates scoring in
+// [minScore, confirmScore) the model is re-run on an enlarged window around
+// the box (zoom x the box, square, in source pixels), which gives the object
+// far more input pixels than the full-frame pass did. A same-class match
+// scoring at least confirmScore promotes the candidate to the refined score
+// and box; otherwise it is left as it was.
+// Budgeted: a pass only starts if the frame's inference time so far plus the
+// expected pass time stays within budgetNanos. The expectation is the
+// frame's own preprocess + inference time or a max of recent passes that
+// decays by 1/32 per frame, whichever is larger, so one slow pass holds
+// refinement back for a few frames rather than for good.
+// Runs on the inference thread with the same backend; not thread-safe.
+public class DetectionRefiner {
+
+    private static final TraceBuffer TRACE = Tracer.get();
+    private static final int TRACE_REFINE = TRACE.register("refine.pass");
+
+    private float minScore = 0.3f;
+    private float confirmScore = 0.5f;
+    private float zoom = 2f;
+    private float matchIou = 0.3f;
+    private int maxPasses = 2;
+    private long budgetNanos = 100_000_000L;
+
+    // Buffers for the backend's current model; rebuilt after a model swap
+    private ModelSpec spec;
+    private FramePreprocessor preprocessor;
+    private ByteBuffer input;
+    private RawDetections raw;
+    private DetectionBatch zoomed;
+
+    private final float[] candidate = new float[4];
+    private final float[] box = new float[4];
+    private final float[] point = new float[2];
+    private float zoomedScore;
+    private long passEstimateNanos = 0;
+
+    private final LatencyHistogram passTimes = new LatencyHistogram("refine pass");
+    private long passes = 0;
+    private long confirmed = 0;
+    private long overBudget = 0;
+
+    public DetectionRefiner setScoreRange(float minScore, float confirmScore) {
+        if (minScore >= confirmScore) {
+            throw new IllegalArgumentException("minScore must be below confirmScore");
+        }
+        this.minScore = minScore;
+        this.confirmScore = confirmScore;
+        return this;
+    }
+
+    // Window side as a multiple of the candidate box's longer side
+    public DetectionRefiner setZoom(float zoom) {
+        if (zoom < 1f) {
+            throw new IllegalArgumentException("Zoom must be at least 1");
+        }
+        this.zoom = zoom;
+        return this;
+    }
+
+    public DetectionRefiner setMatchIou(float matchIou) {
+        this.matchIou = matchIou;
+        return this;
+    }
+
+    public DetectionRefiner setMaxPasses(int maxPasses) {
+        this.maxPasses = Math.max(0, maxPasses);
+        return this;
+    }
+
+    // Upper bound on primary inference plus refinement for one frame
+    public DetectionRefiner setBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+        return this;
+    }
+
+    // batch: decoded primary detections in input pixels of the frame's
+    // transform, refined in place (may be left unsorted). inferStartNanos is
+    // when the primary inference started, preprocessNanos what the frame's
+    // preprocessing took. Returns the number confirmed.
+    public int refine(YuvFrame frame, FrameTransform transform, DetectionBatch batch,
+                      InferenceBackend backend, DetectionDecoder decoder, long inferStartNanos,
+                      long preprocessNanos) {
+        if (maxPasses == 0) {
+            return 0;
+        }
+        ensureBuffers(backend);
+        long primaryNanos = System.nanoTime() - inferStartNanos + preprocessNanos;
+        passEstimateNanos -= passEstimateNanos / 32;
+
+        int done = 0;
+        int promoted = 0;
+        float[] scores = batch.scoreArray();
+        float[] boxes = batch.boxArray();
+        for (int i = 0; i < batch.size() && done < maxPasses; i++) {
+            float score = scores[i];
+            if (score < minScore || score >= confirmScore) {
+                continue;
+            }
+            long expected = Math.max(primaryNanos, passEstimateNanos);
+            if (System.nanoTime() - inferStartNanos + expected > budgetNanos) {
+                overBudget++;
+                break;
+            }
+
+            System.arraycopy(boxes, i * 4, candidate, 0, 4);
+            if (!zoomWindow(frame, transform, candidate)) {
+                continue;
+            }
+            done++;
+            if (pass(frame, transform, batch.getClassId(i), backend, decoder)) {
+                // box holds the match in primary input pixels
+                scores[i] = zoomedScore;
+                System.arraycopy(box, 0, boxes, i * 4, 4);
+                promoted++;
+            }
+        }
+        confirmed += promoted;
+        return promoted;
+    }
+
+    private void ensureBuffers(InferenceBackend backend) {
+        ModelSpec current = backend.getModelSpec();
+        if (current != spec) {
+            spec = current;
+            preprocessor = current.newPreprocessor();
+            input = backend.newInputBuffer();
+            raw = backend.newOutputBuffer();
+            zoomed = new DetectionBatch(raw.getCapacity());
+            passEstimateNanos = 0;
+        }
+    }
+
+    // Sets the preprocessor crop to the window around the candidate box.
+    // False if the window would not be smaller than what the primary pass saw.
+    private boolean zoomWindow(YuvFrame frame, FrameTransform transform, float[] candidateBox) {
+        System.arraycopy(candidateBox, 0, box, 0, 4);
+        transform.mapBoxToSource(box);
+        float side = zoom * Math.max(box[2] - box[0], box[3] - box[1]);
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        int s = Math.round(Math.min(side, Math.min(width, height)));
+        if (s < 2 || s >= Math.max(transform.getRegionWidth(), transform.getRegionHeight())) {
+            return false;
+        }
+        int left = Math.round((box[0] + box[2] - s) / 2f);
+        int top = Math.round((box[1] + box[3] - s) / 2f);
+        left = Math.max(0, Math.min(width - s, left));
+        top = Math.max(0, Math.min(height - s, top));
+        preprocessor.setCrop(left, top, left + s, top + s);
+        return true;
+    }
+
+    // One zoomed inference; on a confirmed match leaves it in box (primary
+    // input pixels) and zoomedScore
+    private boolean pass(YuvFrame frame, FrameTransform transform, int classId,
+                         InferenceBackend backend, DetectionDecoder decoder) {
+        TRACE.begin(TRACE_REFINE);
+        long start = System.nanoTime();
+        try {
+            FrameTransform window = frame.preprocess(preprocessor, input);
+            backend.runInference(input, raw);
+            decoder.decode(raw, zoomed);
+
+            float bestIou = matchIou;
+            int best = -1;
+            float[] zoomedBoxes = zoomed.boxArray();
+            for (int j = 0; j < zoomed.size(); j++) {
+                if (zoomed.getClassId(j) != classId || zoomed.getScore(j) < confirmScore) {
+                    continue;
+                }
+                // Window input -> source -> primary input, in place in zoomed
+                window.mapBoxToSource(copyBox(zoomedBoxes, j));
+                mapSourceToInput(transform);
+                System.arraycopy(box, 0, zoomedBoxes, j * 4, 4);
+                float overlap = BoxMath.iou(zoomedBoxes, j * 4, candidate, 0);
+                if (overlap >= bestIou) {
+                    bestIou = overlap;
+                    best = j;
+                }
+            }
+            if (best < 0) {
+                return false;
+            }
+            System.arraycopy(zoomedBoxes, best * 4, box, 0, 4);
+            zoomedScore = zoomed.getScore(best);
+            return true;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            passTimes.record(nanos);
+            passEstimateNanos = Math.max(nanos, passEstimateNanos);
+            passes++;
+            TRACE.end(TRACE_REFINE);
+        }
+    }
+
+    private float[] copyBox(float[] boxes, int i) {
+        System.arraycopy(boxes, i * 4, box, 0, 4);
+        return box;
+    }
+
+    // box: source pixels -> input pixels of the primary pass
+    private void mapSourceToInput(FrameTransform transform) {
+        point[0] = box[0];
+        point[1] = box[1];
+        transform.sourceToInput(point);
+        float ax = point[0], ay = point[1];
+        point[0] = box[2];
+        point[1] = box[3];
+        transform.sourceToInput(point);
+        box[0] = Math.min(ax, point[0]);
+        box[1] = Math.min(ay, point[1]);
+        box[2] = Math.max(ax, point[0]);
+        box[3] = Math.max(ay, point[1]);
+    }
+
+    public LatencyHistogram getPassTimes() {
+        return passTimes;
+    }
+
+    public long getPasses() {
+        return passes;
+    }
+
+    public long getConfirmed() {
+        return confirmed;
+    }
+
+    // Candidates left unrefined because the frame budget was spent
+    public long getOverBudget() {
+        return overBudget;
+    }
+
+    public String getStats() {
+        return String.format(Locale.US, "refine: %d passes, %d confirmed, %d over budget (%.0f ms)",
+                passes, confirmed, overBudget, budgetNanos / 1e6);
+    }
+}
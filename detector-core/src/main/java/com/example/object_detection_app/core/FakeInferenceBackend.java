@@ -0,0 +1,105 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+
+// Deterministic stand-in for the TFLite model, for host runs (benchmarks,
+// replay). Output depends only on the seed and a checksum of sampled input
+// bytes, so the same frame always yields the same detections. Can optionally
+// spin for a fixed time to mimic model latency.
+public class FakeInferenceBackend implements InferenceBackend {
+
+    private static final int SAMPLE_STRIDE = 997; // prime, spreads samples over the frame
+
+    private final ModelSpec spec;
+    private final int maxDetections;
+    private final int numClasses;
+    private final long seed;
+    private final long simulatedLatencyNanos;
+
+    public FakeInferenceBackend(int inputSize, int maxDetections, int numClasses,
+                                long seed, long simulatedLatencyNanos) {
+        this.spec = new ModelSpec("fake", inputSize, maxDetections);
+        this.maxDetections = maxDetections;
+        this.numClasses = numClasses;
+        this.seed = seed;
+        this.simulatedLatencyNanos = simulatedLatencyNanos;
+    }
+
+    // Same shapes as the bundled COCO SSD model, no simulated latency
+    public static FakeInferenceBackend ssdMobileNet(long seed) {
+        return new FakeInferenceBackend(300, 10, 91, seed, 0);
+    }
+
+    @Override
+    public int getInputSize() {
+        return spec.getInputSize();
+    }
+
+    @Override
+    public ModelSpec getModelSpec() {
+        return spec;
+    }
+
+    @Override
+    public ByteBuffer newInputBuffer() {
+        return spec.newInputBuffer();
+    }
+
+    @Override
+    public RawDetections newOutputBuffer() {
+        return spec.newOutputBuffer();
+    }
+
+    @Override
+    public void runInference(ByteBuffer input, RawDetections output) {
+        long start = System.nanoTime();
+
+        long state = (seed ^ checksum(input)) + 0x9E3779B97F4A7C15L;
+        int n = Math.min(maxDetections, output.getCapacity());
+        for (int i = 0; i < n; i++) {
+            state = next(state);
+            float ymin = unit(state) * 0.7f;
+            state = next(state);
+            float xmin = unit(state) * 0.7f;
+            state = next(state);
+            float h = 0.05f + unit(state) * 0.3f;
+            state = next(state);
+            float w = 0.05f + unit(state) * 0.3f;
+            state = next(state);
+
+            output.locations[0][i][0] = ymin;
+            output.locations[0][i][1] = xmin;
+            output.locations[0][i][2] = ymin + h;
+            output.locations[0][i][3] = xmin + w;
+            output.classes[0][i] = 1 + (int) (unit(state) * (numClasses - 1));
+            state = next(state);
+            output.scores[0][i] = unit(state);
+        }
+        output.count[0] = n;
+
+        while (System.nanoTime() - start < simulatedLatencyNanos) {
+            // Busy wait: mimics a CPU-bound model
+        }
+    }
+
+    private static long checksum(ByteBuffer input) {
+        long sum = 0;
+        int limit = input.capacity();
+        for (int i = 0; i < limit; i += SAMPLE_STRIDE) {
+            sum = sum * 31 + (input.get(i) & 0xFF);
+        }
+        return sum;
+    }
+
+    // xorshift64*
+    private static long next(long x) {
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        return x * 2685821657736338717L;
+    }
+
+    private static float unit(long x) {
+        return (x >>> 40) / (float) (1L << 24);
+    }
+}
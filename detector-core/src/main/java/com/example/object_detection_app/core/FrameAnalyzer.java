@@ -0,0 +1,211 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// The per-frame decision path shared by the camera screen and the replay
+// harness: rate limiting, static-scene skipping, then handing the frame to
+// the pipeline. Results come back through onResults() (called from the
+// pipeline's ResultListener), which feeds the tracker and rate controller.
+// analyze() is called from one thread (the camera executor / replay loop).
+public class FrameAnalyzer {
+
+    public enum Outcome { THROTTLED, STATIC_SCENE, SUBMITTED, REJECTED }
+
+    private static final TraceBuffer TRACE = Tracer.get();
+    private static final int TRACE_THROTTLED = TRACE.register("frame.throttled");
+    private static final int TRACE_STATIC = TRACE.register("frame.static_scene");
+    private static final int TRACE_REJECTED = TRACE.register("frame.rejected");
+    private static final int TRACE_TRACKS = TRACE.register("tracks");
+
+    // Camera-screen defaults
+    public static final float DEFAULT_TARGET_FPS = 5f;
+    public static final float DEFAULT_SCENE_THRESHOLD = 6f; // mean luma delta per cell
+    public static final long DEFAULT_SCENE_MAX_REUSE_MS = 5000;
+
+    private final DetectionPipeline pipeline;
+    private final InferenceRateController rateController; // null: analyze every frame
+    private final SceneChangeGate sceneGate;              // null: never skip
+    private final ObjectTracker tracker;
+    private final float minConfidence;
+
+    // Sorted, de-duplicated class ids of the last confident detections
+    private int[] lastClasses = new int[16];
+    private int lastClassCount = 0;
+    private int[] currentClasses = new int[16];
+
+    private volatile long throttledFrames = 0;
+    private volatile long staticFrames = 0;
+    private volatile long submittedFrames = 0;
+    private volatile long rejectedFrames = 0;
+
+    public FrameAnalyzer(DetectionPipeline pipeline, InferenceRateController rateController,
+                         SceneChangeGate sceneGate, ObjectTracker tracker, float minConfidence) {
+        this.pipeline = pipeline;
+        this.rateController = rateController;
+        this.sceneGate = sceneGate;
+        this.tracker = tracker;
+        this.minConfidence = minConfidence;
+    }
+
+    // Same gating and tracking setup as the camera screen
+    public static FrameAnalyzer withDefaults(DetectionPipeline pipeline, float minConfidence) {
+        return new FrameAnalyzer(pipeline,
+                InferenceRateController.targetFps(DEFAULT_TARGET_FPS).setIntervalBounds(100, 3000),
+                new SceneChangeGate(DEFAULT_SCENE_THRESHOLD, DEFAULT_SCENE_MAX_REUSE_MS),
+                new ObjectTracker(16, 0.3f, 3),
+                minConfidence);
+    }
+
+    public Outcome analyze(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                           int yRowStride, int uvRowStride, int uvPixelStride,
+                           int width, int height, int rotationDegrees, long timestampNanos,
+                           long nowMs) {
+        Outcome gated = gate(yPlane, 0, yRowStride, 1, width, height, nowMs);
+        if (gated != null) {
+            return gated;
+        }
+        return submitted(pipeline.submit(yPlane, uPlane, vPlane, yRowStride, uvRowStride,
+                uvPixelStride, width, height, rotationDegrees, timestampNanos), nowMs);
+    }
+
+    // RGBA_8888 frames; the scene gate samples the green channel
+    public Outcome analyzeRgba(ByteBuffer rgbaPlane, int rowStride, int width, int height,
+                               int rotationDegrees, long timestampNanos, long nowMs) {
+        Outcome gated = gate(rgbaPlane, 1, rowStride, 4, width, height, nowMs);
+        if (gated != null) {
+            return gated;
+        }
+        return submitted(pipeline.submitRgba(rgbaPlane, rowStride, width, height,
+                rotationDegrees, timestampNanos), nowMs);
+    }
+
+    // Rate limit and static-scene check; null means the frame should be submitted
+    private Outcome gate(ByteBuffer plane, int offset, int rowStride, int pixelStride,
+                         int width, int height, long nowMs) {
+        if (rateController != null && !rateController.shouldAnalyze(nowMs)) {
+            throttledFrames++;
+            TRACE.instant(TRACE_THROTTLED);
+            return Outcome.THROTTLED;
+        }
+
+        // Static scene: keep the previous results, skip the model
+        if (sceneGate != null && !sceneGate.shouldInfer(plane, offset, rowStride, pixelStride,
+                width, height, nowMs)) {
+            if (rateController != null) {
+                rateController.onFrameAdmitted(nowMs);
+            }
+            tracker.predict(nowMs);
+            staticFrames++;
+            TRACE.instant(TRACE_STATIC);
+            return Outcome.STATIC_SCENE;
+        }
+        return null;
+    }
+
+    private Outcome submitted(boolean admitted, long nowMs) {
+        if (admitted) {
+            if (rateController != null) {
+                rateController.onFrameAdmitted(nowMs);
+            }
+            submittedFrames++;
+            return Outcome.SUBMITTED;
+        }
+
+        // Not inferred, so this frame must not become the scene reference
+        if (sceneGate != null) {
+            sceneGate.invalidate();
+        }
+        rejectedFrames++;
+        TRACE.instant(TRACE_REJECTED);
+        return Outcome.REJECTED;
+    }
+
+    // Call from the pipeline's ResultListener. Updates the tracker and feeds
+    // latency and scene changes back into the rate controller. Returns the
+    // track id of the top-ranked detection, or -1 if there is none.
+    public int onResults(DetectionBatch batch, long latencyNanos, long nowMs) {
+        tracker.update(batch.boxArray(), batch.classIdArray(), batch.scoreArray(),
+                batch.size(), nowMs);
+        TRACE.counter(TRACE_TRACKS, tracker.getTrackCount());
+
+        if (rateController != null) {
+            int classCount = collectConfidentClasses(batch);
+            boolean changed = classCount != lastClassCount;
+            for (int i = 0; i < classCount && !changed; i++) {
+                changed = currentClasses[i] != lastClasses[i];
+            }
+            int[] swap = lastClasses;
+            lastClasses = currentClasses;
+            currentClasses = swap;
+            lastClassCount = classCount;
+
+            rateController.onFrameCompleted(nowMs, latencyNanos / 1_000_000f, classCount, changed);
+        }
+
+        return batch.size() > 0 ? tracker.getTrackIdForDetection(0) : -1;
+    }
+
+    private int collectConfidentClasses(DetectionBatch batch) {
+        if (currentClasses.length < batch.size()) {
+            currentClasses = new int[batch.size()];
+            lastClasses = Arrays.copyOf(lastClasses, batch.size());
+        }
+        int n = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.getScore(i) >= minConfidence) {
+                currentClasses[n++] = batch.getClassId(i);
+            }
+        }
+        Arrays.sort(currentClasses, 0, n);
+
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || currentClasses[unique - 1] != currentClasses[i]) {
+                currentClasses[unique++] = currentClasses[i];
+            }
+        }
+        return unique;
+    }
+
+    // Start of a new detection session
+    public void reset() {
+        if (sceneGate != null) {
+            sceneGate.invalidate();
+        }
+        tracker.clear();
+        lastClassCount = 0;
+    }
+
+    public DetectionPipeline getPipeline() {
+        return pipeline;
+    }
+
+    public InferenceRateController getRateController() {
+        return rateController;
+    }
+
+    public SceneChangeGate getSceneGate() {
+        return sceneGate;
+    }
+
+    public ObjectTracker getTracker() {
+        return tracker;
+    }
+
+    public long getThrottledFrames() {
+        return throttledFrames;
+    }
+
+    public long getStaticFrames() {
+        return staticFrames;
+    }
+
+    public long getSubmittedFrames() {
+        return submittedFrames;
+    }
+
+    public long getRejectedFrames() {
+        return rejectedFrames;
+    }
+}
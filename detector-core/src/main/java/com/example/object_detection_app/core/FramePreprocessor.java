@@ -0,0 +1,276 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+
+// Single-pass preprocessing: crop + rotate + resize + YUV->RGB straight into the
+// model input buffer. The geometry is baked into per-pixel lookup tables which
+// are only rebuilt when the frame layout, rotation, crop or scale mode changes,
+// so the per-frame work is one read of each sampled pixel and one write.
+// Output is uint8 RGB by default, or normalized float RGB for float models.
+// Sources are YUV_420_888 planes or an RGBA_8888 buffer (processRgba).
+public class FramePreprocessor {
+
+    public enum ScaleMode {
+        STRETCH,      // fill the input, ignore aspect ratio (previous behaviour)
+        LETTERBOX,    // keep aspect ratio, pad the borders with black
+        CENTER_CROP   // keep aspect ratio, cut off what does not fit
+    }
+
+    private static final int PADDING = -1;
+
+    private final int dstWidth;
+    private final int dstHeight;
+    private ScaleMode scaleMode = ScaleMode.STRETCH;
+    // Non-null for float input: uint8 channel -> normalized value
+    private float[] floatTable;
+
+    // Optional crop in source (sensor) coordinates, right/bottom exclusive
+    private boolean hasCrop = false;
+    private int cropLeft, cropTop, cropRight, cropBottom;
+
+    // Lookup tables: source byte offsets for every destination pixel (luma or
+    // RGBA pixel, and chroma for YUV)
+    private int[] lumaIndex;
+    private int[] chromaIndex;
+    private final FrameTransform transform = new FrameTransform();
+
+    // Layout the tables were built for
+    private int lastSrcWidth = -1, lastSrcHeight = -1;
+    private int lastRowStride = -1, lastPixelStride = -1;
+    private int lastUvRowStride = -1, lastUvPixelStride = -1;
+    private int lastRotation = -1;
+    private boolean tablesValid = false;
+
+    public FramePreprocessor(int dstWidth, int dstHeight) {
+        this.dstWidth = dstWidth;
+        this.dstHeight = dstHeight;
+        this.lumaIndex = new int[dstWidth * dstHeight];
+        this.chromaIndex = new int[dstWidth * dstHeight];
+    }
+
+    public void setScaleMode(ScaleMode mode) {
+        if (mode != scaleMode) {
+            scaleMode = mode;
+            tablesValid = false;
+        }
+    }
+
+    public ScaleMode getScaleMode() {
+        return scaleMode;
+    }
+
+    // Writes (channel - mean) / std as native floats; the output buffer must
+    // then hold 12 bytes per pixel
+    public void setFloatInput(float mean, float std) {
+        floatTable = TensorPacker.floatTable(mean, std);
+    }
+
+    public void setUint8Input() {
+        floatTable = null;
+    }
+
+    public boolean isFloatInput() {
+        return floatTable != null;
+    }
+
+    public void setCrop(int left, int top, int right, int bottom) {
+        if (right <= left || bottom <= top) {
+            throw new IllegalArgumentException("Empty crop rect");
+        }
+        if (!hasCrop || left != cropLeft || top != cropTop
+                || right != cropRight || bottom != cropBottom) {
+            hasCrop = true;
+            cropLeft = left;
+            cropTop = top;
+            cropRight = right;
+            cropBottom = bottom;
+            tablesValid = false;
+        }
+    }
+
+    public void clearCrop() {
+        if (hasCrop) {
+            hasCrop = false;
+            tablesValid = false;
+        }
+    }
+
+    // Returned transform is owned by the preprocessor and updated on the next call
+    public FrameTransform process(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                                  int yRowStride, int uvRowStride, int uvPixelStride,
+                                  int srcWidth, int srcHeight, int rotationDegrees,
+                                  ByteBuffer out) {
+        ensureTables(srcWidth, srcHeight, yRowStride, 1, uvRowStride, uvPixelStride, rotationDegrees);
+
+        out.rewind();
+        int count = dstWidth * dstHeight;
+        if (floatTable != null) {
+            processFloat(yPlane, uPlane, vPlane, count, floatTable, out);
+            out.rewind();
+            return transform;
+        }
+        for (int i = 0; i < count; i++) {
+            int li = lumaIndex[i];
+            if (li == PADDING) {
+                out.put((byte) 0);
+                out.put((byte) 0);
+                out.put((byte) 0);
+                continue;
+            }
+            int ci = chromaIndex[i];
+            YuvToRgbConverter.putRgb(out,
+                    yPlane.get(li) & 0xFF, uPlane.get(ci) & 0xFF, vPlane.get(ci) & 0xFF);
+        }
+        out.rewind();
+
+        return transform;
+    }
+
+    // RGBA_8888 source (CameraX OUTPUT_IMAGE_FORMAT_RGBA_8888): no color
+    // conversion, just the sampled R, G, B bytes. Same geometry and crop.
+    public FrameTransform processRgba(ByteBuffer rgba, int rowStride, int srcWidth, int srcHeight,
+                                      int rotationDegrees, ByteBuffer out) {
+        ensureTables(srcWidth, srcHeight, rowStride, 4, 0, 0, rotationDegrees);
+
+        out.rewind();
+        int count = dstWidth * dstHeight;
+        float[] table = floatTable;
+        if (table != null) {
+            float black = table[0];
+            for (int i = 0; i < count; i++) {
+                int pi = lumaIndex[i];
+                if (pi == PADDING) {
+                    out.putFloat(black);
+                    out.putFloat(black);
+                    out.putFloat(black);
+                    continue;
+                }
+                out.putFloat(table[rgba.get(pi) & 0xFF]);
+                out.putFloat(table[rgba.get(pi + 1) & 0xFF]);
+                out.putFloat(table[rgba.get(pi + 2) & 0xFF]);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                int pi = lumaIndex[i];
+                if (pi == PADDING) {
+                    out.put((byte) 0);
+                    out.put((byte) 0);
+                    out.put((byte) 0);
+                    continue;
+                }
+                out.put(rgba.get(pi));
+                out.put(rgba.get(pi + 1));
+                out.put(rgba.get(pi + 2));
+            }
+        }
+        out.rewind();
+
+        return transform;
+    }
+
+    private void ensureTables(int srcWidth, int srcHeight, int rowStride, int pixelStride,
+                              int uvRowStride, int uvPixelStride, int rotationDegrees) {
+        int rotation = normalizeRotation(rotationDegrees);
+        if (!tablesValid || srcWidth != lastSrcWidth || srcHeight != lastSrcHeight
+                || rowStride != lastRowStride || pixelStride != lastPixelStride
+                || uvRowStride != lastUvRowStride || uvPixelStride != lastUvPixelStride
+                || rotation != lastRotation) {
+            buildTables(srcWidth, srcHeight, rowStride, pixelStride, uvRowStride, uvPixelStride,
+                    rotation);
+        }
+    }
+
+    // Separate loop so the uint8 path keeps no per-pixel format branch
+    private void processFloat(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                              int count, float[] table, ByteBuffer out) {
+        float black = table[0];
+        for (int i = 0; i < count; i++) {
+            int li = lumaIndex[i];
+            if (li == PADDING) {
+                out.putFloat(black);
+                out.putFloat(black);
+                out.putFloat(black);
+                continue;
+            }
+            int ci = chromaIndex[i];
+            YuvToRgbConverter.putRgbFloat(out,
+                    yPlane.get(li) & 0xFF, uPlane.get(ci) & 0xFF, vPlane.get(ci) & 0xFF, table);
+        }
+    }
+
+    public FrameTransform getTransform() {
+        return transform;
+    }
+
+    private void buildTables(int srcWidth, int srcHeight, int rowStride, int pixelStride,
+                             int uvRowStride, int uvPixelStride, int rotation) {
+        int left = 0, top = 0, right = srcWidth, bottom = srcHeight;
+        if (hasCrop) {
+            left = Math.max(0, cropLeft);
+            top = Math.max(0, cropTop);
+            right = Math.min(srcWidth, cropRight);
+            bottom = Math.min(srcHeight, cropBottom);
+            if (right <= left || bottom <= top) {
+                // Crop is outside this frame, fall back to the full frame
+                left = 0;
+                top = 0;
+                right = srcWidth;
+                bottom = srcHeight;
+            }
+        }
+
+        int regionWidth = right - left;
+        int regionHeight = bottom - top;
+        boolean swapped = rotation == 90 || rotation == 270;
+        float uprightWidth = swapped ? regionHeight : regionWidth;
+        float uprightHeight = swapped ? regionWidth : regionHeight;
+
+        float scaleX = dstWidth / uprightWidth;
+        float scaleY = dstHeight / uprightHeight;
+        if (scaleMode == ScaleMode.LETTERBOX) {
+            scaleX = scaleY = Math.min(scaleX, scaleY);
+        } else if (scaleMode == ScaleMode.CENTER_CROP) {
+            scaleX = scaleY = Math.max(scaleX, scaleY);
+        }
+        float offsetX = (dstWidth - uprightWidth * scaleX) / 2f;
+        float offsetY = (dstHeight - uprightHeight * scaleY) / 2f;
+
+        transform.set(left, top, regionWidth, regionHeight, rotation,
+                scaleX, scaleY, offsetX, offsetY, dstWidth, dstHeight);
+
+        float[] point = new float[2];
+        int i = 0;
+        for (int dy = 0; dy < dstHeight; dy++) {
+            for (int dx = 0; dx < dstWidth; dx++, i++) {
+                point[0] = dx + 0.5f;
+                point[1] = dy + 0.5f;
+                if (!transform.inputToSource(point)) {
+                    lumaIndex[i] = PADDING;
+                    chromaIndex[i] = PADDING;
+                    continue;
+                }
+                int sx = Math.min(right - 1, Math.max(left, (int) point[0]));
+                int sy = Math.min(bottom - 1, Math.max(top, (int) point[1]));
+                lumaIndex[i] = sy * rowStride + sx * pixelStride;
+                chromaIndex[i] = (sy >> 1) * uvRowStride + (sx >> 1) * uvPixelStride;
+            }
+        }
+
+        lastSrcWidth = srcWidth;
+        lastSrcHeight = srcHeight;
+        lastRowStride = rowStride;
+        lastPixelStride = pixelStride;
+        lastUvRowStride = uvRowStride;
+        lastUvPixelStride = uvPixelStride;
+        lastRotation = rotation;
+        tablesValid = true;
+    }
+
+    private static int normalizeRotation(int degrees) {
+        int r = ((degrees % 360) + 360) % 360;
+        if (r % 90 != 0) {
+            throw new IllegalArgumentException("Rotation must be a multiple of 90: " + degrees);
+        }
+        return r;
+    }
+}
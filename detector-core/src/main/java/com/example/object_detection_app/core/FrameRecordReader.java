@@ -0,0 +1,139 @@
+package com.example.object_detection_app.core;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// Reads frames written by FrameRecordWriter one at a time. The plane buffers
+// are reused: they are only valid until the next call to next().
+public class FrameRecordReader implements Closeable {
+
+    private final DataInputStream in;
+
+    private byte[] y = new byte[0];
+    private byte[] u = new byte[0];
+    private byte[] v = new byte[0];
+    private ByteBuffer yBuffer = ByteBuffer.wrap(y);
+    private ByteBuffer uBuffer = ByteBuffer.wrap(u);
+    private ByteBuffer vBuffer = ByteBuffer.wrap(v);
+
+    private long timestampNanos;
+    private int rotationDegrees;
+    private int width;
+    private int height;
+    private int yRowStride;
+    private int uvRowStride;
+    private int uvPixelStride;
+    private long framesRead = 0;
+
+    public FrameRecordReader(InputStream stream) throws IOException {
+        DataInputStream header = new DataInputStream(stream);
+        if (header.readInt() != FrameRecordWriter.MAGIC) {
+            throw new IOException("Not a frame recording");
+        }
+        int version = header.readInt();
+        if (version != FrameRecordWriter.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        int flags = header.readInt();
+
+        InputStream body = (flags & FrameRecordWriter.FLAG_DEFLATE) != 0
+                ? new InflaterInputStream(stream, new Inflater(), 64 * 1024)
+                : stream;
+        in = new DataInputStream(new BufferedInputStream(body, 64 * 1024));
+    }
+
+    // Returns false at the end of the recording
+    public boolean next() throws IOException {
+        try {
+            timestampNanos = in.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        rotationDegrees = in.readInt();
+        width = in.readInt();
+        height = in.readInt();
+        yRowStride = in.readInt();
+        uvRowStride = in.readInt();
+        uvPixelStride = in.readInt();
+
+        int ySize = in.readInt();
+        if (y.length < ySize) {
+            y = new byte[ySize];
+        }
+        in.readFully(y, 0, ySize);
+        yBuffer = ByteBuffer.wrap(y, 0, ySize);
+
+        int uSize = in.readInt();
+        if (u.length < uSize) {
+            u = new byte[uSize];
+        }
+        in.readFully(u, 0, uSize);
+        uBuffer = ByteBuffer.wrap(u, 0, uSize);
+
+        int vSize = in.readInt();
+        if (v.length < vSize) {
+            v = new byte[vSize];
+        }
+        in.readFully(v, 0, vSize);
+        vBuffer = ByteBuffer.wrap(v, 0, vSize);
+
+        framesRead++;
+        return true;
+    }
+
+    public ByteBuffer getYPlane() {
+        return yBuffer;
+    }
+
+    public ByteBuffer getUPlane() {
+        return uBuffer;
+    }
+
+    public ByteBuffer getVPlane() {
+        return vBuffer;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getYRowStride() {
+        return yRowStride;
+    }
+
+    public int getUvRowStride() {
+        return uvRowStride;
+    }
+
+    public int getUvPixelStride() {
+        return uvPixelStride;
+    }
+
+    public long getFramesRead() {
+        return framesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.object_detection_app.core;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Records YUV_420_888 frames exactly as the camera delivered them (planes,
+// strides, rotation, timestamp) so a session can be replayed off-device
+// through the same analysis path. File layout, big-endian:
+//   header: "ODFR" magic, version, flags (bit 0: frame data deflated)
+//   frame:  timestampNanos, rotation, width, height, yRowStride,
+//           uvRowStride, uvPixelStride, then Y/U/V as (length, bytes)
+// With deflate on, the whole stream after the header is compressed.
+public class FrameRecordWriter implements Closeable {
+
+    static final int MAGIC = 0x4F444652; // "ODFR"
+    static final int VERSION = 1;
+    static final int FLAG_DEFLATE = 1;
+
+    private final DataOutputStream out;
+    private byte[] scratch = new byte[0];
+    private long framesWritten = 0;
+    private long bytesWritten = 0;
+
+    public FrameRecordWriter(OutputStream stream, boolean deflate) throws IOException {
+        DataOutputStream header = new DataOutputStream(stream);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(deflate ? FLAG_DEFLATE : 0);
+        header.flush();
+
+        OutputStream body = deflate
+                ? new DeflaterOutputStream(stream, new Deflater(Deflater.BEST_SPEED), 64 * 1024)
+                : stream;
+        out = new DataOutputStream(new BufferedOutputStream(body, 64 * 1024));
+    }
+
+    // Plane positions are left untouched
+    public synchronized void write(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                                   int yRowStride, int uvRowStride, int uvPixelStride,
+                                   int width, int height, int rotationDegrees,
+                                   long timestampNanos) throws IOException {
+        out.writeLong(timestampNanos);
+        out.writeInt(rotationDegrees);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(yRowStride);
+        out.writeInt(uvRowStride);
+        out.writeInt(uvPixelStride);
+        writePlane(yPlane);
+        writePlane(uPlane);
+        writePlane(vPlane);
+        framesWritten++;
+    }
+
+    private void writePlane(ByteBuffer plane) throws IOException {
+        int size = plane.remaining();
+        if (scratch.length < size) {
+            scratch = new byte[size];
+        }
+        int position = plane.position();
+        plane.get(scratch, 0, size);
+        plane.position(position);
+
+        out.writeInt(size);
+        out.write(scratch, 0, size);
+        bytesWritten += size;
+    }
+
+    public synchronized long getFramesWritten() {
+        return framesWritten;
+    }
+
+    // Uncompressed plane bytes
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.object_detection_app.core;
+
+// Geometry of one preprocessing pass: source region -> rotation -> scale/pad.
+// Maps points and boxes between model input pixels and source frame pixels.
+public class FrameTransform {
+
+    private int regionLeft, regionTop;
+    private int regionWidth, regionHeight;
+    private int rotation;
+    private float scaleX = 1f, scaleY = 1f;
+    private float offsetX, offsetY;
+    private int inputWidth, inputHeight;
+
+    void set(int regionLeft, int regionTop, int regionWidth, int regionHeight, int rotation,
+             float scaleX, float scaleY, float offsetX, float offsetY,
+             int inputWidth, int inputHeight) {
+        this.regionLeft = regionLeft;
+        this.regionTop = regionTop;
+        this.regionWidth = regionWidth;
+        this.regionHeight = regionHeight;
+        this.rotation = rotation;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+    }
+
+    // Snapshot of another transform, e.g. to keep one per frame in flight
+    public void copyFrom(FrameTransform other) {
+        set(other.regionLeft, other.regionTop, other.regionWidth, other.regionHeight,
+                other.rotation, other.scaleX, other.scaleY, other.offsetX, other.offsetY,
+                other.inputWidth, other.inputHeight);
+    }
+
+    // In-place: input pixel -> source pixel. False if the point is in the padding.
+    public boolean inputToSource(float[] point) {
+        float ux = (point[0] - offsetX) / scaleX;
+        float uy = (point[1] - offsetY) / scaleY;
+        boolean swapped = rotation == 90 || rotation == 270;
+        float uprightWidth = swapped ? regionHeight : regionWidth;
+        float uprightHeight = swapped ? regionWidth : regionHeight;
+        boolean inside = ux >= 0 && uy >= 0 && ux < uprightWidth && uy < uprightHeight;
+
+        float cx, cy;
+        switch (rotation) {
+            case 90:
+                cx = uy;
+                cy = regionHeight - ux;
+                break;
+            case 180:
+                cx = regionWidth - ux;
+                cy = regionHeight - uy;
+                break;
+            case 270:
+                cx = regionWidth - uy;
+                cy = ux;
+                break;
+            default:
+                cx = ux;
+                cy = uy;
+        }
+        point[0] = regionLeft + cx;
+        point[1] = regionTop + cy;
+        return inside;
+    }
+
+    // In-place: source pixel -> input pixel
+    public void sourceToInput(float[] point) {
+        float cx = point[0] - regionLeft;
+        float cy = point[1] - regionTop;
+
+        float ux, uy;
+        switch (rotation) {
+            case 90:
+                ux = regionHeight - cy;
+                uy = cx;
+                break;
+            case 180:
+                ux = regionWidth - cx;
+                uy = regionHeight - cy;
+                break;
+            case 270:
+                ux = cy;
+                uy = regionWidth - cx;
+                break;
+            default:
+                ux = cx;
+                uy = cy;
+        }
+        point[0] = ux * scaleX + offsetX;
+        point[1] = uy * scaleY + offsetY;
+    }
+
+    // In-place: [left, top, right, bottom] in input pixels -> source pixels
+    public void mapBoxToSource(float[] box) {
+        float x0 = box[0], y0 = box[1], x1 = box[2], y1 = box[3];
+        box[0] = x0;
+        box[1] = y0;
+        inputToSource(box);
+        float ax = box[0], ay = box[1];
+
+        box[0] = x1;
+        box[1] = y1;
+        inputToSource(box);
+        float bx = box[0], by = box[1];
+
+        box[0] = Math.min(ax, bx);
+        box[1] = Math.min(ay, by);
+        box[2] = Math.max(ax, bx);
+        box[3] = Math.max(ay, by);
+    }
+
+    // Source region the input was taken from (the crop, or the whole frame)
+    public int getRegionWidth() {
+        return regionWidth;
+    }
+
+    public int getRegionHeight() {
+        return regionHeight;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+
+// Whatever runs the detection model. The TFLite implementation lives in :app
+// (ObjectDetector); FakeInferenceBackend stands in for it on a plain JVM.
+// Implementations are single-threaded: one caller at a time.
+public interface InferenceBackend {
+
+    // Side of the square model input, in pixels
+    int getInputSize();
+
+    // Input and output layout; preprocessors for this backend come from
+    // getModelSpec().newPreprocessor() so the packing matches
+    ModelSpec getModelSpec();
+
+    // Input buffer sized and ordered for this backend (RGB, uint8 or float per the spec)
+    ByteBuffer newInputBuffer();
+
+    RawDetections newOutputBuffer();
+
+    void runInference(ByteBuffer input, RawDetections output);
+}
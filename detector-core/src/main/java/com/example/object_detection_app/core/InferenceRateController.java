@@ -0,0 +1,185 @@
+package com.example.object_detection_app.core;
+
+import java.util.Locale;
+
+// Decides when the next frame may be analyzed, replacing the fixed cooldown.
+// The interval follows the measured end-to-end latency so that either a
+// target FPS or a target duty cycle (share of time spent analyzing) is met,
+// backs off while the scene stays empty and snaps back when detections change.
+public class InferenceRateController {
+
+    public enum Mode {
+        TARGET_FPS,   // aim for a fixed analysis rate, capped by what the device can do
+        DUTY_CYCLE    // spend at most the given fraction of wall time on analysis
+    }
+
+    public enum Reason {
+        STEADY,       // following latency / target
+        IDLE_BACKOFF, // nothing seen for a while, slowing down
+        CHANGE_BOOST  // detections changed, running at full speed
+    }
+
+    private static final float LATENCY_SMOOTHING = 0.2f;
+    private static final float IDLE_BACKOFF_FACTOR = 1.5f;
+    private static final int BOOST_FRAMES = 5;
+    private static final int DECISION_LOG_SIZE = 16;
+
+    private final Mode mode;
+    private final float target;
+    private long minIntervalMs = 0;
+    private long maxIntervalMs = 2000;
+    private long idleAfterMs = 3000;
+
+    // State
+    private float averageLatencyMs = -1f;
+    private long intervalMs;
+    private long nextSlotMs = 0;
+    private long lastDetectionMs = -1;
+    private float idleMultiplier = 1f;
+    private int boostFramesLeft = 0;
+    private Reason lastReason = Reason.STEADY;
+
+    // Decision log as primitives; formatted only when asked for
+    private final long[] logTimes = new long[DECISION_LOG_SIZE];
+    private final long[] logIntervals = new long[DECISION_LOG_SIZE];
+    private final Reason[] logReasons = new Reason[DECISION_LOG_SIZE];
+    private int logCount = 0;
+
+    public InferenceRateController(Mode mode, float target) {
+        if (target <= 0 || (mode == Mode.DUTY_CYCLE && target > 1f)) {
+            throw new IllegalArgumentException("Invalid target " + target + " for " + mode);
+        }
+        this.mode = mode;
+        this.target = target;
+        this.intervalMs = mode == Mode.TARGET_FPS ? (long) (1000f / target) : 0;
+    }
+
+    public static InferenceRateController targetFps(float fps) {
+        return new InferenceRateController(Mode.TARGET_FPS, fps);
+    }
+
+    public static InferenceRateController dutyCycle(float fraction) {
+        return new InferenceRateController(Mode.DUTY_CYCLE, fraction);
+    }
+
+    public InferenceRateController setIntervalBounds(long minMs, long maxMs) {
+        if (minMs < 0 || maxMs < minMs) {
+            throw new IllegalArgumentException("Invalid interval bounds");
+        }
+        this.minIntervalMs = minMs;
+        this.maxIntervalMs = maxMs;
+        return this;
+    }
+
+    public InferenceRateController setIdleAfterMs(long idleAfterMs) {
+        this.idleAfterMs = idleAfterMs;
+        return this;
+    }
+
+    public synchronized boolean shouldAnalyze(long nowMs) {
+        return nowMs >= nextSlotMs;
+    }
+
+    public synchronized void onFrameAdmitted(long nowMs) {
+        nextSlotMs = nowMs + intervalMs;
+    }
+
+    // Called once per analyzed frame with its end-to-end latency
+    public synchronized void onFrameCompleted(long nowMs, float latencyMs,
+                                              int detectionCount, boolean changed) {
+        if (averageLatencyMs < 0) {
+            averageLatencyMs = latencyMs;
+        } else {
+            averageLatencyMs += LATENCY_SMOOTHING * (latencyMs - averageLatencyMs);
+        }
+        if (lastDetectionMs < 0) {
+            lastDetectionMs = nowMs;
+        }
+
+        if (detectionCount > 0) {
+            lastDetectionMs = nowMs;
+        }
+
+        Reason reason;
+        if (changed) {
+            boostFramesLeft = BOOST_FRAMES;
+            idleMultiplier = 1f;
+            reason = Reason.CHANGE_BOOST;
+        } else if (boostFramesLeft > 0) {
+            boostFramesLeft--;
+            reason = Reason.CHANGE_BOOST;
+        } else if (nowMs - lastDetectionMs > idleAfterMs) {
+            idleMultiplier = Math.min(idleMultiplier * IDLE_BACKOFF_FACTOR, 64f);
+            reason = Reason.IDLE_BACKOFF;
+        } else {
+            idleMultiplier = 1f;
+            reason = Reason.STEADY;
+        }
+
+        long interval;
+        if (reason == Reason.CHANGE_BOOST) {
+            // As fast as the pipeline can go
+            interval = (long) averageLatencyMs;
+        } else {
+            interval = (long) (baseIntervalMs() * idleMultiplier);
+        }
+        interval = Math.max(minIntervalMs, Math.min(maxIntervalMs, interval));
+
+        // Keep the already scheduled slot consistent with the new interval
+        if (intervalMs != interval) {
+            nextSlotMs += interval - intervalMs;
+        }
+        intervalMs = interval;
+        lastReason = reason;
+        record(nowMs, interval, reason);
+    }
+
+    private float baseIntervalMs() {
+        if (mode == Mode.TARGET_FPS) {
+            // Never schedule faster than one frame's worth of latency
+            return Math.max(1000f / target, averageLatencyMs);
+        }
+        // Duty cycle: latency / (latency + idle) = target
+        return averageLatencyMs / target;
+    }
+
+    private void record(long nowMs, long interval, Reason reason) {
+        int i = logCount % DECISION_LOG_SIZE;
+        logTimes[i] = nowMs;
+        logIntervals[i] = interval;
+        logReasons[i] = reason;
+        logCount++;
+    }
+
+    public synchronized long getIntervalMs() {
+        return intervalMs;
+    }
+
+    // Current analysis rate in frames per second
+    public synchronized float getCurrentRate() {
+        return intervalMs <= 0 ? (averageLatencyMs > 0 ? 1000f / averageLatencyMs : 0f)
+                : 1000f / intervalMs;
+    }
+
+    public synchronized float getAverageLatencyMs() {
+        return Math.max(0f, averageLatencyMs);
+    }
+
+    public synchronized Reason getLastReason() {
+        return lastReason;
+    }
+
+    public synchronized String getDebugInfo() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%s %.2f | rate %.1f fps | latency %.0f ms",
+                mode, target, getCurrentRate(), getAverageLatencyMs()));
+
+        int shown = Math.min(logCount, 5);
+        for (int n = 0; n < shown; n++) {
+            int i = (logCount - 1 - n) % DECISION_LOG_SIZE;
+            sb.append(String.format(Locale.US, "\n  t=%d %s -> %d ms",
+                    logTimes[i] % 100000, logReasons[i], logIntervals[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.object_detection_app.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// A model's labels with their display forms computed once at load, so result
+// consumers look names up by class index instead of formatting strings for
+// every detection of every frame. Immutable; share it freely.
+public class LabelMap {
+
+    private final List<String> labels;
+    // "traffic_light" -> "traffic light"
+    private final String[] displayNames;
+    // "TRAFFIC LIGHT", for the headline detection
+    private final String[] headlines;
+
+    public LabelMap(List<String> labels) {
+        this.labels = Collections.unmodifiableList(new ArrayList<>(labels));
+        int n = labels.size();
+        displayNames = new String[n];
+        headlines = new String[n];
+        for (int i = 0; i < n; i++) {
+            displayNames[i] = labels.get(i).replace("_", " ");
+            headlines[i] = displayNames[i].toUpperCase(Locale.getDefault());
+        }
+    }
+
+    public int size() {
+        return labels.size();
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    // Raw label from the label file
+    public String getLabel(int classId) {
+        return labels.get(classId);
+    }
+
+    public String getDisplayName(int classId) {
+        return displayNames[classId];
+    }
+
+    public String getHeadline(int classId) {
+        return headlines[classId];
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.object_detection_app.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-memory, lock-free log-linear histogram of nanosecond durations.
+// Values below 2^SUB_BUCKET_BITS land in exact buckets; above that every
+// power of two is split into 2^SUB_BUCKET_BITS linear sub-buckets, so the
+// relative error stays under ~3% from 1 ns up to MAX_VALUE (about 68 s).
+// record() is safe from any thread and never allocates; readers see a
+// slightly racy but consistent-enough view, which is fine for monitoring.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_BIT = 36;
+    public static final long MAX_VALUE = (1L << MAX_BIT) - 1;
+    private static final int BUCKETS = (MAX_BIT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> exponent) & (SUB_BUCKETS - 1);
+        return (exponent + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Largest value that maps to the bucket
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << exponent) - 1;
+    }
+
+    // p in [0, 100]; returns the upper bound of the bucket holding that rank
+    public long percentile(double p) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMean() {
+        long count = total.get();
+        return count == 0 ? 0 : sum.get() / count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // One "<prefix> <upper bound> <count>" line per non-empty bucket
+    public void writeBuckets(String prefix, Writer out) throws IOException {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                out.write(prefix + " " + highestValueAt(i) + " " + count + "\n");
+            }
+        }
+    }
+
+    // Not atomic with respect to concurrent record() calls
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // "inference    n=120  p50 12.3  p95 18.0  p99 25.1  max 31.0 ms"
+    public String summary() {
+        return String.format(Locale.US, "%-11s n=%-5d p50 %6.2f  p95 %6.2f  p99 %6.2f  max %6.2f ms",
+                name, getCount(), percentile(50) / 1e6, percentile(95) / 1e6,
+                percentile(99) / 1e6, getMax() / 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+// Shapes and input format of one SSD-style detection model, as read from its
+// tensors (ModelRegistry in :app does that), so buffers, preprocessing and
+// caches are sized per model instead of by constants. Input is a square RGB
+// image, either uint8 bytes or normalized floats; outputs are the usual four
+// post-processed tensors (locations, classes, scores, count) in any order.
+// Configure before handing it to a backend; treated as read-only afterwards.
+public class ModelSpec {
+
+    public enum InputType { UINT8, FLOAT32 }
+
+    private final String name;
+    private final int inputSize;
+    private final int maxDetections;
+
+    private InputType inputType = InputType.UINT8;
+    // FLOAT32 input: value = (pixel - mean) / std
+    private float mean = 127.5f;
+    private float std = 127.5f;
+    // UINT8 input quantization as reported by the model, for logging
+    private float inputScale = 0f;
+    private int inputZeroPoint = 0;
+
+    // Output tensor indices
+    private int locationsIndex = 0;
+    private int classesIndex = 1;
+    private int scoresIndex = 2;
+    private int countIndex = 3;
+
+    public ModelSpec(String name, int inputSize, int maxDetections) {
+        if (inputSize <= 0 || maxDetections <= 0) {
+            throw new IllegalArgumentException("Bad model shape: input " + inputSize
+                    + ", detections " + maxDetections);
+        }
+        this.name = name;
+        this.inputSize = inputSize;
+        this.maxDetections = maxDetections;
+    }
+
+    // The bundled COCO SSD MobileNet: 300x300 uint8 in, 10 detections out
+    public static ModelSpec ssdMobileNet() {
+        return new ModelSpec("detect", 300, 10);
+    }
+
+    public ModelSpec setFloatInput(float mean, float std) {
+        if (std == 0f) {
+            throw new IllegalArgumentException("std must not be zero");
+        }
+        this.inputType = InputType.FLOAT32;
+        this.mean = mean;
+        this.std = std;
+        return this;
+    }
+
+    public ModelSpec setUint8Input(float scale, int zeroPoint) {
+        this.inputType = InputType.UINT8;
+        this.inputScale = scale;
+        this.inputZeroPoint = zeroPoint;
+        return this;
+    }
+
+    public ModelSpec setOutputOrder(int locationsIndex, int classesIndex, int scoresIndex,
+                                    int countIndex) {
+        this.locationsIndex = locationsIndex;
+        this.classesIndex = classesIndex;
+        this.scoresIndex = scoresIndex;
+        this.countIndex = countIndex;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getMaxDetections() {
+        return maxDetections;
+    }
+
+    public InputType getInputType() {
+        return inputType;
+    }
+
+    public float getMean() {
+        return mean;
+    }
+
+    public float getStd() {
+        return std;
+    }
+
+    public int getBytesPerChannel() {
+        return inputType == InputType.FLOAT32 ? 4 : 1;
+    }
+
+    public int getInputBytes() {
+        return inputSize * inputSize * 3 * getBytesPerChannel();
+    }
+
+    public ByteBuffer newInputBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(getInputBytes());
+        buffer.order(ByteOrder.nativeOrder());
+        return buffer;
+    }
+
+    public RawDetections newOutputBuffer() {
+        return new RawDetections(maxDetections, locationsIndex, classesIndex, scoresIndex, countIndex);
+    }
+
+    // Preprocessor that writes this model's input size and packing
+    public FramePreprocessor newPreprocessor() {
+        FramePreprocessor preprocessor = new FramePreprocessor(inputSize, inputSize);
+        if (inputType == InputType.FLOAT32) {
+            preprocessor.setFloatInput(mean, std);
+        }
+        return preprocessor;
+    }
+
+    // uint8 value -> normalized float, or null for uint8 input
+    public float[] newFloatTable() {
+        return inputType == InputType.FLOAT32 ? TensorPacker.floatTable(mean, std) : null;
+    }
+
+    @Override
+    public String toString() {
+        String input = inputType == InputType.FLOAT32
+                ? String.format(Locale.US, "float32 (x-%.1f)/%.1f", mean, std)
+                : String.format(Locale.US, "uint8 q=%.4f/%d", inputScale, inputZeroPoint);
+        return String.format(Locale.US, "%s: %dx%d %s, %d detections, outputs %d/%d/%d/%d",
+                name, inputSize, inputSize, input, maxDetections,
+                locationsIndex, classesIndex, scoresIndex, countIndex);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.object_detection_app.core;
+
+// Lightweight IoU + constant-velocity multi-object tracker.
+// Gives detections stable track ids across frames and keeps boxes moving on
+// frames where the detector is skipped. All state lives in preallocated
+// primitive arrays, so update() and predict() allocate nothing.
+public class ObjectTracker {
+
+    private static final float VELOCITY_SMOOTHING = 0.5f;
+
+    private final int maxTracks;
+    private final float iouThreshold;
+    private final int maxMissed;
+
+    // Track state, indices [0, trackCount) are live
+    private final int[] ids;
+    private final int[] classes;
+    private final float[] scores;
+    private final float[] boxes;      // 4 per track: left, top, right, bottom
+    private final float[] velocities; // 2 per track: center dx, dy per ms
+    private final long[] lastSeenMs;
+    private final int[] hits;
+    private final int[] missed;
+    private int trackCount = 0;
+    private int nextId = 1;
+    private long lastUpdateMs = -1;
+
+    // Scratch for matching
+    private final boolean[] trackMatched;
+    private boolean[] detectionMatched = new boolean[0];
+    private int[] detectionTracks = new int[0];
+
+    public ObjectTracker(int maxTracks, float iouThreshold, int maxMissed) {
+        this.maxTracks = maxTracks;
+        this.iouThreshold = iouThreshold;
+        this.maxMissed = maxMissed;
+
+        ids = new int[maxTracks];
+        classes = new int[maxTracks];
+        scores = new float[maxTracks];
+        boxes = new float[maxTracks * 4];
+        velocities = new float[maxTracks * 2];
+        lastSeenMs = new long[maxTracks];
+        hits = new int[maxTracks];
+        missed = new int[maxTracks];
+        trackMatched = new boolean[maxTracks];
+    }
+
+    // Detections as parallel arrays; detBoxes holds 4 floats (ltrb) per detection
+    public synchronized void update(float[] detBoxes, int[] detClasses, float[] detScores,
+                                    int count, long nowMs) {
+        ensureDetectionCapacity(count);
+        predict(nowMs);
+
+        for (int t = 0; t < trackCount; t++) {
+            trackMatched[t] = false;
+        }
+        for (int d = 0; d < count; d++) {
+            detectionMatched[d] = false;
+            detectionTracks[d] = -1;
+        }
+
+        // Greedy matching: repeatedly take the best remaining same-class pair
+        while (true) {
+            float bestIou = iouThreshold;
+            int bestTrack = -1;
+            int bestDetection = -1;
+            for (int t = 0; t < trackCount; t++) {
+                if (trackMatched[t]) continue;
+                for (int d = 0; d < count; d++) {
+                    if (detectionMatched[d] || detClasses[d] != classes[t]) continue;
+                    float iou = BoxMath.iou(boxes, t * 4, detBoxes, d * 4);
+                    if (iou > bestIou) {
+                        bestIou = iou;
+                        bestTrack = t;
+                        bestDetection = d;
+                    }
+                }
+            }
+            if (bestTrack < 0) {
+                break;
+            }
+            trackMatched[bestTrack] = true;
+            detectionMatched[bestDetection] = true;
+            correct(bestTrack, detBoxes, bestDetection * 4, detScores[bestDetection], nowMs);
+            detectionTracks[bestDetection] = ids[bestTrack];
+        }
+
+        // Age out unmatched tracks
+        for (int t = trackCount - 1; t >= 0; t--) {
+            if (!trackMatched[t] && ++missed[t] > maxMissed) {
+                removeTrack(t);
+            }
+        }
+
+        // New tracks for unmatched detections
+        for (int d = 0; d < count; d++) {
+            if (detectionMatched[d] || trackCount == maxTracks) continue;
+            int t = trackCount++;
+            ids[t] = nextId++;
+            classes[t] = detClasses[d];
+            scores[t] = detScores[d];
+            System.arraycopy(detBoxes, d * 4, boxes, t * 4, 4);
+            velocities[t * 2] = 0f;
+            velocities[t * 2 + 1] = 0f;
+            lastSeenMs[t] = nowMs;
+            hits[t] = 1;
+            missed[t] = 0;
+            trackMatched[t] = true;
+            detectionTracks[d] = ids[t];
+        }
+    }
+
+    // Advance all tracks by their velocity, e.g. on frames the detector skipped
+    public synchronized void predict(long nowMs) {
+        if (lastUpdateMs >= 0) {
+            float dt = nowMs - lastUpdateMs;
+            for (int t = 0; t < trackCount; t++) {
+                float dx = velocities[t * 2] * dt;
+                float dy = velocities[t * 2 + 1] * dt;
+                boxes[t * 4] += dx;
+                boxes[t * 4 + 1] += dy;
+                boxes[t * 4 + 2] += dx;
+                boxes[t * 4 + 3] += dy;
+            }
+        }
+        lastUpdateMs = nowMs;
+    }
+
+    private void correct(int t, float[] detBoxes, int offset, float score, long nowMs) {
+        int b = t * 4;
+        float dt = Math.max(1f, nowMs - lastSeenMs[t]);
+
+        // Measured center motion since the last real observation
+        float oldCx = (boxes[b] + boxes[b + 2]) / 2f - velocities[t * 2] * (nowMs - lastSeenMs[t]);
+        float oldCy = (boxes[b + 1] + boxes[b + 3]) / 2f - velocities[t * 2 + 1] * (nowMs - lastSeenMs[t]);
+        float newCx = (detBoxes[offset] + detBoxes[offset + 2]) / 2f;
+        float newCy = (detBoxes[offset + 1] + detBoxes[offset + 3]) / 2f;
+
+        velocities[t * 2] += VELOCITY_SMOOTHING * ((newCx - oldCx) / dt - velocities[t * 2]);
+        velocities[t * 2 + 1] += VELOCITY_SMOOTHING * ((newCy - oldCy) / dt - velocities[t * 2 + 1]);
+
+        System.arraycopy(detBoxes, offset, boxes, b, 4);
+        scores[t] = score;
+        lastSeenMs[t] = nowMs;
+        hits[t]++;
+        missed[t] = 0;
+    }
+
+    private void removeTrack(int t) {
+        int last = --trackCount;
+        if (t == last) return;
+        ids[t] = ids[last];
+        classes[t] = classes[last];
+        scores[t] = scores[last];
+        System.arraycopy(boxes, last * 4, boxes, t * 4, 4);
+        System.arraycopy(velocities, last * 2, velocities, t * 2, 2);
+        lastSeenMs[t] = lastSeenMs[last];
+        hits[t] = hits[last];
+        missed[t] = missed[last];
+        trackMatched[t] = trackMatched[last];
+    }
+
+    private void ensureDetectionCapacity(int count) {
+        // Only grows, so steady state is allocation-free
+        if (detectionMatched.length < count) {
+            detectionMatched = new boolean[count];
+            detectionTracks = new int[count];
+        }
+    }
+
+    public synchronized void clear() {
+        trackCount = 0;
+        lastUpdateMs = -1;
+    }
+
+    public synchronized int getTrackCount() {
+        return trackCount;
+    }
+
+    public synchronized int getTrackId(int index) {
+        return ids[index];
+    }
+
+    public synchronized int getTrackClass(int index) {
+        return classes[index];
+    }
+
+    public synchronized float getTrackScore(int index) {
+        return scores[index];
+    }
+
+    public synchronized int getTrackHits(int index) {
+        return hits[index];
+    }
+
+    public synchronized void getTrackBox(int index, float[] out) {
+        System.arraycopy(boxes, index * 4, out, 0, 4);
+    }
+
+    // Track id assigned to detection d by the last update()
+    public synchronized int getTrackIdForDetection(int d) {
+        return detectionTracks[d];
+    }
+}
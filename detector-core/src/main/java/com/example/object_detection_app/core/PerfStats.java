@@ -0,0 +1,90 @@
+package com.example.object_detection_app.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-stage latency histograms for one detection session plus the frame
+// counters that explain them. Pipeline stages are filled in through
+// asTimingListener(); UI dispatch and speech are recorded by the app.
+public class PerfStats {
+
+    public enum Stage {
+        COPY, QUEUE, PREPROCESS, INFERENCE, POSTPROCESS, UI_DISPATCH, TTS, TOTAL
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final AtomicLong framesSeen = new AtomicLong();
+    private volatile long startNanos = System.nanoTime();
+
+    public PerfStats() {
+        for (Stage stage : Stage.values()) {
+            histograms[stage.ordinal()] = new LatencyHistogram(stage.name().toLowerCase(Locale.US));
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    public LatencyHistogram get(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    // Every frame the camera (or replay) delivered, before any gating
+    public void onFrameSeen() {
+        framesSeen.incrementAndGet();
+    }
+
+    // Maps the pipeline's stage breakdown onto these histograms
+    public DetectionPipeline.TimingListener asTimingListener() {
+        return (stageNanos, totalNanos) -> {
+            record(Stage.COPY, stageNanos[DetectionPipeline.Stage.COPY.ordinal()]);
+            record(Stage.QUEUE, stageNanos[DetectionPipeline.Stage.QUEUE.ordinal()]);
+            record(Stage.PREPROCESS, stageNanos[DetectionPipeline.Stage.PREPROCESS.ordinal()]);
+            record(Stage.INFERENCE, stageNanos[DetectionPipeline.Stage.INFERENCE.ordinal()]);
+            record(Stage.POSTPROCESS, stageNanos[DetectionPipeline.Stage.POSTPROCESS.ordinal()]);
+            record(Stage.TOTAL, totalNanos);
+        };
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        framesSeen.set(0);
+        startNanos = System.nanoTime();
+    }
+
+    // Frame accounting and one line per stage. analyzer may be null.
+    public String report(FrameAnalyzer analyzer) {
+        StringBuilder report = new StringBuilder();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        report.append(String.format(Locale.US, "frames seen %d in %.1f s", framesSeen.get(), seconds));
+        if (analyzer != null) {
+            DetectionPipeline pipeline = analyzer.getPipeline();
+            long completed = pipeline.getCompletedFrames();
+            report.append(String.format(Locale.US,
+                    "\nadmitted %d | dropped %d | throttled %d | static %d\ncompleted %d (%.1f FPS)",
+                    analyzer.getSubmittedFrames(),
+                    analyzer.getRejectedFrames() + pipeline.getDroppedFrames(),
+                    analyzer.getThrottledFrames(), analyzer.getStaticFrames(),
+                    completed, seconds > 0 ? completed / seconds : 0));
+        }
+        for (LatencyHistogram histogram : histograms) {
+            report.append('\n').append(histogram.summary());
+        }
+        return report.toString();
+    }
+
+    // Report plus the raw non-empty buckets, for offline analysis
+    public void export(Writer out, FrameAnalyzer analyzer) throws IOException {
+        out.write(report(analyzer));
+        out.write("\n\n# stage bucket_upper_ns count\n");
+        for (LatencyHistogram histogram : histograms) {
+            histogram.writeBuckets(histogram.getName(), out);
+        }
+        out.flush();
+    }
+}
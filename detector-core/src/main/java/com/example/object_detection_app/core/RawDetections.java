@@ -0,0 +1,42 @@
+package com.example.object_detection_app.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Raw SSD output tensors for one inference (locations, classes, scores, count),
+// laid out the way the TFLite interpreter writes them. Reused across frames.
+public class RawDetections {
+    public final float[][][] locations;
+    public final float[][] classes;
+    public final float[][] scores;
+    public final float[] count;
+
+    // Output index -> array map (TFLite runForMultipleInputsOutputs layout), built once
+    private final Map<Integer, Object> outputs = new HashMap<>();
+
+    public RawDetections(int maxDetections) {
+        this(maxDetections, 0, 1, 2, 3);
+    }
+
+    // Output tensor indices differ between exporters (see ModelSpec)
+    public RawDetections(int maxDetections, int locationsIndex, int classesIndex,
+                         int scoresIndex, int countIndex) {
+        locations = new float[1][maxDetections][4];
+        classes = new float[1][maxDetections];
+        scores = new float[1][maxDetections];
+        count = new float[1];
+
+        outputs.put(locationsIndex, locations);
+        outputs.put(classesIndex, classes);
+        outputs.put(scoresIndex, scores);
+        outputs.put(countIndex, count);
+    }
+
+    public Map<Integer, Object> getOutputMap() {
+        return outputs;
+    }
+
+    public int getCapacity() {
+        return scores[0].length;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.object_detection_app.core;
+
+import java.util.Locale;
+
+// Part of the frame the model should look at, as fractions of the upright
+// (as displayed) picture, so the fixed model input resolution is spent where
+// the user is aiming instead of on the whole frame. Immutable.
+public class RegionOfInterest {
+
+    private final float left, top, right, bottom;
+
+    public RegionOfInterest(float left, float top, float right, float bottom) {
+        if (left < 0f || top < 0f || right > 1f || bottom > 1f || right <= left || bottom <= top) {
+            throw new IllegalArgumentException(String.format(Locale.US,
+                    "Bad region [%.2f, %.2f, %.2f, %.2f]", left, top, right, bottom));
+        }
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    // Centered square-ish window covering this fraction of each side
+    public static RegionOfInterest centered(float fraction) {
+        return around(0.5f, 0.5f, fraction);
+    }
+
+    // Window of the given fraction centered on (x, y), shifted to stay inside
+    public static RegionOfInterest around(float x, float y, float fraction) {
+        if (fraction <= 0f || fraction > 1f) {
+            throw new IllegalArgumentException("Fraction must be in (0, 1]");
+        }
+        float half = fraction / 2f;
+        float cx = Math.max(half, Math.min(1f - half, x));
+        float cy = Math.max(half, Math.min(1f - half, y));
+        return new RegionOfInterest(Math.max(0f, cx - half), Math.max(0f, cy - half),
+                Math.min(1f, cx + half), Math.min(1f, cy + half));
+    }
+
+    public float getLeft() {
+        return left;
+    }
+
+    public float getTop() {
+        return top;
+    }
+
+    public float getRight() {
+        return right;
+    }
+
+    public float getBottom() {
+        return bottom;
+    }
+
+    // Source-pixel rect [left, top, right, bottom] of this region inside the
+    // given source rect (the camera crop or the whole frame) of a frame with
+    // the given rotation. out needs 4 entries.
+    public void toSource(int regionLeft, int regionTop, int regionRight, int regionBottom,
+                         int rotationDegrees, int[] out) {
+        int width = regionRight - regionLeft;
+        int height = regionBottom - regionTop;
+        float x0, y0, x1, y1;
+        // Upright fractions -> source fractions, undoing the rotation
+        switch (((rotationDegrees % 360) + 360) % 360) {
+            case 90:
+                x0 = top;
+                x1 = bottom;
+                y0 = 1f - right;
+                y1 = 1f - left;
+                break;
+            case 180:
+                x0 = 1f - right;
+                x1 = 1f - left;
+                y0 = 1f - bottom;
+                y1 = 1f - top;
+                break;
+            case 270:
+                x0 = 1f - bottom;
+                x1 = 1f - top;
+                y0 = left;
+                y1 = right;
+                break;
+            default:
+                x0 = left;
+                x1 = right;
+                y0 = top;
+                y1 = bottom;
+        }
+        out[0] = regionLeft + Math.round(x0 * width);
+        out[1] = regionTop + Math.round(y0 * height);
+        out[2] = Math.max(out[0] + 1, regionLeft + Math.round(x1 * width));
+        out[3] = Math.max(out[1] + 1, regionTop + Math.round(y1 * height));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "[%.2f, %.2f, %.2f, %.2f]", left, top, right, bottom);
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.object_detection_app.core;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a FrameRecordWriter recording through the same FrameAnalyzer +
+// DetectionPipeline path the camera screen uses, without a device. Frames are
+// fed at their recorded pace or as fast as possible; gates run on the
+// recorded timeline either way. Reports sustained FPS, per-stage latency
+// percentiles and frame accounting, and can write every result as one text
+// line per frame for diffing two runs.
+//
+//   java ... ReplayHarness session.odfr [--max] [--no-gates] [--block]
+//            [--depth N] [--latency-ms N] [--seed N] [--out detections.txt]
+//            [--trace trace.json] [--cache results.cache]
+//            [--tile PX] [--tile-workers N]
+public class ReplayHarness {
+
+    public enum Speed { RECORDED, MAXIMUM }
+
+    private static final long DRAIN_TIMEOUT_MS = 10_000;
+
+    private final InferenceBackend backend;
+    private final DetectionDecoder decoder;
+    private final Speed speed;
+    private int depth = 1;
+    private BoundedRing.DropPolicy dropPolicy = BoundedRing.DropPolicy.DROP_OLDEST;
+    private boolean gates = true;
+    private Writer detectionsOut;
+    private DetectionCache resultCache;
+    private TiledDetector tiledDetector;
+
+    private final PerfStats stats = new PerfStats();
+
+    // Recorded-timeline clock seen by the gates, tracker and rate controller
+    private volatile long timelineMs = 0;
+    private FrameAnalyzer analyzer;
+    private long framesRead = 0;
+    private long elapsedNanos = 0;
+    private IOException writeError;
+
+    public ReplayHarness(InferenceBackend backend, DetectionDecoder decoder, Speed speed) {
+        this.backend = backend;
+        this.decoder = decoder;
+        this.speed = speed;
+    }
+
+    public ReplayHarness setQueue(int depth, BoundedRing.DropPolicy dropPolicy) {
+        this.depth = depth;
+        this.dropPolicy = dropPolicy;
+        return this;
+    }
+
+    // Off: every frame goes to the pipeline (raw throughput)
+    public ReplayHarness setGates(boolean gates) {
+        this.gates = gates;
+        return this;
+    }
+
+    public ReplayHarness setDetectionsOutput(Writer out) {
+        this.detectionsOut = out;
+        return this;
+    }
+
+    // Repeat replays of a recording skip inference for frames already seen
+    public ReplayHarness setResultCache(DetectionCache cache) {
+        this.resultCache = cache;
+        return this;
+    }
+
+    public ReplayHarness setTiledDetector(TiledDetector tiled) {
+        this.tiledDetector = tiled;
+        return this;
+    }
+
+    public void run(FrameRecordReader reader) throws IOException {
+        DetectionPipeline pipeline = new DetectionPipeline(backend, decoder, depth, dropPolicy,
+                (batch, timestampNanos, latencyNanos) -> {
+                    analyzer.onResults(batch, latencyNanos, timelineMs);
+                    writeDetections(batch, timestampNanos);
+                });
+        pipeline.setTimingListener(stats.asTimingListener());
+        pipeline.setResultCache(resultCache);
+        pipeline.setTiledDetector(tiledDetector);
+
+        analyzer = gates
+                ? FrameAnalyzer.withDefaults(pipeline, decoder.getMinConfidence())
+                : new FrameAnalyzer(pipeline, null, null, new ObjectTracker(16, 0.3f, 3),
+                        decoder.getMinConfidence());
+
+        stats.reset();
+        pipeline.start();
+        long start = System.nanoTime();
+        long firstTimestamp = -1;
+        try {
+            while (reader.next()) {
+                framesRead++;
+                stats.onFrameSeen();
+                long ts = reader.getTimestampNanos();
+                if (firstTimestamp < 0) {
+                    firstTimestamp = ts;
+                }
+                long offsetNanos = ts - firstTimestamp;
+                timelineMs = TimeUnit.NANOSECONDS.toMillis(offsetNanos);
+
+                if (speed == Speed.RECORDED) {
+                    long due = start + offsetNanos;
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+
+                analyzer.analyze(reader.getYPlane(), reader.getUPlane(), reader.getVPlane(),
+                        reader.getYRowStride(), reader.getUvRowStride(), reader.getUvPixelStride(),
+                        reader.getWidth(), reader.getHeight(), reader.getRotationDegrees(), ts,
+                        timelineMs);
+            }
+
+            // Let frames still in flight finish before stopping the stages
+            long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+            while (!pipeline.isIdle() && System.currentTimeMillis() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        } finally {
+            elapsedNanos = System.nanoTime() - start;
+            pipeline.stop();
+        }
+
+        if (detectionsOut != null) {
+            detectionsOut.flush();
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    // "<timestampNanos> <count> class:score:left,top,right,bottom ..."
+    private void writeDetections(DetectionBatch batch, long timestampNanos) {
+        if (detectionsOut == null || writeError != null) {
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        line.append(timestampNanos).append(' ').append(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            line.append(String.format(Locale.US, " %d:%.3f:%.1f,%.1f,%.1f,%.1f",
+                    batch.getClassId(i), batch.getScore(i), batch.getLeft(i), batch.getTop(i),
+                    batch.getRight(i), batch.getBottom(i)));
+        }
+        line.append('\n');
+        try {
+            detectionsOut.write(line.toString());
+        } catch (IOException e) {
+            writeError = e;
+        }
+    }
+
+    public float getSustainedFps() {
+        long completed = analyzer == null ? 0 : analyzer.getPipeline().getCompletedFrames();
+        return elapsedNanos == 0 ? 0f : completed * 1e9f / elapsedNanos;
+    }
+
+    public PerfStats getStats() {
+        return stats;
+    }
+
+    public String getReport() {
+        if (analyzer == null) {
+            return "not run";
+        }
+        return String.format(Locale.US, "replay: %d frames, %.2f s, sustained %.1f FPS (%s, %s)\n",
+                framesRead, elapsedNanos / 1e9, getSustainedFps(), speed,
+                gates ? "gated" : "ungated") + stats.report(analyzer)
+                + (resultCache == null ? "" : "\ncache: " + resultCache.getStats())
+                + (tiledDetector == null ? "" : "\n" + tiledDetector.getTileReport());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: ReplayHarness <recording> [--max] [--no-gates] [--block]"
+                    + " [--depth N] [--latency-ms N] [--seed N] [--out file] [--trace file]"
+                    + " [--cache file] [--tile px] [--tile-workers N]");
+            System.exit(2);
+        }
+
+        Speed speed = Speed.RECORDED;
+        boolean gates = true;
+        BoundedRing.DropPolicy policy = BoundedRing.DropPolicy.DROP_OLDEST;
+        int depth = 1;
+        long latencyMs = 0;
+        long seed = 1;
+        String outPath = null;
+        String tracePath = null;
+        String cachePath = null;
+        int tileSize = 0;
+        int tileWorkers = 2;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--max": speed = Speed.MAXIMUM; break;
+                case "--no-gates": gates = false; break;
+                case "--block": policy = BoundedRing.DropPolicy.BLOCK; break;
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--latency-ms": latencyMs = Long.parseLong(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--out": outPath = args[++i]; break;
+                case "--trace": tracePath = args[++i]; break;
+                case "--cache": cachePath = args[++i]; break;
+                case "--tile": tileSize = Integer.parseInt(args[++i]); break;
+                case "--tile-workers": tileWorkers = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        // Fake SSD MobileNet: same tensor shapes, deterministic output
+        FakeInferenceBackend backend = new FakeInferenceBackend(300, 10, 91, seed,
+                TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        boolean[] valid = new boolean[91];
+        Arrays.fill(valid, true);
+        valid[0] = false;
+        DetectionDecoder decoder = new DetectionDecoder(300, 0.5f, valid);
+
+        ReplayHarness harness = new ReplayHarness(backend, decoder, speed)
+                .setQueue(depth, policy)
+                .setGates(gates);
+
+        // Fake model: the seed plays the part of the model hash
+        DetectionCache cache = cachePath == null ? null : new DetectionCache(
+                DetectionCache.namespace(seed, 300, decoder.getMinConfidence()),
+                4L << 20, new File(cachePath), 64L << 20);
+        harness.setResultCache(cache);
+
+        // One fake interpreter per tile worker, as on the device
+        TiledDetector tiled = null;
+        if (tileSize > 0) {
+            List<InferenceBackend> tileBackends = new ArrayList<>();
+            for (int i = 0; i < tileWorkers; i++) {
+                tileBackends.add(new FakeInferenceBackend(300, 10, 91, seed,
+                        TimeUnit.MILLISECONDS.toNanos(latencyMs)));
+            }
+            tiled = new TiledDetector(tileBackends, decoder).setTileSize(tileSize);
+            harness.setTiledDetector(tiled);
+        }
+
+        Writer out = outPath == null ? null : new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(outPath), StandardCharsets.UTF_8));
+        try (FrameRecordReader reader = new FrameRecordReader(new FileInputStream(args[0]))) {
+            harness.setDetectionsOutput(out);
+            harness.run(reader);
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+        }
+        System.out.println(harness.getReport());
+        if (cache != null) {
+            cache.close();
+        }
+        if (tiled != null) {
+            tiled.close();
+        }
+
+        if (tracePath != null) {
+            try (Writer trace = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(tracePath), StandardCharsets.UTF_8))) {
+                Tracer.get().writeChromeJson(trace);
+            }
+            System.out.println("trace: " + Tracer.get().size() + " events -> " + tracePath);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+
+// Cheap gate in front of the detector: builds a tiny luma signature straight
+// from the Y plane (or the green channel of an RGBA frame) and compares it
+// with the signature of the last frame that was actually inferred. Static
+// scenes reuse the previous results instead of running the model. A periodic
+// refresh keeps stale results from living forever.
+public class SceneChangeGate {
+
+    private static final int GRID = 16;
+    private static final int SAMPLES_PER_CELL = 4; // 4x4 samples averaged per cell
+
+    private final float threshold;
+    private final long maxReuseMs;
+
+    private final int[] current = new int[GRID * GRID];
+    private final int[] reference = new int[GRID * GRID];
+    private boolean hasReference = false;
+    private long referenceTimeMs = 0;
+    private float lastDifference = 0f;
+
+    // Counters
+    private long checkedFrames = 0;
+    private long skippedFrames = 0;
+
+    // threshold: mean absolute luma difference per cell (0-255) below which the
+    // scene counts as unchanged; maxReuseMs: force inference at least this often
+    public SceneChangeGate(float threshold, long maxReuseMs) {
+        this.threshold = threshold;
+        this.maxReuseMs = maxReuseMs;
+    }
+
+    // Returns true if the frame should be inferred. In that case the frame
+    // becomes the new reference; call invalidate() if inference did not happen.
+    public synchronized boolean shouldInfer(ByteBuffer yPlane, int rowStride,
+                                            int width, int height, long nowMs) {
+        return shouldInfer(yPlane, 0, rowStride, 1, width, height, nowMs);
+    }
+
+    // Samples plane.get(offset + y * rowStride + x * pixelStride); for RGBA
+    // pass offset 1 and pixel stride 4 (green tracks luma closely enough)
+    public synchronized boolean shouldInfer(ByteBuffer plane, int offset, int rowStride,
+                                            int pixelStride, int width, int height, long nowMs) {
+        computeSignature(plane, offset, rowStride, pixelStride, width, height, current);
+        checkedFrames++;
+
+        if (hasReference && nowMs - referenceTimeMs < maxReuseMs) {
+            long sum = 0;
+            for (int i = 0; i < current.length; i++) {
+                sum += Math.abs(current[i] - reference[i]);
+            }
+            lastDifference = (float) sum / current.length;
+
+            if (lastDifference < threshold) {
+                skippedFrames++;
+                return false;
+            }
+        }
+
+        System.arraycopy(current, 0, reference, 0, current.length);
+        hasReference = true;
+        referenceTimeMs = nowMs;
+        return true;
+    }
+
+    public synchronized void invalidate() {
+        hasReference = false;
+    }
+
+    static void computeSignature(ByteBuffer plane, int offset, int rowStride, int pixelStride,
+                                 int width, int height, int[] out) {
+        int cellWidth = width / GRID;
+        int cellHeight = height / GRID;
+        int stepX = Math.max(1, cellWidth / SAMPLES_PER_CELL);
+        int stepY = Math.max(1, cellHeight / SAMPLES_PER_CELL);
+
+        for (int gy = 0; gy < GRID; gy++) {
+            for (int gx = 0; gx < GRID; gx++) {
+                int x0 = gx * cellWidth + stepX / 2;
+                int y0 = gy * cellHeight + stepY / 2;
+                int sum = 0;
+                for (int sy = 0; sy < SAMPLES_PER_CELL; sy++) {
+                    int row = offset + Math.min(height - 1, y0 + sy * stepY) * rowStride;
+                    for (int sx = 0; sx < SAMPLES_PER_CELL; sx++) {
+                        int x = Math.min(width - 1, x0 + sx * stepX);
+                        sum += plane.get(row + x * pixelStride) & 0xFF;
+                    }
+                }
+                out[gy * GRID + gx] = sum / (SAMPLES_PER_CELL * SAMPLES_PER_CELL);
+            }
+        }
+    }
+
+    public synchronized float getSkipRatio() {
+        return checkedFrames == 0 ? 0f : (float) skippedFrames / checkedFrames;
+    }
+
+    public synchronized long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    public synchronized long getCheckedFrames() {
+        return checkedFrames;
+    }
+
+    public synchronized float getLastDifference() {
+        return lastDifference;
+    }
+}
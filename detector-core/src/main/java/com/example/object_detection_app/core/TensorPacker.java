@@ -0,0 +1,44 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+
+// Packs pixels into the model input: uint8 RGB, or normalized float RGB
+// through a 256-entry lookup table (see floatTable).
+public final class TensorPacker {
+
+    private TensorPacker() {
+    }
+
+    // ARGB_8888 ints (as returned by Bitmap.getPixels) -> R, G, B bytes
+    public static void packArgb(int[] pixels, int count, ByteBuffer out) {
+        out.rewind();
+        for (int i = 0; i < count; i++) {
+            final int val = pixels[i];
+            out.put((byte) ((val >> 16) & 0xFF)); // R
+            out.put((byte) ((val >> 8) & 0xFF));  // G
+            out.put((byte) (val & 0xFF));         // B
+        }
+        out.rewind();
+    }
+
+    // Same, for float models: each channel becomes table[channel]
+    public static void packArgbFloat(int[] pixels, int count, float[] table, ByteBuffer out) {
+        out.rewind();
+        for (int i = 0; i < count; i++) {
+            final int val = pixels[i];
+            out.putFloat(table[(val >> 16) & 0xFF]);
+            out.putFloat(table[(val >> 8) & 0xFF]);
+            out.putFloat(table[val & 0xFF]);
+        }
+        out.rewind();
+    }
+
+    // (value - mean) / std for every uint8 value, so packing needs no arithmetic
+    public static float[] floatTable(float mean, float std) {
+        float[] table = new float[256];
+        for (int v = 0; v < 256; v++) {
+            table[v] = (v - mean) / std;
+        }
+        return table;
+    }
+}
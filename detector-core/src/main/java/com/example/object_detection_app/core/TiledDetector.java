@@ -0,0 +1,342 @@
+package com.example.object_detection_app.core;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Detection over a grid of overlapping square windows of a high-resolution
+// frame, so small objects are not lost when the whole frame is squashed into
+// the model input. Optionally adds one downscaled pass over the full frame for
+// objects larger than a tile. Windows run concurrently, one backend (own
+// interpreter) per worker; each window keeps its own preprocessor so its
+// lookup tables are built once. Results are mapped to source (sensor) pixels
+// and merged with NMS across windows (class-aware hard NMS by default).
+public class TiledDetector implements Closeable {
+
+    private static final TraceBuffer TRACE = Tracer.get();
+    private static final int TRACE_TILE = TRACE.register("tiled.tile");
+    private static final int TRACE_MERGE = TRACE.register("tiled.merge");
+
+    // One window of the grid, or the uncropped global pass
+    private static class Tile {
+        final int left, top, right, bottom;
+        final boolean global;
+        final FramePreprocessor preprocessor;
+        final DetectionBatch results;
+        long nanos;
+
+        Tile(int left, int top, int right, int bottom, boolean global, ModelSpec spec, int capacity) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            this.global = global;
+            preprocessor = spec.newPreprocessor();
+            if (!global) {
+                preprocessor.setCrop(left, top, right, bottom);
+            }
+            results = new DetectionBatch(capacity);
+        }
+    }
+
+    // Buffers owned by one backend; only one thread uses a worker at a time
+    private static class Worker {
+        final InferenceBackend backend;
+        final ByteBuffer input;
+        final RawDetections raw;
+        final float[] box = new float[4];
+
+        Worker(InferenceBackend backend) {
+            this.backend = backend;
+            input = backend.newInputBuffer();
+            raw = backend.newOutputBuffer();
+        }
+    }
+
+    private final List<Worker> workers = new ArrayList<>();
+    private final DetectionDecoder decoder;
+    private final ExecutorService executor;
+    private final ModelSpec spec;
+    private final int rawCapacity;
+
+    private int tileSize;
+    private float overlap = 0.2f;
+    private boolean globalPass = true;
+    private int maxConcurrency;
+    // Cross-tile merge; only used under the detect() lock
+    private final DetectionPostProcessor merger = new DetectionPostProcessor()
+            .setTopK(Integer.MAX_VALUE)
+            .setIouThreshold(0.5f);
+
+    // Grid for the current frame size; rebuilt when the size or config changes
+    private final List<Tile> tiles = new ArrayList<>();
+    private int gridWidth = -1, gridHeight = -1;
+    private boolean gridValid = false;
+
+    private final AtomicInteger nextTile = new AtomicInteger();
+    private YuvFrame frame;
+    private volatile Throwable failure;
+
+    private final LatencyHistogram tileTimes = new LatencyHistogram("tile");
+    private final LatencyHistogram frameTimes = new LatencyHistogram("tiled frame");
+
+    // Every backend must be exclusive to this detector and run the same model
+    public TiledDetector(List<? extends InferenceBackend> backends, DetectionDecoder decoder) {
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one backend");
+        }
+        for (InferenceBackend backend : backends) {
+            workers.add(new Worker(backend));
+        }
+        this.decoder = decoder;
+        spec = backends.get(0).getModelSpec();
+        rawCapacity = workers.get(0).raw.getCapacity();
+        tileSize = spec.getInputSize();
+        maxConcurrency = workers.size();
+
+        // The calling thread runs tiles too, so one fewer helper thread is needed
+        executor = workers.size() > 1
+                ? Executors.newFixedThreadPool(workers.size() - 1, runnable -> {
+                    Thread thread = new Thread(runnable, "tiled-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    // Window side in source pixels; each window is scaled to the model input.
+    // Equal to the input size means tiles are seen at full resolution.
+    public synchronized TiledDetector setTileSize(int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive");
+        }
+        this.tileSize = tileSize;
+        gridValid = false;
+        return this;
+    }
+
+    // Fraction of a tile shared with its neighbour, so objects on a seam are
+    // fully inside at least one tile
+    public synchronized TiledDetector setOverlap(float overlap) {
+        if (overlap < 0f || overlap >= 1f) {
+            throw new IllegalArgumentException("Overlap must be in [0, 1)");
+        }
+        this.overlap = overlap;
+        gridValid = false;
+        return this;
+    }
+
+    public synchronized TiledDetector setGlobalPass(boolean globalPass) {
+        this.globalPass = globalPass;
+        gridValid = false;
+        return this;
+    }
+
+    // Capped at the number of backends
+    public synchronized TiledDetector setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, Math.min(workers.size(), maxConcurrency));
+        return this;
+    }
+
+    public synchronized TiledDetector setMergeIou(float mergeIou) {
+        merger.setIouThreshold(mergeIou);
+        return this;
+    }
+
+    // Hard or soft, class-aware or agnostic suppression for the cross-tile merge
+    public synchronized TiledDetector setMergeSuppression(DetectionPostProcessor.Suppression suppression,
+                                                         boolean classAware) {
+        merger.setSuppression(suppression).setClassAware(classAware);
+        return this;
+    }
+
+    // Start offsets along one axis: evenly spread, first at 0, last flush with the end
+    static int[] tileStarts(int length, int tile, float overlap) {
+        if (length <= tile) {
+            return new int[]{0};
+        }
+        int stride = Math.max(1, Math.round(tile * (1f - overlap)));
+        int count = (length - tile + stride - 1) / stride + 1;
+        int[] starts = new int[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = (int) ((long) (length - tile) * i / (count - 1));
+        }
+        return starts;
+    }
+
+    private void buildGrid(int width, int height) {
+        tiles.clear();
+        int[] xs = tileStarts(width, tileSize, overlap);
+        int[] ys = tileStarts(height, tileSize, overlap);
+        for (int y : ys) {
+            for (int x : xs) {
+                tiles.add(new Tile(x, y, Math.min(width, x + tileSize), Math.min(height, y + tileSize),
+                        false, spec, rawCapacity));
+            }
+        }
+        if (globalPass && tiles.size() > 1) {
+            tiles.add(new Tile(0, 0, width, height, true, spec, rawCapacity));
+        }
+        gridWidth = width;
+        gridHeight = height;
+        gridValid = true;
+    }
+
+    // Fills out (cleared first) with merged detections in source pixels, highest
+    // score first. Slots are tileIndex * raw capacity + raw slot, so they stay
+    // unique across tiles. Returns the count.
+    public synchronized int detect(YuvFrame frame, DetectionBatch out) {
+        long start = System.nanoTime();
+        if (!gridValid || frame.getWidth() != gridWidth || frame.getHeight() != gridHeight) {
+            buildGrid(frame.getWidth(), frame.getHeight());
+        }
+
+        this.frame = frame;
+        failure = null;
+        nextTile.set(0);
+
+        int helpers = Math.min(maxConcurrency, tiles.size()) - 1;
+        CountDownLatch done = new CountDownLatch(helpers);
+        for (int i = 1; i <= helpers; i++) {
+            Worker worker = workers.get(i);
+            executor.execute(() -> {
+                try {
+                    runTiles(worker);
+                } catch (Throwable t) {
+                    failure = t;
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        try {
+            runTiles(workers.get(0));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            // Helpers still hold this frame's tiles; wait them out before returning
+            awaitUninterruptibly(done);
+            Thread.currentThread().interrupt();
+        }
+        this.frame = null;
+
+        Throwable error = failure;
+        if (error != null) {
+            throw new RuntimeException("Tile inference failed", error);
+        }
+
+        merge(out);
+        frameTimes.record(System.nanoTime() - start);
+        return out.size();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // keep waiting
+            }
+        }
+    }
+
+    private void runTiles(Worker worker) {
+        int index;
+        while ((index = nextTile.getAndIncrement()) < tiles.size()) {
+            runTile(worker, tiles.get(index), index);
+        }
+    }
+
+    private void runTile(Worker worker, Tile tile, int index) {
+        TRACE.begin(TRACE_TILE);
+        long start = System.nanoTime();
+        try {
+            FrameTransform transform = frame.preprocess(tile.preprocessor, worker.input);
+            worker.backend.runInference(worker.input, worker.raw);
+            decoder.decode(worker.raw, tile.results);
+
+            // Input pixels -> source pixels of the whole frame
+            float[] boxes = tile.results.boxArray();
+            float[] box = worker.box;
+            for (int i = 0; i < tile.results.size(); i++) {
+                System.arraycopy(boxes, i * 4, box, 0, 4);
+                transform.mapBoxToSource(box);
+                System.arraycopy(box, 0, boxes, i * 4, 4);
+            }
+        } finally {
+            tile.nanos = System.nanoTime() - start;
+            tileTimes.record(tile.nanos);
+            TRACE.end(TRACE_TILE);
+        }
+    }
+
+    private void merge(DetectionBatch out) {
+        TRACE.begin(TRACE_MERGE);
+        out.clear();
+        for (int t = 0; t < tiles.size(); t++) {
+            DetectionBatch results = tiles.get(t).results;
+            for (int i = 0; i < results.size(); i++) {
+                out.add(results.getClassId(i), results.getScore(i),
+                        results.getLeft(i), results.getTop(i), results.getRight(i), results.getBottom(i),
+                        t * rawCapacity + results.getSlot(i));
+            }
+        }
+        merger.process(out);
+        TRACE.end(TRACE_MERGE);
+    }
+
+    public synchronized int getTileCount() {
+        return tiles.size();
+    }
+
+    public LatencyHistogram getTileTimes() {
+        return tileTimes;
+    }
+
+    public LatencyHistogram getFrameTimes() {
+        return frameTimes;
+    }
+
+    // Last frame, one line per tile: window, detections before merge, time
+    public synchronized String getTileReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%d tiles of %dpx, overlap %.0f%%, %d/%d workers\n",
+                tiles.size(), tileSize, overlap * 100, Math.min(maxConcurrency, tiles.size()),
+                workers.size()));
+        for (int t = 0; t < tiles.size(); t++) {
+            Tile tile = tiles.get(t);
+            sb.append(String.format(Locale.US, "  %s %d,%d %dx%d: %d det, %.1f ms\n",
+                    tile.global ? "global" : "tile " + t, tile.left, tile.top,
+                    tile.right - tile.left, tile.bottom - tile.top,
+                    tile.results.size(), tile.nanos / 1e6));
+        }
+        sb.append(tileTimes.summary()).append('\n');
+        sb.append(frameTimes.summary());
+        return sb.toString();
+    }
+
+    // Backends are not closed; they belong to the caller
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
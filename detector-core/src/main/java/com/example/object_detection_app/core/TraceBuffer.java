@@ -0,0 +1,193 @@
+package com.example.object_detection_app.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Binary trace ring: begin/end slices, counters and instant events stored as
+// primitives in preallocated arrays. Recording is lock-free, allocation-free
+// and does no formatting; once full, the oldest events are overwritten.
+// Event names are registered up front and referred to by id. The buffer is
+// turned into Chrome Trace Event JSON (chrome://tracing, ui.perfetto.dev)
+// only when dumped.
+public class TraceBuffer {
+
+    private static final byte BEGIN = 'B';
+    private static final byte END = 'E';
+    private static final byte COUNTER = 'C';
+    private static final byte INSTANT = 'i';
+
+    private static final int MAX_NAMES = 256;
+
+    // Markers in published besides a sequence number
+    private static final long EMPTY = -1;
+    private static final long WRITING = -2;
+
+    // Longs per event in data: timestamp, value, thread id, name id << 8 | phase
+    private static final int STRIDE = 4;
+
+    private final int mask;
+    // Event fields go through atomic accesses, not plain arrays, so the dump's
+    // seqlock check holds under the memory model: field reads can neither be
+    // satisfied before the first published read nor move after the second
+    private final AtomicLongArray data;
+    // Sequence number of the event in each slot, EMPTY, or WRITING while one
+    // writer owns it
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong();
+
+    private final String[] nameTable = new String[MAX_NAMES];
+    private int nameCount = 0;
+    private volatile boolean enabled = true;
+
+    // capacity is rounded up to a power of two
+    public TraceBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        data = new AtomicLongArray(size * STRIDE);
+        published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, EMPTY);
+        }
+    }
+
+    // Returns the id for name, registering it on first use. Call once (e.g.
+    // into a static final) rather than on the hot path.
+    public synchronized int register(String name) {
+        for (int i = 0; i < nameCount; i++) {
+            if (nameTable[i].equals(name)) {
+                return i;
+            }
+        }
+        if (nameCount == MAX_NAMES) {
+            throw new IllegalStateException("Too many trace names");
+        }
+        nameTable[nameCount] = name;
+        return nameCount++;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void begin(int nameId) {
+        put(BEGIN, nameId, 0);
+    }
+
+    public void end(int nameId) {
+        put(END, nameId, 0);
+    }
+
+    public void counter(int nameId, long value) {
+        put(COUNTER, nameId, value);
+    }
+
+    public void instant(int nameId) {
+        put(INSTANT, nameId, 0);
+    }
+
+    private void put(byte phase, int nameId, long value) {
+        if (!enabled) {
+            return;
+        }
+        long sequence = cursor.getAndIncrement();
+        int i = (int) (sequence & mask);
+        int d = i * STRIDE;
+        // Claim the slot first. A writer stalled long enough for the ring to
+        // lap it may still own the slot, or a newer event may already be
+        // there: the event is dropped rather than mixing two writers' fields.
+        // The CAS is a full barrier, so the marker is visible before any field
+        // changes and the ordered field writes cannot move above it.
+        long previous = published.get(i);
+        if (previous == WRITING || previous > sequence
+                || !published.compareAndSet(i, previous, WRITING)) {
+            return;
+        }
+        data.lazySet(d, System.nanoTime());
+        data.lazySet(d + 1, value);
+        data.lazySet(d + 2, Thread.currentThread().getId());
+        data.lazySet(d + 3, (long) nameId << 8 | phase & 0xff);
+        published.set(i, sequence);
+    }
+
+    public void clear() {
+        cursor.set(0);
+        for (int i = 0; i <= mask; i++) {
+            published.set(i, EMPTY);
+        }
+    }
+
+    // Events currently held (at most the capacity)
+    public int size() {
+        return (int) Math.min(cursor.get(), mask + 1);
+    }
+
+    // Writes the retained events, oldest first. Safe while other threads keep
+    // recording: slots overwritten during the dump are skipped.
+    public void writeChromeJson(Writer out) throws IOException {
+        String[] nameSnapshot;
+        synchronized (this) {
+            nameSnapshot = new String[nameCount];
+            System.arraycopy(nameTable, 0, nameSnapshot, 0, nameCount);
+        }
+
+        Map<Long, String> threadNames = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            threadNames.put(thread.getId(), thread.getName());
+        }
+
+        long end = cursor.get();
+        long start = Math.max(0, end - (mask + 1));
+
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + thread.getKey()
+                    + ",\"args\":{\"name\":\"" + escape(thread.getValue()) + "\"}}");
+        }
+
+        for (long sequence = start; sequence < end; sequence++) {
+            int i = (int) (sequence & mask);
+            if (published.get(i) != sequence) {
+                continue;
+            }
+            int d = i * STRIDE;
+            long timestamp = data.get(d);
+            long value = data.get(d + 1);
+            long thread = data.get(d + 2);
+            long packed = data.get(d + 3);
+            int nameId = (int) (packed >>> 8);
+            byte phase = (byte) packed;
+            if (published.get(i) != sequence || nameId >= nameSnapshot.length) {
+                continue; // overwritten while reading
+            }
+
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write(String.format(Locale.US, "{\"name\":\"%s\",\"ph\":\"%c\",\"ts\":%.3f,\"pid\":1,\"tid\":%d",
+                    escape(nameSnapshot[nameId]), (char) phase, timestamp / 1000.0, thread));
+            if (phase == COUNTER) {
+                out.write(",\"args\":{\"value\":" + value + "}");
+            } else if (phase == INSTANT) {
+                out.write(",\"s\":\"t\"");
+            }
+            out.write("}");
+        }
+        out.write("\n]}\n");
+        out.flush();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.object_detection_app.core;
+
+// Process-wide trace buffer shared by the core and the app.
+public final class Tracer {
+
+    // Compile-time switch for per-frame debug logging. Call sites wrap such
+    // logs in if (Tracer.VERBOSE_LOGS) { ... }, which javac drops entirely
+    // while this is false; use the trace buffer for per-frame data instead.
+    public static final boolean VERBOSE_LOGS = false;
+
+    private static final TraceBuffer BUFFER = new TraceBuffer(1 << 14);
+
+    private Tracer() {
+    }
+
+    public static TraceBuffer get() {
+        return BUFFER;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+
+// Owned copy of a camera frame, so the camera image can be closed as soon as
+// its pixels are copied: YUV_420_888 planes, or a single RGBA_8888 plane
+// (held in the Y buffer). Backing arrays are reused across frames and only
+// grow when a larger frame arrives. An optional source crop (the camera's
+// crop rect hint) travels with the frame; see applyCrop().
+public class YuvFrame {
+    private byte[] y = new byte[0];
+    private byte[] u = new byte[0];
+    private byte[] v = new byte[0];
+    private ByteBuffer yBuffer = ByteBuffer.wrap(y);
+    private ByteBuffer uBuffer = ByteBuffer.wrap(u);
+    private ByteBuffer vBuffer = ByteBuffer.wrap(v);
+
+    private int width;
+    private int height;
+    private int yRowStride;
+    private int uvRowStride;
+    private int uvPixelStride;
+    private int rotationDegrees;
+    private long timestampNanos;
+    private boolean rgba;
+
+    private boolean hasCrop;
+    private int cropLeft, cropTop, cropRight, cropBottom;
+
+    public void copyFrom(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                         int yRowStride, int uvRowStride, int uvPixelStride,
+                         int width, int height, int rotationDegrees, long timestampNanos) {
+        int ySize = yPlane.remaining();
+        int uSize = uPlane.remaining();
+        int vSize = vPlane.remaining();
+
+        if (y.length < ySize) {
+            y = new byte[ySize];
+            yBuffer = ByteBuffer.wrap(y);
+        }
+        if (u.length < uSize) {
+            u = new byte[uSize];
+            uBuffer = ByteBuffer.wrap(u);
+        }
+        if (v.length < vSize) {
+            v = new byte[vSize];
+            vBuffer = ByteBuffer.wrap(v);
+        }
+
+        copyPlane(yPlane, y, ySize);
+        copyPlane(uPlane, u, uSize);
+        copyPlane(vPlane, v, vSize);
+
+        this.rgba = false;
+        this.hasCrop = false;
+        this.width = width;
+        this.height = height;
+        this.yRowStride = yRowStride;
+        this.uvRowStride = uvRowStride;
+        this.uvPixelStride = uvPixelStride;
+        this.rotationDegrees = rotationDegrees;
+        this.timestampNanos = timestampNanos;
+    }
+
+    // Single-plane RGBA_8888 (4 bytes per pixel, rows rowStride bytes apart)
+    public void copyFromRgba(ByteBuffer rgbaPlane, int rowStride, int width, int height,
+                             int rotationDegrees, long timestampNanos) {
+        int size = rgbaPlane.remaining();
+        if (y.length < size) {
+            y = new byte[size];
+            yBuffer = ByteBuffer.wrap(y);
+        }
+        copyPlane(rgbaPlane, y, size);
+
+        this.rgba = true;
+        this.hasCrop = false;
+        this.width = width;
+        this.height = height;
+        this.yRowStride = rowStride;
+        this.uvRowStride = 0;
+        this.uvPixelStride = 0;
+        this.rotationDegrees = rotationDegrees;
+        this.timestampNanos = timestampNanos;
+    }
+
+    // Source-pixel crop for this frame; cleared by the next copy
+    public void setCrop(int left, int top, int right, int bottom) {
+        hasCrop = true;
+        cropLeft = left;
+        cropTop = top;
+        cropRight = right;
+        cropBottom = bottom;
+    }
+
+    public boolean hasCrop() {
+        return hasCrop;
+    }
+
+    // Makes the preprocessor's crop match this frame (cleared if it has none)
+    public void applyCrop(FramePreprocessor preprocessor) {
+        if (hasCrop) {
+            preprocessor.setCrop(cropLeft, cropTop, cropRight, cropBottom);
+        } else {
+            preprocessor.clearCrop();
+        }
+    }
+
+    private static void copyPlane(ByteBuffer plane, byte[] dst, int size) {
+        int position = plane.position();
+        plane.get(dst, 0, size);
+        plane.position(position);
+    }
+
+    public FrameTransform preprocess(FramePreprocessor preprocessor, ByteBuffer out) {
+        if (rgba) {
+            return preprocessor.processRgba(yBuffer, yRowStride, width, height, rotationDegrees, out);
+        }
+        return preprocessor.process(yBuffer, uBuffer, vBuffer,
+                yRowStride, uvRowStride, uvPixelStride,
+                width, height, rotationDegrees, out);
+    }
+
+    public boolean isRgba() {
+        return rgba;
+    }
+
+    // The RGBA plane for RGBA frames
+    public ByteBuffer getYPlane() {
+        return yBuffer;
+    }
+
+    public int getYRowStride() {
+        return yRowStride;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
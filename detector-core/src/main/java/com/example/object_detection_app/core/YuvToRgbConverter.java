@@ -0,0 +1,102 @@
+package com.example.object_detection_app.core;
+
+import java.nio.ByteBuffer;
+
+// Converts YUV_420_888 camera frames straight into the uint8 RGB model input.
+// Reads the Y/U/V planes honoring row stride and pixel stride, so it works for
+// both planar (I420) and semi-planar (NV21/NV12) layouts, and samples directly
+// into the destination size - no NV21 copy, no JPEG encode/decode, no Bitmap.
+public class YuvToRgbConverter {
+
+    // Sampling tables, rebuilt only when the frame or output size changes
+    private int[] srcColumns = new int[0];
+    private int[] srcRows = new int[0];
+    private int lastSrcWidth = -1;
+    private int lastSrcHeight = -1;
+    private int lastDstWidth = -1;
+    private int lastDstHeight = -1;
+
+    public void convert(ByteBuffer yPlane, ByteBuffer uPlane, ByteBuffer vPlane,
+                        int yRowStride, int uvRowStride, int uvPixelStride,
+                        int srcWidth, int srcHeight,
+                        ByteBuffer out, int dstWidth, int dstHeight) {
+        updateSampling(srcWidth, srcHeight, dstWidth, dstHeight);
+
+        out.rewind();
+        for (int dy = 0; dy < dstHeight; dy++) {
+            int sy = srcRows[dy];
+            int yRow = sy * yRowStride;
+            int uvRow = (sy >> 1) * uvRowStride;
+
+            for (int dx = 0; dx < dstWidth; dx++) {
+                int sx = srcColumns[dx];
+                int uvIndex = uvRow + (sx >> 1) * uvPixelStride;
+
+                // Absolute gets: plane positions are left untouched
+                int y = yPlane.get(yRow + sx) & 0xFF;
+                int u = uPlane.get(uvIndex) & 0xFF;
+                int v = vPlane.get(uvIndex) & 0xFF;
+
+                putRgb(out, y, u, v);
+            }
+        }
+        out.rewind();
+    }
+
+    // BT.601 limited range to RGB, fixed point (10-bit fraction)
+    static void putRgb(ByteBuffer out, int y, int u, int v) {
+        int rgb = toRgb(y, u, v);
+        out.put((byte) (rgb >> 16));
+        out.put((byte) (rgb >> 8));
+        out.put((byte) rgb);
+    }
+
+    // Float models: channels go through the normalization table
+    static void putRgbFloat(ByteBuffer out, int y, int u, int v, float[] table) {
+        int rgb = toRgb(y, u, v);
+        out.putFloat(table[(rgb >> 16) & 0xFF]);
+        out.putFloat(table[(rgb >> 8) & 0xFF]);
+        out.putFloat(table[rgb & 0xFF]);
+    }
+
+    // Packed 0xRRGGBB
+    static int toRgb(int y, int u, int v) {
+        int c = y - 16;
+        int d = u - 128;
+        int e = v - 128;
+        if (c < 0) c = 0;
+
+        int y1192 = 1192 * c;
+        int r = (y1192 + 1634 * e) >> 10;
+        int g = (y1192 - 833 * e - 400 * d) >> 10;
+        int b = (y1192 + 2066 * d) >> 10;
+
+        return (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    private void updateSampling(int srcWidth, int srcHeight, int dstWidth, int dstHeight) {
+        if (srcWidth == lastSrcWidth && srcHeight == lastSrcHeight
+                && dstWidth == lastDstWidth && dstHeight == lastDstHeight) {
+            return;
+        }
+
+        // Nearest neighbour at pixel centers
+        srcColumns = new int[dstWidth];
+        for (int dx = 0; dx < dstWidth; dx++) {
+            srcColumns[dx] = Math.min(srcWidth - 1, (int) ((dx + 0.5f) * srcWidth / dstWidth));
+        }
+        srcRows = new int[dstHeight];
+        for (int dy = 0; dy < dstHeight; dy++) {
+            srcRows[dy] = Math.min(srcHeight - 1, (int) ((dy + 0.5f) * srcHeight / dstHeight));
+        }
+
+        lastSrcWidth = srcWidth;
+        lastSrcHeight = srcHeight;
+        lastDstWidth = dstWidth;
+        lastDstHeight = dstHeight;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.junit.Test;
+
+public class BackendTunerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Fake model per config: a fixed latency plus an optional stall on one
+    // timed run, closes counted
+    private class TimedBackend extends FakeInferenceBackend implements AutoCloseable {
+        private final long latencyNanos;
+        private final int stallOnRun;
+        private int runs;
+
+        TimedBackend(long latencyNanos, int stallOnRun) {
+            super(300, 10, 91, 1, 0);
+            this.latencyNanos = latencyNanos;
+            this.stallOnRun = stallOnRun;
+        }
+
+        @Override
+        public void runInference(ByteBuffer input, RawDetections output) {
+            long start = System.nanoTime();
+            super.runInference(input, output);
+            long spin = ++runs == stallOnRun ? 50 * MS : latencyNanos;
+            while (System.nanoTime() - start < spin) {
+                // Busy wait
+            }
+        }
+
+        @Override
+        public void close() {
+            closed++;
+        }
+    }
+
+    private int opened;
+    private int closed;
+
+    // Latencies by config; configs not in the map fail to open
+    private BackendTuner tuner(Map<BackendConfig, Long> latencies, BackendConfig stalls) {
+        return new BackendTuner(config -> {
+            Long latency = latencies.get(config);
+            if (latency == null) {
+                throw new IllegalStateException("no delegate for " + config);
+            }
+            opened++;
+            // Stall on the first timed run, after 2 warm-ups
+            return new TimedBackend(latency, config.equals(stalls) ? 3 : -1);
+        });
+    }
+
+    @Test
+    public void picksTheFastestCandidate() {
+        Map<BackendConfig, Long> latencies = new HashMap<>();
+        for (BackendConfig config : BackendTuner.candidates(4, false)) {
+            latencies.put(config, 8 * MS);
+        }
+        latencies.put(BackendConfig.cpu(3, true), 2 * MS);
+        latencies.put(BackendConfig.cpu(4, true), 5 * MS);
+
+        BackendConfig best = tuner(latencies, null).tune(BackendTuner.candidates(4, true));
+        assertEquals(BackendConfig.cpu(3, true), best);
+        assertEquals(8, opened);
+        assertEquals("every opened backend closed", opened, closed);
+    }
+
+    // One stall among the timed runs must not cost a candidate the pick,
+    // which a mean would
+    @Test
+    public void medianIgnoresAOneOffStall() {
+        Map<BackendConfig, Long> latencies = new HashMap<>();
+        latencies.put(BackendConfig.cpu(1, true), 2 * MS);
+        latencies.put(BackendConfig.cpu(1, false), 6 * MS);
+
+        BackendTuner tuner = tuner(latencies, BackendConfig.cpu(1, true));
+        assertEquals(BackendConfig.cpu(1, true), tuner.tune(BackendTuner.candidates(1, false)));
+        assertTrue(tuner.measure(BackendConfig.cpu(1, true)) < 6 * MS);
+    }
+
+    @Test
+    public void failingCandidatesAreSkipped() {
+        Map<BackendConfig, Long> latencies = new HashMap<>();
+        latencies.put(BackendConfig.cpu(2, false), 4 * MS);
+        // NNAPI would win, but fails on its first run
+        BackendTuner tuner = new BackendTuner(config -> {
+            if (config.backend == BackendConfig.Backend.NNAPI) {
+                opened++;
+                return new TimedBackend(0, -1) {
+                    @Override
+                    public void runInference(ByteBuffer input, RawDetections output) {
+                        throw new IllegalArgumentException("delegate rejected the model");
+                    }
+                };
+            }
+            Long latency = latencies.get(config);
+            if (latency == null) {
+                throw new UnsatisfiedLinkError("no native library for " + config);
+            }
+            opened++;
+            return new TimedBackend(latency, -1);
+        });
+
+        assertEquals(Long.MAX_VALUE, tuner.measure(BackendConfig.nnapi()));
+        assertEquals(BackendConfig.cpu(2, false), tuner.tune(BackendTuner.candidates(2, true)));
+        assertEquals(opened, closed);
+    }
+
+    @Test
+    public void fallsBackToCpuWhenNothingRuns() {
+        BackendConfig best = tuner(new HashMap<>(), null).tune(BackendTuner.candidates(2, true));
+        assertEquals(BackendConfig.Backend.CPU, best.backend);
+        assertTrue(best.useXnnpack);
+        assertTrue(best.numThreads >= 1 && best.numThreads <= 4);
+    }
+
+    @Test
+    public void candidatesCoverEveryThreadCountAndNeverTheGpu() {
+        List<BackendConfig> cpuOnly = BackendTuner.candidates(3, false);
+        assertEquals(Arrays.asList(BackendConfig.cpu(1, true), BackendConfig.cpu(1, false),
+                BackendConfig.cpu(2, true), BackendConfig.cpu(2, false),
+                BackendConfig.cpu(3, true), BackendConfig.cpu(3, false)), cpuOnly);
+
+        List<BackendConfig> withNnapi = BackendTuner.candidates(3, true);
+        assertEquals(7, withNnapi.size());
+        assertEquals(BackendConfig.nnapi(), withNnapi.get(6));
+    }
+
+    @Test
+    public void savedPickIsReusedOnlyWhileStillACandidate() {
+        List<BackendConfig> candidates = BackendTuner.candidates(4, false);
+        BackendConfig saved = BackendConfig.decode(BackendConfig.cpu(4, true).encode());
+        assertEquals(BackendConfig.cpu(4, true), saved);
+        assertTrue(BackendTuner.isReusable(saved, candidates));
+
+        assertFalse(BackendTuner.isReusable(BackendConfig.cpu(8, true), candidates));
+        assertFalse(BackendTuner.isReusable(BackendConfig.nnapi(), candidates));
+        assertFalse(BackendTuner.isReusable(null, candidates));
+        // Picks from builds that still tuned the GPU delegate
+        assertNull(BackendConfig.decode("GPU:1:0"));
+        assertNull(BackendConfig.decode("CPU:x"));
+    }
+
+    @Test
+    public void keyIsPerDeviceAndModelFile() {
+        byte[] bytes = new byte[200_000];
+        new Random(5).nextBytes(bytes);
+        ByteBuffer model = ByteBuffer.allocateDirect(bytes.length);
+        model.put(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        // Whatever the buffer's position
+        assertEquals(crc.getValue(), BackendTuner.modelHash(model));
+        assertEquals(bytes.length, model.position());
+        assertEquals("Pixel 7_" + Long.toHexString(crc.getValue()),
+                BackendTuner.key("Pixel 7", BackendTuner.modelHash(model)));
+
+        model.put(123_456, (byte) (bytes[123_456] + 1));
+        assertNotEquals(crc.getValue(), BackendTuner.modelHash(model));
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DetectionCacheTest {
+
+    private static final long NAMESPACE = DetectionCache.namespace(7L, 300, 0.4f);
+    // Header plus one entry of two detections (see DetectionCache's layout)
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 9 + 2 * 23;
+    // Memory accounting adds a fixed overhead per entry
+    private static final int MEMORY_ENTRY_BYTES = ENTRY_BYTES + 64;
+
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    private final DetectionBatch out = new DetectionBatch(4);
+
+    private static DetectionBatch batchFor(long key) {
+        DetectionBatch batch = new DetectionBatch(2);
+        batch.add(1 + (int) (key % 50), 0.9f, key, 2f, key + 10f, 20f, 3);
+        batch.add(2, 0.5f, 5f, key, 15f, key + 7f, 8);
+        return batch;
+    }
+
+    private static void assertSameBatch(DetectionBatch expected, DetectionBatch actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getClassId(i), actual.getClassId(i));
+            assertEquals(expected.getSlot(i), actual.getSlot(i));
+            assertEquals(expected.getScore(i), actual.getScore(i), 0f);
+            assertEquals(expected.getLeft(i), actual.getLeft(i), 0f);
+            assertEquals(expected.getTop(i), actual.getTop(i), 0f);
+            assertEquals(expected.getRight(i), actual.getRight(i), 0f);
+            assertEquals(expected.getBottom(i), actual.getBottom(i), 0f);
+        }
+    }
+
+    @Test
+    public void roundTripsEntriesThroughMemoryAndDisk() throws IOException {
+        File file = temp.newFile("results.cache");
+        try (DetectionCache cache = new DetectionCache(NAMESPACE, 1 << 20, file, 1 << 20)) {
+            cache.put(1L, batchFor(1L));
+            assertTrue(cache.get(1L, out));
+            assertSameBatch(batchFor(1L), out);
+            assertFalse(cache.get(2L, out));
+            assertEquals(1, cache.getMemoryHits());
+            assertEquals(1, cache.getMisses());
+        }
+
+        try (DetectionCache reopened = new DetectionCache(NAMESPACE, 1 << 20, file, 1 << 20)) {
+            assertEquals(1, reopened.getDiskEntries());
+            assertTrue(reopened.get(1L, out));
+            assertSameBatch(batchFor(1L), out);
+            assertEquals(1, reopened.getDiskHits());
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFromMemory() throws IOException {
+        try (DetectionCache cache = new DetectionCache(NAMESPACE, 3 * MEMORY_ENTRY_BYTES, null, 0)) {
+            cache.put(1L, batchFor(1L));
+            cache.put(2L, batchFor(2L));
+            cache.put(3L, batchFor(3L));
+            // Touch 1, so 2 is now the least recently used
+            assertTrue(cache.get(1L, out));
+
+            cache.put(4L, batchFor(4L));
+            assertEquals(3, cache.getMemoryEntries());
+            assertEquals(1, cache.getEvictions());
+            assertFalse(cache.get(2L, out));
+            assertTrue(cache.get(1L, out));
+            assertTrue(cache.get(3L, out));
+            assertTrue(cache.get(4L, out));
+            assertTrue(cache.getMemoryBytes() <= 3 * MEMORY_ENTRY_BYTES);
+        }
+    }
+
+    @Test
+    public void keepsAnEntryLargerThanTheWholeBudget() throws IOException {
+        try (DetectionCache cache = new DetectionCache(NAMESPACE, 1, null, 0)) {
+            cache.put(1L, batchFor(1L));
+            cache.put(2L, batchFor(2L));
+            assertEquals(1, cache.getMemoryEntries());
+            assertTrue(cache.get(2L, out));
+        }
+    }
+
+    @Test
+    public void cutsOffATornTailRecord() throws IOException {
+        File file = temp.newFile("results.cache");
+        try (DetectionCache cache = new DetectionCache(NAMESPACE, 1 << 20, file, 1 << 20)) {
+            cache.put(1L, batchFor(1L));
+            cache.put(2L, batchFor(2L));
+        }
+        assertEquals(HEADER_BYTES + 2 * ENTRY_BYTES, file.length());
+
+        // Crash halfway through appending a third entry
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length());
+            raw.writeLong(3L);
+            raw.writeByte(2);
+            raw.write(new byte[10]);
+        }
+
+        try (DetectionCache reopened = new DetectionCache(NAMESPACE, 1 << 20, file, 1 << 20)) {
+            assertEquals(2, reopened.getDiskEntries());
+            assertEquals(HEADER_BYTES + 2 * ENTRY_BYTES, file.length());
+            assertTrue(reopened.get(1L, out));
+            assertSameBatch(batchFor(1L), out);
+            assertTrue(reopened.get(2L, out));
+            assertSameBatch(batchFor(2L), out);
+            assertFalse(reopened.get(3L, out));
+
+            // Appends continue cleanly after the cut
+            reopened.put(3L, batchFor(3L));
+        }
+        try (DetectionCache again = new DetectionCache(NAMESPACE, 1 << 20, file, 1 << 20)) {
+            assertEquals(3, again.getDiskEntries());
+            assertTrue(again.get(3L, out));
+            assertSameBatch(batchFor(3L), out);
+        }
+    }
+
+    @Test
+    public void compactsDiskToTheMostRecentlyUsedEntries() throws IOException {
+        File file = temp.newFile("results.cache");
+        long budget = HEADER_BYTES + 10 * ENTRY_BYTES;
+        // Memory holds one entry, so lookups go to disk and update its order
+        try (DetectionCache cache = new DetectionCache(NAMESPACE, 1, file, budget)) {
+            for (long key = 1; key <= 10; key++) {
+                cache.put(key, batchFor(key));
+            }
+            assertEquals(10, cache.getDiskEntries());
+            assertEquals(0, cache.getDiskEvictions());
+            // Make 1 and 2 the most recently used on disk
+            assertTrue(cache.get(1L, out));
+            assertTrue(cache.get(2L, out));
+
+            // Over budget: rewritten to the newest entries that fit in 3/4 of
+            // it, i.e. 7 of them: 11, 2, 1, 10, 9, 8, 7
+            cache.put(11L, batchFor(11L));
+            assertEquals(7, cache.getDiskEntries());
+            assertEquals(4, cache.getDiskEvictions());
+            assertEquals(HEADER_BYTES + 7 * ENTRY_BYTES, file.length());
+            assertFalse(new File(file.getPath() + ".tmp").exists());
+        }
+
+        try (DetectionCache reopened = new DetectionCache(NAMESPACE, 1, file, budget)) {
+            assertEquals(7, reopened.getDiskEntries());
+            for (long key : new long[]{1, 2, 7, 8, 9, 10, 11}) {
+                assertTrue("kept " + key, reopened.get(key, out));
+                assertSameBatch(batchFor(key), out);
+            }
+            for (long key = 3; key <= 6; key++) {
+                assertFalse("evicted " + key, reopened.get(key, out));
+            }
+        }
+    }
+
+    @Test
+    public void startsOverForAnotherNamespaceOrFormat() throws IOException {
+        File file = temp.newFile("results.cache");
+        try (DetectionCache cache = new DetectionCache(NAMESPACE, 1 << 20, file, 1 << 20)) {
+            cache.put(1L, batchFor(1L));
+        }
+
+        long otherModel = DetectionCache.namespace(8L, 300, 0.4f);
+        try (DetectionCache cache = new DetectionCache(otherModel, 1 << 20, file, 1 << 20)) {
+            assertEquals(0, cache.getDiskEntries());
+            assertFalse(cache.get(1L, out));
+            cache.put(1L, batchFor(1L));
+        }
+
+        // A file written by an older format version is discarded too
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(4);
+            raw.writeInt(DetectionCache.VERSION - 1);
+        }
+        try (DetectionCache cache = new DetectionCache(otherModel, 1 << 20, file, 1 << 20)) {
+            assertEquals(0, cache.getDiskEntries());
+            assertEquals(HEADER_BYTES, file.length());
+        }
+    }
+}
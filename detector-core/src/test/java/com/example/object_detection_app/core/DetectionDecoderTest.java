@@ -0,0 +1,103 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class DetectionDecoderTest {
+
+    private static final float EPS = 1e-4f;
+
+    private final RawDetections raw = new RawDetections(8);
+    private final DetectionBatch batch = new DetectionBatch(8);
+
+    private void set(int i, int classId, float score, float ymin, float xmin, float ymax, float xmax) {
+        raw.classes[0][i] = classId;
+        raw.scores[0][i] = score;
+        raw.locations[0][i][0] = ymin;
+        raw.locations[0][i][1] = xmin;
+        raw.locations[0][i][2] = ymax;
+        raw.locations[0][i][3] = xmax;
+    }
+
+    @Test
+    public void dropsLowScoresAndRanksTheRest() {
+        DetectionDecoder decoder = new DetectionDecoder(100, 0.5f, new boolean[]{false, true, true});
+        set(0, 1, 0.6f, 0f, 0f, 0.5f, 0.5f);
+        set(1, 2, 0.49f, 0f, 0f, 0.5f, 0.5f);
+        set(2, 2, 0.9f, 0.1f, 0.1f, 0.2f, 0.2f);
+        set(3, 1, 0.5f, 0.3f, 0.3f, 0.4f, 0.4f);
+        raw.count[0] = 4;
+
+        assertEquals(3, decoder.decode(raw, batch));
+        assertEquals(0.9f, batch.getScore(0), 0f);
+        assertEquals(0.6f, batch.getScore(1), 0f);
+        assertEquals(0.5f, batch.getScore(2), 0f);
+        // Slots point back at the raw output rows
+        assertEquals(2, batch.getSlot(0));
+        assertEquals(0, batch.getSlot(1));
+        assertEquals(3, batch.getSlot(2));
+    }
+
+    @Test
+    public void clampsBoxesAndScalesToInputPixels() {
+        DetectionDecoder decoder = new DetectionDecoder(300, 0.1f, new boolean[]{false, true});
+        set(0, 1, 0.8f, -0.2f, 0.25f, 0.5f, 1.4f);
+        raw.count[0] = 1;
+
+        assertEquals(1, decoder.decode(raw, batch));
+        assertEquals(75f, batch.getLeft(0), EPS);
+        assertEquals(0f, batch.getTop(0), EPS);
+        assertEquals(300f, batch.getRight(0), EPS);
+        assertEquals(150f, batch.getBottom(0), EPS);
+    }
+
+    @Test
+    public void dropsBoxesThatAreEmptyAfterClamping() {
+        DetectionDecoder decoder = new DetectionDecoder(300, 0.1f, new boolean[]{false, true});
+        set(0, 1, 0.8f, 0.5f, 0.5f, 0.5f, 0.9f);   // zero height
+        set(1, 1, 0.8f, 0.2f, 0.6f, 0.4f, 0.3f);   // inverted
+        set(2, 1, 0.8f, 1.2f, 0.1f, 1.5f, 0.2f);   // entirely below the frame
+        raw.count[0] = 3;
+
+        assertEquals(0, decoder.decode(raw, batch));
+    }
+
+    @Test
+    public void mapsClassIdsThroughTheLabelMap() {
+        DetectionDecoder decoder = DetectionDecoder.forLabels(100, 0.1f,
+                Arrays.asList("???", "person", "???", "car"));
+        assertFalse(decoder.isValidClass(0));
+        assertTrue(decoder.isValidClass(1));
+        assertFalse(decoder.isValidClass(2));
+        assertTrue(decoder.isValidClass(3));
+        assertFalse(decoder.isValidClass(4));
+        assertFalse(decoder.isValidClass(-1));
+
+        set(0, 0, 0.9f, 0f, 0f, 0.5f, 0.5f);   // background
+        set(1, 2, 0.9f, 0f, 0f, 0.5f, 0.5f);   // "???" placeholder
+        set(2, 3, 0.8f, 0f, 0f, 0.5f, 0.5f);
+        set(3, 7, 0.9f, 0f, 0f, 0.5f, 0.5f);   // beyond the label map
+        set(4, 1, 0.7f, 0f, 0f, 0.5f, 0.5f);
+        raw.count[0] = 5;
+
+        assertEquals(2, decoder.decode(raw, batch));
+        assertEquals(3, batch.getClassId(0));
+        assertEquals(1, batch.getClassId(1));
+    }
+
+    @Test
+    public void countIsBoundedByTheOutputCapacity() {
+        DetectionDecoder decoder = new DetectionDecoder(100, 0.1f, new boolean[]{false, true});
+        for (int i = 0; i < raw.getCapacity(); i++) {
+            set(i, 1, 0.5f, 0f, 0f, 0.5f, 0.5f);
+        }
+        raw.count[0] = 1000;
+
+        assertEquals(raw.getCapacity(), decoder.decode(raw, batch));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class DetectionPipelineTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    private static final int SWAPS = 8;
+
+    // Reports one box covering its whole input, with its generation as the
+    // class, so every result says which model produced it. Flags any run with
+    // an input sized for another model, or after it was closed.
+    private static class TaggedBackend extends FakeInferenceBackend {
+        final int generation;
+        final AtomicInteger misuse;
+        private final CountDownLatch gate;
+        volatile boolean closed;
+
+        TaggedBackend(int inputSize, int generation, AtomicInteger misuse, CountDownLatch gate) {
+            super(inputSize, 4, 91, generation, TimeUnit.MILLISECONDS.toNanos(1));
+            this.generation = generation;
+            this.misuse = misuse;
+            this.gate = gate;
+        }
+
+        @Override
+        public void runInference(ByteBuffer input, RawDetections output) {
+            if (closed || input.capacity() != getModelSpec().getInputBytes()) {
+                misuse.incrementAndGet();
+            }
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.runInference(input, output);
+            output.locations[0][0] = new float[]{0f, 0f, 1f, 1f};
+            output.classes[0][0] = 1 + generation;
+            output.scores[0][0] = 0.9f;
+            output.count[0] = 1;
+        }
+    }
+
+    // What the listener saw for one frame: generation and decoded box width
+    private final Map<Long, int[]> results = new ConcurrentHashMap<>();
+    private final AtomicInteger misuse = new AtomicInteger();
+    private final ByteBuffer rgba = ByteBuffer.allocateDirect(WIDTH * HEIGHT * 4);
+
+    private DetectionPipeline newPipeline(InferenceBackend backend) {
+        return new DetectionPipeline(backend, decoderFor(backend), 2, BoundedRing.DropPolicy.DROP_OLDEST,
+                (batch, timestampNanos, latencyNanos) -> {
+                    assertEquals(1, batch.size());
+                    results.put(timestampNanos, new int[]{
+                            batch.getClassId(0) - 1, Math.round(batch.getRight(0))});
+                });
+    }
+
+    @Test
+    public void swapsUnderLoadNeverMixModelsOrLeakSlots() throws Exception {
+        TaggedBackend first = new TaggedBackend(300, 0, misuse, null);
+        DetectionPipeline pipeline = newPipeline(first);
+        pipeline.start();
+
+        // Swap count around each admitted frame: the frame must run on the
+        // model current in between
+        Map<Long, long[]> admittedBetween = new ConcurrentHashMap<>();
+        AtomicBoolean submitting = new AtomicBoolean(true);
+        Thread submitter = new Thread(() -> {
+            for (long ts = 0; submitting.get(); ts++) {
+                long before = pipeline.getSwapCount();
+                if (pipeline.submitRgba(rgba, WIDTH * 4, WIDTH, HEIGHT, 0, ts)) {
+                    admittedBetween.put(ts, new long[]{before, pipeline.getSwapCount()});
+                }
+                Thread.yield();
+            }
+        }, "test-submitter");
+        submitter.start();
+
+        // Input sizes alternate, so slots and preprocessor must be rebuilt
+        List<TaggedBackend> backends = new ArrayList<>();
+        backends.add(first);
+        try {
+            for (int generation = 1; generation <= SWAPS; generation++) {
+                Thread.sleep(30);
+                TaggedBackend next = new TaggedBackend(generation % 2 == 0 ? 300 : 320,
+                        generation, misuse, null);
+                TaggedBackend previous = backends.get(backends.size() - 1);
+                assertTrue(pipeline.swapBackend(next, decoderFor(next), 2, TimeUnit.SECONDS, null));
+                assertSame(next, pipeline.getBackend());
+                // Safe to close once the swap returns
+                previous.closed = true;
+                backends.add(next);
+            }
+            Thread.sleep(30);
+        } finally {
+            submitting.set(false);
+            submitter.join();
+        }
+
+        awaitIdle(pipeline);
+        pipeline.stop();
+
+        assertEquals(SWAPS, pipeline.getSwapCount());
+        assertEquals("inference with a foreign or closed model", 0, misuse.get());
+        assertEquals(admittedBetween.size(), pipeline.getCompletedFrames() + pipeline.getDroppedFrames());
+
+        // Every result against the model it was admitted under, with that
+        // model's decoder; generations only move forward in submit order
+        int last = 0;
+        int[] seen = new int[SWAPS + 1];
+        for (Map.Entry<Long, int[]> result : new TreeMap<>(results).entrySet()) {
+            long[] between = admittedBetween.get(result.getKey());
+            int generation = result.getValue()[0];
+            String what = "frame " + result.getKey() + " on generation " + generation
+                    + ", admitted between swaps " + Arrays.toString(between);
+            assertTrue(what, generation >= between[0] && generation <= between[1]);
+            assertEquals(what, backends.get(generation).getInputSize(), result.getValue()[1]);
+            assertTrue(what, generation >= last);
+            last = generation;
+            seen[generation]++;
+        }
+        for (int generation = 0; generation <= SWAPS; generation++) {
+            assertTrue("no frame ran on generation " + generation, seen[generation] > 0);
+        }
+    }
+
+    @Test
+    public void timedOutSwapKeepsTheOldModelAndReturnsEverySlot() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        TaggedBackend stuck = new TaggedBackend(300, 0, misuse, gate);
+        DetectionPipeline pipeline = newPipeline(stuck);
+        pipeline.start();
+        int slots = pipeline.getFreeSlots();
+
+        assertTrue(pipeline.submitRgba(rgba, WIDTH * 4, WIDTH, HEIGHT, 0, 1));
+        TaggedBackend next = new TaggedBackend(320, 1, misuse, null);
+        assertFalse(pipeline.swapBackend(next, decoderFor(next), 50, TimeUnit.MILLISECONDS,
+                () -> {
+                    throw new AssertionError("ran without a full drain");
+                }));
+        assertSame(stuck, pipeline.getBackend());
+        assertEquals(0, pipeline.getSwapCount());
+
+        // Admission resumes and the stuck frame finishes on the old model
+        gate.countDown();
+        assertTrue(pipeline.submitRgba(rgba, WIDTH * 4, WIDTH, HEIGHT, 0, 2));
+        awaitIdle(pipeline);
+        assertEquals(slots, pipeline.getFreeSlots());
+        assertEquals(0, results.get(1L)[0]);
+        assertEquals(0, results.get(2L)[0]);
+
+        // A later swap still drains and rebuilds every slot
+        assertTrue(pipeline.swapBackend(next, decoderFor(next), 2, TimeUnit.SECONDS, null));
+        assertEquals(slots, pipeline.getFreeSlots());
+        assertTrue(pipeline.submitRgba(rgba, WIDTH * 4, WIDTH, HEIGHT, 0, 3));
+        awaitIdle(pipeline);
+        pipeline.stop();
+        assertEquals(1, results.get(3L)[0]);
+        assertEquals(320, results.get(3L)[1]);
+        assertEquals(0, misuse.get());
+    }
+
+    private static void awaitIdle(DetectionPipeline pipeline) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!pipeline.isIdle()) {
+            assertTrue("frames still in flight:\n" + pipeline.getStats(), System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static DetectionDecoder decoderFor(InferenceBackend backend) {
+        boolean[] valid = new boolean[91];
+        Arrays.fill(valid, 1, valid.length, true);
+        return new DetectionDecoder(backend.getInputSize(), 0.1f, valid);
+    }
+}
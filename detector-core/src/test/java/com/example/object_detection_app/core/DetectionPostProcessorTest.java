@@ -0,0 +1,200 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DetectionPostProcessorTest {
+
+    private static final DetectionPostProcessor.Suppression HARD =
+            DetectionPostProcessor.Suppression.HARD;
+
+    @Test
+    public void hardNmsMatchesSortAndSuppressReference() {
+        Random random = new Random(21);
+        for (int round = 0; round < 300; round++) {
+            int n = random.nextInt(120);
+            int topK = 1 + random.nextInt(150);   // often larger than the batch
+            int maxDetections = 1 + random.nextInt(40);
+            boolean classAware = random.nextBoolean();
+            float threshold = 0.2f + random.nextFloat() * 0.6f;
+            DetectionBatch original = RandomBatches.generate(random, n, false);
+            DetectionBatch batch = RandomBatches.copyOf(original);
+
+            new DetectionPostProcessor().setSuppression(HARD).setTopK(topK)
+                    .setMaxDetections(maxDetections).setClassAware(classAware)
+                    .setIouThreshold(threshold).process(batch);
+
+            String what = "round " + round;
+            assertEquals(what, referenceHard(original, topK, maxDetections, threshold, classAware),
+                    DetectionRankerTest.slotsOf(batch));
+            RandomBatches.assertEntriesFrom(original, batch);
+        }
+    }
+
+    // With tied scores any tie order is a valid ranking, so check what every
+    // greedy NMS result must satisfy instead of one exact answer
+    @Test
+    public void hardNmsWithTiedScoresKeepsGreedyInvariants() {
+        Random random = new Random(22);
+        for (int round = 0; round < 300; round++) {
+            int n = random.nextInt(120);
+            boolean classAware = random.nextBoolean();
+            float threshold = 0.2f + random.nextFloat() * 0.6f;
+            DetectionBatch original = RandomBatches.generate(random, n, true);
+            DetectionBatch batch = RandomBatches.copyOf(original);
+
+            new DetectionPostProcessor().setSuppression(HARD).setTopK(n + 10)
+                    .setClassAware(classAware).setIouThreshold(threshold).process(batch);
+
+            RandomBatches.assertRanked(batch);
+            RandomBatches.assertEntriesFrom(original, batch);
+            boolean[] kept = new boolean[n];
+            for (int i = 0; i < batch.size(); i++) {
+                kept[batch.getSlot(i)] = true;
+                for (int j = 0; j < i; j++) {
+                    if (!classAware || batch.getClassId(i) == batch.getClassId(j)) {
+                        assertTrue("kept boxes overlap",
+                                RandomBatches.iou(batch, i, j) <= threshold);
+                    }
+                }
+            }
+            // Every dropped box is covered by a kept box that outranks or ties it
+            for (int d = 0; d < n; d++) {
+                if (kept[d]) {
+                    continue;
+                }
+                boolean covered = false;
+                for (int i = 0; i < batch.size() && !covered; i++) {
+                    int k = batch.getSlot(i);
+                    covered = (!classAware || original.getClassId(k) == original.getClassId(d))
+                            && original.getScore(k) >= original.getScore(d)
+                            && RandomBatches.iou(original, k, d) > threshold;
+                }
+                assertTrue("slot " + d + " dropped without a reason", covered);
+            }
+        }
+    }
+
+    @Test
+    public void softNmsMatchesReference() {
+        Random random = new Random(23);
+        for (int round = 0; round < 300; round++) {
+            boolean gaussian = random.nextBoolean();
+            int n = random.nextInt(100);
+            int topK = 1 + random.nextInt(150);
+            int maxDetections = 1 + random.nextInt(40);
+            boolean classAware = random.nextBoolean();
+            float threshold = 0.2f + random.nextFloat() * 0.6f;
+            float sigma = 0.2f + random.nextFloat();
+            float minScore = random.nextFloat() * 0.2f;
+            DetectionBatch original = RandomBatches.generate(random, n, false);
+            DetectionBatch batch = RandomBatches.copyOf(original);
+
+            new DetectionPostProcessor()
+                    .setSuppression(gaussian ? DetectionPostProcessor.Suppression.SOFT_GAUSSIAN
+                            : DetectionPostProcessor.Suppression.SOFT_LINEAR)
+                    .setTopK(topK).setMaxDetections(maxDetections).setClassAware(classAware)
+                    .setIouThreshold(threshold).setSigma(sigma).setMinScore(minScore)
+                    .process(batch);
+
+            List<float[]> expected = referenceSoft(original, topK, maxDetections, classAware,
+                    gaussian, threshold, sigma, minScore);
+            String what = "round " + round;
+            assertEquals(what, expected.size(), batch.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(what + " #" + i, (int) expected.get(i)[0], batch.getSlot(i));
+                assertEquals(what + " #" + i, expected.get(i)[1], batch.getScore(i), 1e-6f);
+            }
+        }
+    }
+
+    @Test
+    public void noSuppressionOnlyRanksAndCaps() {
+        DetectionBatch original = RandomBatches.generate(new Random(24), 50, true);
+        DetectionBatch batch = RandomBatches.copyOf(original);
+
+        new DetectionPostProcessor().setSuppression(DetectionPostProcessor.Suppression.NONE)
+                .setTopK(30).setMaxDetections(20).process(batch);
+
+        assertEquals(20, batch.size());
+        RandomBatches.assertRanked(batch);
+        RandomBatches.assertEntriesFrom(original, batch);
+    }
+
+    // Sort, keep topK, greedy suppress, cap; returns kept slots in order
+    private static List<Integer> referenceHard(DetectionBatch batch, int topK, int maxDetections,
+                                               float threshold, boolean classAware) {
+        List<Integer> ranked = RandomBatches.rankedIndices(batch);
+        List<Integer> candidates = ranked.subList(0, Math.min(topK, ranked.size()));
+        List<Integer> kept = new ArrayList<>();
+        for (int i : candidates) {
+            if (kept.size() == maxDetections) {
+                break;
+            }
+            boolean keep = true;
+            for (int k : kept) {
+                boolean comparable = !classAware || batch.getClassId(k) == batch.getClassId(i);
+                if (comparable && RandomBatches.iou(batch, k, i) > threshold) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                kept.add(i);
+            }
+        }
+        List<Integer> slots = new ArrayList<>();
+        for (int i : kept) {
+            slots.add(batch.getSlot(i));
+        }
+        return slots;
+    }
+
+    // Textbook soft-NMS: repeatedly take the best remaining box, decay the
+    // rest. Returns {slot, final score} in pick order.
+    private static List<float[]> referenceSoft(DetectionBatch batch, int topK, int maxDetections,
+                                               boolean classAware, boolean gaussian,
+                                               float threshold, float sigma, float minScore) {
+        List<Integer> ranked = RandomBatches.rankedIndices(batch);
+        List<Integer> remaining = new ArrayList<>(ranked.subList(0, Math.min(topK, ranked.size())));
+        float[] scores = new float[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            scores[i] = batch.getScore(i);
+        }
+
+        List<float[]> picked = new ArrayList<>();
+        while (!remaining.isEmpty() && picked.size() < maxDetections) {
+            int best = 0;
+            for (int r = 1; r < remaining.size(); r++) {
+                if (scores[remaining.get(r)] > scores[remaining.get(best)]) {
+                    best = r;
+                }
+            }
+            int p = remaining.remove(best);
+            picked.add(new float[]{batch.getSlot(p), scores[p]});
+
+            for (int r = remaining.size() - 1; r >= 0; r--) {
+                int j = remaining.get(r);
+                if (classAware && batch.getClassId(j) != batch.getClassId(p)) {
+                    continue;
+                }
+                float overlap = RandomBatches.iou(batch, p, j);
+                if (gaussian) {
+                    scores[j] *= (float) Math.exp(-(overlap * overlap) / sigma);
+                } else if (overlap > threshold) {
+                    scores[j] *= 1f - overlap;
+                }
+                if (scores[j] < minScore) {
+                    remaining.remove(r);
+                }
+            }
+        }
+        return picked;
+    }
+}
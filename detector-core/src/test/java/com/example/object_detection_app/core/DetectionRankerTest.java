@@ -0,0 +1,90 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DetectionRankerTest {
+
+    private static final int[] SIZES = {0, 1, 2, 5, 16, 17, 40, 300, 2000};
+
+    @Test
+    public void sortByScoreMatchesAFullSort() {
+        Random random = new Random(11);
+        for (int n : SIZES) {
+            for (boolean ties : new boolean[]{false, true}) {
+                DetectionBatch original = RandomBatches.generate(random, n, ties);
+                DetectionBatch batch = RandomBatches.copyOf(original);
+
+                DetectionRanker.sortByScore(batch);
+
+                assertEquals(n, batch.size());
+                RandomBatches.assertRanked(batch);
+                RandomBatches.assertEntriesFrom(original, batch);
+            }
+        }
+    }
+
+    @Test
+    public void selectTopKKeepsTheKHighestScoresInOrder() {
+        Random random = new Random(12);
+        for (int n : SIZES) {
+            for (boolean ties : new boolean[]{false, true}) {
+                for (int k : new int[]{1, 3, 16, 17, 100, n / 2, n - 1, n, n + 1, 5 * n + 10}) {
+                    if (k < 1) {
+                        continue;
+                    }
+                    DetectionBatch original = RandomBatches.generate(random, n, ties);
+                    DetectionBatch batch = RandomBatches.copyOf(original);
+
+                    int kept = DetectionRanker.selectTopK(batch, k);
+
+                    String what = "n=" + n + " k=" + k + " ties=" + ties;
+                    assertEquals(what, Math.min(k, n), kept);
+                    assertEquals(what, kept, batch.size());
+                    RandomBatches.assertRanked(batch);
+                    RandomBatches.assertEntriesFrom(original, batch);
+                    assertEquals(what, topScores(original, kept), scoresOf(batch));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void selectTopKOfZeroEmptiesTheBatch() {
+        DetectionBatch batch = RandomBatches.generate(new Random(13), 10, false);
+        assertEquals(0, DetectionRanker.selectTopK(batch, 0));
+        assertEquals(0, batch.size());
+    }
+
+    private static List<Float> topScores(DetectionBatch batch, int k) {
+        float[] scores = Arrays.copyOf(batch.scoreArray(), batch.size());
+        Arrays.sort(scores);
+        List<Float> top = new ArrayList<>();
+        for (int i = scores.length - 1; i >= scores.length - k; i--) {
+            top.add(scores[i]);
+        }
+        return top;
+    }
+
+    private static List<Float> scoresOf(DetectionBatch batch) {
+        List<Float> scores = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            scores.add(batch.getScore(i));
+        }
+        return scores;
+    }
+
+    static List<Integer> slotsOf(DetectionBatch batch) {
+        List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            slots.add(batch.getSlot(i));
+        }
+        return slots;
+    }
+}
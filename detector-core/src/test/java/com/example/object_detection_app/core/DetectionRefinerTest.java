@@ -0,0 +1,225 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DetectionRefinerTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final int INPUT = 300;
+    private static final DetectionDecoder DECODER = new DetectionDecoder(INPUT, 0.1f, allClassesValid(91));
+
+    // Reports one confident class-1 box covering its whole input, so a
+    // confirmed refinement is exactly the zoom window; spins for a fixed time
+    // like a CPU-bound model and counts its runs
+    private static class WindowBackend extends FakeInferenceBackend {
+        private final long latencyNanos;
+        int runs;
+
+        WindowBackend(long latencyNanos) {
+            super(INPUT, 10, 91, 0, 0);
+            this.latencyNanos = latencyNanos;
+        }
+
+        @Override
+        public void runInference(ByteBuffer input, RawDetections output) {
+            long start = System.nanoTime();
+            runs++;
+            output.locations[0][0] = new float[]{0f, 0f, 1f, 1f};
+            output.classes[0][0] = 1;
+            output.scores[0][0] = 0.9f;
+            output.count[0] = 1;
+            while (System.nanoTime() - start < latencyNanos) {
+                // Busy wait
+            }
+        }
+    }
+
+    private final YuvFrame frame = new YuvFrame();
+    private final FrameTransform transform = new FrameTransform();
+
+    public DetectionRefinerTest() {
+        useFrame(WIDTH, HEIGHT);
+    }
+
+    // Black frame of the given size, and the transform of a stretched
+    // full-frame primary pass over it
+    private void useFrame(int width, int height) {
+        frame.copyFromRgba(ByteBuffer.allocate(width * height * 4), width * 4, width, height, 0, 0);
+        FramePreprocessor primary = new FramePreprocessor(INPUT, INPUT);
+        transform.copyFrom(frame.preprocess(primary, ByteBuffer.allocate(INPUT * INPUT * 3)));
+    }
+
+    @Test
+    public void zoomWindowIsCenteredOnTheCandidate() {
+        // 20 x 20 input px is 42.7 x 32 source px: a square window of 85 px
+        float[] window = refineOne(140, 140, 160, 160);
+        assertWindow(window, 278, 198, 85);
+    }
+
+    @Test
+    public void zoomWindowIsClampedInsideTheFrame() {
+        assertWindow(refineOne(0, 0, 20, 20), 0, 0, 85);
+        assertWindow(refineOne(280, 280, 300, 300), WIDTH - 85, HEIGHT - 85, 85);
+        assertWindow(refineOne(0, 280, 20, 300), 0, HEIGHT - 85, 85);
+    }
+
+    @Test
+    public void zoomWindowIsCappedAtTheShorterFrameSide() {
+        // Longer side 150 input px = 320 source px; zoom 2 would be 640
+        DetectionRefiner refiner = new DetectionRefiner().setMatchIou(0.01f);
+        WindowBackend backend = new WindowBackend(0);
+        DetectionBatch batch = candidates(new float[]{0, 75, 150, 225});
+        refiner.refine(frame, transform, batch, backend, DECODER, System.nanoTime(), 0);
+        assertEquals(1, backend.runs);
+        assertWindow(sourceBox(batch, 0), 0, 0, HEIGHT);
+    }
+
+    @Test
+    public void candidateWhoseWindowCoversTheFrameIsNotRefined() {
+        // Square frame, so the capped window is as large as the primary view
+        useFrame(HEIGHT, HEIGHT);
+        DetectionRefiner refiner = new DetectionRefiner().setMatchIou(0.01f);
+        WindowBackend backend = new WindowBackend(0);
+        float[] box = {75, 75, 225, 225};
+        DetectionBatch batch = candidates(box);
+        assertEquals(0, refiner.refine(frame, transform, batch, backend, DECODER, System.nanoTime(), 0));
+        assertEquals(0, backend.runs);
+        assertEquals(0.4f, batch.getScore(0), 0f);
+    }
+
+    @Test
+    public void onlyUncertainCandidatesAreRefined() {
+        DetectionRefiner refiner = new DetectionRefiner().setMatchIou(0.1f).setMaxPasses(10);
+        WindowBackend backend = new WindowBackend(0);
+        DetectionBatch batch = new DetectionBatch(4);
+        batch.add(1, 0.8f, 10, 10, 30, 30, 0);   // already confident
+        batch.add(1, 0.4f, 100, 100, 120, 120, 1);
+        batch.add(1, 0.1f, 200, 200, 220, 220, 2); // too weak to bother
+        assertEquals(1, refiner.refine(frame, transform, batch, backend, DECODER, System.nanoTime(), 0));
+        assertEquals(1, backend.runs);
+        assertEquals(0.8f, batch.getScore(0), 0f);
+        assertEquals(0.9f, batch.getScore(1), 0f);
+        assertEquals(0.1f, batch.getScore(2), 0f);
+    }
+
+    @Test
+    public void spentBudgetStartsNoPass() {
+        long budget = TimeUnit.MILLISECONDS.toNanos(30);
+        DetectionRefiner refiner = new DetectionRefiner().setBudget(budget).setMaxPasses(5);
+        WindowBackend backend = new WindowBackend(0);
+        DetectionBatch batch = candidates(new float[]{100, 100, 120, 120}, new float[]{200, 200, 220, 220});
+        float[] before = Arrays.copyOf(batch.boxArray(), 8);
+
+        // Primary inference started a whole budget ago
+        long inferStart = System.nanoTime() - budget;
+        assertEquals(0, refiner.refine(frame, transform, batch, backend, DECODER, inferStart, 0));
+        assertEquals(0, backend.runs);
+        assertEquals(0, refiner.getPasses());
+        assertEquals(1, refiner.getOverBudget());
+        assertEquals(0.4f, batch.getScore(0), 0f);
+        assertTrue(Arrays.equals(before, Arrays.copyOf(batch.boxArray(), 8)));
+    }
+
+    // Primary pass and refinement passes cost the same L; with a budget of
+    // 3.5 L only two passes fit after the primary one, and the frame ends
+    // inside the budget although more candidates and passes were allowed
+    @Test
+    public void refinementStopsBeforeTheFrameBudgetIsExceeded() {
+        // Compile the preprocessing first so pass time is mostly the model's
+        DetectionRefiner warmUp = new DetectionRefiner().setMaxPasses(4).setMatchIou(0.1f);
+        for (int i = 0; i < 50; i++) {
+            warmUp.refine(frame, transform, candidates(new float[]{100, 100, 120, 120}),
+                    new WindowBackend(0), DECODER, System.nanoTime(), 0);
+        }
+
+        long latency = TimeUnit.MILLISECONDS.toNanos(40);
+        long budget = latency * 7 / 2;
+        DetectionRefiner refiner = new DetectionRefiner().setBudget(budget).setMaxPasses(10)
+                .setMatchIou(0.1f);
+        WindowBackend backend = new WindowBackend(latency);
+        DetectionBatch batch = candidates(new float[]{20, 20, 40, 40}, new float[]{100, 100, 120, 120},
+                new float[]{200, 200, 220, 220}, new float[]{250, 50, 270, 70});
+
+        long inferStart = System.nanoTime();
+        backend.runInference(backend.newInputBuffer(), backend.newOutputBuffer());
+        backend.runs = 0;
+        refiner.refine(frame, transform, batch, backend, DECODER, inferStart, 0);
+        long frameNanos = System.nanoTime() - inferStart;
+
+        assertEquals(2, backend.runs);
+        assertEquals(2, refiner.getPasses());
+        assertEquals(1, refiner.getOverBudget());
+        assertTrue("frame took " + frameNanos / 1e6 + " ms", frameNanos <= budget);
+    }
+
+    // A slow pass raises the expectation for the next frames, so refinement
+    // backs off instead of overrunning again
+    @Test
+    public void slowPassHoldsBackTheNextFrame() {
+        long budget = TimeUnit.MILLISECONDS.toNanos(35);
+        DetectionRefiner refiner = new DetectionRefiner().setBudget(budget).setMaxPasses(1)
+                .setMatchIou(0.1f);
+        WindowBackend slow = new WindowBackend(TimeUnit.MILLISECONDS.toNanos(30));
+        refiner.refine(frame, transform, candidates(new float[]{100, 100, 120, 120}), slow, DECODER,
+                System.nanoTime(), 0);
+        assertEquals(1, slow.runs);
+
+        // 10 ms of primary inference alone would leave room for a pass like
+        // it; the 30 ms estimate does not
+        long inferStart = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10);
+        refiner.refine(frame, transform, candidates(new float[]{100, 100, 120, 120}), slow, DECODER,
+                inferStart, 0);
+        assertEquals(1, slow.runs);
+        assertEquals(1, refiner.getOverBudget());
+    }
+
+    // Refines one 0.4 candidate (input pixels) and returns the promoted box
+    // in source pixels
+    private float[] refineOne(float left, float top, float right, float bottom) {
+        DetectionRefiner refiner = new DetectionRefiner().setMatchIou(0.1f);
+        WindowBackend backend = new WindowBackend(0);
+        DetectionBatch batch = candidates(new float[]{left, top, right, bottom});
+        assertEquals(1, refiner.refine(frame, transform, batch, backend, DECODER, System.nanoTime(), 0));
+        assertEquals(0.9f, batch.getScore(0), 0f);
+        return sourceBox(batch, 0);
+    }
+
+    private float[] sourceBox(DetectionBatch batch, int i) {
+        float[] box = Arrays.copyOfRange(batch.boxArray(), i * 4, i * 4 + 4);
+        transform.mapBoxToSource(box);
+        return box;
+    }
+
+    private static void assertWindow(float[] box, int left, int top, int side) {
+        String what = Arrays.toString(box);
+        assertEquals(what, left, box[0], 1f);
+        assertEquals(what, top, box[1], 1f);
+        assertEquals(what, left + side, box[2], 1f);
+        assertEquals(what, top + side, box[3], 1f);
+        assertTrue(what, box[0] >= -0.5f && box[1] >= -0.5f);
+        assertTrue(what, box[2] <= WIDTH + 0.5f && box[3] <= HEIGHT + 0.5f);
+    }
+
+    // Class-1 candidates at 0.4, between the default min and confirm scores
+    private static DetectionBatch candidates(float[]... boxes) {
+        DetectionBatch batch = new DetectionBatch(boxes.length);
+        for (int i = 0; i < boxes.length; i++) {
+            batch.add(1, 0.4f, boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3], i);
+        }
+        return batch;
+    }
+
+    private static boolean[] allClassesValid(int numClasses) {
+        boolean[] valid = new boolean[numClasses];
+        Arrays.fill(valid, 1, numClasses, true);
+        return valid;
+    }
+}
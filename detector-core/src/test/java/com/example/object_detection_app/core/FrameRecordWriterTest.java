@@ -0,0 +1,133 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+// Recordings must read back bit for bit, compressed or not, since replay
+// results are only comparable if the frames are the camera's exact bytes
+public class FrameRecordWriterTest {
+
+    private static final long FRAME_NANOS = 33_333_333L;
+
+    @Test
+    public void roundTripsUncompressed() throws IOException {
+        roundTrip(false);
+    }
+
+    @Test
+    public void roundTripsDeflated() throws IOException {
+        roundTrip(true);
+    }
+
+    private void roundTrip(boolean deflate) throws IOException {
+        // Size changes mid-recording, as after a camera resolution switch
+        List<SyntheticRecordings.Frame> frames = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            frames.add(SyntheticRecordings.frame(i, i < 3 ? 64 : 96, i < 3 ? 48 : 72, FRAME_NANOS));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long planeBytes = 0;
+        try (FrameRecordWriter writer = new FrameRecordWriter(bytes, deflate)) {
+            for (SyntheticRecordings.Frame frame : frames) {
+                int yPosition = frame.y.position();
+                frame.writeTo(writer);
+                assertEquals("plane position untouched", yPosition, frame.y.position());
+                planeBytes += frame.y.remaining() + frame.u.remaining() + frame.v.remaining();
+            }
+            assertEquals(frames.size(), writer.getFramesWritten());
+            assertEquals(planeBytes, writer.getBytesWritten());
+        }
+
+        try (FrameRecordReader reader = new FrameRecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (SyntheticRecordings.Frame frame : frames) {
+                assertTrue(reader.next());
+                assertEquals(frame.timestampNanos, reader.getTimestampNanos());
+                assertEquals(frame.rotation, reader.getRotationDegrees());
+                assertEquals(frame.width, reader.getWidth());
+                assertEquals(frame.height, reader.getHeight());
+                assertEquals(frame.yRowStride, reader.getYRowStride());
+                assertEquals(frame.uvRowStride, reader.getUvRowStride());
+                assertEquals(2, reader.getUvPixelStride());
+                assertPlane(frame.y, reader.getYPlane());
+                assertPlane(frame.u, reader.getUPlane());
+                assertPlane(frame.v, reader.getVPlane());
+            }
+            assertFalse(reader.next());
+            assertEquals(frames.size(), reader.getFramesRead());
+        }
+    }
+
+    @Test
+    public void deflateShrinksCompressibleFrames() throws IOException {
+        ByteBuffer flat = ByteBuffer.allocate(640 * 480);
+        ByteBuffer chroma = ByteBuffer.allocate(640 * 240 - 1);
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        for (ByteArrayOutputStream out : Arrays.asList(raw, deflated)) {
+            try (FrameRecordWriter writer = new FrameRecordWriter(out, out == deflated)) {
+                for (int i = 0; i < 3; i++) {
+                    writer.write(flat, chroma, chroma, 640, 640, 2, 640, 480, 0, i);
+                }
+            }
+        }
+        assertTrue(deflated.size() * 20 < raw.size());
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        expectRejected(header(0x12345678, FrameRecordWriter.VERSION));
+        expectRejected(header(FrameRecordWriter.MAGIC, FrameRecordWriter.VERSION + 1));
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedFrameIsAnError() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (FrameRecordWriter writer = new FrameRecordWriter(bytes, false)) {
+            SyntheticRecordings.frame(0, 64, 48, FRAME_NANOS).writeTo(writer);
+        }
+        byte[] cut = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 10);
+        try (FrameRecordReader reader = new FrameRecordReader(new ByteArrayInputStream(cut))) {
+            reader.next();
+        }
+    }
+
+    private static byte[] header(int magic, int version) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(magic);
+        out.writeInt(version);
+        out.writeInt(0);
+        return bytes.toByteArray();
+    }
+
+    private static void expectRejected(byte[] bytes) {
+        try {
+            new FrameRecordReader(new ByteArrayInputStream(bytes)).close();
+            fail("accepted a bad header");
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+
+    private static void assertPlane(ByteBuffer expected, ByteBuffer actual) {
+        assertEquals(expected.remaining(), actual.remaining());
+        for (int i = 0; i < expected.remaining(); i++) {
+            assertEquals(expected.get(expected.position() + i), actual.get(actual.position() + i));
+        }
+    }
+}
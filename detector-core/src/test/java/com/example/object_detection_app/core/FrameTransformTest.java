@@ -0,0 +1,167 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+// Transforms are taken from a real FramePreprocessor pass, so the geometry
+// under test is exactly what the lookup tables were built from
+public class FrameTransformTest {
+
+    private static final int SRC_WIDTH = 640;
+    private static final int SRC_HEIGHT = 480;
+    private static final int INPUT_WIDTH = 300;
+    private static final int INPUT_HEIGHT = 200;
+    // 400 x 300 region
+    private static final int CROP_LEFT = 100, CROP_TOP = 50, CROP_RIGHT = 500, CROP_BOTTOM = 350;
+    private static final int[] ROTATIONS = {0, 90, 180, 270};
+    private static final float EPS = 1e-3f;
+
+    private static FrameTransform transform(FramePreprocessor.ScaleMode mode, int rotation,
+                                            boolean crop) {
+        FramePreprocessor preprocessor = new FramePreprocessor(INPUT_WIDTH, INPUT_HEIGHT);
+        preprocessor.setScaleMode(mode);
+        if (crop) {
+            preprocessor.setCrop(CROP_LEFT, CROP_TOP, CROP_RIGHT, CROP_BOTTOM);
+        }
+        ByteBuffer rgba = ByteBuffer.allocate(SRC_WIDTH * SRC_HEIGHT * 4);
+        ByteBuffer out = ByteBuffer.allocate(INPUT_WIDTH * INPUT_HEIGHT * 3);
+        FrameTransform transform = new FrameTransform();
+        transform.copyFrom(preprocessor.processRgba(rgba, SRC_WIDTH * 4, SRC_WIDTH, SRC_HEIGHT,
+                rotation, out));
+        return transform;
+    }
+
+    @Test
+    public void sourcePointsRoundTripThroughTheInput() {
+        Random random = new Random(1);
+        float[] point = new float[2];
+        for (FramePreprocessor.ScaleMode mode : FramePreprocessor.ScaleMode.values()) {
+            for (int rotation : ROTATIONS) {
+                FrameTransform transform = transform(mode, rotation, true);
+                for (int i = 0; i < 200; i++) {
+                    float x = CROP_LEFT + random.nextFloat() * (CROP_RIGHT - CROP_LEFT);
+                    float y = CROP_TOP + random.nextFloat() * (CROP_BOTTOM - CROP_TOP);
+                    point[0] = x;
+                    point[1] = y;
+                    transform.sourceToInput(point);
+                    boolean onInput = point[0] >= 0 && point[1] >= 0
+                            && point[0] < INPUT_WIDTH && point[1] < INPUT_HEIGHT;
+                    if (mode != FramePreprocessor.ScaleMode.CENTER_CROP) {
+                        assertTrue(mode + " " + rotation + ": region point off the input", onInput);
+                    }
+
+                    transform.inputToSource(point);
+                    assertEquals(mode + " " + rotation + " x", x, point[0], EPS);
+                    assertEquals(mode + " " + rotation + " y", y, point[1], EPS);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void inputPointsRoundTripThroughTheSource() {
+        Random random = new Random(2);
+        float[] point = new float[2];
+        for (FramePreprocessor.ScaleMode mode : FramePreprocessor.ScaleMode.values()) {
+            for (int rotation : ROTATIONS) {
+                FrameTransform transform = transform(mode, rotation, true);
+                for (int i = 0; i < 200; i++) {
+                    float x = random.nextFloat() * INPUT_WIDTH;
+                    float y = random.nextFloat() * INPUT_HEIGHT;
+                    point[0] = x;
+                    point[1] = y;
+                    boolean inside = transform.inputToSource(point);
+                    if (inside) {
+                        assertTrue(point[0] >= CROP_LEFT && point[0] <= CROP_RIGHT);
+                        assertTrue(point[1] >= CROP_TOP && point[1] <= CROP_BOTTOM);
+                    } else {
+                        assertEquals("only letterbox has padding",
+                                FramePreprocessor.ScaleMode.LETTERBOX, mode);
+                    }
+
+                    transform.sourceToInput(point);
+                    assertEquals(mode + " " + rotation + " x", x, point[0], EPS);
+                    assertEquals(mode + " " + rotation + " y", y, point[1], EPS);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rotationMovesTheRegionCornerWhereExpected() {
+        // Top-left of the crop, in input pixels, for each rotation (stretched,
+        // so the region fills the input exactly)
+        float[][] expected = {
+                {0, 0},                        // 0
+                {INPUT_WIDTH, 0},              // 90: top-left becomes top-right
+                {INPUT_WIDTH, INPUT_HEIGHT},   // 180
+                {0, INPUT_HEIGHT}};            // 270
+        float[] point = new float[2];
+        for (int r = 0; r < ROTATIONS.length; r++) {
+            FrameTransform transform = transform(FramePreprocessor.ScaleMode.STRETCH,
+                    ROTATIONS[r], true);
+            point[0] = CROP_LEFT;
+            point[1] = CROP_TOP;
+            transform.sourceToInput(point);
+            assertEquals("rotation " + ROTATIONS[r], expected[r][0], point[0], EPS);
+            assertEquals("rotation " + ROTATIONS[r], expected[r][1], point[1], EPS);
+        }
+    }
+
+    @Test
+    public void letterboxKeepsAspectRatioAndPadsTheShortSide() {
+        // 400 x 300 region upright is 300 x 400 at 90 degrees: scale 0.5,
+        // 150 x 200 centered in 300 x 200, so 75 px of padding on each side
+        FrameTransform transform = transform(FramePreprocessor.ScaleMode.LETTERBOX, 90, true);
+        float[] point = {10f, 100f};
+        assertFalse(transform.inputToSource(point));
+        point[0] = INPUT_WIDTH - 10f;
+        point[1] = 100f;
+        assertFalse(transform.inputToSource(point));
+        point[0] = 80f;
+        point[1] = 100f;
+        assertTrue(transform.inputToSource(point));
+
+        float[] box = {75f, 0f, 225f, 200f};
+        transform.mapBoxToSource(box);
+        assertEquals(CROP_LEFT, box[0], EPS);
+        assertEquals(CROP_TOP, box[1], EPS);
+        assertEquals(CROP_RIGHT, box[2], EPS);
+        assertEquals(CROP_BOTTOM, box[3], EPS);
+    }
+
+    @Test
+    public void centerCropFillsTheInputFromTheMiddleOfTheRegion() {
+        // 400 x 300 region into 300 x 200: scale max(0.75, 0.667) = 0.75, so the
+        // full width is kept and 300 * 0.75 = 225 rows are cut to 200
+        FrameTransform transform = transform(FramePreprocessor.ScaleMode.CENTER_CROP, 0, true);
+        float[] box = {0f, 0f, INPUT_WIDTH, INPUT_HEIGHT};
+        transform.mapBoxToSource(box);
+        float hiddenRows = (CROP_BOTTOM - CROP_TOP) - INPUT_HEIGHT / 0.75f;
+        assertEquals(CROP_LEFT, box[0], EPS);
+        assertEquals(CROP_TOP + hiddenRows / 2, box[1], EPS);
+        assertEquals(CROP_RIGHT, box[2], EPS);
+        assertEquals(CROP_BOTTOM - hiddenRows / 2, box[3], EPS);
+    }
+
+    @Test
+    public void withoutCropTheWholeFrameIsTheRegion() {
+        FrameTransform transform = transform(FramePreprocessor.ScaleMode.STRETCH, 270, false);
+        assertEquals(SRC_WIDTH, transform.getRegionWidth());
+        assertEquals(SRC_HEIGHT, transform.getRegionHeight());
+        assertEquals(270, transform.getRotation());
+
+        float[] box = {0f, 0f, INPUT_WIDTH, INPUT_HEIGHT};
+        transform.mapBoxToSource(box);
+        assertEquals(0f, box[0], EPS);
+        assertEquals(0f, box[1], EPS);
+        assertEquals(SRC_WIDTH, box[2], EPS);
+        assertEquals(SRC_HEIGHT, box[3], EPS);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    // 32 linear sub-buckets per power of two
+    private static final double MAX_RELATIVE_ERROR = 1.0 / 32;
+
+    @Test
+    public void bucketsAreContiguousAndCoverTheWholeRange() {
+        int last = LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE);
+        assertEquals(0, LatencyHistogram.indexOf(0));
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.highestValueAt(last));
+
+        for (int i = 0; i < last; i++) {
+            long highest = LatencyHistogram.highestValueAt(i);
+            assertEquals("top of bucket " + i, i, LatencyHistogram.indexOf(highest));
+            assertEquals("after bucket " + i, i + 1, LatencyHistogram.indexOf(highest + 1));
+        }
+    }
+
+    @Test
+    public void bucketUpperBoundIsWithinTheRelativeError() {
+        Random random = new Random(31);
+        for (int i = 0; i < 100_000; i++) {
+            // Log-uniform over the whole range
+            long value = (long) Math.pow(2, random.nextDouble() * 36) - 1;
+            value = Math.min(value, LatencyHistogram.MAX_VALUE);
+            long upper = LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(value));
+            assertTrue(value + " above its bucket", upper >= value);
+            if (value < 32) {
+                assertEquals("small values are exact", value, upper);
+            } else {
+                assertTrue(value + " -> " + upper, upper - value < value * MAX_RELATIVE_ERROR);
+            }
+        }
+    }
+
+    @Test
+    public void percentilesMatchExactRanksWithinTheError() {
+        Random random = new Random(32);
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            // Roughly log-normal around 10 ms, like inference times
+            values[i] = (long) (10e6 * Math.exp(random.nextGaussian() * 0.5));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double p : new double[]{0, 1, 25, 50, 90, 95, 99, 99.9, 100}) {
+            long exact = values[(int) Math.max(0, Math.ceil(p / 100 * values.length) - 1)];
+            long estimate = histogram.percentile(p);
+            assertTrue("p" + p + " below exact", estimate >= exact);
+            assertTrue("p" + p + ": " + estimate + " vs " + exact,
+                    estimate - exact < exact * MAX_RELATIVE_ERROR);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.percentile(100));
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void clampsOutOfRangeValuesAndResets() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        assertEquals(0, histogram.percentile(50));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.percentile(100));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.percentile(99));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Random detection batches for checking the in-place ranking code against
+// naive reference implementations. Each entry's slot is its original index,
+// so results can be traced back to the input.
+final class RandomBatches {
+
+    private RandomBatches() {
+    }
+
+    // Boxes cluster around a few centers so NMS has overlaps to resolve.
+    // Tied scores come from a handful of quantized levels, as with uint8 models.
+    static DetectionBatch generate(Random random, int n, boolean ties) {
+        DetectionBatch batch = new DetectionBatch(Math.max(1, n));
+        int clusters = 1 + random.nextInt(6);
+        for (int i = 0; i < n; i++) {
+            int cluster = random.nextInt(clusters);
+            float cx = 40f + cluster * 45f + random.nextFloat() * 20f;
+            float cy = 60f + (cluster % 3) * 70f + random.nextFloat() * 20f;
+            float w = 20f + random.nextFloat() * 40f;
+            float h = 20f + random.nextFloat() * 40f;
+            float score = ties
+                    ? (1 + random.nextInt(8)) / 8f
+                    : 0.05f + random.nextFloat() * 0.95f;
+            batch.add(1 + random.nextInt(3), score, cx - w / 2, cy - h / 2, cx + w / 2, cy + h / 2, i);
+        }
+        return batch;
+    }
+
+    static DetectionBatch copyOf(DetectionBatch batch) {
+        DetectionBatch copy = new DetectionBatch(Math.max(1, batch.size()));
+        copy.copyFrom(batch);
+        return copy;
+    }
+
+    // Indices of the batch, highest score first (stable for equal scores)
+    static List<Integer> rankedIndices(DetectionBatch batch) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            order.add(i);
+        }
+        final float[] scores = batch.scoreArray();
+        Collections.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        return order;
+    }
+
+    static float iou(DetectionBatch batch, int a, int b) {
+        return BoxMath.iou(batch.boxArray(), a * 4, batch.boxArray(), b * 4);
+    }
+
+    static void assertRanked(DetectionBatch batch) {
+        for (int i = 1; i < batch.size(); i++) {
+            assertTrue("not ranked at " + i, batch.getScore(i - 1) >= batch.getScore(i));
+        }
+    }
+
+    // Every entry of result is an unmodified entry of original, at most once
+    static void assertEntriesFrom(DetectionBatch original, DetectionBatch result) {
+        boolean[] seen = new boolean[original.size()];
+        for (int i = 0; i < result.size(); i++) {
+            int slot = result.getSlot(i);
+            assertTrue("slot " + slot + " twice", !seen[slot]);
+            seen[slot] = true;
+            assertEquals(original.getClassId(slot), result.getClassId(i));
+            assertEquals(original.getScore(slot), result.getScore(i), 0f);
+            assertEquals(original.getLeft(slot), result.getLeft(i), 0f);
+            assertEquals(original.getTop(slot), result.getTop(i), 0f);
+            assertEquals(original.getRight(slot), result.getRight(i), 0f);
+            assertEquals(original.getBottom(slot), result.getBottom(i), 0f);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RegionOfInterestTest {
+
+    private static final int SRC_WIDTH = 640;
+    private static final int SRC_HEIGHT = 480;
+    // 400 x 300 camera crop the region is taken from
+    private static final int CROP_LEFT = 100, CROP_TOP = 50, CROP_RIGHT = 500, CROP_BOTTOM = 350;
+    private static final int[] ROTATIONS = {0, 90, 180, 270};
+
+    @Test
+    public void toSourceUndoesEachRotation() {
+        // Upright: the left third, top half of the picture
+        RegionOfInterest roi = new RegionOfInterest(0f, 0f, 1f / 3f, 0.5f);
+        int[] out = new int[4];
+        int[][] expected = {
+                {100, 50, 233, 200},   // 0: as is
+                {100, 250, 300, 350},  // 90: upright left is source bottom, upright top is source left
+                {367, 200, 500, 350},  // 180: bottom-right of the crop
+                {300, 50, 500, 150}};  // 270: upright left is source top, upright top is source right
+        for (int r = 0; r < ROTATIONS.length; r++) {
+            roi.toSource(CROP_LEFT, CROP_TOP, CROP_RIGHT, CROP_BOTTOM, ROTATIONS[r], out);
+            assertArrayEquals("rotation " + ROTATIONS[r], expected[r], out);
+        }
+    }
+
+    // The region must be what the model would see of the upright picture:
+    // the crop's corners, mapped back through a real preprocessing pass of the
+    // whole crop, land on toSource's rect
+    @Test
+    public void toSourceAgreesWithThePreprocessorGeometry() {
+        Random random = new Random(3);
+        int[] out = new int[4];
+        float[] point = new float[2];
+        for (int rotation : ROTATIONS) {
+            FrameTransform transform = stretchedTransform(rotation);
+            for (int i = 0; i < 100; i++) {
+                RegionOfInterest roi = RegionOfInterest.around(random.nextFloat(), random.nextFloat(),
+                        0.1f + random.nextFloat() * 0.9f);
+                roi.toSource(CROP_LEFT, CROP_TOP, CROP_RIGHT, CROP_BOTTOM, rotation, out);
+
+                float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+                float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+                float[][] corners = {
+                        {roi.getLeft(), roi.getTop()}, {roi.getRight(), roi.getTop()},
+                        {roi.getLeft(), roi.getBottom()}, {roi.getRight(), roi.getBottom()}};
+                for (float[] corner : corners) {
+                    point[0] = corner[0] * 100f;
+                    point[1] = corner[1] * 100f;
+                    transform.inputToSource(point);
+                    minX = Math.min(minX, point[0]);
+                    minY = Math.min(minY, point[1]);
+                    maxX = Math.max(maxX, point[0]);
+                    maxY = Math.max(maxY, point[1]);
+                }
+                String what = "rotation " + rotation + " " + roi;
+                assertEquals(what, minX, out[0], 1f);
+                assertEquals(what, minY, out[1], 1f);
+                assertEquals(what, maxX, out[2], 1f);
+                assertEquals(what, maxY, out[3], 1f);
+            }
+        }
+    }
+
+    @Test
+    public void rotationIsNormalized() {
+        RegionOfInterest roi = new RegionOfInterest(0.1f, 0.2f, 0.4f, 0.9f);
+        int[] expected = new int[4];
+        int[] actual = new int[4];
+        roi.toSource(0, 0, SRC_WIDTH, SRC_HEIGHT, 270, expected);
+        roi.toSource(0, 0, SRC_WIDTH, SRC_HEIGHT, -90, actual);
+        assertArrayEquals(expected, actual);
+        roi.toSource(0, 0, SRC_WIDTH, SRC_HEIGHT, 90, expected);
+        roi.toSource(0, 0, SRC_WIDTH, SRC_HEIGHT, 450, actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void tinyRegionStillCoversAPixel() {
+        RegionOfInterest roi = new RegionOfInterest(0.5f, 0.5f, 0.5001f, 0.5001f);
+        int[] out = new int[4];
+        for (int rotation : ROTATIONS) {
+            roi.toSource(CROP_LEFT, CROP_TOP, CROP_RIGHT, CROP_BOTTOM, rotation, out);
+            assertTrue(out[2] > out[0]);
+            assertTrue(out[3] > out[1]);
+        }
+    }
+
+    @Test
+    public void aroundShiftsTheWindowInsideThePicture() {
+        RegionOfInterest corner = RegionOfInterest.around(0.95f, 0.02f, 0.4f);
+        assertEquals(0.6f, corner.getLeft(), 1e-6f);
+        assertEquals(0f, corner.getTop(), 1e-6f);
+        assertEquals(1f, corner.getRight(), 1e-6f);
+        assertEquals(0.4f, corner.getBottom(), 1e-6f);
+
+        RegionOfInterest whole = RegionOfInterest.centered(1f);
+        assertEquals(0f, whole.getLeft(), 0f);
+        assertEquals(1f, whole.getBottom(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyRegion() {
+        new RegionOfInterest(0.5f, 0.2f, 0.5f, 0.6f);
+    }
+
+    // 100 x 100 input, stretched, so upright fractions are input pixels / 100
+    private static FrameTransform stretchedTransform(int rotation) {
+        FramePreprocessor preprocessor = new FramePreprocessor(100, 100);
+        preprocessor.setCrop(CROP_LEFT, CROP_TOP, CROP_RIGHT, CROP_BOTTOM);
+        ByteBuffer rgba = ByteBuffer.allocate(SRC_WIDTH * SRC_HEIGHT * 4);
+        FrameTransform transform = new FrameTransform();
+        transform.copyFrom(preprocessor.processRgba(rgba, SRC_WIDTH * 4, SRC_WIDTH, SRC_HEIGHT,
+                rotation, ByteBuffer.allocate(100 * 100 * 3)));
+        return transform;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+// The replay harness end to end on a small synthetic session, as it would be
+// run on a Linux box: recording file in, detections file and report out
+public class ReplayHarnessTest {
+
+    private static final int FRAMES = 12;
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    // Ungated and blocking, every frame reaches the model, so the output must
+    // match running each recorded frame through the stages by hand
+    @Test
+    public void commandLineReplayMatchesTheStagesRunByHand() throws IOException {
+        File recording = SyntheticRecordings.write(folder.newFile("session.odfr"), FRAMES, 160, 120,
+                FRAME_NANOS, true);
+        File out = new File(folder.getRoot(), "detections.txt");
+
+        ReplayHarness.main(new String[]{recording.getPath(), "--max", "--no-gates", "--block",
+                "--out", out.getPath()});
+
+        List<String> expected = expectedLines(recording);
+        List<String> actual = Files.readAllLines(out.toPath(), StandardCharsets.UTF_8);
+        assertEquals(expected, actual);
+
+        int detections = 0;
+        for (String line : actual) {
+            detections += Integer.parseInt(line.split(" ")[1]);
+        }
+        assertTrue("no frame had a detection to compare", detections > 0);
+    }
+
+    @Test
+    public void recordedSpeedKeepsTheRecordedPace() throws IOException {
+        File recording = SyntheticRecordings.write(folder.newFile("session.odfr"), FRAMES, 160, 120,
+                FRAME_NANOS, false);
+        ReplayHarness harness = new ReplayHarness(FakeInferenceBackend.ssdMobileNet(1), decoder(),
+                ReplayHarness.Speed.RECORDED).setGates(false);
+        StringWriter out = new StringWriter();
+        harness.setDetectionsOutput(out);
+
+        long start = System.nanoTime();
+        try (FrameRecordReader reader = new FrameRecordReader(new FileInputStream(recording))) {
+            harness.run(reader);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue("replayed in " + elapsed / 1e6 + " ms", elapsed >= (FRAMES - 1) * FRAME_NANOS);
+        assertTrue(harness.getReport(), harness.getReport().startsWith("replay: " + FRAMES + " frames"));
+        assertTrue(harness.getSustainedFps() > 0f);
+        // A 20 ms cadence leaves the fake model idle, so nothing is dropped
+        assertEquals(FRAMES, out.toString().split("\n").length);
+    }
+
+    // What the harness's pipeline does to each frame, one stage after another
+    private static List<String> expectedLines(File recording) throws IOException {
+        FakeInferenceBackend backend = FakeInferenceBackend.ssdMobileNet(1);
+        DetectionDecoder decoder = decoder();
+        FramePreprocessor preprocessor = backend.getModelSpec().newPreprocessor();
+        DetectionPostProcessor postProcessor = new DetectionPostProcessor();
+        ByteBuffer input = backend.newInputBuffer();
+        RawDetections raw = backend.newOutputBuffer();
+        DetectionBatch batch = new DetectionBatch(backend.getModelSpec().getMaxDetections());
+        YuvFrame frame = new YuvFrame();
+
+        List<String> lines = new ArrayList<>();
+        try (FrameRecordReader reader = new FrameRecordReader(new FileInputStream(recording))) {
+            while (reader.next()) {
+                frame.copyFrom(reader.getYPlane(), reader.getUPlane(), reader.getVPlane(),
+                        reader.getYRowStride(), reader.getUvRowStride(), reader.getUvPixelStride(),
+                        reader.getWidth(), reader.getHeight(), reader.getRotationDegrees(),
+                        reader.getTimestampNanos());
+                frame.preprocess(preprocessor, input);
+                backend.runInference(input, raw);
+                decoder.decode(raw, batch);
+                postProcessor.process(batch);
+
+                StringBuilder line = new StringBuilder();
+                line.append(reader.getTimestampNanos()).append(' ').append(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    line.append(String.format(Locale.US, " %d:%.3f:%.1f,%.1f,%.1f,%.1f",
+                            batch.getClassId(i), batch.getScore(i), batch.getLeft(i), batch.getTop(i),
+                            batch.getRight(i), batch.getBottom(i)));
+                }
+                lines.add(line.toString());
+            }
+        }
+        return lines;
+    }
+
+    // As ReplayHarness.main builds it
+    private static DetectionDecoder decoder() {
+        boolean[] valid = new boolean[91];
+        Arrays.fill(valid, true);
+        valid[0] = false;
+        return new DetectionDecoder(300, 0.5f, valid);
+    }
+}
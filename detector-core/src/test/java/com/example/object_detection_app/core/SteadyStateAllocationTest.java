@@ -0,0 +1,92 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+// The per-frame path (preprocess, inference, decode, post-process, track) must
+// not allocate once warmed up: everything runs on preallocated buffers.
+public class SteadyStateAllocationTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final int WARM_UP_FRAMES = 5_000;
+    private static final int MEASURED_FRAMES = 1_000;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final FakeInferenceBackend backend = FakeInferenceBackend.ssdMobileNet(42);
+    private final FramePreprocessor preprocessor = backend.getModelSpec().newPreprocessor();
+    private final DetectionDecoder decoder =
+            new DetectionDecoder(backend.getInputSize(), 0.3f, allClassesValid(91));
+    private final DetectionPostProcessor postProcessor = new DetectionPostProcessor()
+            .setSuppression(DetectionPostProcessor.Suppression.SOFT_GAUSSIAN);
+    private final ObjectTracker tracker = new ObjectTracker(16, 0.3f, 5);
+
+    private final ByteBuffer rgba = ByteBuffer.allocateDirect(WIDTH * HEIGHT * 4);
+    private final ByteBuffer input = backend.newInputBuffer();
+    private final RawDetections raw = backend.newOutputBuffer();
+    private final DetectionBatch batch = new DetectionBatch(raw.getCapacity());
+
+    @Test
+    public void steadyStateFramesAllocateNothing() {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            runFrame(i);
+        }
+
+        // What the measurement itself costs, so only frame work is counted
+        long before = threads.getThreadAllocatedBytes(thread);
+        long overhead = threads.getThreadAllocatedBytes(thread) - before;
+
+        // A frame that allocates shows up in every round; the JIT settling
+        // (OSR, deoptimization) can leave a few stray bytes in one round only
+        long fewest = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS && fewest > 0; round++) {
+            before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                runFrame(WARM_UP_FRAMES + round * MEASURED_FRAMES + i);
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+            fewest = Math.min(fewest, allocated);
+        }
+
+        assertEquals("bytes allocated per frame", 0, fewest / MEASURED_FRAMES);
+        assertEquals("bytes allocated over " + MEASURED_FRAMES + " frames", 0, fewest);
+    }
+
+    private void runFrame(int frame) {
+        // Vary the content so the fake model's output changes frame to frame
+        rgba.put((frame * 4) % rgba.capacity(), (byte) frame);
+
+        preprocessor.processRgba(rgba, WIDTH * 4, WIDTH, HEIGHT, 90, input);
+        backend.runInference(input, raw);
+        decoder.decode(raw, batch);
+        postProcessor.process(batch);
+        tracker.update(batch.boxArray(), batch.classIdArray(), batch.scoreArray(),
+                batch.size(), frame * 33L);
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("Needs HotSpot allocation counters",
+                bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static boolean[] allClassesValid(int numClasses) {
+        boolean[] valid = new boolean[numClasses];
+        for (int i = 1; i < numClasses; i++) {
+            valid[i] = true;
+        }
+        return valid;
+    }
+}
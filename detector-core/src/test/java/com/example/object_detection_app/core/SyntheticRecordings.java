@@ -0,0 +1,76 @@
+package com.example.object_detection_app.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+// Small YUV_420_888 recordings laid out like a camera's: Y rows padded past
+// the width, U and V sharing one interleaved buffer (pixel stride 2), so the
+// plane sizes and strides are not the trivial ones.
+final class SyntheticRecordings {
+
+    static final int ROW_PADDING = 16;
+
+    private SyntheticRecordings() {
+    }
+
+    // One frame's planes, filled from the seed; content drifts with the index
+    static final class Frame {
+        final int width, height, rotation;
+        final long timestampNanos;
+        final ByteBuffer y, u, v;
+        final int yRowStride, uvRowStride;
+
+        Frame(int width, int height, int rotation, long timestampNanos, long seed, boolean direct) {
+            this.width = width;
+            this.height = height;
+            this.rotation = rotation;
+            this.timestampNanos = timestampNanos;
+            yRowStride = width + ROW_PADDING;
+            uvRowStride = width + ROW_PADDING;
+
+            Random random = new Random(seed);
+            byte[] luma = new byte[yRowStride * height];
+            random.nextBytes(luma);
+            // Interleaved chroma: V is U shifted by one byte, both one short
+            // of the full buffer, as Android reports them
+            byte[] chroma = new byte[uvRowStride * height / 2];
+            random.nextBytes(chroma);
+
+            y = copy(ByteBuffer.wrap(luma), direct);
+            ByteBuffer interleaved = copy(ByteBuffer.wrap(chroma), direct);
+            interleaved.limit(chroma.length - 1);
+            u = interleaved.slice();
+            interleaved.limit(chroma.length).position(1);
+            v = interleaved.slice();
+        }
+
+        void writeTo(FrameRecordWriter writer) throws IOException {
+            writer.write(y, u, v, yRowStride, uvRowStride, 2, width, height, rotation, timestampNanos);
+        }
+
+        private static ByteBuffer copy(ByteBuffer source, boolean direct) {
+            ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(source.remaining())
+                    : ByteBuffer.allocate(source.remaining());
+            buffer.put(source).flip();
+            return buffer;
+        }
+    }
+
+    static Frame frame(int index, int width, int height, long frameIntervalNanos) {
+        return new Frame(width, height, 90, 1_000_000_000L + index * frameIntervalNanos, index, index % 2 == 0);
+    }
+
+    // count frames of width x height, frameIntervalNanos apart
+    static File write(File file, int count, int width, int height, long frameIntervalNanos,
+                      boolean deflate) throws IOException {
+        try (FrameRecordWriter writer = new FrameRecordWriter(new FileOutputStream(file), deflate)) {
+            for (int i = 0; i < count; i++) {
+                frame(i, width, height, frameIntervalNanos).writeTo(writer);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+public class TensorPackerTest {
+
+    private static final int[] PIXELS = {0xFF102030, 0x80FFFFFF, 0x00000000, 0xFF7F8081};
+
+    @Test
+    public void packsArgbAsRgbBytesDroppingAlpha() {
+        ByteBuffer out = ByteBuffer.allocate(PIXELS.length * 3);
+        TensorPacker.packArgb(PIXELS, PIXELS.length, out);
+
+        assertEquals(0, out.position());
+        byte[] expected = {
+                0x10, 0x20, 0x30,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                0, 0, 0,
+                0x7F, (byte) 0x80, (byte) 0x81};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("byte " + i, expected[i], out.get(i));
+        }
+    }
+
+    @Test
+    public void packsOnlyCountPixels() {
+        ByteBuffer out = ByteBuffer.allocate(PIXELS.length * 3);
+        TensorPacker.packArgb(PIXELS, 1, out);
+
+        assertEquals(0x10, out.get(0));
+        assertEquals(0, out.get(3));
+    }
+
+    @Test
+    public void floatTableNormalizesEveryValue() {
+        float[] table = TensorPacker.floatTable(127.5f, 127.5f);
+
+        assertEquals(256, table.length);
+        assertEquals(-1f, table[0], 0f);
+        assertEquals(1f, table[255], 0f);
+        for (int v = 0; v < 256; v++) {
+            assertEquals((v - 127.5f) / 127.5f, table[v], 0f);
+        }
+    }
+
+    @Test
+    public void packsFloatChannelsThroughTheTable() {
+        float[] table = TensorPacker.floatTable(0f, 255f);
+        ByteBuffer out = ByteBuffer.allocate(PIXELS.length * 12).order(ByteOrder.nativeOrder());
+        TensorPacker.packArgbFloat(PIXELS, PIXELS.length, table, out);
+
+        assertEquals(0, out.position());
+        for (int i = 0; i < PIXELS.length; i++) {
+            int p = PIXELS[i];
+            assertEquals(((p >> 16) & 0xFF) / 255f, out.getFloat(), 0f);
+            assertEquals(((p >> 8) & 0xFF) / 255f, out.getFloat(), 0f);
+            assertEquals((p & 0xFF) / 255f, out.getFloat(), 0f);
+        }
+    }
+}
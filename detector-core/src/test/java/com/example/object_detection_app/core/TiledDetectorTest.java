@@ -0,0 +1,266 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TiledDetectorTest {
+
+    private static final int INPUT = 300;
+    private static final int WIDTH = 1000;
+    private static final int HEIGHT = 500;
+    private static final int[] ROTATIONS = {0, 90, 180, 270};
+    private static final DetectionDecoder DECODER = new DetectionDecoder(INPUT, 0.1f, allClassesValid(91));
+
+    // Reports one box covering its whole input, so each tile's result mapped
+    // back to the source is exactly that tile's window
+    private static class WholeInputBackend extends FakeInferenceBackend {
+        WholeInputBackend() {
+            super(INPUT, 10, 91, 0, 0);
+        }
+
+        @Override
+        public void runInference(ByteBuffer input, RawDetections output) {
+            output.locations[0][0] = new float[]{0f, 0f, 1f, 1f};
+            output.classes[0][0] = 1;
+            output.scores[0][0] = 0.9f;
+            output.count[0] = 1;
+        }
+    }
+
+    // Reports the bounding box of the bright pixels it is shown, like a model
+    // that finds the one object in the frame
+    private static class BrightSpotBackend extends FakeInferenceBackend {
+        BrightSpotBackend() {
+            super(INPUT, 10, 91, 0, 0);
+        }
+
+        @Override
+        public void runInference(ByteBuffer input, RawDetections output) {
+            int left = INPUT, top = INPUT, right = -1, bottom = -1;
+            for (int y = 0; y < INPUT; y++) {
+                for (int x = 0; x < INPUT; x++) {
+                    if ((input.get((y * INPUT + x) * 3) & 0xff) > 128) {
+                        left = Math.min(left, x);
+                        top = Math.min(top, y);
+                        right = Math.max(right, x + 1);
+                        bottom = Math.max(bottom, y + 1);
+                    }
+                }
+            }
+            output.count[0] = 0;
+            if (right < 0) {
+                return;
+            }
+            output.locations[0][0] = new float[]{
+                    top / (float) INPUT, left / (float) INPUT, bottom / (float) INPUT, right / (float) INPUT};
+            output.classes[0][0] = 1;
+            output.scores[0][0] = 0.9f;
+            output.count[0] = 1;
+        }
+    }
+
+    @Test
+    public void tileStartsCoverTheAxisWithTheLastTileFlushToTheEnd() {
+        float[] overlaps = {0f, 0.1f, 0.2f, 0.5f, 0.9f};
+        for (int length = 1; length <= 2000; length += 37) {
+            for (int tile : new int[]{50, 300, 640}) {
+                for (float overlap : overlaps) {
+                    String what = length + "/" + tile + "/" + overlap;
+                    int[] starts = TiledDetector.tileStarts(length, tile, overlap);
+                    assertEquals(what, 0, starts[0]);
+                    if (length <= tile) {
+                        assertEquals(what, 1, starts.length);
+                        continue;
+                    }
+                    assertEquals(what, length - tile, starts[starts.length - 1]);
+                    int stride = Math.max(1, Math.round(tile * (1f - overlap)));
+                    for (int i = 1; i < starts.length; i++) {
+                        int step = starts[i] - starts[i - 1];
+                        assertTrue(what + " not increasing", step > 0);
+                        // No gap, and neighbours share at least the requested overlap
+                        assertTrue(what + " step " + step, step <= stride);
+                    }
+                    // No more tiles than the overlap needs
+                    if (starts.length > 2) {
+                        assertTrue(what + " too many tiles",
+                                (long) (starts.length - 2) * stride < length - tile);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void eachTileMapsBackToItsWindowInSourcePixels() {
+        int[] xs = TiledDetector.tileStarts(WIDTH, INPUT, 0.2f);
+        int[] ys = TiledDetector.tileStarts(HEIGHT, INPUT, 0.2f);
+        List<String> expected = new ArrayList<>();
+        for (int y : ys) {
+            for (int x : xs) {
+                expected.add(box(x, y, x + INPUT, y + INPUT));
+            }
+        }
+        expected.add(box(0, 0, WIDTH, HEIGHT));
+        Collections.sort(expected);
+
+        for (int rotation : ROTATIONS) {
+            try (TiledDetector detector = new TiledDetector(
+                    Collections.singletonList(new WholeInputBackend()), DECODER)) {
+                detector.setOverlap(0.2f)
+                        .setMergeSuppression(DetectionPostProcessor.Suppression.NONE, true);
+                DetectionBatch out = new DetectionBatch(64);
+                detector.detect(frame(rotation, -1, -1, -1, -1), out);
+
+                assertEquals(xs.length * ys.length + 1, detector.getTileCount());
+                List<String> actual = new ArrayList<>();
+                for (int i = 0; i < out.size(); i++) {
+                    actual.add(box(out.getLeft(i), out.getTop(i), out.getRight(i), out.getBottom(i)));
+                }
+                Collections.sort(actual);
+                assertEquals("rotation " + rotation, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void noGlobalPassAndSingleTileFrames() {
+        try (TiledDetector detector = new TiledDetector(
+                Collections.singletonList(new WholeInputBackend()), DECODER)) {
+            detector.setGlobalPass(false)
+                    .setMergeSuppression(DetectionPostProcessor.Suppression.NONE, true);
+            DetectionBatch out = new DetectionBatch(64);
+            detector.detect(frame(0, -1, -1, -1, -1), out);
+            assertEquals(TiledDetector.tileStarts(WIDTH, INPUT, 0.2f).length
+                    * TiledDetector.tileStarts(HEIGHT, INPUT, 0.2f).length, out.size());
+
+            // A frame no larger than a tile is one window; no global pass on top
+            detector.setGlobalPass(true);
+            YuvFrame small = new YuvFrame();
+            small.copyFromRgba(ByteBuffer.allocate(200 * 100 * 4), 200 * 4, 200, 100, 0, 0);
+            detector.detect(small, out);
+            assertEquals(1, detector.getTileCount());
+            assertEquals(1, out.size());
+            assertEquals(box(0, 0, 200, 100),
+                    box(out.getLeft(0), out.getTop(0), out.getRight(0), out.getBottom(0)));
+        }
+    }
+
+    @Test
+    public void slotsStayUniqueAcrossTiles() {
+        int capacity = FakeInferenceBackend.ssdMobileNet(7).newOutputBuffer().getCapacity();
+        try (TiledDetector detector = new TiledDetector(
+                Collections.singletonList(FakeInferenceBackend.ssdMobileNet(7)), DECODER)) {
+            detector.setMergeSuppression(DetectionPostProcessor.Suppression.NONE, true);
+            DetectionBatch out = new DetectionBatch(256);
+            detector.detect(noiseFrame(0), out);
+
+            assertTrue(out.size() > detector.getTileCount());
+            Set<Integer> slots = new HashSet<>();
+            for (int i = 0; i < out.size(); i++) {
+                int slot = out.getSlot(i);
+                assertTrue("duplicate slot " + slot, slots.add(slot));
+                assertTrue(slot / capacity < detector.getTileCount());
+            }
+        }
+    }
+
+    @Test
+    public void objectSeenByOverlappingTilesIsMergedIntoOneDetection() {
+        // Inside the overlap of the first two columns and both rows, so four
+        // tiles and the global pass all see it whole
+        int left = 240, top = 210, right = 290, bottom = 290;
+        for (int rotation : ROTATIONS) {
+            try (TiledDetector detector = new TiledDetector(
+                    Collections.singletonList(new BrightSpotBackend()), DECODER)) {
+                DetectionBatch out = new DetectionBatch(64);
+                detector.setMergeSuppression(DetectionPostProcessor.Suppression.NONE, true);
+                detector.detect(frame(rotation, left, top, right, bottom), out);
+                assertEquals("rotation " + rotation + " unmerged", 5, out.size());
+
+                detector.setMergeSuppression(DetectionPostProcessor.Suppression.HARD, true);
+                detector.detect(frame(rotation, left, top, right, bottom), out);
+                assertEquals("rotation " + rotation, 1, out.size());
+                // The global pass sees the frame at under a third of the scale
+                float tolerance = 4f;
+                assertEquals(left, out.getLeft(0), tolerance);
+                assertEquals(top, out.getTop(0), tolerance);
+                assertEquals(right, out.getRight(0), tolerance);
+                assertEquals(bottom, out.getBottom(0), tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentWorkersGiveTheSameResultAsOne() {
+        DetectionBatch serial = new DetectionBatch(256);
+        DetectionBatch parallel = new DetectionBatch(256);
+        List<FakeInferenceBackend> backends = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            backends.add(FakeInferenceBackend.ssdMobileNet(11));
+        }
+
+        try (TiledDetector one = new TiledDetector(backends.subList(0, 1), DECODER);
+             TiledDetector three = new TiledDetector(backends, DECODER)) {
+            for (int frame = 0; frame < 5; frame++) {
+                YuvFrame yuv = noiseFrame(frame);
+                one.detect(yuv, serial);
+                three.detect(yuv, parallel);
+
+                assertEquals(serial.size(), parallel.size());
+                assertArrayEquals(Arrays.copyOf(serial.boxArray(), serial.size() * 4),
+                        Arrays.copyOf(parallel.boxArray(), parallel.size() * 4), 0f);
+                for (int i = 0; i < serial.size(); i++) {
+                    assertEquals(serial.getSlot(i), parallel.getSlot(i));
+                    assertEquals(serial.getScore(i), parallel.getScore(i), 0f);
+                }
+            }
+        }
+    }
+
+    // Black frame, optionally with one white rectangle (pass -1 for none)
+    private static YuvFrame frame(int rotation, int left, int top, int right, int bottom) {
+        ByteBuffer rgba = ByteBuffer.allocate(WIDTH * HEIGHT * 4);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                boolean inside = x >= left && x < right && y >= top && y < bottom;
+                int i = (y * WIDTH + x) * 4;
+                byte value = inside ? (byte) 255 : 0;
+                rgba.put(i, value).put(i + 1, value).put(i + 2, value).put(i + 3, (byte) 255);
+            }
+        }
+        YuvFrame frame = new YuvFrame();
+        frame.copyFromRgba(rgba, WIDTH * 4, WIDTH, HEIGHT, rotation, 0);
+        return frame;
+    }
+
+    private static YuvFrame noiseFrame(int seed) {
+        ByteBuffer rgba = ByteBuffer.allocate(WIDTH * HEIGHT * 4);
+        Random random = new Random(seed);
+        random.nextBytes(rgba.array());
+        YuvFrame frame = new YuvFrame();
+        frame.copyFromRgba(rgba, WIDTH * 4, WIDTH, HEIGHT, 0, 0);
+        return frame;
+    }
+
+    private static String box(float left, float top, float right, float bottom) {
+        return Math.round(left) + "," + Math.round(top) + "," + Math.round(right) + "," + Math.round(bottom);
+    }
+
+    private static boolean[] allClassesValid(int numClasses) {
+        boolean[] valid = new boolean[numClasses];
+        Arrays.fill(valid, 1, numClasses, true);
+        return valid;
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.object_detection_app.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class TraceBufferTest {
+
+    private static final int RECORDERS = 4;
+
+    @Test
+    public void dumpsRecordedEventsOldestFirst() throws IOException {
+        TraceBuffer buffer = new TraceBuffer(16);
+        int frame = buffer.register("frame");
+        int depth = buffer.register("queue \"depth\"");
+
+        buffer.begin(frame);
+        buffer.counter(depth, 3);
+        buffer.instant(frame);
+        buffer.end(frame);
+
+        List<Map<String, Object>> events = events(dump(buffer));
+        assertEquals(4, events.size());
+        assertEquals("B", events.get(0).get("ph"));
+        assertEquals("C", events.get(1).get("ph"));
+        assertEquals("queue \"depth\"", events.get(1).get("name"));
+        assertEquals(3.0, ((Map<?, ?>) events.get(1).get("args")).get("value"));
+        assertEquals("i", events.get(2).get("ph"));
+        assertEquals("t", events.get(2).get("s"));
+        assertEquals("E", events.get(3).get("ph"));
+        for (Map<String, Object> event : events) {
+            assertEquals((double) Thread.currentThread().getId(), event.get("tid"));
+        }
+    }
+
+    @Test
+    public void keepsOnlyTheNewestEventsOnceFull() throws IOException {
+        TraceBuffer buffer = new TraceBuffer(8);
+        int count = buffer.register("count");
+        for (int i = 0; i < 20; i++) {
+            buffer.counter(count, i);
+        }
+
+        assertEquals(8, buffer.size());
+        List<Map<String, Object>> events = events(dump(buffer));
+        assertEquals(8, events.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(12.0 + i, ((Map<?, ?>) events.get(i).get("args")).get("value"));
+        }
+
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertTrue(events(dump(buffer)).isEmpty());
+    }
+
+    // Every recorder writes its own names and encodes its index and a running
+    // count in the counter value, so an event assembled from two different
+    // writes (a torn read) shows up as a mismatch between its fields.
+    @Test
+    public void dumpWhileRecordingFromSeveralThreadsEmitsOnlyWholeEvents() throws Exception {
+        TraceBuffer buffer = new TraceBuffer(8);
+        int[] slices = new int[RECORDERS];
+        int[] counters = new int[RECORDERS];
+        for (int r = 0; r < RECORDERS; r++) {
+            slices[r] = buffer.register("slice-" + r);
+            counters[r] = buffer.register("count-" + r);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(RECORDERS);
+        Map<Long, Integer> recorderOf = new HashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < RECORDERS; r++) {
+            final int recorder = r;
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (long n = 0; !stop.get(); n++) {
+                    buffer.begin(slices[recorder]);
+                    buffer.counter(counters[recorder], (long) recorder << 32 | n);
+                    buffer.end(slices[recorder]);
+                }
+            }, "recorder-" + r);
+            thread.setUncaughtExceptionHandler((t, e) -> failure.set(e));
+            recorderOf.put(thread.getId(), r);
+            threads.add(thread);
+            thread.start();
+        }
+
+        try {
+            started.await();
+            for (int dump = 0; dump < 500; dump++) {
+                checkDump(dump(buffer), recorderOf);
+                Thread.yield();
+            }
+        } finally {
+            stop.set(true);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        assertEquals(null, failure.get());
+    }
+
+    private static void checkDump(String json, Map<Long, Integer> recorderOf) {
+        Map<Long, Double> lastTimestamp = new HashMap<>();
+        Map<Long, Long> lastCount = new HashMap<>();
+        for (Map<String, Object> event : events(json)) {
+            long tid = ((Double) event.get("tid")).longValue();
+            Integer recorder = recorderOf.get(tid);
+            assertNotNull("event from an unknown thread: " + event, recorder);
+            String name = (String) event.get("name");
+            String phase = (String) event.get("ph");
+
+            if (phase.equals("C")) {
+                assertEquals(event.toString(), "count-" + recorder, name);
+                long value = ((Double) ((Map<?, ?>) event.get("args")).get("value")).longValue();
+                assertEquals(event.toString(), (long) recorder, value >>> 32);
+                long n = value & 0xffffffffL;
+                Long previous = lastCount.put(tid, n);
+                assertTrue(event.toString(), previous == null || n > previous);
+            } else {
+                assertTrue(event.toString(), phase.equals("B") || phase.equals("E"));
+                assertEquals(event.toString(), "slice-" + recorder, name);
+            }
+
+            // Oldest first: one thread's events never go back in time
+            double ts = (Double) event.get("ts");
+            Double previous = lastTimestamp.put(tid, ts);
+            assertTrue(event.toString(), previous == null || ts >= previous);
+        }
+    }
+
+    private static String dump(TraceBuffer buffer) throws IOException {
+        StringWriter out = new StringWriter();
+        buffer.writeChromeJson(out);
+        return out.toString();
+    }
+
+    // Parses the dump and returns its trace events, minus thread_name metadata
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> events(String json) {
+        JsonParser parser = new JsonParser(json);
+        Map<String, Object> root = (Map<String, Object>) parser.value();
+        parser.end();
+        assertEquals("ms", root.get("displayTimeUnit"));
+
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (Object item : (List<Object>) root.get("traceEvents")) {
+            Map<String, Object> event = (Map<String, Object>) item;
+            assertEquals(1.0, event.get("pid"));
+            if ("M".equals(event.get("ph"))) {
+                assertEquals("thread_name", event.get("name"));
+                continue;
+            }
+            assertFalse(event.toString(), event.containsKey("args") && !"C".equals(event.get("ph")));
+            events.add(event);
+        }
+        return events;
+    }
+
+    // Just enough JSON for the dump: objects, arrays, strings, numbers
+    private static final class JsonParser {
+        private final String text;
+        private int pos;
+
+        JsonParser(String text) {
+            this.text = text;
+        }
+
+        Object value() {
+            skipSpace();
+            char c = peek();
+            if (c == '{') {
+                return object();
+            } else if (c == '[') {
+                return array();
+            } else if (c == '"') {
+                return string();
+            } else if (c == '-' || Character.isDigit(c)) {
+                return number();
+            }
+            throw error("unexpected '" + c + "'");
+        }
+
+        void end() {
+            skipSpace();
+            if (pos != text.length()) {
+                throw error("trailing content");
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            expect('{');
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            do {
+                skipSpace();
+                String key = string();
+                skipSpace();
+                expect(':');
+                if (object.put(key, value()) != null) {
+                    throw error("duplicate key " + key);
+                }
+                skipSpace();
+            } while (tryConsume(','));
+            expect('}');
+            return object;
+        }
+
+        private List<Object> array() {
+            List<Object> array = new ArrayList<>();
+            expect('[');
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            do {
+                array.add(value());
+                skipSpace();
+            } while (tryConsume(','));
+            expect(']');
+            return array;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (peek() != '"') {
+                char c = text.charAt(pos++);
+                if (c == '\\') {
+                    char escaped = text.charAt(pos++);
+                    if (escaped != '"' && escaped != '\\') {
+                        throw error("unsupported escape \\" + escaped);
+                    }
+                    c = escaped;
+                } else if (c < 0x20) {
+                    throw error("control character in string");
+                }
+                builder.append(c);
+            }
+            pos++;
+            return builder.toString();
+        }
+
+        private Double number() {
+            int start = pos;
+            while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            try {
+                return Double.valueOf(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("bad number");
+            }
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("unexpected end");
+            }
+            return text.charAt(pos);
+        }
+
+        private boolean tryConsume(char c) {
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private AssertionError error(String message) {
+            fail(message + " at " + pos + ": "
+                    + text.substring(Math.max(0, pos - 40), Math.min(text.length(), pos + 40)));
+            return new AssertionError();
+        }
+    }
+}